@@ -0,0 +1,150 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.apitest.method.offer;
+
+import haveno.core.payment.PaymentAccount;
+import haveno.proto.grpc.CancelOfferResult;
+import haveno.proto.grpc.OfferInfo;
+import haveno.proto.grpc.OfferResult;
+import haveno.proto.grpc.PostOfferRequest;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static protobuf.OfferDirection.BUY;
+
+@Disabled
+@Slf4j
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BatchOfferTest extends AbstractOfferTest {
+
+    private static final String DIRECTION = BUY.name();
+    private static final String CURRENCY_CODE = "cad";
+    private static final int NUM_OFFERS = 200;
+    private static final int BATCH_SIZE = 20;
+
+    private static PaymentAccount cadAccount;
+    private static long singleCallsMillis;
+
+    private PostOfferRequest createPostOfferRequest() {
+        return PostOfferRequest.newBuilder()
+                .setDirection(DIRECTION)
+                .setCurrencyCode(CURRENCY_CODE)
+                .setAmount(10000000L)
+                .setMinAmount(10000000L)
+                .setUseMarketBasedPrice(true)
+                .setMarketPriceMarginPct(0.00)
+                .setSecurityDepositPct(defaultSecurityDepositPct.get())
+                .setPaymentAccountId(cadAccount.getId())
+                .setTriggerPrice(NO_TRIGGER_PRICE)
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    public void testPostAndCancelOffersOneByOne() {
+        cadAccount = createDummyF2FAccount(aliceClient, "CA");
+
+        long startTime = System.currentTimeMillis();
+        List<String> offerIds = new ArrayList<>();
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            offerIds.add(aliceClient.createMarketBasedPricedOffer(DIRECTION,
+                    CURRENCY_CODE,
+                    10000000L,
+                    10000000L,
+                    0.00,
+                    defaultSecurityDepositPct.get(),
+                    cadAccount.getId(),
+                    NO_TRIGGER_PRICE).getId());
+        }
+        for (String offerId : offerIds) {
+            aliceClient.cancelOffer(offerId);
+        }
+        singleCallsMillis = System.currentTimeMillis() - startTime;
+        log.info("Posted and canceled {} offers one by one in {} ms", NUM_OFFERS, singleCallsMillis);
+
+        sleep(1000);  // wait for offer removal
+        assertEquals(0, aliceClient.getMyOffersSortedByDate(DIRECTION, CURRENCY_CODE).size());
+    }
+
+    @Test
+    @Order(2)
+    public void testPostAndCancelOffersInBatch() {
+        List<PostOfferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            requests.add(createPostOfferRequest());
+        }
+
+        long startTime = System.currentTimeMillis();
+        List<OfferResult> postResults = new ArrayList<>();
+        for (int i = 0; i < NUM_OFFERS; i += BATCH_SIZE) {
+            postResults.addAll(aliceClient.postOffers(requests.subList(i, Math.min(i + BATCH_SIZE, NUM_OFFERS))));
+        }
+        assertEquals(NUM_OFFERS, postResults.size());
+        for (OfferResult result : postResults) {
+            assertTrue(result.getErrorMessage().isEmpty(), result.getErrorMessage());
+        }
+        List<String> offerIds = postResults.stream()
+                .map(OfferResult::getOffer)
+                .map(OfferInfo::getId)
+                .collect(Collectors.toList());
+        assertEquals(NUM_OFFERS, aliceClient.getMyOffersSortedByDate(DIRECTION, CURRENCY_CODE).size());
+
+        List<CancelOfferResult> cancelResults = new ArrayList<>();
+        for (int i = 0; i < NUM_OFFERS; i += BATCH_SIZE) {
+            cancelResults.addAll(aliceClient.cancelOffers(offerIds.subList(i, Math.min(i + BATCH_SIZE, NUM_OFFERS))));
+        }
+        long batchMillis = System.currentTimeMillis() - startTime;
+        log.info("Posted and canceled {} offers in batches in {} ms, one by one took {} ms",
+                NUM_OFFERS, batchMillis, singleCallsMillis);
+
+        assertEquals(offerIds, cancelResults.stream().map(CancelOfferResult::getId).collect(Collectors.toList()));
+        for (CancelOfferResult result : cancelResults) {
+            assertTrue(result.getErrorMessage().isEmpty(), result.getErrorMessage());
+        }
+
+        sleep(1000);  // wait for offer removal
+        assertEquals(0, aliceClient.getMyOffersSortedByDate(DIRECTION, CURRENCY_CODE).size());
+    }
+
+    @Test
+    @Order(3)
+    public void testOversizedBatchShouldThrowException() {
+        List<PostOfferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + 1; i++) {
+            requests.add(createPostOfferRequest());
+        }
+        @SuppressWarnings("ResultOfMethodCallIgnored")
+        Throwable exception = assertThrows(StatusRuntimeException.class, () -> aliceClient.postOffers(requests));
+        assertEquals("INVALID_ARGUMENT: batch of 21 offers exceeds the limit of 20 offers per request",
+                exception.getMessage());
+        assertEquals(0, aliceClient.getMyOffersSortedByDate(DIRECTION, CURRENCY_CODE).size());
+    }
+}
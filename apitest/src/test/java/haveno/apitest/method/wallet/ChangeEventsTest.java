@@ -0,0 +1,140 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.apitest.method.wallet;
+
+import haveno.apitest.method.offer.AbstractOfferTest;
+import haveno.core.payment.PaymentAccount;
+import haveno.proto.grpc.OfferInfo;
+import haveno.proto.grpc.TradeEvent;
+import haveno.proto.grpc.TradeEvent.TradeEventType;
+import haveno.proto.grpc.WalletEvent;
+import haveno.proto.grpc.WalletEvent.WalletEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+import static protobuf.OfferDirection.BUY;
+
+@Disabled
+@Slf4j
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ChangeEventsTest extends AbstractOfferTest {
+
+    private static final long EVENT_TIMEOUT_SECONDS = 60;
+
+    private static String firstWalletToken;
+    private static final List<WalletEvent> walletEvents = new ArrayList<>();
+
+    @Test
+    @Order(1)
+    public void testWalletEventsAreOrdered() throws InterruptedException {
+        BlockingQueue<WalletEvent> events = stream(aliceClient.subscribeWalletEvents(""));
+        WalletEvent startEvent = take(events);
+        assertEquals(WalletEventType.RESYNC_REQUIRED, startEvent.getType());
+        firstWalletToken = startEvent.getResumeToken();
+
+        // posting an offer reserves funds in a new tx and changes the available balance
+        PaymentAccount cadAccount = createDummyF2FAccount(aliceClient, "CA");
+        OfferInfo offer = aliceClient.createMarketBasedPricedOffer(BUY.name(),
+                "cad",
+                10000000L,
+                10000000L,
+                0.00,
+                defaultSecurityDepositPct.get(),
+                cadAccount.getId(),
+                NO_TRIGGER_PRICE);
+        boolean isTxAdded = false;
+        boolean isBalanceChanged = false;
+        while (!isTxAdded || !isBalanceChanged) {
+            WalletEvent event = take(events);
+            walletEvents.add(event);
+            isTxAdded |= event.getType() == WalletEventType.TX_ADDED;
+            isBalanceChanged |= event.getType() == WalletEventType.BALANCE_CHANGED;
+        }
+        aliceClient.cancelOffer(offer.getId());
+
+        long lastSequence = toSequence(firstWalletToken);
+        for (WalletEvent event : walletEvents) {
+            assertEquals(lastSequence + 1, toSequence(event.getResumeToken()), "Events are not in order");
+            lastSequence++;
+        }
+    }
+
+    @Test
+    @Order(2)
+    public void testResumeReplaysMissedWalletEvents() throws InterruptedException {
+        BlockingQueue<WalletEvent> events = stream(aliceClient.subscribeWalletEvents(firstWalletToken));
+        assertEquals(WalletEventType.SUBSCRIBED, take(events).getType());
+        for (WalletEvent expectedEvent : walletEvents) {
+            assertEquals(expectedEvent, take(events));
+        }
+
+        // a token of another run of the daemon cannot be resumed from
+        events = stream(aliceClient.subscribeWalletEvents("otherepoch:1"));
+        assertEquals(WalletEventType.RESYNC_REQUIRED, take(events).getType());
+    }
+
+    @Test
+    @Order(3)
+    public void testResumeTradeEvents() throws InterruptedException {
+        BlockingQueue<TradeEvent> events = stream(bobClient.subscribeTradeEvents(""));
+        TradeEvent startEvent = take(events);
+        assertEquals(TradeEventType.RESYNC_REQUIRED, startEvent.getType());
+        assertFalse(startEvent.getResumeToken().isEmpty());
+
+        events = stream(bobClient.subscribeTradeEvents(startEvent.getResumeToken()));
+        assertEquals(TradeEventType.SUBSCRIBED, take(events).getType());
+    }
+
+    private static long toSequence(String resumeToken) {
+        return Long.parseLong(resumeToken.substring(resumeToken.lastIndexOf(':') + 1));
+    }
+
+    private static <T> BlockingQueue<T> stream(Iterator<T> iterator) {
+        BlockingQueue<T> events = new LinkedBlockingQueue<>();
+        Thread thread = new Thread(() -> {
+            try {
+                while (iterator.hasNext()) events.add(iterator.next());
+            } catch (Exception e) {
+                log.info("Event stream closed: {}", e.getMessage());
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return events;
+    }
+
+    private static <T> T take(BlockingQueue<T> events) throws InterruptedException {
+        T event = events.poll(EVENT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (event == null) fail("No event received within " + EVENT_TIMEOUT_SECONDS + " seconds");
+        return event;
+    }
+}
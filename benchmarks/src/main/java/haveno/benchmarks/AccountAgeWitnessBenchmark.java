@@ -0,0 +1,184 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import haveno.common.app.DevEnv;
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.PubKeyRing;
+import haveno.common.crypto.Sig;
+import haveno.common.util.Utilities;
+import haveno.core.account.sign.SignedWitness;
+import haveno.core.account.sign.SignedWitnessService;
+import haveno.core.account.witness.AccountAgeWitness;
+import haveno.core.account.witness.AccountAgeWitnessService;
+import haveno.core.filter.FilterManager;
+import haveno.core.offer.Offer;
+import haveno.core.offer.OfferPayload;
+import haveno.core.payment.ChargeBackRisk;
+import haveno.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of the sign state, the sign age and the account age of 10k offers as the offer book does it at each
+ * render, against an account age witness store of 200k witnesses of which 20k are signed by 50 signers signed by an
+ * arbitrator. With memoized=false the signed witness sets are evaluated at each call as before the sign info was
+ * memoized.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class AccountAgeWitnessBenchmark {
+    private static final int NUM_WITNESSES = 200_000;
+    private static final int NUM_SIGNERS = 50;
+    private static final int NUM_SIGNED_WITNESSES = 20_000;
+    private static final int NUM_OFFERS = 10_000;
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    @Param({"true", "false"})
+    public boolean memoized;
+
+    private BenchmarkServices services;
+    private AccountAgeWitnessService accountAgeWitnessService;
+    private SignedWitnessService signedWitnessService;
+    private List<Offer> offers;
+
+    @Setup
+    public void setUp() throws CryptoException {
+        Random random = new Random(BenchmarkData.SEED);
+        long now = System.currentTimeMillis();
+        services = new BenchmarkServices();
+        FilterManager filterManager = services.createFilterManager();
+        ArbitratorManager arbitratorManager = new ArbitratorManager(null, null, null, filterManager);
+        signedWitnessService = new SignedWitnessService(null, null, arbitratorManager, null,
+                new AppendOnlyDataStoreService(), null, filterManager);
+        accountAgeWitnessService = new AccountAgeWitnessService(null, null, null, signedWitnessService,
+                new ChargeBackRisk(), null, new AppendOnlyDataStoreService(), services.getClock(), filterManager);
+
+        List<AccountAgeWitness> witnesses = new ArrayList<>(NUM_WITNESSES);
+        for (int i = 0; i < NUM_WITNESSES; i++) {
+            AccountAgeWitness witness = new AccountAgeWitness(BenchmarkData.createBytes(random, 20),
+                    now - random.nextInt(400) * DAY_MS);
+            witnesses.add(witness);
+            accountAgeWitnessService.addToMap(witness);
+        }
+
+        // The signers are signed by an arbitrator 200 days ago, so they can sign others since 170 days. The arbitrator
+        // signs with the dev privilege key, which is in the arbitrator key list of the local network.
+        ECKey arbitratorKey = ECKey.fromPrivate(Utils.HEX.decode(DevEnv.DEV_PRIVILEGE_PRIV_KEY));
+        List<KeyPair> signerKeyPairs = new ArrayList<>(NUM_SIGNERS);
+        for (int i = 0; i < NUM_SIGNERS; i++) {
+            KeyPair signerKeyPair = BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED + i);
+            signerKeyPairs.add(signerKeyPair);
+            AccountAgeWitness witness = witnesses.get(i);
+            String signatureBase64 = arbitratorKey.signMessage(Utilities.encodeToHex(witness.getHash()));
+            signedWitnessService.addToMap(new SignedWitness(SignedWitness.VerificationMethod.ARBITRATOR,
+                    witness.getHash(),
+                    signatureBase64.getBytes(StandardCharsets.UTF_8),
+                    arbitratorKey.getPubKey(),
+                    signerKeyPair.getPublic().getEncoded(),
+                    now - 200 * DAY_MS,
+                    SignedWitnessService.MINIMUM_TRADE_AMOUNT_FOR_SIGNING.longValueExact()));
+        }
+        for (int i = NUM_SIGNERS; i < NUM_SIGNERS + NUM_SIGNED_WITNESSES; i++) {
+            AccountAgeWitness witness = witnesses.get(i);
+            KeyPair signerKeyPair = signerKeyPairs.get(random.nextInt(NUM_SIGNERS));
+            signedWitnessService.addToMap(new SignedWitness(SignedWitness.VerificationMethod.TRADE,
+                    witness.getHash(),
+                    Sig.sign(signerKeyPair.getPrivate(), witness.getHash()),
+                    signerKeyPair.getPublic().getEncoded(),
+                    BenchmarkData.createBytes(random, 32),
+                    now - random.nextInt(120) * DAY_MS,
+                    SignedWitnessService.MINIMUM_TRADE_AMOUNT_FOR_SIGNING.longValueExact()));
+        }
+
+        // Half of the offers are made with signed accounts
+        PubKeyRing pubKeyRing = BenchmarkData.createPubKeyRing(signerKeyPairs.get(0),
+                BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED));
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+        offers = new ArrayList<>(NUM_OFFERS);
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            AccountAgeWitness witness = i % 2 == 0 ?
+                    witnesses.get(random.nextInt(NUM_SIGNERS + NUM_SIGNED_WITNESSES)) :
+                    witnesses.get(random.nextInt(NUM_WITNESSES));
+            offers.add(new Offer(BenchmarkData.createOfferPayload(random,
+                    pubKeyRing,
+                    BenchmarkData.createNodeAddress(random),
+                    arbitratorNodeAddress,
+                    BenchmarkData.createKeyImages(random, 1),
+                    Collections.singletonMap(OfferPayload.ACCOUNT_AGE_WITNESS_HASH,
+                            Utilities.bytesAsHexString(witness.getHash())))));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        services.shutDown();
+    }
+
+    @Benchmark
+    public void evaluateOffers(Blackhole blackhole) {
+        Date now = new Date();
+        for (Offer offer : offers) {
+            if (memoized) {
+                blackhole.consume(accountAgeWitnessService.getSignState(offer));
+                blackhole.consume(accountAgeWitnessService.getWitnessSignAge(offer, now));
+            } else {
+                Optional<AccountAgeWitness> witness = accountAgeWitnessService.findWitness(offer);
+                witness.ifPresent(accountAgeWitness -> {
+                    blackhole.consume(signedWitnessService.isFilteredWitness(accountAgeWitness));
+                    blackhole.consume(signedWitnessService.isSignedByArbitrator(accountAgeWitness));
+                    // Once for the sign state and once for the sign age
+                    blackhole.consume(signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness));
+                    blackhole.consume(signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness));
+                });
+            }
+            blackhole.consume(accountAgeWitnessService.getAccountAge(offer));
+        }
+    }
+}
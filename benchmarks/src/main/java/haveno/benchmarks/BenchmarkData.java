@@ -0,0 +1,230 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import haveno.common.app.Version;
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.PubKeyRing;
+import haveno.common.crypto.SealedAndSigned;
+import haveno.common.crypto.Sig;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.core.offer.OfferDirection;
+import haveno.core.offer.OfferPayload;
+import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.network.crypto.EncryptionService;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.PrefixedSealedAndSignedMessage;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.MailboxStoragePayload;
+import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+
+import javax.annotation.Nullable;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates the synthetic data sets of the benchmarks. All data is derived from the given seeds, so runs of different
+ * commits operate on identical data and their results can be compared.
+ */
+public class BenchmarkData {
+    public static final long SEED = 42;
+    // Fixed so payload hashes do not depend on the time of the run
+    public static final long BASE_DATE = 1_700_000_000_000L;
+
+    private static final String[] COUNTER_CURRENCY_CODES = {"USD", "EUR", "GBP", "CAD", "BTC", "LTC"};
+    private static final String[] PAYMENT_METHOD_IDS = {"SEPA", "ZELLE", "REVOLUT", "F2F", "BLOCK_CHAINS", "PAYPAL"};
+
+    public static SecureRandom createSecureRandom(long seed) {
+        try {
+            // SHA1PRNG is deterministic if it is seeded before its first use
+            SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            secureRandom.setSeed(seed);
+            return secureRandom;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static KeyPair createSignatureKeyPair(long seed) {
+        return createKeyPair(Sig.KEY_ALGO, seed);
+    }
+
+    public static KeyPair createEncryptionKeyPair(long seed) {
+        return createKeyPair("RSA", seed);
+    }
+
+    public static PubKeyRing createPubKeyRing(KeyPair signatureKeyPair, KeyPair encryptionKeyPair) {
+        return new PubKeyRing(signatureKeyPair.getPublic(), encryptionKeyPair.getPublic());
+    }
+
+    public static byte[] createBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    public static NodeAddress createNodeAddress(Random random) {
+        StringBuilder hostName = new StringBuilder();
+        for (int i = 0; i < 56; i++) {
+            hostName.append((char) ('a' + random.nextInt(26)));
+        }
+        return new NodeAddress(hostName + ".onion", 9999);
+    }
+
+    public static List<String> createKeyImages(Random random, int numKeyImages) {
+        List<String> keyImages = new ArrayList<>();
+        for (int i = 0; i < numKeyImages; i++) {
+            StringBuilder keyImage = new StringBuilder();
+            for (byte b : createBytes(random, 32)) {
+                keyImage.append(String.format("%02x", b));
+            }
+            keyImages.add(keyImage.toString());
+        }
+        return keyImages;
+    }
+
+    public static OfferPayload createOfferPayload(Random random,
+                                                  PubKeyRing pubKeyRing,
+                                                  NodeAddress ownerNodeAddress,
+                                                  NodeAddress arbitratorNodeAddress,
+                                                  List<String> reserveTxKeyImages) {
+        return createOfferPayload(random, pubKeyRing, ownerNodeAddress, arbitratorNodeAddress, reserveTxKeyImages, null);
+    }
+
+    public static OfferPayload createOfferPayload(Random random,
+                                                  PubKeyRing pubKeyRing,
+                                                  NodeAddress ownerNodeAddress,
+                                                  NodeAddress arbitratorNodeAddress,
+                                                  List<String> reserveTxKeyImages,
+                                                  @Nullable Map<String, String> extraDataMap) {
+        long amount = (1 + random.nextInt(100)) * 100_000_000_000L;
+        return new OfferPayload(new UUID(random.nextLong(), random.nextLong()).toString(),
+                BASE_DATE + random.nextInt(1_000_000),
+                ownerNodeAddress,
+                pubKeyRing,
+                random.nextBoolean() ? OfferDirection.BUY : OfferDirection.SELL,
+                1_000_000_000L + random.nextInt(1_000_000_000),
+                0,
+                false,
+                amount,
+                amount / 2,
+                0.0015,
+                0.0075,
+                0.25,
+                0.15,
+                0.15,
+                "XMR",
+                COUNTER_CURRENCY_CODES[random.nextInt(COUNTER_CURRENCY_CODES.length)],
+                PAYMENT_METHOD_IDS[random.nextInt(PAYMENT_METHOD_IDS.length)],
+                new UUID(random.nextLong(), random.nextLong()).toString(),
+                null,
+                null,
+                null,
+                null,
+                Version.VERSION,
+                3_000_000 + random.nextInt(100_000),
+                100 * 1_000_000_000_000L,
+                86_400_000L,
+                false,
+                false,
+                0,
+                0,
+                false,
+                null,
+                extraDataMap,
+                Version.TRADE_PROTOCOL_VERSION,
+                arbitratorNodeAddress,
+                createBytes(random, 64),
+                reserveTxKeyImages,
+                null);
+    }
+
+    public static TradeStatistics3 createTradeStatistics(Random random, NodeAddress arbitratorNodeAddress) {
+        return new TradeStatistics3(COUNTER_CURRENCY_CODES[random.nextInt(COUNTER_CURRENCY_CODES.length)],
+                1_000_000_000L + random.nextInt(1_000_000_000),
+                (1 + random.nextInt(100)) * 100_000_000_000L,
+                PAYMENT_METHOD_IDS[random.nextInt(PAYMENT_METHOD_IDS.length)],
+                BASE_DATE - random.nextInt(Integer.MAX_VALUE),
+                arbitratorNodeAddress.getFullAddress(),
+                (Map<String, String>) null);
+    }
+
+    /**
+     * Creates a signed entry with sequence number 1 as P2PDataStorage.getProtectedStorageEntry does for new payloads.
+     */
+    public static ProtectedStorageEntry createProtectedStorageEntry(ProtectedStoragePayload payload,
+                                                                    KeyPair ownerKeyPair,
+                                                                    Clock clock) {
+        try {
+            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(payload, 1));
+            byte[] signature = Sig.sign(ownerKeyPair.getPrivate(), hashOfDataAndSeqNr);
+            return new ProtectedStorageEntry(payload, ownerKeyPair.getPublic(), 1, signature, clock);
+        } catch (CryptoException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates a mailbox entry the way MailboxMessageService does when sending a mailbox message to an offline peer.
+     */
+    public static ProtectedMailboxStorageEntry createProtectedMailboxStorageEntry(NetworkEnvelope networkEnvelope,
+                                                                                  NodeAddress senderNodeAddress,
+                                                                                  KeyPair senderSignatureKeyPair,
+                                                                                  PubKeyRing receiverPubKeyRing,
+                                                                                  Clock clock) {
+        try {
+            SealedAndSigned sealedAndSigned = EncryptionService.encryptHybridWithSignature(networkEnvelope,
+                    senderSignatureKeyPair,
+                    receiverPubKeyRing.getEncryptionPubKey());
+            MailboxStoragePayload payload = new MailboxStoragePayload(
+                    new PrefixedSealedAndSignedMessage(senderNodeAddress, sealedAndSigned),
+                    senderSignatureKeyPair.getPublic(),
+                    receiverPubKeyRing.getSignaturePubKey(),
+                    MailboxStoragePayload.TTL);
+            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(payload, 1));
+            byte[] signature = Sig.sign(senderSignatureKeyPair.getPrivate(), hashOfDataAndSeqNr);
+            return new ProtectedMailboxStorageEntry(payload,
+                    senderSignatureKeyPair.getPublic(),
+                    1,
+                    signature,
+                    receiverPubKeyRing.getSignaturePubKey(),
+                    clock);
+        } catch (CryptoException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static KeyPair createKeyPair(String algorithm, long seed) {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance(algorithm);
+            keyPairGenerator.initialize(2048, createSecureRandom(seed));
+            return keyPairGenerator.genKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import haveno.common.ClockWatcher;
+import haveno.common.config.BaseCurrencyNetwork;
+import haveno.common.config.Config;
+import haveno.common.crypto.KeyRing;
+import haveno.common.crypto.KeyStorage;
+import haveno.common.file.CorruptedStorageFileHandler;
+import haveno.common.file.FileUtil;
+import haveno.common.persistence.PersistenceManager;
+import haveno.common.proto.persistable.PersistableEnvelope;
+import haveno.core.filter.FilterManager;
+import haveno.core.network.CoreBanFilter;
+import haveno.core.proto.network.CoreNetworkProtoResolver;
+import haveno.core.proto.persistable.CorePersistenceProtoResolver;
+import haveno.network.crypto.EncryptionService;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.P2PService;
+import haveno.network.p2p.network.LocalhostNetworkNode;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.Broadcaster;
+import haveno.network.p2p.peers.PeerManager;
+import haveno.network.p2p.peers.getdata.RequestDataManager;
+import haveno.network.p2p.seed.SeedNodeRepository;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import haveno.network.p2p.storage.persistence.ProtectedDataStoreService;
+import haveno.network.p2p.storage.persistence.RemovedPayloadsService;
+import haveno.network.p2p.storage.persistence.ResourceDataStoreService;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the services of a local node for the benchmarks. The network node is never started, broadcasts are dropped
+ * and the data stores are kept in memory. Files are written to a temporary app data dir, which is deleted at shutDown.
+ */
+public class BenchmarkServices {
+    // Same as bound in P2PModule
+    private static final int MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE = 1000;
+
+    @Getter
+    private final Config config;
+    @Getter
+    private final Clock clock = Clock.systemDefaultZone();
+    @Getter
+    private final KeyRing keyRing;
+    @Getter
+    private final CoreNetworkProtoResolver networkProtoResolver;
+    @Getter
+    private final CorePersistenceProtoResolver persistenceProtoResolver;
+    private final List<PersistenceManager<?>> persistenceManagers = new ArrayList<>();
+    private final List<NetworkNode> networkNodes = new ArrayList<>();
+    private final List<P2PService> p2PServices = new ArrayList<>();
+
+    public BenchmarkServices() {
+        // The dev privilege key is an arbitrator key on the local network
+        config = new Config("--" + Config.BASE_CURRENCY_NETWORK + "=" + BaseCurrencyNetwork.XMR_LOCAL.name());
+        keyRing = new KeyRing(new KeyStorage(config.keyStorageDir), null, true);
+        networkProtoResolver = new CoreNetworkProtoResolver(clock);
+        persistenceProtoResolver = new CorePersistenceProtoResolver(() -> null, () -> null, networkProtoResolver);
+    }
+
+    public <T extends PersistableEnvelope> PersistenceManager<T> createPersistenceManager() {
+        PersistenceManager<T> persistenceManager = new PersistenceManager<>(config.storageDir,
+                persistenceProtoResolver,
+                new CorruptedStorageFileHandler(),
+                keyRing);
+        persistenceManagers.add(persistenceManager);
+        return persistenceManager;
+    }
+
+    public NetworkNode createNetworkNode() {
+        NetworkNode networkNode = new LocalhostNetworkNode(config.nodePort,
+                networkProtoResolver,
+                null,
+                config.maxConnections);
+        networkNodes.add(networkNode);
+        return networkNode;
+    }
+
+    public P2PDataStorage createP2PDataStorage(NetworkNode networkNode, Broadcaster broadcaster) {
+        AppendOnlyDataStoreService appendOnlyDataStoreService = new AppendOnlyDataStoreService();
+        appendOnlyDataStoreService.addService(new MapStoreServiceFake(config.storageDir));
+        ProtectedDataStoreService protectedDataStoreService = new ProtectedDataStoreService();
+        protectedDataStoreService.addService(new MapStoreServiceFake(config.storageDir));
+        return new P2PDataStorage(networkNode,
+                broadcaster,
+                appendOnlyDataStoreService,
+                protectedDataStoreService,
+                new ResourceDataStoreService(),
+                createPersistenceManager(),
+                new RemovedPayloadsService(createPersistenceManager()),
+                clock,
+                MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE);
+    }
+
+    public P2PService createP2PService() {
+        NetworkNode networkNode = createNetworkNode();
+        SeedNodeRepository seedNodeRepository = new SeedNodeRepository() {
+            @Override
+            public boolean isSeedNode(NodeAddress nodeAddress) {
+                return false;
+            }
+
+            @Override
+            public Collection<NodeAddress> getSeedNodeAddresses() {
+                return Collections.emptyList();
+            }
+        };
+        PeerManager peerManager = new PeerManager(networkNode,
+                seedNodeRepository,
+                new ClockWatcher(),
+                createPersistenceManager(),
+                config.maxConnections);
+        Broadcaster broadcaster = new BroadcasterFake(networkNode, peerManager);
+        P2PDataStorage p2PDataStorage = createP2PDataStorage(networkNode, broadcaster);
+        P2PService p2PService = new P2PService(networkNode,
+                peerManager,
+                p2PDataStorage,
+                new RequestDataManager(networkNode, seedNodeRepository, p2PDataStorage, peerManager),
+                null,
+                null,
+                broadcaster,
+                null,
+                new EncryptionService(keyRing, networkProtoResolver),
+                keyRing,
+                null);
+        p2PServices.add(p2PService);
+        return p2PService;
+    }
+
+    public FilterManager createFilterManager() {
+        return new FilterManager(null,
+                keyRing,
+                null,
+                null,
+                config,
+                null,
+                new CoreBanFilter(Collections.emptyList()),
+                false,
+                false);
+    }
+
+    public void shutDown() throws IOException, InterruptedException {
+        // P2PService shuts down its network node
+        CountDownLatch latch = new CountDownLatch(p2PServices.size());
+        p2PServices.forEach(p2PService -> p2PService.shutDown(latch::countDown));
+        networkNodes.stream()
+                .filter(networkNode -> !networkNode.isShutDownStarted())
+                .forEach(networkNode -> networkNode.shutDown(null));
+        if (!latch.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Shut down did not complete");
+        }
+        persistenceManagers.forEach(PersistenceManager::shutdown);
+        FileUtil.deleteDirectory(config.userDataDir);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.BroadcastHandler;
+import haveno.network.p2p.peers.Broadcaster;
+import haveno.network.p2p.peers.PeerManager;
+import haveno.network.p2p.storage.messages.BroadcastMessage;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Drops all messages, as the network node of the benchmarks is never started.
+ */
+class BroadcasterFake extends Broadcaster {
+    BroadcasterFake(NetworkNode networkNode, PeerManager peerManager) {
+        super(networkNode, peerManager, 1);
+    }
+
+    @Override
+    public void broadcast(BroadcastMessage message,
+                          @Nullable NodeAddress sender,
+                          @Nullable BroadcastHandler.Listener listener) {
+    }
+
+    @Override
+    public void broadcastWithLegacyFallback(BroadcastMessage message,
+                                            @Nullable NodeAddress sender,
+                                            List<Supplier<BroadcastMessage>> legacyMessages) {
+    }
+}
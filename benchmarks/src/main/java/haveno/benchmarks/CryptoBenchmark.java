@@ -0,0 +1,102 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Encryption;
+import haveno.common.crypto.Sig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification of storage entries and the symmetric and asymmetric encryption used for direct messages
+ * and persisted files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+    @Param({"256", "65536"})
+    public int payloadSize;
+
+    private KeyPair signatureKeyPair;
+    private KeyPair encryptionKeyPair;
+    private SecretKey secretKey;
+    private byte[] payload;
+    private byte[] signature;
+    private byte[] encryptedPayload;
+    private byte[] encryptedSecretKey;
+
+    @Setup
+    public void setUp() throws CryptoException {
+        Random random = new Random(BenchmarkData.SEED);
+        signatureKeyPair = BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED);
+        encryptionKeyPair = BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED);
+        secretKey = Encryption.getSecretKeyFromBytes(BenchmarkData.createBytes(random, 32));
+        payload = BenchmarkData.createBytes(random, payloadSize);
+        signature = Sig.sign(signatureKeyPair.getPrivate(), payload);
+        encryptedPayload = Encryption.encryptPayloadWithHmac(payload, secretKey);
+        encryptedSecretKey = Encryption.encryptSecretKey(secretKey, encryptionKeyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] sign() throws CryptoException {
+        return Sig.sign(signatureKeyPair.getPrivate(), payload);
+    }
+
+    @Benchmark
+    public boolean verify() throws CryptoException {
+        return Sig.verify(signatureKeyPair.getPublic(), payload, signature);
+    }
+
+    @Benchmark
+    public byte[] encryptPayloadWithHmac() throws CryptoException {
+        return Encryption.encryptPayloadWithHmac(payload, secretKey);
+    }
+
+    @Benchmark
+    public byte[] decryptPayloadWithHmac() throws CryptoException {
+        return Encryption.decryptPayloadWithHmac(encryptedPayload, secretKey);
+    }
+
+    @Benchmark
+    public byte[] encryptSecretKey() throws CryptoException {
+        return Encryption.encryptSecretKey(secretKey, encryptionKeyPair.getPublic());
+    }
+
+    @Benchmark
+    public SecretKey decryptSecretKey() throws CryptoException {
+        return Encryption.decryptSecretKey(encryptedSecretKey, encryptionKeyPair.getPrivate());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import com.google.protobuf.Message;
+import haveno.core.support.SupportType;
+import haveno.core.support.dispute.Dispute;
+import haveno.core.support.dispute.DisputeList;
+import haveno.core.support.messages.ChatMessage;
+import haveno.network.p2p.NodeAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays 100k chat messages, of which 10% are received again, into the disputes of a busy arbitrator as
+ * DisputeManager.addAndPersistChatMessage does: find the dispute by trade id and trader id and skip the message if
+ * the dispute has a message with its uid already. With indexed=false the disputes and chat messages are searched
+ * linearly as before the dispute list was indexed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class DisputeListBenchmark {
+    private static final int NUM_TRADES = 2_500;
+    private static final int NUM_CHAT_MESSAGES = 100_000;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private List<ChatMessage> chatMessages;
+    private BenchmarkDisputeList disputeList;
+
+    private static class BenchmarkDisputeList extends DisputeList<Dispute> {
+        @Override
+        public Message toProtoMessage() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createChatMessages() {
+        Random random = new Random(BenchmarkData.SEED);
+        NodeAddress senderNodeAddress = BenchmarkData.createNodeAddress(random);
+        chatMessages = new ArrayList<>(NUM_CHAT_MESSAGES);
+        for (int i = 0; i < NUM_CHAT_MESSAGES; i++) {
+            if (i > 0 && random.nextInt(10) == 0) {
+                chatMessages.add(chatMessages.get(random.nextInt(i)));
+            } else {
+                chatMessages.add(new ChatMessage(SupportType.ARBITRATION,
+                        "trade" + random.nextInt(NUM_TRADES),
+                        random.nextInt(2),
+                        random.nextBoolean(),
+                        "message " + i,
+                        senderNodeAddress));
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createDisputes() {
+        disputeList = new BenchmarkDisputeList();
+        List<Dispute> disputes = new ArrayList<>(NUM_TRADES * 2);
+        for (int i = 0; i < NUM_TRADES; i++) {
+            for (int traderId = 0; traderId < 2; traderId++) {
+                disputes.add(new Dispute(BenchmarkData.BASE_DATE, "trade" + i, traderId, true, true, true, null,
+                        0, 0, null, null, null, null, "contractAsJson", null, null, null, null, null, false,
+                        SupportType.ARBITRATION));
+            }
+        }
+        disputeList.setAll(disputes);
+    }
+
+    @Benchmark
+    public int replayChatMessages() {
+        int numAdded = 0;
+        for (ChatMessage chatMessage : chatMessages) {
+            Optional<Dispute> dispute = indexed ?
+                    disputeList.findDispute(chatMessage.getTradeId(), chatMessage.getTraderId()) :
+                    disputeList.stream()
+                            .filter(e -> e.getTradeId().equals(chatMessage.getTradeId()) &&
+                                    e.getTraderId() == chatMessage.getTraderId())
+                            .findAny();
+            if (dispute.isPresent()) {
+                boolean isNew = indexed ?
+                        !disputeList.hasChatMessage(dispute.get(), chatMessage.getUid()) :
+                        dispute.get().getChatMessages().stream()
+                                .noneMatch(m -> m.getUid().equals(chatMessage.getUid()));
+                if (isNew) {
+                    dispute.get().addAndPersistChatMessage(chatMessage);
+                    numAdded++;
+                }
+            }
+        }
+        return numAdded;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import com.sun.management.ThreadMXBean;
+import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import haveno.network.p2p.storage.persistence.CompositeMapView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests against a trade statistics store with 4 historical stores of 100k entries and 5k entries of live data:
+ * the duplicate check of a received payload and the filtering of a data response, once with a copy of all maps as
+ * before and once with a {@link CompositeMapView}. The bytes allocated per request are printed after each iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class HistoricalStoreViewBenchmark {
+    private static final int NUM_HISTORICAL_STORES = 4;
+    private static final int NUM_HISTORICAL_ENTRIES = 100_000;
+    private static final int NUM_LIVE_ENTRIES = 5_000;
+    // Entries of the live data the requester does not know yet
+    private static final int NUM_MISSING_AT_PEER = 100;
+
+    @Param({"true", "false"})
+    public boolean view;
+
+    private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> liveMap;
+    private List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalMaps;
+    private Set<P2PDataStorage.ByteArray> excludedKeys;
+    private P2PDataStorage.ByteArray[] receivedKeys;
+    private int nextReceivedKey;
+    private long allocatedBytesAtStart;
+    private long numRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+        historicalMaps = new ArrayList<>();
+        excludedKeys = new HashSet<>();
+        for (int i = 0; i < NUM_HISTORICAL_STORES; i++) {
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap = new HashMap<>();
+            fill(historicalMap, NUM_HISTORICAL_ENTRIES, random, arbitratorNodeAddress);
+            historicalMaps.add(historicalMap);
+            excludedKeys.addAll(historicalMap.keySet());
+        }
+        liveMap = new ConcurrentHashMap<>();
+        fill(liveMap, NUM_LIVE_ENTRIES, random, arbitratorNodeAddress);
+        liveMap.keySet().stream().skip(NUM_MISSING_AT_PEER).forEach(excludedKeys::add);
+
+        // Half of the received payloads are known already
+        receivedKeys = new P2PDataStorage.ByteArray[1024];
+        List<P2PDataStorage.ByteArray> knownKeys = new ArrayList<>(excludedKeys);
+        for (int i = 0; i < receivedKeys.length; i++) {
+            receivedKeys[i] = i % 2 == 0 ?
+                    knownKeys.get(random.nextInt(knownKeys.size())) :
+                    new P2PDataStorage.ByteArray(BenchmarkData.createBytes(random, 20));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startAllocationCount() {
+        allocatedBytesAtStart = threadMXBean.getCurrentThreadAllocatedBytes();
+        numRequests = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printAllocationPerRequest() {
+        long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBytesAtStart;
+        System.out.printf("%nAllocated %d bytes per request with view=%s%n",
+                numRequests == 0 ? 0 : allocatedBytes / numRequests, view);
+    }
+
+    @Benchmark
+    public boolean containsReceivedPayload() {
+        numRequests++;
+        P2PDataStorage.ByteArray key = receivedKeys[nextReceivedKey++ & (receivedKeys.length - 1)];
+        return getMapOfAllData().containsKey(key);
+    }
+
+    @Benchmark
+    public List<PersistableNetworkPayload> buildDataResponse() {
+        numRequests++;
+        List<PersistableNetworkPayload> result = new ArrayList<>();
+        getMapOfAllData().forEach((key, payload) -> {
+            if (!excludedKeys.contains(key)) {
+                result.add(payload);
+            }
+        });
+        return result;
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
+        if (view) {
+            List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>(historicalMaps.size() + 1);
+            maps.add(liveMap);
+            maps.addAll(historicalMaps);
+            return CompositeMapView.ofDisjoint(maps);
+        }
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(liveMap);
+        historicalMaps.forEach(result::putAll);
+        return result;
+    }
+
+    private static void fill(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map,
+                             int numEntries,
+                             Random random,
+                             NodeAddress arbitratorNodeAddress) {
+        for (int i = 0; i < numEntries; i++) {
+            TradeStatistics3 tradeStatistics = BenchmarkData.createTradeStatistics(random, arbitratorNodeAddress);
+            map.put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()), tradeStatistics);
+        }
+    }
+}
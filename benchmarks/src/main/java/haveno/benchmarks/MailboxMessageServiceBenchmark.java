@@ -0,0 +1,135 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import haveno.common.crypto.KeyRing;
+import haveno.common.crypto.PubKeyRing;
+import haveno.network.crypto.EncryptionService;
+import haveno.network.p2p.AckMessage;
+import haveno.network.p2p.AckMessageSourceType;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.mailbox.IgnoredMailboxService;
+import haveno.network.p2p.mailbox.MailboxItem;
+import haveno.network.p2p.mailbox.MailboxMessageService;
+import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processing of the mailbox entries a node receives at startup. Every 10th entry is addressed to us and gets
+ * decrypted, the others are addressed to other nodes and are skipped by their receiver's pub key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MailboxMessageServiceBenchmark {
+    private static final int NUM_SENDERS = 20;
+    private static final int NUM_OTHER_RECEIVERS = 20;
+    private static final int OWN_ENTRY_INTERVAL = 10;
+
+    @Param({"1000", "10000"})
+    public int numEntries;
+
+    private BenchmarkServices services;
+    private MailboxMessageService mailboxMessageService;
+    private List<ProtectedMailboxStorageEntry> entries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        services = new BenchmarkServices();
+        Clock clock = services.getClock();
+        KeyRing keyRing = services.getKeyRing();
+        mailboxMessageService = new MailboxMessageService(null,
+                null,
+                null,
+                new EncryptionService(keyRing, services.getNetworkProtoResolver()),
+                new IgnoredMailboxService(services.createPersistenceManager()),
+                services.createPersistenceManager(),
+                keyRing,
+                clock,
+                false);
+
+        List<KeyPair> senderKeyPairs = new ArrayList<>();
+        List<NodeAddress> senderNodeAddresses = new ArrayList<>();
+        KeyPair encryptionKeyPair = BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED);
+        for (int i = 0; i < NUM_SENDERS; i++) {
+            senderKeyPairs.add(BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED + i));
+            senderNodeAddresses.add(BenchmarkData.createNodeAddress(random));
+        }
+        List<PubKeyRing> otherReceiverPubKeyRings = new ArrayList<>();
+        for (int i = 0; i < NUM_OTHER_RECEIVERS; i++) {
+            KeyPair signatureKeyPair = BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED + NUM_SENDERS + i);
+            otherReceiverPubKeyRings.add(BenchmarkData.createPubKeyRing(signatureKeyPair, encryptionKeyPair));
+        }
+
+        entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            int sender = i % NUM_SENDERS;
+            PubKeyRing receiverPubKeyRing = i % OWN_ENTRY_INTERVAL == 0 ?
+                    keyRing.getPubKeyRing() :
+                    otherReceiverPubKeyRings.get(i % NUM_OTHER_RECEIVERS);
+            AckMessage ackMessage = new AckMessage(senderNodeAddresses.get(sender),
+                    AckMessageSourceType.TRADE_MESSAGE,
+                    "DepositResponse",
+                    "uid" + i,
+                    "trade" + i,
+                    true,
+                    null);
+            entries.add(BenchmarkData.createProtectedMailboxStorageEntry(ackMessage,
+                    senderNodeAddresses.get(sender),
+                    senderKeyPairs.get(sender),
+                    receiverPubKeyRing,
+                    clock));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        mailboxMessageService.shutDown();
+        services.shutDown();
+    }
+
+    @Benchmark
+    public Set<MailboxItem> getMailboxItems() {
+        return mailboxMessageService.getMailboxItems(entries);
+    }
+}
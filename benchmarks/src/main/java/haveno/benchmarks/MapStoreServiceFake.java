@@ -0,0 +1,69 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.benchmarks;
+
+import haveno.common.proto.persistable.PersistableEnvelope;
+import haveno.common.proto.persistable.PersistablePayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.persistence.MapStoreService;
+import lombok.Getter;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory store which accepts all payloads. It neither reads from the resources nor writes to disk.
+ */
+@SuppressWarnings("rawtypes")
+class MapStoreServiceFake extends MapStoreService {
+    @Getter
+    private final Map<P2PDataStorage.ByteArray, PersistablePayload> map = new HashMap<>();
+
+    MapStoreServiceFake(File storageDir) {
+        super(storageDir, null);
+    }
+
+    @Override
+    public String getFileName() {
+        return "MapStoreServiceFake";
+    }
+
+    @Override
+    protected PersistableEnvelope createStore() {
+        return null;
+    }
+
+    @Override
+    public boolean canHandle(PersistablePayload payload) {
+        return true;
+    }
+
+    @Override
+    protected void readFromResourcesSync(String postFix) {
+    }
+
+    @Override
+    protected void initializePersistenceManager() {
+    }
+
+    @Override
+    protected void requestPersistence() {
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import haveno.common.crypto.PubKeyRing;
+import haveno.common.proto.ProtobufferException;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.core.proto.network.CoreNetworkProtoResolver;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.storage.messages.AddDataMessage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proto round-trips of network envelopes as done by Connection when sending and receiving messages. The AddDataMessage
+ * carries a single offer, the GetDataResponse the offers and trade statistics of a typical initial data response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkEnvelopeBenchmark {
+    private static final int NUM_OFFERS = 200;
+    private static final int NUM_TRADE_STATISTICS = 2_000;
+
+    @Param({"AddDataMessage", "GetDataResponse"})
+    public String messageType;
+
+    private CoreNetworkProtoResolver resolver;
+    private NetworkEnvelope envelope;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        Clock clock = Clock.systemDefaultZone();
+        resolver = new CoreNetworkProtoResolver(clock);
+        KeyPair signatureKeyPair = BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED);
+        PubKeyRing pubKeyRing = BenchmarkData.createPubKeyRing(signatureKeyPair,
+                BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED));
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+
+        Set<ProtectedStorageEntry> entries = new HashSet<>();
+        int numOffers = messageType.equals("AddDataMessage") ? 1 : NUM_OFFERS;
+        for (int i = 0; i < numOffers; i++) {
+            entries.add(BenchmarkData.createProtectedStorageEntry(BenchmarkData.createOfferPayload(random,
+                            pubKeyRing,
+                            BenchmarkData.createNodeAddress(random),
+                            arbitratorNodeAddress,
+                            BenchmarkData.createKeyImages(random, 2)),
+                    signatureKeyPair,
+                    clock));
+        }
+
+        if (messageType.equals("AddDataMessage")) {
+            envelope = new AddDataMessage(entries.iterator().next());
+        } else {
+            Set<PersistableNetworkPayload> persistableNetworkPayloads = new HashSet<>();
+            for (int i = 0; i < NUM_TRADE_STATISTICS; i++) {
+                persistableNetworkPayloads.add(BenchmarkData.createTradeStatistics(random, arbitratorNodeAddress));
+            }
+            envelope = new GetDataResponse(entries, persistableNetworkPayloads, 1, false, false);
+        }
+        serialized = envelope.toProtoNetworkEnvelope().toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return envelope.toProtoNetworkEnvelope().toByteArray();
+    }
+
+    @Benchmark
+    public NetworkEnvelope deserialize() throws InvalidProtocolBufferException, ProtobufferException {
+        return resolver.fromProto(protobuf.NetworkEnvelope.parseFrom(serialized));
+    }
+
+    @Benchmark
+    public NetworkEnvelope roundTrip() throws InvalidProtocolBufferException, ProtobufferException {
+        return resolver.fromProto(protobuf.NetworkEnvelope.parseFrom(envelope.toProtoNetworkEnvelope().toByteArray()));
+    }
+}
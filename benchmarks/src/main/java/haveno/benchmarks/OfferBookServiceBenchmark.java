@@ -0,0 +1,98 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import haveno.common.crypto.PubKeyRing;
+import haveno.core.api.XmrConnectionService;
+import haveno.core.offer.Offer;
+import haveno.core.offer.OfferBookService;
+import haveno.core.offer.OfferPayload;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.P2PService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of a received offer against the offer book, which checks the reserve tx key images of all valid offers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfferBookServiceBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int numOffers;
+
+    private BenchmarkServices services;
+    private OfferBookService offerBookService;
+    private OfferPayload receivedOfferPayload;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        services = new BenchmarkServices();
+        P2PService p2PService = services.createP2PService();
+        offerBookService = new OfferBookService(p2PService,
+                null,
+                services.createFilterManager(),
+                new XmrConnectionService(p2PService, null, null, null, null, null, null, null, null, null, null),
+                services.getConfig().storageDir,
+                false);
+
+        PubKeyRing pubKeyRing = BenchmarkData.createPubKeyRing(BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED),
+                BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED));
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+        for (int i = 0; i < numOffers; i++) {
+            offerBookService.replaceValidOffer(new Offer(createOfferPayload(random, pubKeyRing, arbitratorNodeAddress)));
+        }
+        receivedOfferPayload = createOfferPayload(random, pubKeyRing, arbitratorNodeAddress);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        services.shutDown();
+    }
+
+    @Benchmark
+    public void validateOfferPayload() {
+        offerBookService.validateOfferPayload(receivedOfferPayload);
+    }
+
+    private static OfferPayload createOfferPayload(Random random, PubKeyRing pubKeyRing, NodeAddress arbitratorNodeAddress) {
+        return BenchmarkData.createOfferPayload(random,
+                pubKeyRing,
+                BenchmarkData.createNodeAddress(random),
+                arbitratorNodeAddress,
+                BenchmarkData.createKeyImages(random, 1 + random.nextInt(3)));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import haveno.common.app.Capabilities;
+import haveno.common.crypto.PubKeyRing;
+import haveno.core.offer.OfferPayload;
+import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Payload hashing and the initial data response of a seed node. The requester knows 99% of the trade statistics and
+ * 90% of the offers, which is typical for a node which was offline for a few hours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class P2PDataStorageBenchmark {
+    private static final int NUM_OFFERS = 1_000;
+    private static final int NUM_OWNERS = 20;
+
+    @Param({"10000", "100000"})
+    public int numTradeStatistics;
+
+    private BenchmarkServices services;
+    private P2PDataStorage p2PDataStorage;
+    private List<OfferPayload> offerPayloads;
+    private PreliminaryGetDataRequest getDataRequest;
+    private int payloadIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        services = new BenchmarkServices();
+        Clock clock = services.getClock();
+        NetworkNode networkNode = services.createNetworkNode();
+        p2PDataStorage = services.createP2PDataStorage(networkNode, new BroadcasterFake(networkNode, null));
+
+        List<KeyPair> ownerKeyPairs = new ArrayList<>();
+        List<PubKeyRing> ownerPubKeyRings = new ArrayList<>();
+        KeyPair encryptionKeyPair = BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED);
+        for (int i = 0; i < NUM_OWNERS; i++) {
+            KeyPair signatureKeyPair = BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED + i);
+            ownerKeyPairs.add(signatureKeyPair);
+            ownerPubKeyRings.add(BenchmarkData.createPubKeyRing(signatureKeyPair, encryptionKeyPair));
+        }
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+
+        Set<byte[]> excludedKeys = new HashSet<>();
+        offerPayloads = new ArrayList<>();
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            int owner = i % NUM_OWNERS;
+            OfferPayload offerPayload = BenchmarkData.createOfferPayload(random,
+                    ownerPubKeyRings.get(owner),
+                    BenchmarkData.createNodeAddress(random),
+                    arbitratorNodeAddress,
+                    BenchmarkData.createKeyImages(random, 2));
+            offerPayloads.add(offerPayload);
+            ProtectedStorageEntry entry = BenchmarkData.createProtectedStorageEntry(offerPayload,
+                    ownerKeyPairs.get(owner),
+                    clock);
+            p2PDataStorage.addProtectedStorageEntry(entry, null, null);
+            if (i % 10 != 0) {
+                excludedKeys.add(P2PDataStorage.get32ByteHash(offerPayload));
+            }
+        }
+        for (int i = 0; i < numTradeStatistics; i++) {
+            TradeStatistics3 tradeStatistics = BenchmarkData.createTradeStatistics(random, arbitratorNodeAddress);
+            p2PDataStorage.addPersistableNetworkPayload(tradeStatistics, null, false);
+            if (i % 100 != 0) {
+                excludedKeys.add(tradeStatistics.getHash());
+            }
+        }
+        getDataRequest = new PreliminaryGetDataRequest(1, excludedKeys);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        services.shutDown();
+    }
+
+    @Benchmark
+    public byte[] get32ByteHash() {
+        OfferPayload offerPayload = offerPayloads.get(payloadIndex);
+        payloadIndex = (payloadIndex + 1) % offerPayloads.size();
+        return P2PDataStorage.get32ByteHash(offerPayload);
+    }
+
+    @Benchmark
+    public GetDataResponse buildGetDataResponse() {
+        return p2PDataStorage.buildGetDataResponse(getDataRequest,
+                100_000,
+                new AtomicBoolean(),
+                new AtomicBoolean(),
+                new Capabilities(Capabilities.app));
+    }
+}
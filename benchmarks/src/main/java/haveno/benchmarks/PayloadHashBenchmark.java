@@ -0,0 +1,93 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.benchmarks;
+
+import haveno.common.crypto.PubKeyRing;
+import haveno.core.offer.OfferPayload;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PayloadHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashes per second while processing an initial data set of 100k offers. Processing an entry needs its hash for the
+ * lookup in the storage map, the sequence number map, the broadcast and the exclusion in later data responses.
+ * Without the cache each of them serializes and hashes the payload again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PayloadHashBenchmark {
+    private static final int NUM_ENTRIES = 100_000;
+    private static final int HASHES_PER_ENTRY = 4;
+    private static final int NUM_OWNERS = 20;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private List<OfferPayload> offerPayloads;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        List<PubKeyRing> ownerPubKeyRings = new ArrayList<>();
+        for (int i = 0; i < NUM_OWNERS; i++) {
+            ownerPubKeyRings.add(BenchmarkData.createPubKeyRing(BenchmarkData.createSignatureKeyPair(BenchmarkData.SEED + i),
+                    BenchmarkData.createEncryptionKeyPair(BenchmarkData.SEED)));
+        }
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+        offerPayloads = new ArrayList<>(NUM_ENTRIES);
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            offerPayloads.add(BenchmarkData.createOfferPayload(random,
+                    ownerPubKeyRings.get(i % NUM_OWNERS),
+                    BenchmarkData.createNodeAddress(random),
+                    arbitratorNodeAddress,
+                    BenchmarkData.createKeyImages(random, 2)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ENTRIES * HASHES_PER_ENTRY)
+    public void processInitialDataSet(Blackhole blackhole) {
+        for (OfferPayload offerPayload : offerPayloads) {
+            for (int i = 0; i < HASHES_PER_ENTRY; i++) {
+                blackhole.consume(cached ? P2PDataStorage.get32ByteHash(offerPayload) : PayloadHash.compute(offerPayload));
+            }
+        }
+    }
+}
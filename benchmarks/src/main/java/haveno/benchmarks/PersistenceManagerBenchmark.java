@@ -0,0 +1,89 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.benchmarks;
+
+import haveno.common.persistence.PersistenceManager;
+import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatistics3Store;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.storage.P2PDataStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing, encrypting and writing a large store to disk including the rolling backup and the sync to disk, as
+ * done by PersistenceManager.persistNow. The store holds synthetic trade statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenceManagerBenchmark {
+    @Param({"10000", "100000"})
+    public int numEntries;
+
+    private BenchmarkServices services;
+    private PersistenceManager<TradeStatistics3Store> persistenceManager;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(BenchmarkData.SEED);
+        services = new BenchmarkServices();
+
+        TradeStatistics3Store store = new TradeStatistics3Store();
+        NodeAddress arbitratorNodeAddress = BenchmarkData.createNodeAddress(random);
+        for (int i = 0; i < numEntries; i++) {
+            TradeStatistics3 tradeStatistics = BenchmarkData.createTradeStatistics(random, arbitratorNodeAddress);
+            store.getMap().put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()), tradeStatistics);
+        }
+
+        PersistenceManager.onAllServicesInitialized();
+        persistenceManager = services.createPersistenceManager();
+        persistenceManager.initialize(store, "BenchmarkStore", PersistenceManager.Source.PRIVATE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        services.shutDown();
+    }
+
+    @Benchmark
+    public void persistNow() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        persistenceManager.persistNow(latch::countDown);
+        if (!latch.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Persisting did not complete");
+        }
+    }
+}
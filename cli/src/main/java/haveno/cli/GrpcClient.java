@@ -24,17 +24,24 @@ import haveno.cli.request.WalletsServiceRequest;
 import haveno.proto.grpc.AddressBalanceInfo;
 import haveno.proto.grpc.BalancesInfo;
 import haveno.proto.grpc.BtcBalanceInfo;
+import haveno.proto.grpc.CancelOfferResult;
+import haveno.proto.grpc.EditOfferRequest;
 import haveno.proto.grpc.GetMethodHelpRequest;
 import haveno.proto.grpc.GetTradesRequest;
 import haveno.proto.grpc.GetVersionRequest;
 import haveno.proto.grpc.OfferInfo;
+import haveno.proto.grpc.OfferResult;
+import haveno.proto.grpc.PostOfferRequest;
 import haveno.proto.grpc.RegisterDisputeAgentRequest;
 import haveno.proto.grpc.StopRequest;
+import haveno.proto.grpc.TradeEvent;
 import haveno.proto.grpc.TradeInfo;
+import haveno.proto.grpc.WalletEvent;
 import lombok.extern.slf4j.Slf4j;
 import protobuf.PaymentAccount;
 import protobuf.PaymentMethod;
 
+import java.util.Iterator;
 import java.util.List;
 
 
@@ -156,6 +163,18 @@ public final class GrpcClient {
         offersServiceRequest.cancelOffer(offerId);
     }
 
+    public List<OfferResult> postOffers(List<PostOfferRequest> offers) {
+        return offersServiceRequest.postOffers(offers);
+    }
+
+    public List<OfferResult> editOffers(List<EditOfferRequest> offers) {
+        return offersServiceRequest.editOffers(offers);
+    }
+
+    public List<CancelOfferResult> cancelOffers(List<String> offerIds) {
+        return offersServiceRequest.cancelOffers(offerIds);
+    }
+
     public OfferInfo getOffer(String offerId) {
         return offersServiceRequest.getOffer(offerId);
     }
@@ -218,6 +237,10 @@ public final class GrpcClient {
         tradesServiceRequest.withdrawFunds(tradeId, address, memo);
     }
 
+    public Iterator<TradeEvent> subscribeTradeEvents(String resumeToken) {
+        return tradesServiceRequest.subscribeTradeEvents(resumeToken);
+    }
+
     public List<PaymentMethod> getPaymentMethods() {
         return paymentAccountsServiceRequest.getPaymentMethods();
     }
@@ -260,6 +283,10 @@ public final class GrpcClient {
         walletsServiceRequest.unlockWallet(walletPassword, timeout);
     }
 
+    public Iterator<WalletEvent> subscribeWalletEvents(String resumeToken) {
+        return walletsServiceRequest.subscribeWalletEvents(resumeToken);
+    }
+
     public void removeWalletPassword(String walletPassword) {
         walletsServiceRequest.removeWalletPassword(walletPassword);
     }
@@ -19,12 +19,18 @@ package haveno.cli.request;
 
 import haveno.cli.GrpcStubs;
 import haveno.proto.grpc.CancelOfferRequest;
+import haveno.proto.grpc.CancelOfferResult;
+import haveno.proto.grpc.CancelOffersRequest;
+import haveno.proto.grpc.EditOfferRequest;
+import haveno.proto.grpc.EditOffersRequest;
 import haveno.proto.grpc.GetMyOfferRequest;
 import haveno.proto.grpc.GetMyOffersRequest;
 import haveno.proto.grpc.GetOfferRequest;
 import haveno.proto.grpc.GetOffersRequest;
 import haveno.proto.grpc.OfferInfo;
+import haveno.proto.grpc.OfferResult;
 import haveno.proto.grpc.PostOfferRequest;
+import haveno.proto.grpc.PostOffersRequest;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -96,6 +102,27 @@ public class OffersServiceRequest {
         grpcStubs.offersService.cancelOffer(request);
     }
 
+    public List<OfferResult> postOffers(List<PostOfferRequest> offers) {
+        var request = PostOffersRequest.newBuilder()
+                .addAllOffers(offers)
+                .build();
+        return grpcStubs.offersService.postOffers(request).getResultsList();
+    }
+
+    public List<OfferResult> editOffers(List<EditOfferRequest> offers) {
+        var request = EditOffersRequest.newBuilder()
+                .addAllOffers(offers)
+                .build();
+        return grpcStubs.offersService.editOffers(request).getResultsList();
+    }
+
+    public List<CancelOfferResult> cancelOffers(List<String> offerIds) {
+        var request = CancelOffersRequest.newBuilder()
+                .addAllIds(offerIds)
+                .build();
+        return grpcStubs.offersService.cancelOffers(request).getResultsList();
+    }
+
     public OfferInfo getOffer(String offerId) {
         var request = GetOfferRequest.newBuilder()
                 .setId(offerId)
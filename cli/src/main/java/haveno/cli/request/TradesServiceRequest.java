@@ -22,11 +22,14 @@ import haveno.proto.grpc.ConfirmPaymentReceivedRequest;
 import haveno.proto.grpc.ConfirmPaymentSentRequest;
 import haveno.proto.grpc.GetTradeRequest;
 import haveno.proto.grpc.GetTradesRequest;
+import haveno.proto.grpc.SubscribeTradeEventsRequest;
 import haveno.proto.grpc.TakeOfferReply;
 import haveno.proto.grpc.TakeOfferRequest;
+import haveno.proto.grpc.TradeEvent;
 import haveno.proto.grpc.TradeInfo;
 import haveno.proto.grpc.WithdrawFundsRequest;
 
+import java.util.Iterator;
 import java.util.List;
 
 import static haveno.proto.grpc.GetTradesRequest.Category.CLOSED;
@@ -104,4 +107,11 @@ public class TradesServiceRequest {
         //noinspection ResultOfMethodCallIgnored
         grpcStubs.tradesService.withdrawFunds(request);
     }
+
+    public Iterator<TradeEvent> subscribeTradeEvents(String resumeToken) {
+        var request = SubscribeTradeEventsRequest.newBuilder()
+                .setResumeToken(resumeToken)
+                .build();
+        return grpcStubs.tradesService.subscribeTradeEvents(request);
+    }
 }
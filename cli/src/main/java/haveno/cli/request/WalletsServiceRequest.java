@@ -28,8 +28,11 @@ import haveno.proto.grpc.LockWalletRequest;
 import haveno.proto.grpc.MarketPriceRequest;
 import haveno.proto.grpc.RemoveWalletPasswordRequest;
 import haveno.proto.grpc.SetWalletPasswordRequest;
+import haveno.proto.grpc.SubscribeWalletEventsRequest;
 import haveno.proto.grpc.UnlockWalletRequest;
+import haveno.proto.grpc.WalletEvent;
 
+import java.util.Iterator;
 import java.util.List;
 
 public class WalletsServiceRequest {
@@ -120,4 +123,11 @@ public class WalletsServiceRequest {
         //noinspection ResultOfMethodCallIgnored
         grpcStubs.walletsService.setWalletPassword(request);
     }
+
+    public Iterator<WalletEvent> subscribeWalletEvents(String resumeToken) {
+        var request = SubscribeWalletEventsRequest.newBuilder()
+                .setResumeToken(resumeToken)
+                .build();
+        return grpcStubs.walletsService.subscribeWalletEvents(request);
+    }
 }
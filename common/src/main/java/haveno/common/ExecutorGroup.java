@@ -0,0 +1,180 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
+import lombok.Getter;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Named executor with an upper bound of threads. Threads are only created if no thread is idle, and terminate after
+ * being idle for the keep alive time, so an unused group does not hold any threads. Tasks exceeding the bound are
+ * queued.
+ * <p>
+ * New threads are virtual threads if the supplied flag is set at their creation, otherwise daemon platform threads.
+ * <p>
+ * The time tasks wait in the queue and their run time are recorded in histograms, which are exported together with
+ * the queue depth and the number of active threads as metrics labeled with the name of the group.
+ */
+public class ExecutorGroup implements Executor {
+    private static final long DEFAULT_KEEP_ALIVE_MS = 60_000;
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int maxThreads;
+    private final BooleanSupplier useVirtualThreads;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final Histogram queueLatency;
+    private final Histogram taskDuration;
+
+    public ExecutorGroup(String name, int maxThreads, BooleanSupplier useVirtualThreads) {
+        this(name, maxThreads, DEFAULT_KEEP_ALIVE_MS, useVirtualThreads);
+    }
+
+    @VisibleForTesting
+    ExecutorGroup(String name, int maxThreads, long keepAliveMs, BooleanSupplier useVirtualThreads) {
+        checkArgument(maxThreads > 0, "maxThreads must be positive");
+        this.name = name;
+        this.maxThreads = maxThreads;
+        this.useVirtualThreads = useVirtualThreads;
+
+        ElasticQueue queue = new ElasticQueue();
+        executor = new ThreadPoolExecutor(0, maxThreads, keepAliveMs, TimeUnit.MILLISECONDS, queue, this::newThread,
+                (task, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Executor group " + name + " is shut down");
+                    }
+                    // All threads are busy, so the task waits in the queue
+                    queue.force(task);
+                });
+
+        MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+        queueLatency = metricsRegistry.histogram("haveno_executor_queue_latency_us",
+                "Time tasks wait for a thread in microseconds", "group", name);
+        taskDuration = metricsRegistry.histogram("haveno_executor_task_duration_ms",
+                "Run time of tasks in milliseconds", "group", name);
+        metricsRegistry.gauge("haveno_executor_queue_depth", "Tasks waiting for a thread",
+                this::getQueueDepth, "group", name);
+        metricsRegistry.gauge("haveno_executor_active_threads", "Threads running a task",
+                this::getActiveCount, "group", name);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void execute(Runnable task) {
+        long queuedAt = System.nanoTime();
+        executor.execute(() -> {
+            long startedAt = System.nanoTime();
+            queueLatency.record(TimeUnit.NANOSECONDS.toMicros(startedAt - queuedAt));
+            try {
+                task.run();
+            } finally {
+                taskDuration.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            }
+        });
+    }
+
+    public Future<?> submit(Runnable task) {
+        FutureTask<?> futureTask = new FutureTask<>(task, null);
+        execute(futureTask);
+        return futureTask;
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        execute(futureTask);
+        return futureTask;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public Histogram.Snapshot getQueueLatencySnapshot() {
+        return queueLatency.getSnapshot();
+    }
+
+    public Histogram.Snapshot getTaskDurationSnapshot() {
+        return taskDuration.getSnapshot();
+    }
+
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Thread newThread(Runnable runnable) {
+        String threadName = name + "-" + threadCount.incrementAndGet();
+        if (useVirtualThreads.getAsBoolean()) {
+            return Thread.ofVirtual().name(threadName).unstarted(runnable);
+        }
+        Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // ThreadPoolExecutor only adds threads beyond the core size if the queue rejects a task. The queue only accepts a
+    // task if an idle thread takes it at once, otherwise a thread is added, so the pool grows on demand and shrinks to
+    // zero when idle. A task is never queued behind a blocking task while the bound is not reached.
+    private static class ElasticQueue extends LinkedTransferQueue<Runnable> {
+        @Override
+        public boolean offer(Runnable task) {
+            return tryTransfer(task);
+        }
+
+        void force(Runnable task) {
+            super.offer(task);
+        }
+    }
+}
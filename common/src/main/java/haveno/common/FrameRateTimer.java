@@ -25,7 +25,7 @@ import java.util.UUID;
 
 /**
  * We simulate a global frame rate timer similar to FXTimer to avoid creation of threads for each timer call.
- * Used only in headless apps like the seed node.
+ * Was the default timer of headless apps before the WheelTimer, which does not poll all timers at each frame.
  */
 public class FrameRateTimer implements Timer, Runnable {
     private final Logger log = LoggerFactory.getLogger(FrameRateTimer.class);
@@ -0,0 +1,397 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.common.metrics.MetricsRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Hierarchical hashed timer wheel as described by Varghese and Lauck. Timeouts are kept in 4 levels of 64 slots. The
+ * first level has a resolution of one tick, each higher level covers 64 slots of the level below. Timeouts are moved
+ * to lower levels when the wheel reaches their slot, so each timeout is touched at most once per level. Timeouts
+ * beyond the highest level (46 hours with the default tick) wait in the highest level until they come into range.
+ * <p>
+ * Scheduling and cancelling are O(1) and can be called from any thread. They only enqueue the request, which is
+ * applied by the worker thread when it wakes up next. The worker parks until the next tick with a due timeout or a
+ * cascade of a non empty higher level slot, and is woken up if an earlier timeout gets scheduled, so an idle wheel
+ * does not use any CPU. All timeouts expiring at a tick are dispatched together as a single task to the dispatch
+ * executor, which is the user thread for the default instance.
+ * <p>
+ * Timeouts never fire before their delay has passed and usually within one tick after it.
+ */
+@Slf4j
+public class HashedTimerWheel {
+    public static final long DEFAULT_TICK_MS = 10;
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int NUM_LEVELS = 4;
+    private static final long MAX_DELTA_TICKS = 1L << (WHEEL_BITS * NUM_LEVELS);
+
+    private static HashedTimerWheel instance;
+
+    /**
+     * Returns the shared wheel which dispatches expired timeouts to the user thread.
+     */
+    public static synchronized HashedTimerWheel getInstance() {
+        if (instance == null) {
+            instance = new HashedTimerWheel(DEFAULT_TICK_MS, UserThread::execute, System::nanoTime, true);
+            MetricsRegistry.getInstance().gauge("haveno_timer_wheel_scheduled", "Scheduled user thread timers",
+                    instance::getNumScheduled);
+        }
+        return instance;
+    }
+
+    private final long tickNanos;
+    private final Executor dispatcher;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    // levels[level][slot] is the sentinel of a circular doubly linked list
+    private final Timeout[][] levels = new Timeout[NUM_LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> pendingSchedules = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingCancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numScheduled = new AtomicInteger();
+    @Nullable
+    private final Thread worker;
+    // Only accessed by the thread advancing the wheel
+    private long lastProcessedTick;
+    // Tick until which the worker parks, schedulers wake it up for an earlier timeout
+    private volatile long wakeUpTick = Long.MAX_VALUE;
+    private volatile boolean shutDown;
+
+    @VisibleForTesting
+    HashedTimerWheel(long tickMillis, Executor dispatcher, LongSupplier nanoTime, boolean startWorker) {
+        checkArgument(tickMillis > 0, "tickMillis must be positive");
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.dispatcher = dispatcher;
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+        for (Timeout[] level : levels) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                level[slot] = new Timeout(null, 0, 0, null);
+            }
+        }
+        if (startWorker) {
+            worker = new Thread(this::runWorker, "HashedTimerWheel");
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            worker = null;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Timeout schedule(long delay, TimeUnit timeUnit, Runnable action) {
+        return schedule(timeUnit.toNanos(delay), 0, action);
+    }
+
+    public Timeout schedulePeriodically(long interval, TimeUnit timeUnit, Runnable action) {
+        long intervalNanos = Math.max(1, timeUnit.toNanos(interval));
+        return schedule(intervalNanos, intervalNanos, action);
+    }
+
+    /**
+     * Returns the number of scheduled timeouts. Cancelled timeouts are counted until the worker wakes up next.
+     */
+    public int getNumScheduled() {
+        return numScheduled.get();
+    }
+
+    public void shutDown() {
+        shutDown = true;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Timeout
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static final class Timeout {
+        private final HashedTimerWheel wheel;
+        private final long periodNanos;
+        private final Runnable action;
+        private volatile boolean cancelled;
+        // Relative to the start of the wheel
+        private long deadlineNanos;
+        // Only accessed by the thread advancing the wheel
+        private long deadlineTick;
+        private Timeout prev = this;
+        private Timeout next = this;
+        private boolean done;
+
+        private Timeout(HashedTimerWheel wheel, long deadlineNanos, long periodNanos, Runnable action) {
+            this.wheel = wheel;
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+            this.action = action;
+        }
+
+        /**
+         * Cancels the timeout. An action which is already dispatched but not yet run is not run anymore.
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                wheel.pendingCancellations.add(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isPeriodic() {
+            return periodNanos > 0;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package private, advanced by the worker thread or manually in tests
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Processes all ticks which have passed and dispatches the expired timeouts.
+     */
+    @VisibleForTesting
+    void advance() {
+        long currentTick = (nanoTime.getAsLong() - startNanos) / tickNanos;
+        applyPendingCancellations();
+        applyPendingSchedules();
+
+        List<Timeout> expired = new ArrayList<>();
+        while (lastProcessedTick < currentTick) {
+            processTick(++lastProcessedTick, expired);
+        }
+        if (!expired.isEmpty()) {
+            dispatcher.execute(() -> expired.forEach(this::run));
+        }
+    }
+
+    /**
+     * Returns the next tick at which a timeout is due or a non empty slot of a higher level cascades, or
+     * Long.MAX_VALUE if no timeout is in the wheel.
+     */
+    @VisibleForTesting
+    long getNextTickToProcess() {
+        long firstTick = lastProcessedTick + 1;
+        long nextTick = Long.MAX_VALUE;
+        for (long tick = firstTick; tick < firstTick + WHEEL_SIZE; tick++) {
+            if (!isEmpty(levels[0][(int) (tick & WHEEL_MASK)])) {
+                nextTick = tick;
+                break;
+            }
+        }
+        for (int level = 1; level < NUM_LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            long levelTicks = 1L << shift;
+            // Slots of a level cascade at the multiples of its resolution
+            long cascadeTick = ((firstTick + levelTicks - 1) >>> shift) << shift;
+            for (int i = 0; i < WHEEL_SIZE && cascadeTick < nextTick; i++, cascadeTick += levelTicks) {
+                if (!isEmpty(levels[level][(int) ((cascadeTick >>> shift) & WHEEL_MASK)])) {
+                    nextTick = cascadeTick;
+                    break;
+                }
+            }
+        }
+        return nextTick;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Timeout schedule(long delayNanos, long periodNanos, Runnable action) {
+        long deadlineNanos = nanoTime.getAsLong() - startNanos + Math.max(0, delayNanos);
+        Timeout timeout = new Timeout(this, deadlineNanos, periodNanos, action);
+        numScheduled.incrementAndGet();
+        pendingSchedules.add(timeout);
+        if (worker != null && toTick(deadlineNanos) < wakeUpTick) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    private void runWorker() {
+        while (!shutDown) {
+            try {
+                advance();
+            } catch (Throwable t) {
+                log.error("Error at advancing timer wheel", t);
+            }
+            long nextTick = getNextTickToProcess();
+            wakeUpTick = nextTick;
+            // A timeout scheduled before the wake up tick was published did not wake us up, so we apply it first
+            if (!pendingSchedules.isEmpty() || shutDown) {
+                continue;
+            }
+            if (nextTick == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else {
+                long sleepNanos = startNanos + nextTick * tickNanos - nanoTime.getAsLong();
+                if (sleepNanos > 0) {
+                    LockSupport.parkNanos(this, sleepNanos);
+                }
+            }
+        }
+    }
+
+    private void run(Timeout timeout) {
+        if (timeout.cancelled) {
+            return;
+        }
+        try {
+            timeout.action.run();
+        } catch (Throwable t) {
+            log.error("Exception at running timer action", t);
+            timeout.cancel();
+        }
+    }
+
+    private void applyPendingCancellations() {
+        Timeout timeout;
+        while ((timeout = pendingCancellations.poll()) != null) {
+            if (!timeout.done) {
+                timeout.done = true;
+                numScheduled.decrementAndGet();
+                // Not linked yet if it is still in pendingSchedules
+                unlink(timeout);
+            }
+        }
+    }
+
+    private void applyPendingSchedules() {
+        Timeout timeout;
+        while ((timeout = pendingSchedules.poll()) != null) {
+            if (!timeout.done) {
+                timeout.deadlineTick = toTick(timeout.deadlineNanos);
+                insert(timeout, lastProcessedTick + 1);
+            }
+        }
+    }
+
+    private void processTick(long tick, List<Timeout> expired) {
+        // Move timeouts of higher levels down, starting at the highest level so timeouts can move down several levels
+        for (int level = NUM_LEVELS - 1; level > 0; level--) {
+            int shift = WHEEL_BITS * level;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                Timeout sentinel = levels[level][(int) ((tick >>> shift) & WHEEL_MASK)];
+                for (Timeout timeout : detachAll(sentinel)) {
+                    insert(timeout, tick);
+                }
+            }
+        }
+
+        Timeout sentinel = levels[0][(int) (tick & WHEEL_MASK)];
+        for (Timeout timeout : detachAll(sentinel)) {
+            if (timeout.deadlineTick > tick) {
+                insert(timeout, tick + 1);
+                continue;
+            }
+            expired.add(timeout);
+            if (timeout.isPeriodic()) {
+                timeout.deadlineNanos = tick * tickNanos + timeout.periodNanos;
+                timeout.deadlineTick = toTick(timeout.deadlineNanos);
+                insert(timeout, tick + 1);
+            } else {
+                timeout.done = true;
+                numScheduled.decrementAndGet();
+            }
+        }
+    }
+
+    // Inserts the timeout relative to the first tick which has not been processed yet
+    private void insert(Timeout timeout, long baseTick) {
+        long deadlineTick = Math.max(timeout.deadlineTick, baseTick);
+        long deltaTicks = deadlineTick - baseTick;
+        if (deltaTicks >= MAX_DELTA_TICKS) {
+            // Wait in the highest level and get inserted again when the slot is reached
+            deadlineTick = baseTick + MAX_DELTA_TICKS - 1;
+            deltaTicks = MAX_DELTA_TICKS - 1;
+        }
+        int level = 0;
+        while (deltaTicks >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        Timeout sentinel = levels[level][slot];
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+    }
+
+    private static void unlink(Timeout timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = timeout;
+        timeout.next = timeout;
+    }
+
+    private static boolean isEmpty(Timeout sentinel) {
+        return sentinel.next == sentinel;
+    }
+
+    private static List<Timeout> detachAll(Timeout sentinel) {
+        if (isEmpty(sentinel)) {
+            return Collections.emptyList();
+        }
+        List<Timeout> timeouts = new ArrayList<>();
+        Timeout timeout = sentinel.next;
+        while (timeout != sentinel) {
+            Timeout next = timeout.next;
+            timeout.prev = timeout;
+            timeout.next = timeout;
+            if (!timeout.cancelled) {
+                timeouts.add(timeout);
+            }
+            timeout = next;
+        }
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return timeouts;
+    }
+
+    private long toTick(long deadlineNanos) {
+        // Round up so a timeout never fires early
+        return (deadlineNanos + tickNanos - 1) / tickNanos;
+    }
+}
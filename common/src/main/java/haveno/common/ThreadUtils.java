@@ -16,23 +16,73 @@
  */
 
 package haveno.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.common.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Runs tasks on executor groups (see {@link ExecutorGroup}):
+ * <ul>
+ *     <li>Tasks executed with a thread id run one after the other in the order of their submission. The queue of an
+ *     id only exists while it has tasks, so ids of closed trades or connections do not hold threads.</li>
+ *     <li>Tasks submitted to the pool run on up to 10 threads.</li>
+ *     <li>Awaited tasks run with at most the given concurrency.</li>
+ * </ul>
+ * The serial and await groups are not bounded, as their tasks may block on tasks of other ids or on nested awaited
+ * tasks, which would never start if they were queued behind the blocked tasks. Their threads are still only created
+ * on demand and released when idle.
+ * The threads of the groups are platform threads, or virtual threads if enabled with
+ * {@link #setUseVirtualThreads(boolean)}.
+ */
 public class ThreadUtils {
-    
-    private static final Map<String, ExecutorService> EXECUTORS = new HashMap<>();
-    private static final Map<String, Thread> THREADS = new HashMap<>();
     private static final int POOL_SIZE = 10;
-    private static final ExecutorService POOL = Executors.newFixedThreadPool(POOL_SIZE);
+
+    private static volatile boolean useVirtualThreads;
+
+    private static final ExecutorGroup SERIAL_GROUP = new ExecutorGroup("ThreadUtils-serial", Integer.MAX_VALUE,
+            ThreadUtils::isUseVirtualThreads);
+    private static final ExecutorGroup POOL = new ExecutorGroup("ThreadUtils-pool", POOL_SIZE,
+            ThreadUtils::isUseVirtualThreads);
+    private static final ExecutorGroup AWAIT_GROUP = new ExecutorGroup("ThreadUtils-await", Integer.MAX_VALUE,
+            ThreadUtils::isUseVirtualThreads);
+    private static final Map<String, SerialExecutor> EXECUTORS = new ConcurrentHashMap<>();
+
+    static {
+        MetricsRegistry.getInstance().gauge("haveno_executor_thread_ids", "Thread ids with queued or running tasks",
+                EXECUTORS::size);
+    }
+
+    /**
+     * Virtual threads are cheaper for the many mostly blocking tasks, but a virtual thread blocking within a
+     * synchronized block pins its carrier thread, so they are disabled by default. Only applies to threads created
+     * after the call.
+     */
+    public static void setUseVirtualThreads(boolean useVirtualThreads) {
+        ThreadUtils.useVirtualThreads = useVirtualThreads;
+    }
+
+    public static boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public static List<ExecutorGroup> getExecutorGroups() {
+        return List.of(SERIAL_GROUP, POOL, AWAIT_GROUP);
+    }
 
     /**
      * Execute the given command in a thread with the given id.
@@ -41,25 +91,37 @@ public class ThreadUtils {
      * @param threadId the thread id
      */
     public static Future<?> execute(Runnable command, String threadId) {
-        synchronized (EXECUTORS) {
-            if (!EXECUTORS.containsKey(threadId)) EXECUTORS.put(threadId, Executors.newFixedThreadPool(1));
-            return EXECUTORS.get(threadId).submit(() -> {
-                synchronized (THREADS) {
-                    THREADS.put(threadId, Thread.currentThread());
-                }
-                Thread.currentThread().setName(threadId);
-                command.run();
-            });
+        FutureTask<?> task = new FutureTask<>(command, null);
+        while (true) {
+            SerialExecutor executor = EXECUTORS.computeIfAbsent(threadId, SerialExecutor::new);
+            boolean start;
+            synchronized (executor) {
+                if (executor.retired) continue; // removed from the map after running its last task
+                if (executor.shutDown) throw new RejectedExecutionException("Thread " + threadId + " is shut down");
+                executor.tasks.add(task);
+                start = !executor.running;
+                executor.running = true;
+            }
+            if (start) SERIAL_GROUP.execute(executor::runTasks);
+            return task;
         }
     }
 
     /**
      * Awaits execution of the given command, but does not throw its exception.
+     * <p>
+     * If called from a task of the same thread id, the command runs directly in the calling task instead of being
+     * queued, because the queued command could only start after the waiting task.
      * 
      * @param command the command to execute
      * @param threadId the thread id
      */
     public static void await(Runnable command, String threadId) {
+        // Waiting for a task queued behind the current one would never return
+        if (isCurrentThread(Thread.currentThread(), threadId)) {
+            command.run();
+            return;
+        }
         try {
             execute(command, threadId).get();
         } catch (Exception e) {
@@ -71,33 +133,41 @@ public class ThreadUtils {
         shutDown(threadId, null);
     }
 
+    /**
+     * Rejects new tasks of the thread id and waits until its queued tasks are done. Queued tasks are cancelled and
+     * the running task is interrupted if they do not complete within the timeout.
+     */
     public static void shutDown(String threadId, Long timeoutMs) {
         if (timeoutMs == null) timeoutMs = Long.MAX_VALUE;
-        ExecutorService pool = null;
-        synchronized (EXECUTORS) {
-            pool = EXECUTORS.get(threadId);
-        }
-        if (pool == null) return; // thread not found
-        pool.shutdown();
+        SerialExecutor executor = EXECUTORS.get(threadId);
+        if (executor == null) return; // thread not found
         try {
-            if (!pool.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) pool.shutdownNow();
+            if (!executor.shutDownAndAwait(timeoutMs)) executor.shutDownNow();
         } catch (InterruptedException e) {
-            pool.shutdownNow();
+            executor.shutDownNow();
             throw new RuntimeException(e);
         } finally {
             remove(threadId);
         }
     }
 
+    /**
+     * Removes the thread id. Queued tasks still run, but new tasks of the id start a new queue.
+     */
     public static void remove(String threadId) {
-        synchronized (EXECUTORS) {
-            EXECUTORS.remove(threadId);
-        }
-        synchronized (THREADS) {
-            THREADS.remove(threadId);
+        SerialExecutor executor = EXECUTORS.remove(threadId);
+        if (executor != null) {
+            synchronized (executor) {
+                executor.retired = true;
+            }
         }
     }
 
+    @VisibleForTesting
+    static boolean hasThreadId(String threadId) {
+        return EXECUTORS.containsKey(threadId);
+    }
+
     // TODO: consolidate and cleanup apis
 
     public static Future<?> submitToPool(Runnable task) {
@@ -126,26 +196,117 @@ public class ThreadUtils {
         return awaitTasks(tasks, maxConcurrency, null);
     }
 
+    /**
+     * Runs the tasks with at most maxConcurrency of them at the same time and waits until all are done. The timeout
+     * applies to each task as before the tasks were bounded: waiting for a free slot to start a task and waiting for
+     * the result of a task are each limited to timeoutMs. If a task fails or times out, the remaining tasks are
+     * cancelled and a RuntimeException is thrown.
+     */
     public static List<Future<?>> awaitTasks(Collection<Runnable> tasks, int maxConcurrency, Long timeoutMs) {
         if (timeoutMs == null) timeoutMs = Long.MAX_VALUE;
         if (tasks.isEmpty()) return new ArrayList<>();
-        ExecutorService executorService = Executors.newFixedThreadPool(tasks.size());
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        List<Future<?>> futures = new ArrayList<>();
         try {
-            List<Future<?>> futures = new ArrayList<>();
-            for (Runnable task : tasks) futures.add(executorService.submit(task, null));
+            for (Runnable task : tasks) {
+                if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new TimeoutException("Task did not start within " + timeoutMs + " ms");
+                }
+                futures.add(AWAIT_GROUP.submit(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
             for (Future<?> future : futures) future.get(timeoutMs, TimeUnit.MILLISECONDS);
             return futures;
         } catch (Exception e) {
+            for (Future<?> future : futures) future.cancel(true);
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
             throw new RuntimeException(e);
-        } finally {
-            executorService.shutdownNow();
         }
     }
 
     private static boolean isCurrentThread(Thread thread, String threadId) {
-        synchronized (THREADS) {
-            if (!THREADS.containsKey(threadId)) return false;
-            return thread == THREADS.get(threadId);
+        SerialExecutor executor = EXECUTORS.get(threadId);
+        return executor != null && executor.thread == thread;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // SerialExecutor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Queue of the tasks of a thread id. Only one task at a time runs on the serial group, with the thread renamed to
+    // the id. The queue retires itself and is removed from EXECUTORS when it runs out of tasks.
+    private static final class SerialExecutor {
+        private final String id;
+        private final Queue<FutureTask<?>> tasks = new ArrayDeque<>();
+        private boolean running;
+        private boolean shutDown;
+        private boolean retired;
+        private volatile Thread thread;
+
+        private SerialExecutor(String id) {
+            this.id = id;
+        }
+
+        private void runTasks() {
+            Thread currentThread = Thread.currentThread();
+            String groupThreadName = currentThread.getName();
+            thread = currentThread;
+            currentThread.setName(id);
+            try {
+                FutureTask<?> task;
+                while ((task = nextTask()) != null) {
+                    task.run();
+                }
+            } finally {
+                currentThread.setName(groupThreadName);
+                // Do not leak an interrupt of shutDownNow to the next task of the group
+                Thread.interrupted();
+            }
+        }
+
+        private synchronized FutureTask<?> nextTask() {
+            FutureTask<?> task = tasks.poll();
+            if (task == null) {
+                running = false;
+                thread = null;
+                if (!shutDown && !retired) {
+                    retired = true;
+                    EXECUTORS.remove(id, this);
+                }
+                notifyAll();
+            }
+            return task;
+        }
+
+        private synchronized boolean shutDownAndAwait(long timeoutMs) throws InterruptedException {
+            shutDown = true;
+            // Called by one of its own tasks, the remaining tasks run after it
+            if (thread == Thread.currentThread()) return true;
+            long deadline = timeoutMs == Long.MAX_VALUE ? Long.MAX_VALUE :
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (running) {
+                if (deadline == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) return false;
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                }
+            }
+            return true;
+        }
+
+        private synchronized void shutDownNow() {
+            shutDown = true;
+            tasks.forEach(task -> task.cancel(false));
+            tasks.clear();
+            if (thread != null) thread.interrupt();
         }
     }
 }
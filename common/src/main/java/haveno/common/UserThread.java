@@ -35,7 +35,7 @@ import java.util.concurrent.TimeUnit;
  * For JavaFX it is usually the Platform::RunLater executor, for a headless application it is any single threaded
  * executor.
  * Additionally sets a timer class so JavaFX and headless applications can set different timers (UITimer for JavaFX
- * otherwise we use the default FrameRateTimer).
+ * otherwise we use the default WheelTimer).
  * <p>
  * Provides also methods for delayed and periodic executions.
  */
@@ -54,7 +54,7 @@ public class UserThread {
     static {
         // If not defined we use same thread as caller thread
         executor = MoreExecutors.directExecutor();
-        timerClass = FrameRateTimer.class;
+        timerClass = WheelTimer.class;
     }
 
     public static void execute(Runnable command) {
@@ -108,7 +108,8 @@ public class UserThread {
     }
 
     public static Timer runAfter(Runnable runnable, long delay, TimeUnit timeUnit) {
-        return getTimer().runLater(Duration.ofMillis(timeUnit.toMillis(delay)), () -> execute(runnable));
+        Timer timer = getTimer();
+        return timer.runLater(Duration.ofMillis(timeUnit.toMillis(delay)), toUserThreadAction(timer, runnable));
     }
 
     public static Timer runPeriodically(Runnable runnable, long intervalInSec) {
@@ -116,7 +117,14 @@ public class UserThread {
     }
 
     public static Timer runPeriodically(Runnable runnable, long interval, TimeUnit timeUnit) {
-        return getTimer().runPeriodically(Duration.ofMillis(timeUnit.toMillis(interval)), () -> execute(runnable));
+        Timer timer = getTimer();
+        return timer.runPeriodically(Duration.ofMillis(timeUnit.toMillis(interval)), toUserThreadAction(timer, runnable));
+    }
+
+    // The WheelTimer dispatches all actions expiring at a tick in one task to the user thread, so we must not post
+    // each action again
+    private static Runnable toUserThreadAction(Timer timer, Runnable runnable) {
+        return timer instanceof WheelTimer ? runnable : () -> execute(runnable);
     }
 
     private static Timer getTimer() {
@@ -0,0 +1,53 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer backed by the shared HashedTimerWheel. The action is run on the user thread. Default timer for headless
+ * applications, replacing the polling of all timers by the MasterTimer.
+ */
+public class WheelTimer implements Timer {
+    @Nullable
+    private volatile HashedTimerWheel.Timeout timeout;
+
+    public WheelTimer() {
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable action) {
+        timeout = HashedTimerWheel.getInstance().schedule(delay.toNanos(), TimeUnit.NANOSECONDS, action);
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        timeout = HashedTimerWheel.getInstance().schedulePeriodically(interval.toNanos(), TimeUnit.NANOSECONDS, runnable);
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        HashedTimerWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
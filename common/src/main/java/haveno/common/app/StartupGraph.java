@@ -0,0 +1,343 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.app;
+
+import haveno.common.handlers.FaultHandler;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Runs startup tasks in the order given by their declared dependencies. A node is started as soon as all nodes it
+ * depends on are complete, so independent nodes run concurrently on the executor. Nodes which are ready at the same
+ * time are started in the order they were added, so with a direct executor the nodes run serially in insertion order.
+ * <p>
+ * Tasks get a complete handler which may be called from any thread, which allows nodes waiting for asynchronous work
+ * like reading persisted data. Once all nodes are complete the result handler gets a {@link Timeline} with the
+ * duration of each node and the critical path. If a task throws, its dependents are not started and the fault
+ * handler is called.
+ */
+@Slf4j
+public class StartupGraph {
+    private final String name;
+    private final Executor executor;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Queue<Node> readyNodes = new PriorityQueue<>(Comparator.comparingInt(node -> node.index));
+    private boolean started;
+    private boolean dispatching;
+    private boolean failed;
+    private int numRemaining;
+    private long startNanos;
+    private Consumer<Timeline> resultHandler;
+    private FaultHandler faultHandler;
+
+    public StartupGraph(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds a node whose task is complete when it returns.
+     */
+    public StartupGraph addNode(String nodeName, Runnable task, String... dependencies) {
+        return addAsyncNode(nodeName, completeHandler -> {
+            task.run();
+            completeHandler.run();
+        }, dependencies);
+    }
+
+    /**
+     * Adds a node whose task is complete when it calls the given complete handler.
+     */
+    public synchronized StartupGraph addAsyncNode(String nodeName, Consumer<Runnable> task, String... dependencies) {
+        checkState(!started, "Nodes cannot be added after the graph was started");
+        checkArgument(!nodes.containsKey(nodeName), "Duplicate node " + nodeName);
+        nodes.put(nodeName, new Node(nodeName, nodes.size(), task, Arrays.asList(dependencies)));
+        return this;
+    }
+
+    /**
+     * Checks that all dependencies exist and that the graph has no cycle.
+     *
+     * @return the node names in the order they are started with a direct executor
+     */
+    public synchronized List<String> validate() {
+        for (Node node : nodes.values()) {
+            for (String dependency : node.dependencyNames) {
+                checkArgument(nodes.containsKey(dependency), "Node " + node.name + " depends on unknown node " + dependency);
+            }
+        }
+
+        Map<String, Integer> numPending = new LinkedHashMap<>();
+        Queue<Node> ready = new PriorityQueue<>(Comparator.comparingInt(node -> node.index));
+        for (Node node : nodes.values()) {
+            numPending.put(node.name, new HashSet<>(node.dependencyNames).size());
+            if (numPending.get(node.name) == 0) ready.add(node);
+        }
+        List<String> order = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            order.add(node.name);
+            for (Node dependent : getDependents(node)) {
+                if (numPending.merge(dependent.name, -1, Integer::sum) == 0) ready.add(dependent);
+            }
+        }
+        if (order.size() < nodes.size()) {
+            throw new IllegalStateException("Startup graph " + name + " has a cycle: " + findCycle(new HashSet<>(order)));
+        }
+        return order;
+    }
+
+    public void start(Consumer<Timeline> resultHandler, FaultHandler faultHandler) {
+        synchronized (this) {
+            checkState(!started, "Startup graph " + name + " was already started");
+            validate();
+            started = true;
+            this.resultHandler = resultHandler;
+            this.faultHandler = faultHandler;
+            numRemaining = nodes.size();
+            startNanos = System.nanoTime();
+            for (Node node : nodes.values()) {
+                node.dependencies = node.dependencyNames.stream().distinct().map(nodes::get).toList();
+                node.dependents = getDependents(node);
+                node.numPending = node.dependencies.size();
+                if (node.numPending == 0) readyNodes.add(node);
+            }
+        }
+        if (nodes.isEmpty()) {
+            resultHandler.accept(new Timeline(name, 0, Collections.emptyList(), Collections.emptyList()));
+            return;
+        }
+        dispatchReadyNodes();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Timeline
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Getter
+    public static class Timeline {
+        private final String graphName;
+        private final long totalMs;
+        private final List<NodeTiming> nodeTimings;
+        private final List<String> criticalPath;
+
+        private Timeline(String graphName, long totalMs, List<NodeTiming> nodeTimings, List<String> criticalPath) {
+            this.graphName = graphName;
+            this.totalMs = totalMs;
+            this.nodeTimings = nodeTimings;
+            this.criticalPath = criticalPath;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Startup timeline of ").append(graphName)
+                    .append(" (").append(totalMs).append(" ms)");
+            for (NodeTiming timing : nodeTimings) {
+                sb.append("\n    ").append(String.format("%6d ms +%6d ms  ", timing.getStartMs(), timing.getDurationMs()))
+                        .append(timing.getName());
+            }
+            sb.append("\n    Critical path: ").append(String.join(" -> ", criticalPath));
+            return sb.toString();
+        }
+    }
+
+    @Getter
+    public static class NodeTiming {
+        private final String name;
+        // Relative to the start of the graph
+        private final long startMs;
+        private final long durationMs;
+
+        private NodeTiming(String name, long startMs, long durationMs) {
+            this.name = name;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class Node {
+        private final String name;
+        private final int index;
+        private final Consumer<Runnable> task;
+        private final List<String> dependencyNames;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private List<Node> dependencies;
+        private List<Node> dependents;
+        private int numPending;
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        private Node(String name, int index, Consumer<Runnable> task, List<String> dependencyNames) {
+            this.name = name;
+            this.index = index;
+            this.task = task;
+            this.dependencyNames = dependencyNames;
+        }
+    }
+
+    // Only one thread dispatches at a time, so with a direct executor nodes completed during dispatching are started
+    // by the dispatching thread in index order instead of recursively.
+    private void dispatchReadyNodes() {
+        synchronized (this) {
+            if (dispatching) return;
+            dispatching = true;
+        }
+        try {
+            while (true) {
+                Node node;
+                synchronized (this) {
+                    node = failed ? null : readyNodes.poll();
+                    if (node == null) {
+                        dispatching = false;
+                        return;
+                    }
+                }
+                Node nodeToRun = node;
+                executor.execute(() -> run(nodeToRun));
+            }
+        } catch (Throwable t) {
+            synchronized (this) {
+                dispatching = false;
+            }
+            throw t;
+        }
+    }
+
+    private void run(Node node) {
+        node.startNanos = System.nanoTime();
+        try {
+            node.task.accept(() -> onNodeComplete(node));
+        } catch (Throwable t) {
+            synchronized (this) {
+                if (failed) return;
+                failed = true;
+            }
+            log.error("Startup node {} of {} failed", node.name, name, t);
+            faultHandler.handleFault("Startup node " + node.name + " failed: " + t.getMessage(), t);
+        }
+    }
+
+    private void onNodeComplete(Node node) {
+        if (!node.completed.compareAndSet(false, true)) {
+            log.warn("Startup node {} of {} was completed more than once", node.name, name);
+            return;
+        }
+        node.endNanos = System.nanoTime();
+        boolean allComplete;
+        synchronized (this) {
+            for (Node dependent : node.dependents) {
+                if (--dependent.numPending == 0) readyNodes.add(dependent);
+            }
+            allComplete = --numRemaining == 0;
+        }
+        if (allComplete) {
+            Timeline timeline = createTimeline();
+            log.info(timeline.toString());
+            resultHandler.accept(timeline);
+        } else {
+            dispatchReadyNodes();
+        }
+    }
+
+    private Timeline createTimeline() {
+        long endNanos = nodes.values().stream().mapToLong(node -> node.endNanos).max().orElse(startNanos);
+        List<NodeTiming> timings = nodes.values().stream()
+                .sorted(Comparator.comparingLong(node -> node.startNanos))
+                .map(node -> new NodeTiming(node.name, toMs(node.startNanos - startNanos), toMs(node.endNanos - node.startNanos)))
+                .toList();
+
+        // Walk back from the last node along the dependency which completed last
+        List<String> criticalPath = new ArrayList<>();
+        Node node = nodes.values().stream().max(Comparator.comparingLong(n -> n.endNanos)).orElseThrow();
+        while (node != null) {
+            criticalPath.add(node.name);
+            node = node.dependencies.stream().max(Comparator.comparingLong(n -> n.endNanos)).orElse(null);
+        }
+        Collections.reverse(criticalPath);
+        return new Timeline(name, toMs(endNanos - startNanos), timings, criticalPath);
+    }
+
+    private List<Node> getDependents(Node node) {
+        List<Node> dependents = new ArrayList<>();
+        for (Node candidate : nodes.values()) {
+            if (candidate.dependencyNames.contains(node.name)) dependents.add(candidate);
+        }
+        return dependents;
+    }
+
+    private String findCycle(Set<String> acyclic) {
+        Set<String> visited = new HashSet<>();
+        for (Node node : nodes.values()) {
+            if (acyclic.contains(node.name)) continue;
+            List<String> path = new ArrayList<>();
+            if (findCycle(node, acyclic, visited, path)) return String.join(" -> ", path);
+        }
+        return "unknown";
+    }
+
+    // Depth first search which leaves only the nodes of the cycle in the path
+    private boolean findCycle(Node node, Set<String> acyclic, Set<String> visited, List<String> path) {
+        int index = path.indexOf(node.name);
+        if (index >= 0) {
+            path.subList(0, index).clear();
+            path.add(node.name);
+            return true;
+        }
+        if (acyclic.contains(node.name) || !visited.add(node.name)) return false;
+        path.add(node.name);
+        for (String dependency : node.dependencyNames) {
+            if (findCycle(nodes.get(dependency), acyclic, visited, path)) return true;
+        }
+        path.remove(path.size() - 1);
+        return false;
+    }
+
+    private static long toMs(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
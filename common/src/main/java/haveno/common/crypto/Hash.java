@@ -35,9 +35,8 @@ public class Hash {
      */
     public static byte[] getSha256Hash(byte[] data) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data, 0, data.length);
-            return digest.digest();
+            MessageDigest digest = CryptoPrimitives.getMessageDigest("SHA-256");
+            return digest.digest(data);
         } catch (NoSuchAlgorithmException e) {
             log.error("Could not create MessageDigest for hash. ", e);
             throw new RuntimeException(e);
@@ -73,7 +73,7 @@ public class Sig {
      */
     public static byte[] sign(PrivateKey privateKey, byte[] data) throws CryptoException {
         try {
-            Signature sig = Signature.getInstance(ALGO);
+            Signature sig = CryptoPrimitives.getSignature(ALGO);
             sig.initSign(privateKey);
             sig.update(data);
             return sig.sign();
@@ -100,7 +100,7 @@ public class Sig {
      */
     public static boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws CryptoException {
         try {
-            Signature sig = Signature.getInstance(ALGO);
+            Signature sig = CryptoPrimitives.getSignature(ALGO);
             sig.initVerify(publicKey);
             sig.update(data);
             return sig.verify(signature);
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.primitives.Ints;
+
+import java.security.PublicKey;
+
+/**
+ * Bounded cache of successful signature verifications. The same signed data is often verified several times, e.g.
+ * when an entry is received from multiple peers or re-validated at a later add or refresh. Only valid signatures are
+ * cached, so an invalid signature is always verified again and cannot displace valid entries by being repeated.
+ */
+public class SignatureVerificationCache {
+    private final Cache<HashCode, Boolean> verifiedSignatures;
+
+    public SignatureVerificationCache(long maxSize) {
+        verifiedSignatures = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Same as Sig.verify but skips the verification if the pubKeyBytes, data and signature have been verified before.
+     *
+     * @param pubKeyBytes the encoded publicKey, used as part of the cache key
+     */
+    public boolean verify(byte[] pubKeyBytes, PublicKey publicKey, byte[] data, byte[] signature) throws CryptoException {
+        HashCode key = getKey(pubKeyBytes, data, signature);
+        if (verifiedSignatures.getIfPresent(key) != null) {
+            return true;
+        }
+
+        boolean result = Sig.verify(publicKey, data, signature);
+        if (result) {
+            verifiedSignatures.put(key, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    public long size() {
+        return verifiedSignatures.size();
+    }
+
+    public void clear() {
+        verifiedSignatures.invalidateAll();
+    }
+
+    // Lengths are included so different splits of the same bytes do not map to the same key
+    private static HashCode getKey(byte[] pubKeyBytes, byte[] data, byte[] signature) {
+        byte[] bytes = new byte[12 + pubKeyBytes.length + data.length + signature.length];
+        int offset = 0;
+        for (byte[] part : new byte[][]{pubKeyBytes, data, signature}) {
+            System.arraycopy(Ints.toByteArray(part.length), 0, bytes, offset, 4);
+            System.arraycopy(part, 0, bytes, offset + 4, part.length);
+            offset += 4 + part.length;
+        }
+        return HashCode.fromBytes(Hash.getSha256Hash(bytes));
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.common.file;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.MetricsRegistry;
+import haveno.common.util.Hex;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content addressed backups of a file. At each backup the file is split into content defined chunks, each chunk is
+ * stored once under its SHA-256 hash and a manifest listing the chunks describes the version. Chunk boundaries are
+ * found with a gear rolling hash, so a change of the file only leads to new chunks around the changed bytes, even if
+ * bytes are inserted or removed.
+ * <p>
+ * The store of a file is kept in the backup directory next to it. Pruning keeps the given number of the latest
+ * versions and deletes the chunks which are not referenced by them anymore. Backups created by
+ * {@link FileUtil#rollingBackup} before are imported as versions at the first access.
+ * <p>
+ * Chunks and manifests are written to temp files and renamed, and a manifest is only written after all its chunks,
+ * so a crash never leaves a version referring to missing data.
+ */
+@Slf4j
+public class BackupStore {
+    private static final String BACKUP_DIR = "backup";
+    private static final String STORE_DIR_PREFIX = "store_";
+    private static final String CHUNKS_DIR = "chunks";
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String MANIFEST_HEADER = "haveno-backup-manifest 1";
+
+    @VisibleForTesting
+    static final int MIN_CHUNK_SIZE = 16 * 1024;
+    @VisibleForTesting
+    static final int MAX_CHUNK_SIZE = 256 * 1024;
+    // A boundary is at a position where the 16 highest bits of the hash are 0, which gives 64 KB on average after the
+    // min. size. The highest bits depend on the last 64 bytes.
+    private static final long BOUNDARY_MASK = 0xFFFFL << 48;
+    private static final long[] GEAR = createGearTable();
+
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+    private static final Counter WRITTEN_BYTES = MetricsRegistry.getInstance().counter(
+            "haveno_backup_written_bytes_total", "Bytes written to backup stores");
+    private static final Counter DEDUPLICATED_BYTES = MetricsRegistry.getInstance().counter(
+            "haveno_backup_deduplicated_bytes_total", "Bytes of backed up files which were already stored");
+
+    /**
+     * Returns the backup store of the file with the given name in dir.
+     */
+    public static BackupStore of(File dir, String fileName) {
+        return new BackupStore(dir, fileName);
+    }
+
+    @Getter
+    private final File file;
+    private final File storeDir;
+    private final File chunksDir;
+    private final File legacyBackupDir;
+    private final Object lock;
+
+    private BackupStore(File dir, String fileName) {
+        File backupDir = new File(dir.getAbsoluteFile(), BACKUP_DIR);
+        this.file = new File(dir.getAbsoluteFile(), fileName);
+        this.storeDir = new File(backupDir, STORE_DIR_PREFIX + fileName);
+        this.chunksDir = new File(storeDir, CHUNKS_DIR);
+        this.legacyBackupDir = new File(backupDir, "backups_" + fileName.replace(".", "_"));
+        this.lock = LOCKS.computeIfAbsent(storeDir.getPath(), path -> new Object());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the current content of the file as new version, unless it equals the latest version, and prunes the
+     * store to numMaxVersions. Failures are logged.
+     *
+     * @return the number of bytes written to the store
+     */
+    public long backup(int numMaxVersions) {
+        if (numMaxVersions <= 0 || !file.exists()) {
+            return 0;
+        }
+        synchronized (lock) {
+            try {
+                migrateLegacyBackups();
+                long bytesWritten = addVersion(file, nextVersion());
+                prune(numMaxVersions);
+                return bytesWritten;
+            } catch (IOException e) {
+                log.error("Backup of {} failed: {}", file, e.getMessage(), e);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the versions which can be restored in ascending order. A version is the time of its backup in ms.
+     */
+    public List<Long> getVersions() {
+        synchronized (lock) {
+            try {
+                migrateLegacyBackups();
+            } catch (IOException e) {
+                log.error("Importing the backups of {} failed: {}", file, e.getMessage(), e);
+            }
+            return listVersions();
+        }
+    }
+
+    /**
+     * Writes the given version to target. The content is verified against the hash of the backed up file before
+     * target is replaced.
+     */
+    public void restore(long version, File target) throws IOException {
+        synchronized (lock) {
+            Manifest manifest = readManifest(version);
+            File tempFile = new File(target.getAbsoluteFile().getParentFile(), target.getName() + TEMP_SUFFIX);
+            try {
+                MessageDigest digest = newDigest();
+                try (OutputStream out = new FileOutputStream(tempFile)) {
+                    for (String chunkHash : manifest.chunkHashes) {
+                        byte[] chunk = Files.readAllBytes(new File(chunksDir, chunkHash).toPath());
+                        digest.update(chunk);
+                        out.write(chunk);
+                    }
+                }
+                if (tempFile.length() != manifest.size || !Hex.encode(digest.digest()).equals(manifest.hash)) {
+                    throw new IOException("Restored content of version " + version + " of " + file.getName() +
+                            " does not match the backed up file");
+                }
+                move(tempFile, target);
+            } finally {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
+
+    public void delete() {
+        synchronized (lock) {
+            try {
+                FileUtils.deleteDirectory(storeDir);
+                FileUtils.deleteDirectory(legacyBackupDir);
+            } catch (IOException e) {
+                log.error("Delete backup store failed: {}\n", e.getMessage(), e);
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Chunking, package private for tests
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    interface ChunkConsumer {
+        void accept(byte[] chunk, int length) throws IOException;
+    }
+
+    @VisibleForTesting
+    static void split(InputStream in, ChunkConsumer consumer) throws IOException {
+        byte[] chunk = new byte[MAX_CHUNK_SIZE];
+        byte[] buffer = new byte[64 * 1024];
+        int length = 0;
+        long hash = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                chunk[length++] = b;
+                hash = (hash << 1) + GEAR[b & 0xff];
+                if ((length >= MIN_CHUNK_SIZE && (hash & BOUNDARY_MASK) == 0) || length == MAX_CHUNK_SIZE) {
+                    consumer.accept(chunk, length);
+                    length = 0;
+                    hash = 0;
+                }
+            }
+        }
+        if (length > 0) {
+            consumer.accept(chunk, length);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private long addVersion(File source, long version) throws IOException {
+        if (!chunksDir.exists() && !chunksDir.mkdirs()) {
+            throw new IOException("Could not create " + chunksDir);
+        }
+
+        MessageDigest fileDigest = newDigest();
+        MessageDigest chunkDigest = newDigest();
+        List<String> chunkHashes = new ArrayList<>();
+        long[] bytesWritten = new long[1];
+        long[] size = new long[1];
+        try (InputStream in = new FileInputStream(source)) {
+            split(in, (chunk, length) -> {
+                fileDigest.update(chunk, 0, length);
+                chunkDigest.update(chunk, 0, length);
+                String chunkHash = Hex.encode(chunkDigest.digest());
+                chunkHashes.add(chunkHash);
+                size[0] += length;
+                File chunkFile = new File(chunksDir, chunkHash);
+                if (chunkFile.exists()) {
+                    DEDUPLICATED_BYTES.inc(length);
+                } else {
+                    writeAtomically(chunkFile, Arrays.copyOf(chunk, length));
+                    bytesWritten[0] += length;
+                }
+            });
+        }
+
+        Manifest manifest = new Manifest(size[0], Hex.encode(fileDigest.digest()), chunkHashes);
+        List<Long> versions = listVersions();
+        if (!versions.isEmpty() && manifest.isSameContent(readManifest(versions.get(versions.size() - 1)))) {
+            log.debug("{} did not change since the latest backup", file.getName());
+            return bytesWritten[0];
+        }
+        byte[] manifestBytes = manifest.toBytes();
+        writeAtomically(getManifestFile(version), manifestBytes);
+        bytesWritten[0] += manifestBytes.length;
+        WRITTEN_BYTES.inc(bytesWritten[0]);
+        return bytesWritten[0];
+    }
+
+    private void prune(int numMaxVersions) throws IOException {
+        List<Long> versions = listVersions();
+        if (versions.size() <= numMaxVersions) {
+            return;
+        }
+        for (long version : versions.subList(0, versions.size() - numMaxVersions)) {
+            Files.deleteIfExists(getManifestFile(version).toPath());
+        }
+
+        Set<String> referencedChunks = new HashSet<>();
+        for (long version : listVersions()) {
+            referencedChunks.addAll(readManifest(version).chunkHashes);
+        }
+        File[] chunkFiles = chunksDir.listFiles();
+        if (chunkFiles != null) {
+            for (File chunkFile : chunkFiles) {
+                if (!referencedChunks.contains(chunkFile.getName())) {
+                    Files.deleteIfExists(chunkFile.toPath());
+                }
+            }
+        }
+    }
+
+    // Imports the full copies of the file made by FileUtil.rollingBackup
+    private void migrateLegacyBackups() throws IOException {
+        File[] legacyFiles = legacyBackupDir.listFiles(File::isFile);
+        if (legacyFiles == null) {
+            return;
+        }
+        Arrays.sort(legacyFiles, Comparator.comparing(File::getName));
+        for (File legacyFile : legacyFiles) {
+            addVersion(legacyFile, nextVersion(getLegacyVersion(legacyFile)));
+        }
+        FileUtils.deleteDirectory(legacyBackupDir);
+        log.info("We imported {} backups of {} into its backup store", legacyFiles.length, file.getName());
+    }
+
+    private static long getLegacyVersion(File legacyFile) {
+        String name = legacyFile.getName();
+        int separator = name.indexOf('_');
+        try {
+            return Long.parseLong(separator > 0 ? name.substring(0, separator) : name);
+        } catch (NumberFormatException e) {
+            return legacyFile.lastModified();
+        }
+    }
+
+    private long nextVersion() {
+        return nextVersion(System.currentTimeMillis());
+    }
+
+    // Versions are unique and ascending even if several backups are made within the same ms
+    private long nextVersion(long time) {
+        List<Long> versions = listVersions();
+        return versions.isEmpty() ? time : Math.max(time, versions.get(versions.size() - 1) + 1);
+    }
+
+    private List<Long> listVersions() {
+        String[] names = storeDir.list((dir, name) -> name.endsWith(MANIFEST_SUFFIX));
+        List<Long> versions = new ArrayList<>();
+        if (names != null) {
+            for (String name : names) {
+                try {
+                    versions.add(Long.parseLong(name.substring(0, name.length() - MANIFEST_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected file {} in {}", name, storeDir);
+                }
+            }
+        }
+        Collections.sort(versions);
+        return versions;
+    }
+
+    private File getManifestFile(long version) {
+        return new File(storeDir, version + MANIFEST_SUFFIX);
+    }
+
+    private Manifest readManifest(long version) throws IOException {
+        File manifestFile = getManifestFile(version);
+        if (!manifestFile.exists()) {
+            throw new IOException("Version " + version + " of " + file.getName() + " does not exist");
+        }
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!MANIFEST_HEADER.equals(reader.readLine())) {
+                throw new IOException("Unsupported manifest " + manifestFile);
+            }
+            long size = Long.parseLong(reader.readLine());
+            String hash = reader.readLine();
+            List<String> chunkHashes = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    chunkHashes.add(line);
+                }
+            }
+            return new Manifest(size, hash, chunkHashes);
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupted manifest " + manifestFile, e);
+        }
+    }
+
+    private static void writeAtomically(File target, byte[] bytes) throws IOException {
+        File tempFile = new File(target.getParentFile(), target.getName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+        move(tempFile, target);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Random but fixed values, as the chunk boundaries of a file must not change between releases
+    private static long[] createGearTable() {
+        long[] table = new long[256];
+        long state = 0x4861_7665_6E6F_4344L;
+        for (int i = 0; i < table.length; i++) {
+            // SplitMix64
+            state += 0x9E37_79B9_7F4A_7C15L;
+            long value = state;
+            value = (value ^ (value >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+            value = (value ^ (value >>> 27)) * 0x94D0_49BB_1331_11EBL;
+            table[i] = value ^ (value >>> 31);
+        }
+        return table;
+    }
+
+    private static class Manifest {
+        private final long size;
+        private final String hash;
+        private final List<String> chunkHashes;
+
+        private Manifest(long size, String hash, List<String> chunkHashes) {
+            this.size = size;
+            this.hash = hash;
+            this.chunkHashes = chunkHashes;
+        }
+
+        private boolean isSameContent(Manifest other) {
+            return size == other.size && hash.equals(other.hash) && chunkHashes.equals(other.chunkHashes);
+        }
+
+        private byte[] toBytes() {
+            StringBuilder sb = new StringBuilder(MANIFEST_HEADER).append('\n')
+                    .append(size).append('\n')
+                    .append(hash).append('\n');
+            chunkHashes.forEach(chunkHash -> sb.append(chunkHash).append('\n'));
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
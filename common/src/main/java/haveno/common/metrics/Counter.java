@@ -0,0 +1,73 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter with the total since startup and the count over the rolling window.
+ */
+public class Counter extends Metric {
+    private final LongAdder total = new LongAdder();
+    private final AtomicLongArray sliceCounts;
+    private final RollingWindow window;
+
+    Counter(String name, String help, Map<String, String> labels, Clock clock, long windowMillis, int numSlices) {
+        super(name, help, labels);
+        sliceCounts = new AtomicLongArray(numSlices);
+        window = new RollingWindow(clock, windowMillis, numSlices, slice -> sliceCounts.set(slice, 0));
+    }
+
+    @Override
+    public Type getType() {
+        return Type.COUNTER;
+    }
+
+    public void inc() {
+        inc(1);
+    }
+
+    public void inc(long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        total.add(amount);
+        sliceCounts.addAndGet(window.getCurrentSlice(), amount);
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public long getWindowCount() {
+        long epoch = window.getEpoch();
+        long count = 0;
+        for (int i = 0; i < window.getNumSlices(); i++) {
+            if (window.isInWindow(i, epoch)) {
+                count += sliceCounts.get(i);
+            }
+        }
+        return count;
+    }
+
+    public double getWindowRatePerSec() {
+        return getWindowCount() * 1000d / window.getWindowMillis();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Current value provided by a supplier at read time, e.g. the number of connections.
+ */
+@Slf4j
+public class Gauge extends Metric {
+    private final DoubleSupplier supplier;
+
+    Gauge(String name, String help, Map<String, String> labels, DoubleSupplier supplier) {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.GAUGE;
+    }
+
+    public double getValue() {
+        try {
+            return supplier.getAsDouble();
+        } catch (Throwable t) {
+            log.warn("Could not read gauge {}: {}", this, t.toString());
+            return Double.NaN;
+        }
+    }
+}
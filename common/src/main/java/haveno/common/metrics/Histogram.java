@@ -0,0 +1,194 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import lombok.Getter;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non-negative values, e.g. durations in ms or sizes in bytes, over the rolling window. Values are
+ * counted in log-linear buckets like in HdrHistogram: each power of 2 is split into 16 buckets, so percentiles have a
+ * relative error below 6.25%. Values above 2^48 are counted in the highest bucket.
+ * <p>
+ * Slices of the window are allocated at first use, so rarely used histograms stay small.
+ */
+public class Histogram extends Metric {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_HIGHEST_BIT = 47;
+    static final int NUM_BUCKETS = (MAX_HIGHEST_BIT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicReferenceArray<Slice> slices;
+    private final RollingWindow window;
+
+    Histogram(String name, String help, Map<String, String> labels, Clock clock, long windowMillis, int numSlices) {
+        super(name, help, labels);
+        slices = new AtomicReferenceArray<>(numSlices);
+        window = new RollingWindow(clock, windowMillis, numSlices, slice -> slices.set(slice, null));
+    }
+
+    @Override
+    public Type getType() {
+        return Type.HISTOGRAM;
+    }
+
+    public void record(long value) {
+        value = Math.max(0, value);
+        totalCount.increment();
+        totalSum.add(value);
+
+        int index = window.getCurrentSlice();
+        Slice slice = slices.get(index);
+        if (slice == null) {
+            slice = new Slice();
+            if (!slices.compareAndSet(index, null, slice)) {
+                slice = slices.get(index);
+            }
+        }
+        if (slice != null) {
+            slice.record(value);
+        }
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getSum() {
+        return totalSum.sum();
+    }
+
+    public Snapshot getSnapshot() {
+        long epoch = window.getEpoch();
+        long[] bucketCounts = new long[NUM_BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < window.getNumSlices(); i++) {
+            Slice slice = slices.get(i);
+            if (slice == null || !window.isInWindow(i, epoch)) {
+                continue;
+            }
+            for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+                bucketCounts[bucket] += slice.bucketCounts.get(bucket);
+            }
+            count += slice.count.get();
+            sum += slice.sum.get();
+            min = Math.min(min, slice.min.get());
+            max = Math.max(max, slice.max.get());
+        }
+        return new Snapshot(bucketCounts, count, sum, count == 0 ? 0 : min, max);
+    }
+
+    static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int highestBit = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_HIGHEST_BIT);
+        int shift = highestBit - SUB_BUCKET_BITS;
+        long subBucket = Math.min(value >>> shift, 2 * SUB_BUCKET_COUNT - 1);
+        return shift * SUB_BUCKET_COUNT + (int) subBucket;
+    }
+
+    static long getBucketLowerBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return ((long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT)) << shift;
+    }
+
+    static long getBucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        return getBucketLowerBound(index) + (1L << shift) - 1;
+    }
+
+    private static class Slice {
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(NUM_BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long value) {
+            bucketCounts.incrementAndGet(getBucketIndex(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Merged state of all slices within the window.
+     */
+    public static class Snapshot {
+        private final long[] bucketCounts;
+        @Getter
+        private final long count;
+        @Getter
+        private final long sum;
+        @Getter
+        private final long min;
+        @Getter
+        private final long max;
+
+        Snapshot(long[] bucketCounts, long count, long sum, long min, long max) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns the highest value of the bucket containing the given percentile, limited to the recorded min and max.
+         *
+         * @param percentile between 0 and 100
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long cumulativeCount = 0;
+            for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+                cumulativeCount += bucketCounts[bucket];
+                if (cumulativeCount >= rank) {
+                    return Math.max(min, Math.min(max, getBucketUpperBound(bucket)));
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Base class of all metrics held by the MetricsRegistry. A metric is identified by its name and labels. Metrics with
+ * the same name share the help text and type.
+ */
+@Getter
+public abstract class Metric {
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    public enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    private final String name;
+    private final String help;
+    private final Map<String, String> labels;
+
+    protected Metric(String name, String help, Map<String, String> labels) {
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+    public abstract Type getType();
+
+    /**
+     * Converts alternating label names and values to a map and validates name and labels.
+     */
+    static Map<String, String> toLabels(String name, String... labelNamesAndValues) {
+        checkArgument(NAME_PATTERN.matcher(name).matches(), "Invalid metric name " + name);
+        checkArgument(labelNamesAndValues.length % 2 == 0, "Labels must be pairs of name and value");
+        ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+        for (int i = 0; i < labelNamesAndValues.length; i += 2) {
+            String labelName = labelNamesAndValues[i];
+            checkArgument(LABEL_NAME_PATTERN.matcher(labelName).matches(), "Invalid label name " + labelName);
+            builder.put(labelName, String.valueOf(labelNamesAndValues[i + 1]));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return labels.isEmpty() ? name : name + labels;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the metrics in Prometheus text format at http://127.0.0.1:port/metrics. Binds only to the loopback
+ * interface; remote scraping requires a tunnel or a local agent.
+ */
+@Slf4j
+public class MetricsHttpServer {
+    public static final String PATH = "/metrics";
+
+    @Nullable
+    private static MetricsHttpServer instance;
+
+    private final MetricsRegistry registry;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+
+    /**
+     * Registers the JMX exporter and starts the http server at the given port if it is positive. Can be called
+     * repeatedly, e.g. at a restart of the daemon.
+     */
+    public static synchronized void start(MetricsRegistry registry, int port) {
+        MetricsJmxExporter.register(registry);
+        if (port <= 0 || instance != null) {
+            return;
+        }
+        try {
+            instance = new MetricsHttpServer(registry, port);
+            log.info("Metrics are available at http://127.0.0.1:{}{}", port, PATH);
+        } catch (IOException e) {
+            log.error("Could not start metrics http server at port {}: {}", port, e.toString());
+        }
+    }
+
+    /**
+     * Stops the http server, so its port is free when the daemon restarts.
+     */
+    public static synchronized void shutDown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    MetricsHttpServer(MetricsRegistry registry, int port) throws IOException {
+        this.registry = registry;
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext(PATH, this::handle);
+        executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("MetricsHttpServer")
+                .setDaemon(true)
+                .build());
+        httpServer.setExecutor(executor);
+        httpServer.start();
+    }
+
+    int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    void stop() {
+        httpServer.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = PrometheusTextFormat.format(registry).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusTextFormat.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } catch (Throwable t) {
+            log.warn("Error at serving metrics: {}", t.toString());
+        }
+    }
+}
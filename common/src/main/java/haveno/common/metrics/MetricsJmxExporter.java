@@ -0,0 +1,152 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Exposes all metrics of a registry as attributes of a single MBean. Attribute names are the metric name with its
+ * labels followed by the statistic, e.g. haveno_network_messages_received_total{type=Ping}.windowRatePerSec.
+ * The attribute set is read at each request, so metrics created later show up at the next refresh of the client.
+ */
+@Slf4j
+public class MetricsJmxExporter implements DynamicMBean {
+    public static final String OBJECT_NAME = "haveno:type=Metrics";
+
+    private final MetricsRegistry registry;
+
+    public MetricsJmxExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static synchronized void register(MetricsRegistry registry) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(new MetricsJmxExporter(registry), objectName);
+            }
+        } catch (Exception e) {
+            log.warn("Could not register metrics MBean: {}", e.toString());
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // DynamicMBean implementation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Supplier<Object> supplier = getAttributes().get(attribute);
+        if (supplier == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return supplier.get();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Supplier<Object>> suppliers = getAttributes();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Supplier<Object> supplier = suppliers.get(attribute);
+            if (supplier != null) {
+                list.add(new Attribute(attribute, supplier.get()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations supported");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Supplier<Object>> attributes = getAttributes();
+        MBeanAttributeInfo[] attributeInfos = attributes.entrySet().stream()
+                .map(entry -> new MBeanAttributeInfo(entry.getKey(),
+                        entry.getKey().endsWith("Count") || entry.getKey().endsWith(".count") ? "long" : "double",
+                        entry.getKey(),
+                        true,
+                        false,
+                        false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Haveno metrics", attributeInfos, null, null, null);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Map<String, Supplier<Object>> getAttributes() {
+        Map<String, Supplier<Object>> attributes = new LinkedHashMap<>();
+        for (Metric metric : registry.getMetrics()) {
+            String prefix = metric.getLabels().isEmpty() ?
+                    metric.getName() :
+                    metric.getName() + metric.getLabels().toString().replace(", ", ",");
+            switch (metric.getType()) {
+                case COUNTER:
+                    Counter counter = (Counter) metric;
+                    attributes.put(prefix + ".count", counter::getCount);
+                    attributes.put(prefix + ".windowCount", counter::getWindowCount);
+                    attributes.put(prefix + ".windowRatePerSec", counter::getWindowRatePerSec);
+                    break;
+                case GAUGE:
+                    attributes.put(prefix + ".value", ((Gauge) metric)::getValue);
+                    break;
+                case HISTOGRAM:
+                    Histogram histogram = (Histogram) metric;
+                    attributes.put(prefix + ".count", histogram::getCount);
+                    attributes.put(prefix + ".windowCount", () -> histogram.getSnapshot().getCount());
+                    attributes.put(prefix + ".windowMean", () -> histogram.getSnapshot().getMean());
+                    attributes.put(prefix + ".windowP50", () -> (double) histogram.getSnapshot().getPercentile(50));
+                    attributes.put(prefix + ".windowP90", () -> (double) histogram.getSnapshot().getPercentile(90));
+                    attributes.put(prefix + ".windowP99", () -> (double) histogram.getSnapshot().getPercentile(99));
+                    attributes.put(prefix + ".windowMax", () -> (double) histogram.getSnapshot().getMax());
+                    break;
+            }
+        }
+        return attributes;
+    }
+}
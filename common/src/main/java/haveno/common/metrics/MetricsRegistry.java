@@ -0,0 +1,150 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import lombok.Getter;
+import lombok.Value;
+
+import java.time.Clock;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Holds counters, gauges and histograms. Metrics are created at first access and afterwards returned from the
+ * registry, so callers can keep a reference in a static field or look it up with the labels at each use.
+ * <p>
+ * The shared instance is used by the network, persistence and wallet code and exported by
+ * MetricsJmxExporter and MetricsHttpServer.
+ */
+public class MetricsRegistry {
+    public static final long DEFAULT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    public static final int DEFAULT_NUM_SLICES = 6;
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry(Clock.systemUTC(), DEFAULT_WINDOW_MILLIS, DEFAULT_NUM_SLICES);
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    private final Clock clock;
+    @Getter
+    private final long windowMillis;
+    private final int numSlices;
+    private final Map<MetricId, Metric> metrics = new ConcurrentHashMap<>();
+    private final Map<String, Metric.Type> typesByName = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(Clock clock, long windowMillis, int numSlices) {
+        this.clock = clock;
+        this.windowMillis = windowMillis;
+        this.numSlices = numSlices;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param labelNamesAndValues alternating label names and values, e.g. "type", "Ping"
+     */
+    public Counter counter(String name, String help, String... labelNamesAndValues) {
+        Map<String, String> labels = Metric.toLabels(name, labelNamesAndValues);
+        return (Counter) getOrCreate(name, labels, Metric.Type.COUNTER,
+                () -> new Counter(name, help, labels, clock, windowMillis, numSlices));
+    }
+
+    public Histogram histogram(String name, String help, String... labelNamesAndValues) {
+        Map<String, String> labels = Metric.toLabels(name, labelNamesAndValues);
+        return (Histogram) getOrCreate(name, labels, Metric.Type.HISTOGRAM,
+                () -> new Histogram(name, help, labels, clock, windowMillis, numSlices));
+    }
+
+    /**
+     * Registers a gauge. An existing gauge with the same name and labels is replaced, as the supplier usually
+     * references an object which can be re-created, e.g. at a restart of the application.
+     */
+    public Gauge gauge(String name, String help, DoubleSupplier supplier, String... labelNamesAndValues) {
+        Map<String, String> labels = Metric.toLabels(name, labelNamesAndValues);
+        checkType(name, Metric.Type.GAUGE);
+        Gauge gauge = new Gauge(name, help, labels, supplier);
+        metrics.put(new MetricId(name, labels), gauge);
+        return gauge;
+    }
+
+    public Optional<Metric> find(String name, String... labelNamesAndValues) {
+        return Optional.ofNullable(metrics.get(new MetricId(name, Metric.toLabels(name, labelNamesAndValues))));
+    }
+
+    /**
+     * Returns all metrics sorted by name, so metrics with the same name are adjacent.
+     */
+    public List<Metric> getMetrics() {
+        return metrics.values().stream()
+                .sorted(Comparator.comparing(Metric::getName).thenComparing(metric -> metric.getLabels().toString()))
+                .collect(Collectors.toList());
+    }
+
+    public void remove(String name, String... labelNamesAndValues) {
+        metrics.remove(new MetricId(name, Metric.toLabels(name, labelNamesAndValues)));
+    }
+
+    /**
+     * Removes the given metric unless it was already replaced by another gauge with the same name and labels.
+     */
+    public void remove(Metric metric) {
+        metrics.remove(new MetricId(metric.getName(), metric.getLabels()), metric);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Metric getOrCreate(String name,
+                               Map<String, String> labels,
+                               Metric.Type type,
+                               Supplier<Metric> factory) {
+        Metric metric = metrics.get(new MetricId(name, labels));
+        if (metric == null) {
+            checkType(name, type);
+            metric = metrics.computeIfAbsent(new MetricId(name, labels), id -> factory.get());
+        }
+        checkArgument(metric.getType() == type, "Metric " + name + " is a " + metric.getType());
+        return metric;
+    }
+
+    private void checkType(String name, Metric.Type type) {
+        Metric.Type existingType = typesByName.putIfAbsent(name, type);
+        checkArgument(existingType == null || existingType == type,
+                "Metric " + name + " is already registered as " + existingType);
+    }
+
+    @Value
+    private static class MetricId {
+        String name;
+        Map<String, String> labels;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes metrics in the Prometheus text exposition format. Counters are exported with their total, histograms as
+ * summaries with the quantiles of the rolling window and the count and sum since startup.
+ */
+public class PrometheusTextFormat {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    public static String format(MetricsRegistry registry) {
+        return format(registry.getMetrics());
+    }
+
+    static String format(List<Metric> metrics) {
+        StringBuilder sb = new StringBuilder();
+        String previousName = null;
+        for (Metric metric : metrics) {
+            String name = metric.getName();
+            if (!name.equals(previousName)) {
+                sb.append("# HELP ").append(name).append(' ').append(escapeHelp(metric.getHelp())).append('\n');
+                sb.append("# TYPE ").append(name).append(' ').append(getTypeName(metric.getType())).append('\n');
+                previousName = name;
+            }
+            switch (metric.getType()) {
+                case COUNTER:
+                    appendSample(sb, name, metric.getLabels(), null, ((Counter) metric).getCount());
+                    break;
+                case GAUGE:
+                    appendSample(sb, name, metric.getLabels(), null, ((Gauge) metric).getValue());
+                    break;
+                case HISTOGRAM:
+                    Histogram histogram = (Histogram) metric;
+                    Histogram.Snapshot snapshot = histogram.getSnapshot();
+                    for (double quantile : QUANTILES) {
+                        appendSample(sb, name, metric.getLabels(), String.valueOf(quantile),
+                                snapshot.getPercentile(quantile * 100));
+                    }
+                    appendSample(sb, name + "_sum", metric.getLabels(), null, histogram.getSum());
+                    appendSample(sb, name + "_count", metric.getLabels(), null, histogram.getCount());
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String getTypeName(Metric.Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            default:
+                return "summary";
+        }
+    }
+
+    private static void appendSample(StringBuilder sb,
+                                     String name,
+                                     Map<String, String> labels,
+                                     String quantile,
+                                     double value) {
+        sb.append(name);
+        if (!labels.isEmpty() || quantile != null) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                sb.append(label.getKey()).append("=\"").append(escapeLabelValue(label.getValue())).append('"');
+                first = false;
+            }
+            if (quantile != null) {
+                if (!first) {
+                    sb.append(',');
+                }
+                sb.append("quantile=\"").append(quantile).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        } else {
+            return Double.toString(value);
+        }
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import lombok.Getter;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Splits a time window into a ring of slices. Each slice is reset by the first writer after it fell out of the window,
+ * so recording and reading never iterate over samples. Values recorded concurrently with a reset at a slice boundary
+ * can get lost, which is acceptable for metrics.
+ */
+final class RollingWindow {
+    private final Clock clock;
+    @Getter
+    private final long windowMillis;
+    private final long sliceMillis;
+    @Getter
+    private final int numSlices;
+    // Time slice number each slice was last reset for
+    private final AtomicLongArray sliceEpochs;
+    private final IntConsumer resetHandler;
+
+    RollingWindow(Clock clock, long windowMillis, int numSlices, IntConsumer resetHandler) {
+        checkArgument(numSlices > 0 && windowMillis >= numSlices, "Invalid window");
+        this.clock = clock;
+        this.windowMillis = windowMillis;
+        this.numSlices = numSlices;
+        this.sliceMillis = windowMillis / numSlices;
+        this.sliceEpochs = new AtomicLongArray(numSlices);
+        this.resetHandler = resetHandler;
+        for (int i = 0; i < numSlices; i++) {
+            sliceEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Returns the slice for the current time and resets it if it still holds data of an earlier window.
+     */
+    int getCurrentSlice() {
+        long epoch = getEpoch();
+        int slice = (int) Math.floorMod(epoch, (long) numSlices);
+        long sliceEpoch = sliceEpochs.get(slice);
+        if (sliceEpoch < epoch && sliceEpochs.compareAndSet(slice, sliceEpoch, epoch)) {
+            resetHandler.accept(slice);
+        }
+        return slice;
+    }
+
+    long getEpoch() {
+        return Math.floorDiv(clock.millis(), sliceMillis);
+    }
+
+    /**
+     * Returns true if the slice was written within the window ending at the given epoch.
+     */
+    boolean isInWindow(int slice, long epoch) {
+        long sliceEpoch = sliceEpochs.get(slice);
+        return sliceEpoch != Long.MIN_VALUE && epoch - sliceEpoch < numSlices && sliceEpoch <= epoch;
+    }
+}
@@ -20,6 +20,8 @@ package haveno.common.persistence;
 import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import haveno.common.ExecutorGroup;
+import haveno.common.ThreadUtils;
 import haveno.common.Timer;
 import haveno.common.UserThread;
 import haveno.common.app.DevEnv;
@@ -27,14 +29,16 @@ import haveno.common.config.Config;
 import haveno.common.crypto.CryptoException;
 import haveno.common.crypto.Encryption;
 import haveno.common.crypto.KeyRing;
+import haveno.common.file.BackupStore;
 import haveno.common.file.CorruptedStorageFileHandler;
 import haveno.common.file.FileUtil;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.proto.persistable.PersistableEnvelope;
 import haveno.common.proto.persistable.PersistenceProtoResolver;
 import haveno.common.util.GcUtil;
 import static haveno.common.util.Preconditions.checkDir;
-import haveno.common.util.SingleThreadExecutorUtils;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -44,10 +48,9 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import lombok.Getter;
@@ -66,6 +69,8 @@ import lombok.extern.slf4j.Slf4j;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * The writes of all instances are scheduled by the {@link WriteScheduler}, which coalesces repeated writes of a file
+ * and bounds the number of concurrent writes and syncs to disk.
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -79,6 +84,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
+    private static final Counter WRITTEN_BYTES = MetricsRegistry.getInstance().counter(
+            "haveno_persistence_written_bytes_total", "Bytes written to persisted files");
+    private static final Counter FAILED_WRITES = MetricsRegistry.getInstance().counter(
+            "haveno_persistence_failed_writes_total", "Failed writes of persisted files");
+    // Reads at startup are started for all persisted data hosts at once, so we bound the threads reading from disk
+    private static final ExecutorGroup READ_GROUP = new ExecutorGroup("PersistenceManager-read",
+            Math.max(2, Runtime.getRuntime().availableProcessors()), ThreadUtils::isUseVirtualThreads);
 
     public static void onAllServicesInitialized() {
         allServicesInitialized.set(true);
@@ -107,6 +119,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         ALL_PERSISTENCE_MANAGERS.clear();
         flushAtShutdownCalled = false;
         allServicesInitialized.set(false);
+        WriteScheduler.reset();
     }
 
     // We require being called only once from the global shutdown routine. As the shutdown routine has a timeout
@@ -132,14 +145,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             }
 
             log.info("Start flushAllDataToDisk");
-            AtomicInteger openInstances = new AtomicInteger(ALL_PERSISTENCE_MANAGERS.size());
-
-            if (openInstances.get() == 0) {
-                log.info("No PersistenceManager instances have been created yet.");
-                completeHandler.handleResult();
-            }
-
-            new HashSet<>(ALL_PERSISTENCE_MANAGERS.values()).forEach(persistenceManager -> {
+            Set<PersistenceManager<?>> persistenceManagers = new HashSet<>(ALL_PERSISTENCE_MANAGERS.values());
+            persistenceManagers.forEach(persistenceManager -> {
                 // For Priority.HIGH data we want to write to disk in any case to be on the safe side if we might have missed
                 // a requestPersistence call after an important state update. Those are usually rather small data stores.
                 // Otherwise we only persist if requestPersistence was called since the last persist call.
@@ -148,38 +155,30 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 // (fixes https://github.com/bisq-network/bisq/issues/4844).
                 if (persistenceManager.readCalled.get() &&
                         (persistenceManager.source.flushAtShutDown || persistenceManager.persistenceRequested)) {
-
-                    // We always get our completeHandler called even if exceptions happen. In case a file write fails
-                    // we still call our shutdown and count down routine as the completeHandler is triggered in any case.
-                    // We get our result handler called from the write thread so we map back to user thread.
                     try {
-                        persistenceManager.persistNow(() ->
-                            UserThread.execute(() -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown)));
+                        persistenceManager.persistNow(null);
                     } catch (Exception e) {
                         if (!doShutdown) throw e; // only complete if shutting down
-                        log.warn("Error flushing data to disk on shut down. Calling completeHandler.");
-                        UserThread.execute(() -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown));
+                        log.warn("Error flushing data to disk on shut down. We continue with the other files.");
                     }
-                } else {
-                    onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown);
                 }
             });
-        });
-    }
 
-    // We get called always from user thread here.
-    private static void onWriteCompleted(ResultHandler completeHandler,
-                                         AtomicInteger openInstances,
-                                         PersistenceManager<?> persistenceManager,
-                                         boolean doShutdown) {
-        if (doShutdown) {
-            persistenceManager.shutdown();
-        }
-
-        if (openInstances.decrementAndGet() == 0) {
-            log.info("flushAllDataToDisk completed");
-            completeHandler.handleResult();
-        }
+            // The write scheduler calls the handler on the user thread once all writes, including those which were
+            // scheduled before, are done. At shut down it rejects all later writes, so each file is flushed once.
+            Runnable onFlushed = () -> {
+                if (doShutdown) {
+                    persistenceManagers.forEach(PersistenceManager::shutdown);
+                }
+                log.info("flushAllDataToDisk completed");
+                completeHandler.handleResult();
+            };
+            if (doShutdown) {
+                WriteScheduler.getInstance().shutDown(onFlushed);
+            } else {
+                WriteScheduler.getInstance().flush(onFlushed);
+            }
+        });
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -188,13 +187,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     public enum Source {
         // For data stores we received from the network and which could be rebuilt. We store only for avoiding too much network traffic.
-        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false),
+        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false, WriteScheduler.Priority.LOW),
 
         // For data stores which are created from private local data. This data could only be rebuilt from backup files.
-        PRIVATE(10, 200, true),
+        PRIVATE(10, 200, true, WriteScheduler.Priority.HIGH),
 
         // For data stores which are created from private local data. Loss of that data would not have critical consequences.
-        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false);
+        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false, WriteScheduler.Priority.NORMAL);
 
         @Getter
         private final int numMaxBackupFiles;
@@ -202,11 +201,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         private final long delay;
         @Getter
         private final boolean flushAtShutDown;
+        @Getter
+        private final WriteScheduler.Priority writePriority;
 
-        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown) {
+        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown, WriteScheduler.Priority writePriority) {
             this.numMaxBackupFiles = numMaxBackupFiles;
             this.delay = delay;
             this.flushAtShutDown = flushAtShutDown;
+            this.writePriority = writePriority;
         }
     }
 
@@ -228,7 +230,6 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private volatile boolean persistenceRequested;
     @Nullable
     private Timer timer;
-    private ExecutorService writeToDiskExecutor;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -292,10 +293,6 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         if (timer != null) {
             timer.stop();
         }
-
-        if (writeToDiskExecutor != null) {
-            writeToDiskExecutor.shutdown();
-        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -303,7 +300,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * Read persisted file in a thread.
+     * Read persisted file in a thread of a bounded group shared by all persistence managers.
      *
      * @param resultHandler Consumer of persisted data once it was read from disk.
      * @param orElse        Called if no file exists or reading of file failed.
@@ -313,7 +310,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
     /**
-     * Read persisted file in a thread.
+     * Read persisted file in a thread of a bounded group shared by all persistence managers.
      * We map result handler calls to UserThread, so clients don't need to worry about threading
      *
      * @param fileName      File name of our persisted data.
@@ -326,7 +323,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             return;
         }
 
-        new Thread(() -> {
+        READ_GROUP.execute(() -> {
             T persisted = getPersisted(fileName);
             if (persisted != null) {
                 UserThread.execute(() -> {
@@ -337,7 +334,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             } else {
                 UserThread.execute(orElse);
             }
-        }, "PersistenceManager-read-" + fileName).start();
+        });
     }
 
     // API for synchronous reading of data. Not recommended to be used in application code.
@@ -459,10 +456,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
             // gets mutated while the thread is running as we have serialized it already and do not operate on the
-            // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler, force));
+            // reference to the persistable object. If a write of our file is still pending it gets replaced by this one.
+            WriteScheduler.getInstance().schedule(storageFile.getAbsolutePath(), source.getWritePriority(),
+                    () -> writeToDisk(serialized, force), completeHandler);
 
             long duration = System.currentTimeMillis() - ts;
+            MetricsRegistry.getInstance().histogram("haveno_persistence_serialize_duration_ms",
+                    "Time to serialize a persistable on the user thread", "file", fileName).record(duration);
             if (duration > 100) {
                 log.info("Serializing {} took {} msec", fileName, duration);
             }
@@ -473,19 +473,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
-    private void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler, boolean force) {
+    // Called by the write scheduler, which never runs two writes of the same file at the same time
+    private void writeToDisk(protobuf.PersistableEnvelope serialized, boolean force) {
         if (!allServicesInitialized.get() && !force) {
             log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
-            if (completeHandler != null) {
-                UserThread.execute(completeHandler);
-            }
             return;
         }
         if (keyRing != null && !keyRing.isUnlocked()) {
             log.warn("Account is not open, ignoring writeToDisk.");
-            if (completeHandler != null) {
-                UserThread.execute(completeHandler);
-            }
             return;
         }
 
@@ -495,7 +490,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         try {
             // Before we write we backup existing file
-            FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
+            BackupStore.of(dir, fileName).backup(source.getNumMaxBackupFiles());
 
             if (!dir.exists() && !dir.mkdir())
                 log.warn("make dir failed {}", fileName);
@@ -511,8 +506,10 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             if (keyRing != null) {
                 byte[] encryptedBytes = Encryption.encryptPayloadWithHmac(serialized.toByteArray(), keyRing.getSymmetricKey());
                 fileOutputStream.write(encryptedBytes);
+                WRITTEN_BYTES.inc(encryptedBytes.length);
             } else {
                 serialized.writeDelimitedTo(fileOutputStream);
+                WRITTEN_BYTES.inc(serialized.getSerializedSize());
             }
 
             // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
@@ -529,6 +526,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
+            FAILED_WRITES.inc();
             log.error("Error at saveToFile, storageFile={}", fileName, t);
         } finally {
             if (tempFile != null && tempFile.exists()) {
@@ -548,22 +546,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 log.error("Cannot close resources." + e.getMessage());
             }
             long duration = System.currentTimeMillis() - ts;
+            MetricsRegistry.getInstance().histogram("haveno_persistence_write_duration_ms",
+                    "Time to back up, encrypt, write and sync a file", "file", fileName).record(duration);
             if (duration > 100) {
                 log.info("Writing the serialized {} completed in {} msec", fileName, duration);
             }
             persistenceRequested = false;
-            if (completeHandler != null) {
-                UserThread.execute(completeHandler);
-            }
-        }
-    }
-
-    private ExecutorService getWriteToDiskExecutor() {
-        if (writeToDiskExecutor == null) {
-            String name = "Write-" + fileName + "_to-disk";
-            writeToDiskExecutor = SingleThreadExecutorUtils.getSingleThreadExecutor(name);
         }
-        return writeToDiskExecutor;
     }
 
     @Override
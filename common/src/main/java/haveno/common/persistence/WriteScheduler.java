@@ -0,0 +1,305 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.common.ExecutorGroup;
+import haveno.common.ThreadUtils;
+import haveno.common.UserThread;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.MetricsRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Schedules the writes of all persistence managers. Writes of the same file are coalesced: while a write of a file is
+ * pending or running, a newer write replaces the pending one, so only the latest snapshot is written and a file is
+ * never written by two threads at the same time. Pending writes are started by priority and then in the order they
+ * were first requested, with at most maxConcurrentWrites at the same time.
+ * <p>
+ * Each write ends with a sync to disk. A global budget of syncs per second defers writes at bursts, which lets more
+ * of them coalesce. Flushing ignores the budget. After {@link #shutDown(Runnable)} all pending writes are written
+ * once and writes requested afterwards are rejected.
+ */
+@Slf4j
+public class WriteScheduler {
+    private static final int MAX_CONCURRENT_WRITES = 4;
+    private static final int MAX_SYNCS_PER_SECOND = 20;
+
+    private static final Counter COALESCED_WRITES = MetricsRegistry.getInstance().counter(
+            "haveno_persistence_coalesced_writes_total", "Writes replaced by a newer write of the same file");
+    private static final Counter DEFERRED_WRITES = MetricsRegistry.getInstance().counter(
+            "haveno_persistence_deferred_writes_total", "Writes deferred because the sync budget was used up");
+
+    private static WriteScheduler instance;
+
+    public static synchronized WriteScheduler getInstance() {
+        if (instance == null) {
+            ExecutorGroup writeGroup = new ExecutorGroup("PersistenceManager-write", MAX_CONCURRENT_WRITES,
+                    ThreadUtils::isUseVirtualThreads);
+            instance = new WriteScheduler(writeGroup, UserThread::execute,
+                    (task, delayMs) -> UserThread.runAfter(task, delayMs, TimeUnit.MILLISECONDS),
+                    System::currentTimeMillis, MAX_CONCURRENT_WRITES, MAX_SYNCS_PER_SECOND);
+            MetricsRegistry.getInstance().gauge("haveno_persistence_pending_writes", "Writes waiting to be started",
+                    instance::getNumPending);
+        }
+        return instance;
+    }
+
+    /**
+     * Resets the shared instance to restart the application.
+     */
+    public static synchronized void reset() {
+        if (instance != null) {
+            instance.rejectWrites = false;
+        }
+    }
+
+    public enum Priority {
+        // Private data which can only be recovered from backups
+        HIGH,
+        NORMAL,
+        // Data which can be rebuilt from the network
+        LOW
+    }
+
+    public interface DelayScheduler {
+        void runAfter(Runnable task, long delayMs);
+    }
+
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+    private final DelayScheduler delayScheduler;
+    private final LongSupplier clock;
+    private final int maxConcurrentWrites;
+    private final int maxSyncsPerSecond;
+
+    private final Map<String, PendingWrite> pendingByFile = new HashMap<>();
+    private final PriorityQueue<PendingWrite> queue = new PriorityQueue<>(Comparator
+            .comparing((PendingWrite write) -> write.priority)
+            .thenComparingLong(write -> write.sequence));
+    private final Set<String> runningFiles = new HashSet<>();
+    private final List<Runnable> flushHandlers = new ArrayList<>();
+    private long sequence;
+    private double syncTokens;
+    private long lastRefillMs;
+    private boolean refillScheduled;
+    private boolean flushing;
+    private boolean rejectWrites;
+
+    @VisibleForTesting
+    WriteScheduler(Executor ioExecutor,
+                   Executor callbackExecutor,
+                   DelayScheduler delayScheduler,
+                   LongSupplier clock,
+                   int maxConcurrentWrites,
+                   int maxSyncsPerSecond) {
+        checkArgument(maxConcurrentWrites > 0, "maxConcurrentWrites must be positive");
+        checkArgument(maxSyncsPerSecond > 0, "maxSyncsPerSecond must be positive");
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.delayScheduler = delayScheduler;
+        this.clock = clock;
+        this.maxConcurrentWrites = maxConcurrentWrites;
+        this.maxSyncsPerSecond = maxSyncsPerSecond;
+        this.syncTokens = maxSyncsPerSecond;
+        this.lastRefillMs = clock.getAsLong();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Schedules the write of a file. If a write of the same file is pending it gets replaced, keeping its position
+     * in the queue and the higher of both priorities. The complete handlers of replaced writes are called once the
+     * replacing write is done.
+     */
+    public void schedule(String fileName, Priority priority, Runnable write, @Nullable Runnable completeHandler) {
+        synchronized (this) {
+            if (rejectWrites) {
+                log.warn("Write of {} was requested after shut down. We ignore it.", fileName);
+            } else {
+                PendingWrite pending = pendingByFile.get(fileName);
+                if (pending == null) {
+                    pending = new PendingWrite(fileName, priority, sequence++, write);
+                    pendingByFile.put(fileName, pending);
+                    queue.add(pending);
+                } else {
+                    COALESCED_WRITES.inc();
+                    pending.write = write;
+                    if (priority.compareTo(pending.priority) < 0) {
+                        queue.remove(pending);
+                        pending.priority = priority;
+                        queue.add(pending);
+                    }
+                }
+                if (completeHandler != null) {
+                    pending.completeHandlers.add(completeHandler);
+                }
+                completeHandler = null;
+            }
+        }
+        if (completeHandler != null) {
+            callbackExecutor.execute(completeHandler);
+        }
+        dispatch();
+    }
+
+    /**
+     * Writes all pending writes without waiting for the sync budget and calls the complete handler once all writes
+     * requested before are done.
+     */
+    public void flush(Runnable completeHandler) {
+        synchronized (this) {
+            flushing = true;
+            flushHandlers.add(completeHandler);
+        }
+        dispatch();
+    }
+
+    /**
+     * Flushes all pending writes and rejects writes requested afterwards. Repeated calls only wait for the flush.
+     */
+    public void shutDown(Runnable completeHandler) {
+        synchronized (this) {
+            if (rejectWrites) {
+                log.warn("WriteScheduler was shut down already");
+            }
+            rejectWrites = true;
+        }
+        flush(completeHandler);
+    }
+
+    public synchronized int getNumPending() {
+        return pendingByFile.size();
+    }
+
+    public synchronized int getNumRunning() {
+        return runningFiles.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class PendingWrite {
+        private final String fileName;
+        private final long sequence;
+        private final List<Runnable> completeHandlers = new ArrayList<>();
+        private Priority priority;
+        private Runnable write;
+
+        private PendingWrite(String fileName, Priority priority, long sequence, Runnable write) {
+            this.fileName = fileName;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.write = write;
+        }
+    }
+
+    private void dispatch() {
+        List<PendingWrite> toStart = new ArrayList<>();
+        List<Runnable> completedFlushHandlers = new ArrayList<>();
+        synchronized (this) {
+            refillSyncTokens();
+            List<PendingWrite> blocked = new ArrayList<>();
+            while (runningFiles.size() + toStart.size() < maxConcurrentWrites && !queue.isEmpty()) {
+                if (!flushing && syncTokens < 1) {
+                    DEFERRED_WRITES.inc();
+                    scheduleRefill();
+                    break;
+                }
+                PendingWrite pending = queue.poll();
+                if (runningFiles.contains(pending.fileName)) {
+                    // The running write of that file gets followed by the pending one once it is done
+                    blocked.add(pending);
+                    continue;
+                }
+                if (!flushing) {
+                    syncTokens--;
+                }
+                pendingByFile.remove(pending.fileName);
+                runningFiles.add(pending.fileName);
+                toStart.add(pending);
+            }
+            queue.addAll(blocked);
+
+            if (flushing && queue.isEmpty() && runningFiles.isEmpty() && toStart.isEmpty()) {
+                flushing = false;
+                completedFlushHandlers.addAll(flushHandlers);
+                flushHandlers.clear();
+            }
+        }
+        toStart.forEach(pending -> ioExecutor.execute(() -> run(pending)));
+        completedFlushHandlers.forEach(callbackExecutor::execute);
+    }
+
+    private void run(PendingWrite pending) {
+        try {
+            pending.write.run();
+        } catch (Throwable t) {
+            log.error("Writing {} failed", pending.fileName, t);
+        } finally {
+            synchronized (this) {
+                runningFiles.remove(pending.fileName);
+            }
+            pending.completeHandlers.forEach(callbackExecutor::execute);
+            dispatch();
+        }
+    }
+
+    private void refillSyncTokens() {
+        long now = clock.getAsLong();
+        long elapsedMs = now - lastRefillMs;
+        if (elapsedMs > 0) {
+            syncTokens = Math.min(maxSyncsPerSecond, syncTokens + elapsedMs * maxSyncsPerSecond / 1000d);
+            lastRefillMs = now;
+        }
+    }
+
+    private void scheduleRefill() {
+        if (refillScheduled) {
+            return;
+        }
+        refillScheduled = true;
+        long delayMs = (long) Math.ceil((1 - syncTokens) * 1000 / maxSyncsPerSecond);
+        delayScheduler.runAfter(() -> {
+            synchronized (this) {
+                refillScheduled = false;
+            }
+            dispatch();
+        }, Math.max(1, delayMs));
+    }
+}
@@ -18,6 +18,7 @@
 package haveno.common.setup;
 
 import ch.qos.logback.classic.Level;
+import haveno.common.ThreadUtils;
 import haveno.common.UserThread;
 import haveno.common.app.AsciiLogo;
 import haveno.common.app.DevEnv;
@@ -50,6 +51,7 @@ public class CommonSetup {
         setupSigIntHandlers(gracefulShutDownHandler);
 
         DevEnv.setup(config);
+        ThreadUtils.setUseVirtualThreads(config.useVirtualThreads);
     }
 
     public static void printSystemLoadPeriodically(int delayMin) {
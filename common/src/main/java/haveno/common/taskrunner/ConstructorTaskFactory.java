@@ -0,0 +1,68 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.taskrunner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+final class ConstructorTaskFactory<T extends Model> implements TaskFactory<T> {
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Task.class, TaskRunner.class, Model.class);
+    private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> taskClass) {
+            for (Constructor<?> constructor : taskClass.getDeclaredConstructors()) {
+                Class<?>[] parameterTypes = constructor.getParameterTypes();
+                if (parameterTypes.length == 2 && parameterTypes[0] == TaskRunner.class &&
+                        Model.class.isAssignableFrom(parameterTypes[1])) {
+                    try {
+                        constructor.setAccessible(true);
+                        return MethodHandles.lookup().unreflectConstructor(constructor).asType(FACTORY_TYPE);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalArgumentException("Constructor of task " + taskClass.getName() + " is not accessible", e);
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Task " + taskClass.getName() + " has no (TaskRunner, Model) constructor");
+        }
+    };
+
+    private final Class<? extends Task<T>> taskClass;
+
+    ConstructorTaskFactory(Class<? extends Task<T>> taskClass) {
+        this.taskClass = taskClass;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Task<T> create(TaskRunner<T> taskRunner, T model) {
+        try {
+            return (Task<T>) CONSTRUCTORS.get(taskClass).invokeExact((TaskRunner) taskRunner, (Model) model);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return taskClass.getSimpleName();
+    }
+}
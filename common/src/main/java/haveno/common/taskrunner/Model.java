@@ -17,6 +17,16 @@
 
 package haveno.common.taskrunner;
 
+import javax.annotation.Nullable;
+
 public interface Model {
     void onComplete();
+
+    /**
+     * Id under which the tasks run with this model are recorded in {@link TaskTraces}, or null to not record them.
+     */
+    @Nullable
+    default String getTaskTraceId() {
+        return null;
+    }
 }
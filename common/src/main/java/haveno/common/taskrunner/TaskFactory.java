@@ -0,0 +1,35 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.taskrunner;
+
+/**
+ * Creates a task of a task runner. Usually a constructor reference like {@code ApplyFilter::new}, which avoids the
+ * reflective lookup of the constructor when tasks are added by their class.
+ */
+@FunctionalInterface
+public interface TaskFactory<T extends Model> {
+    Task<T> create(TaskRunner<T> taskRunner, T model);
+
+    /**
+     * Returns a factory calling the (TaskRunner, Model) constructor of the task class. The constructor is looked up
+     * once per class when the first task is created.
+     */
+    static <T extends Model> TaskFactory<T> of(Class<? extends Task<T>> taskClass) {
+        return new ConstructorTaskFactory<>(taskClass);
+    }
+}
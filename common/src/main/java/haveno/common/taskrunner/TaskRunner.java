@@ -19,44 +19,63 @@ package haveno.common.taskrunner;
 
 import haveno.common.handlers.ErrorMessageHandler;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.metrics.MetricsRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
+/**
+ * Runs tasks one after the other until a task fails. Tasks are added as constructor references or by their class.
+ * <p>
+ * The wall time from the start of a task until it completes or fails is recorded in a histogram per task, and in
+ * {@link TaskTraces} under the trace id of the model.
+ */
 @Slf4j
 public class TaskRunner<T extends Model> {
-    private final Queue<Class<? extends Task<T>>> tasks = new LinkedBlockingQueue<>();
+    private final Queue<TaskFactory<T>> tasks = new LinkedBlockingQueue<>();
     private final T sharedModel;
-    private final Class<T> sharedModelClass;
     private final ResultHandler resultHandler;
     private final ErrorMessageHandler errorMessageHandler;
     private boolean failed = false;
     private boolean isCanceled;
 
-    private Class<? extends Task<T>> currentTask;
+    private String currentTaskName;
+    private long currentTaskStartTime;
+    private long currentTaskStartNanos;
 
 
     public TaskRunner(T sharedModel, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
-        //noinspection unchecked
-        this(sharedModel, (Class<T>) sharedModel.getClass(), resultHandler, errorMessageHandler);
-    }
-
-    public TaskRunner(T sharedModel, Class<T> sharedModelClass, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         this.sharedModel = sharedModel;
         this.resultHandler = resultHandler;
         this.errorMessageHandler = errorMessageHandler;
-        this.sharedModelClass = sharedModelClass;
+    }
+
+    // The model class was needed for the reflective constructor lookup of tasks, which resolves it by now
+    public TaskRunner(T sharedModel, Class<T> sharedModelClass, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
+        this(sharedModel, resultHandler, errorMessageHandler);
     }
 
     @SafeVarargs
     public final void addTasks(Class<? extends Task<T>>... items) {
+        for (Class<? extends Task<T>> item : items) {
+            tasks.add(TaskFactory.of(item));
+        }
+    }
+
+    @SafeVarargs
+    public final void addTasks(TaskFactory<T>... items) {
         tasks.addAll(Arrays.asList(items));
     }
 
+    public void addTasks(Collection<TaskFactory<T>> items) {
+        tasks.addAll(items);
+    }
+
     public void run() {
         next();
     }
@@ -65,9 +84,14 @@ public class TaskRunner<T extends Model> {
         if (!failed && !isCanceled) {
             if (tasks.size() > 0) {
                 try {
-                    currentTask = tasks.poll();
-                    log.info("Run task: " + currentTask.getSimpleName());
-                    currentTask.getDeclaredConstructor(TaskRunner.class, sharedModelClass).newInstance(this, sharedModel).run();
+                    TaskFactory<T> taskFactory = tasks.poll();
+                    currentTaskName = taskFactory.toString();
+                    currentTaskStartTime = System.currentTimeMillis();
+                    currentTaskStartNanos = System.nanoTime();
+                    Task<T> task = taskFactory.create(this, sharedModel);
+                    currentTaskName = task.getClass().getSimpleName();
+                    log.info("Run task: " + currentTaskName);
+                    task.run();
                 } catch (Throwable throwable) {
                     log.error(ExceptionUtils.getStackTrace(throwable));
                     handleErrorMessage("Error at taskRunner, error=" + throwable.getMessage());
@@ -87,13 +111,35 @@ public class TaskRunner<T extends Model> {
     }
 
     void handleComplete() {
+        recordTrace(TaskTrace.Result.COMPLETED, null);
         next();
     }
 
     void handleErrorMessage(String errorMessage) {
         if (isCanceled) return;
-        log.error("Task failed: " + currentTask.getSimpleName() + " / errorMessage: " + errorMessage);
+        log.error("Task failed: " + currentTaskName + " / errorMessage: " + errorMessage);
         failed = true;
+        recordTrace(TaskTrace.Result.FAILED, errorMessage);
         errorMessageHandler.handleErrorMessage(errorMessage);
     }
+
+    private void recordTrace(TaskTrace.Result result, String errorMessage) {
+        if (currentTaskName == null) return;
+        try {
+            long durationMs = (System.nanoTime() - currentTaskStartNanos) / 1_000_000;
+            MetricsRegistry metricsRegistry = MetricsRegistry.getInstance();
+            metricsRegistry.histogram("haveno_task_duration_ms", "Wall time of protocol tasks in milliseconds",
+                    "task", currentTaskName).record(durationMs);
+            if (result == TaskTrace.Result.FAILED) {
+                metricsRegistry.counter("haveno_task_failures_total", "Failed protocol tasks",
+                        "task", currentTaskName).inc();
+            }
+            String traceId = sharedModel.getTaskTraceId();
+            if (traceId != null) {
+                TaskTraces.getInstance().add(traceId, currentTaskName, currentTaskStartTime, durationMs, result, errorMessage);
+            }
+        } catch (Throwable t) {
+            log.warn("Could not record trace of task {}: {}", currentTaskName, t.toString());
+        }
+    }
 }
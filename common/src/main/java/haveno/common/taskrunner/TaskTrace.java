@@ -0,0 +1,43 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.taskrunner;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Run of a task, recorded by the task runner in {@link TaskTraces}.
+ */
+@Value
+public class TaskTrace {
+    public enum Result {
+        COMPLETED,
+        FAILED
+    }
+
+    String taskName;
+    // Epoch millis
+    long startTime;
+    long durationMs;
+    Result result;
+    @Nullable
+    String errorMessage;
+    // Counts from 1, higher if the task was run before for the same id, e.g. when a trade message is processed again
+    int attempt;
+}
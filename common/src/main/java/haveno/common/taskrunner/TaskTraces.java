@@ -0,0 +1,83 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.taskrunner;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded in-memory log of the tasks run for a trade or offer id, so slow or failing protocol steps can be inspected
+ * while the application is running. Keeps the last {@value #MAX_TRACES_PER_ID} task runs of the
+ * {@value #MAX_IDS} most recently used ids.
+ */
+public class TaskTraces {
+    static final int MAX_IDS = 1000;
+    static final int MAX_TRACES_PER_ID = 200;
+
+    private static final TaskTraces INSTANCE = new TaskTraces(MAX_IDS, MAX_TRACES_PER_ID);
+
+    public static TaskTraces getInstance() {
+        return INSTANCE;
+    }
+
+    private final int maxTracesPerId;
+    private final Map<String, Deque<TaskTrace>> tracesById;
+
+    @VisibleForTesting
+    TaskTraces(int maxIds, int maxTracesPerId) {
+        this.maxTracesPerId = maxTracesPerId;
+        tracesById = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<TaskTrace>> eldest) {
+                return size() > maxIds;
+            }
+        };
+    }
+
+    public synchronized TaskTrace add(String id,
+                                      String taskName,
+                                      long startTime,
+                                      long durationMs,
+                                      TaskTrace.Result result,
+                                      @Nullable String errorMessage) {
+        Deque<TaskTrace> traces = tracesById.computeIfAbsent(id, key -> new ArrayDeque<>());
+        int attempt = 1;
+        for (TaskTrace trace : traces) {
+            if (trace.getTaskName().equals(taskName)) attempt++;
+        }
+        TaskTrace trace = new TaskTrace(taskName, startTime, durationMs, result, errorMessage, attempt);
+        if (traces.size() >= maxTracesPerId) traces.removeFirst();
+        traces.addLast(trace);
+        return trace;
+    }
+
+    /**
+     * Returns the task runs of the given id, oldest first.
+     */
+    public synchronized List<TaskTrace> getTraces(String id) {
+        Deque<TaskTrace> traces = tracesById.get(id);
+        return traces == null ? new ArrayList<>() : new ArrayList<>(traces);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashedTimerWheelTest {
+    private static final long TICK_MS = 10;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MS);
+
+    private final AtomicLong nanoTime = new AtomicLong(1_000_000_000L);
+
+    private HashedTimerWheel createManualWheel() {
+        return new HashedTimerWheel(TICK_MS, Runnable::run, nanoTime::get, false);
+    }
+
+    private void advanceTicks(HashedTimerWheel wheel, long ticks) {
+        nanoTime.addAndGet(ticks * TICK_NANOS);
+        wheel.advance();
+    }
+
+    @Test
+    public void timeoutsFireAtTheirTickOnAllLevels() {
+        HashedTimerWheel wheel = createManualWheel();
+        // Level 0, 1, 2, 3 and beyond the highest level
+        long[] delayTicks = {1, 5, 63, 64, 100, 4_095, 4_096, 5_000, 300_000, 16_777_215, 20_000_000};
+        AtomicInteger[] fired = new AtomicInteger[delayTicks.length];
+        for (int i = 0; i < delayTicks.length; i++) {
+            AtomicInteger counter = new AtomicInteger();
+            fired[i] = counter;
+            wheel.schedule(delayTicks[i] * TICK_MS, TimeUnit.MILLISECONDS, counter::incrementAndGet);
+        }
+
+        long elapsedTicks = 0;
+        for (int i = 0; i < delayTicks.length; i++) {
+            advanceTicks(wheel, delayTicks[i] - 1 - elapsedTicks);
+            elapsedTicks = delayTicks[i] - 1;
+            assertEquals(0, fired[i].get(), "Fired early with delay " + delayTicks[i]);
+
+            advanceTicks(wheel, 1);
+            elapsedTicks++;
+            assertEquals(1, fired[i].get(), "Did not fire with delay " + delayTicks[i]);
+        }
+        assertEquals(0, wheel.getNumScheduled());
+    }
+
+    @Test
+    public void periodicTimeoutFiresUntilCancelled() {
+        HashedTimerWheel wheel = createManualWheel();
+        AtomicInteger fired = new AtomicInteger();
+        HashedTimerWheel.Timeout timeout = wheel.schedulePeriodically(100, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+
+        for (int i = 1; i <= 5; i++) {
+            advanceTicks(wheel, 9);
+            assertEquals(i - 1, fired.get());
+            advanceTicks(wheel, 1);
+            assertEquals(i, fired.get());
+        }
+
+        timeout.cancel();
+        advanceTicks(wheel, 100);
+        assertEquals(5, fired.get());
+        assertEquals(0, wheel.getNumScheduled());
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotFire() {
+        HashedTimerWheel wheel = createManualWheel();
+        AtomicInteger fired = new AtomicInteger();
+        // Cancelled before it was inserted into the wheel
+        wheel.schedule(50, TimeUnit.MILLISECONDS, fired::incrementAndGet).cancel();
+        HashedTimerWheel.Timeout timeout = wheel.schedule(50_000, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+        advanceTicks(wheel, 1);
+        assertEquals(1, wheel.getNumScheduled());
+
+        timeout.cancel();
+        advanceTicks(wheel, 10_000);
+        assertEquals(0, fired.get());
+        assertEquals(0, wheel.getNumScheduled());
+    }
+
+    @Test
+    public void timeoutsExpiringAtSameTickAreDispatchedTogether() {
+        List<Runnable> dispatchedTasks = new ArrayList<>();
+        HashedTimerWheel wheel = new HashedTimerWheel(TICK_MS, dispatchedTasks::add, nanoTime::get, false);
+        AtomicInteger fired = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            wheel.schedule(100, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+        }
+
+        advanceTicks(wheel, 10);
+
+        assertEquals(1, dispatchedTasks.size());
+        dispatchedTasks.get(0).run();
+        assertEquals(1000, fired.get());
+    }
+
+    @Test
+    public void failingActionDoesNotAffectOtherActions() {
+        HashedTimerWheel wheel = createManualWheel();
+        AtomicInteger fired = new AtomicInteger();
+        HashedTimerWheel.Timeout failing = wheel.schedulePeriodically(10, TimeUnit.MILLISECONDS, () -> {
+            throw new RuntimeException("test");
+        });
+        wheel.schedule(10, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+
+        advanceTicks(wheel, 1);
+
+        assertEquals(1, fired.get());
+        assertTrue(failing.isCancelled());
+    }
+
+    // Schedules 1M timeouts with delays up to 2 sec from several threads and cancels every second one. Each remaining
+    // timeout must fire exactly once at the first tick after its delay.
+    @Test
+    public void stressTestMillionTimeouts() throws InterruptedException {
+        int numTimeouts = 1_000_000;
+        int numThreads = 4;
+        long maxDelayMs = 2_000;
+        HashedTimerWheel wheel = createManualWheel();
+        long[] delayNanos = new long[numTimeouts];
+        long[] firedAtTick = new long[numTimeouts];
+        AtomicLong currentTick = new AtomicLong();
+        AtomicInteger numCancelledFired = new AtomicInteger();
+        AtomicInteger numFired = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int threadIndex = t;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(threadIndex);
+                for (int i = threadIndex; i < numTimeouts; i += numThreads) {
+                    int index = i;
+                    delayNanos[index] = random.nextLong(TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+                    boolean cancel = index % 2 == 1;
+                    HashedTimerWheel.Timeout timeout = wheel.schedule(delayNanos[index], TimeUnit.NANOSECONDS, () -> {
+                        if (cancel) {
+                            numCancelledFired.incrementAndGet();
+                            return;
+                        }
+                        firedAtTick[index] = currentTick.get();
+                        numFired.incrementAndGet();
+                    });
+                    if (cancel) {
+                        timeout.cancel();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long maxDelayTicks = TimeUnit.MILLISECONDS.toNanos(maxDelayMs) / TICK_NANOS + 1;
+        for (long tick = 1; tick <= maxDelayTicks; tick++) {
+            currentTick.set(tick);
+            advanceTicks(wheel, 1);
+        }
+
+        assertEquals(0, numCancelledFired.get());
+        assertEquals(numTimeouts / 2, numFired.get());
+        for (int i = 0; i < numTimeouts; i += 2) {
+            long expectedTick = Math.max(1, (delayNanos[i] + TICK_NANOS - 1) / TICK_NANOS);
+            assertEquals(expectedTick, firedAtTick[i], "Timeout with delay " + delayNanos[i] + " ns");
+        }
+        assertEquals(0, wheel.getNumScheduled());
+    }
+
+    @Test
+    public void idleWheelHasNoTickToProcess() {
+        HashedTimerWheel wheel = createManualWheel();
+        advanceTicks(wheel, 1);
+        assertEquals(Long.MAX_VALUE, wheel.getNextTickToProcess());
+
+        wheel.schedule(5 * TICK_MS, TimeUnit.MILLISECONDS, () -> {
+        });
+        advanceTicks(wheel, 5);
+        assertEquals(Long.MAX_VALUE, wheel.getNextTickToProcess());
+
+        wheel.schedule(5 * TICK_MS, TimeUnit.MILLISECONDS, () -> {
+        }).cancel();
+        advanceTicks(wheel, 0);
+        assertEquals(Long.MAX_VALUE, wheel.getNextTickToProcess());
+    }
+
+    @Test
+    public void nextTickToProcessIsDeadlineOrCascade() {
+        HashedTimerWheel wheel = createManualWheel();
+        AtomicInteger fired = new AtomicInteger();
+        wheel.schedule(30 * TICK_MS, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+        // In slot 15 of level 1, which cascades at tick 15 * 64
+        wheel.schedule(1_000 * TICK_MS, TimeUnit.MILLISECONDS, fired::incrementAndGet);
+        advanceTicks(wheel, 0);
+        assertEquals(30, wheel.getNextTickToProcess());
+
+        advanceTicks(wheel, 30);
+        assertEquals(1, fired.get());
+        assertEquals(960, wheel.getNextTickToProcess());
+
+        advanceTicks(wheel, 960 - 30);
+        assertEquals(1_000, wheel.getNextTickToProcess());
+
+        advanceTicks(wheel, 1_000 - 960);
+        assertEquals(2, fired.get());
+        assertEquals(Long.MAX_VALUE, wheel.getNextTickToProcess());
+    }
+
+    @Test
+    public void nextTickToProcessOfPeriodicTimeout() {
+        HashedTimerWheel wheel = createManualWheel();
+        wheel.schedulePeriodically(100, TimeUnit.MILLISECONDS, () -> {
+        });
+        advanceTicks(wheel, 0);
+        assertEquals(10, wheel.getNextTickToProcess());
+
+        advanceTicks(wheel, 10);
+        assertEquals(20, wheel.getNextTickToProcess());
+    }
+
+    // The worker of an idle wheel parks without a deadline, so it must be woken up by a new timeout
+    @Test
+    public void scheduleWakesUpParkedWorker() throws InterruptedException {
+        HashedTimerWheel wheel = new HashedTimerWheel(TICK_MS, Runnable::run, System::nanoTime, true);
+        try {
+            CountDownLatch first = new CountDownLatch(1);
+            wheel.schedule(TICK_MS, TimeUnit.MILLISECONDS, first::countDown);
+            assertTrue(first.await(10, TimeUnit.SECONDS));
+
+            // A timeout earlier than the one the worker parks for wakes it up as well
+            CountDownLatch later = new CountDownLatch(1);
+            wheel.schedule(1, TimeUnit.HOURS, later::countDown);
+            CountDownLatch earlier = new CountDownLatch(1);
+            wheel.schedule(TICK_MS, TimeUnit.MILLISECONDS, earlier::countDown);
+            assertTrue(earlier.await(10, TimeUnit.SECONDS));
+            assertEquals(1, later.getCount());
+        } finally {
+            wheel.shutDown();
+        }
+    }
+}
@@ -0,0 +1,396 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThreadUtilsTest {
+    private static final Logger log = LoggerFactory.getLogger(ThreadUtilsTest.class);
+
+    private static String newThreadId() {
+        return "test-" + UUID.randomUUID();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met within 5 s");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void execute_runsTasksOfThreadIdInOrderWithThreadName() throws Exception {
+        String threadId = newThreadId();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        AtomicBoolean wrongName = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int index = i;
+            futures.add(ThreadUtils.execute(() -> {
+                if (running.incrementAndGet() > 1) overlapped.set(true);
+                if (!Thread.currentThread().getName().equals(threadId)) wrongName.set(true);
+                order.add(index);
+                running.decrementAndGet();
+            }, threadId));
+        }
+        for (Future<?> future : futures) future.get(5, TimeUnit.SECONDS);
+
+        assertFalse(overlapped.get());
+        assertFalse(wrongName.get());
+        for (int i = 0; i < 1000; i++) assertEquals(i, order.get(i));
+    }
+
+    @Test
+    public void execute_differentThreadIdsRunConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable task = () -> {
+            bothStarted.countDown();
+            try {
+                bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        Future<?> first = ThreadUtils.execute(task, newThreadId());
+        Future<?> second = ThreadUtils.execute(task, newThreadId());
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, bothStarted.getCount());
+    }
+
+    @Test
+    public void execute_idleThreadIdsAreReclaimed() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        List<String> threadIds = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String threadId = newThreadId();
+            threadIds.add(threadId);
+            futures.add(ThreadUtils.execute(() -> {}, threadId));
+        }
+        for (Future<?> future : futures) future.get(5, TimeUnit.SECONDS);
+
+        // Concurrent tests may use other ids, so only the ids of this test are checked
+        awaitCondition(() -> threadIds.stream().noneMatch(ThreadUtils::hasThreadId));
+
+        // A reclaimed id accepts new tasks
+        ThreadUtils.execute(() -> {}, threadIds.get(0)).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void await_fromOwnThreadIdDoesNotDeadlock() throws Exception {
+        String threadId = newThreadId();
+        AtomicBoolean nestedRun = new AtomicBoolean();
+        ThreadUtils.execute(() -> ThreadUtils.await(() -> nestedRun.set(true), threadId), threadId)
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(nestedRun.get());
+    }
+
+    @Test
+    public void shutDown_waitsForQueuedTasksAndRejectsNewTasks() throws Exception {
+        String threadId = newThreadId();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        ThreadUtils.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            completed.incrementAndGet();
+        }, threadId);
+        ThreadUtils.execute(completed::incrementAndGet, threadId);
+
+        Thread shutDownThread = new Thread(() -> ThreadUtils.shutDown(threadId));
+        shutDownThread.start();
+        awaitCondition(() -> {
+            try {
+                ThreadUtils.execute(() -> {}, threadId);
+                return false;
+            } catch (RejectedExecutionException e) {
+                return true;
+            }
+        });
+        release.countDown();
+        shutDownThread.join(5000);
+
+        assertFalse(shutDownThread.isAlive());
+        assertEquals(2, completed.get());
+        // After the shut down the id can be used again
+        ThreadUtils.execute(completed::incrementAndGet, threadId).get(5, TimeUnit.SECONDS);
+        assertEquals(3, completed.get());
+    }
+
+    @Test
+    public void shutDown_timeoutInterruptsRunningAndCancelsQueuedTasks() throws Exception {
+        String threadId = newThreadId();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        ThreadUtils.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        }, threadId);
+        Future<?> queued = ThreadUtils.execute(() -> {}, threadId);
+        started.await(5, TimeUnit.SECONDS);
+
+        long ts = System.currentTimeMillis();
+        ThreadUtils.shutDown(threadId, 100L);
+
+        assertTrue(System.currentTimeMillis() - ts < 5000);
+        assertTrue(queued.isCancelled());
+        awaitCondition(interrupted::get);
+    }
+
+    @Test
+    public void awaitTasks_respectsMaxConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                running.decrementAndGet();
+            });
+        }
+
+        List<Future<?>> futures = ThreadUtils.awaitTasks(tasks, 3);
+
+        assertEquals(100, futures.size());
+        assertTrue(futures.stream().allMatch(Future::isDone));
+        assertTrue(maxRunning.get() <= 3, "maxRunning=" + maxRunning.get());
+        assertTrue(maxRunning.get() > 1, "maxRunning=" + maxRunning.get());
+    }
+
+    @Test
+    public void awaitTasks_timeoutCancelsRemainingTasks() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicInteger started = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(() -> {
+                started.incrementAndGet();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            });
+        }
+
+        long ts = System.currentTimeMillis();
+        assertThrows(RuntimeException.class, () -> ThreadUtils.awaitTasks(tasks, 2, 100L));
+
+        assertTrue(System.currentTimeMillis() - ts < 5000);
+        assertTrue(started.get() <= 2);
+    }
+
+    @Test
+    public void awaitTasks_timeoutAppliesPerTask() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        // All tasks take about 500 ms, each of them less than the timeout
+        List<Future<?>> futures = ThreadUtils.awaitTasks(tasks, 1, 300L);
+
+        assertTrue(futures.stream().allMatch(Future::isDone));
+    }
+
+    @Test
+    public void awaitTasks_failingTaskThrows() {
+        List<Runnable> tasks = List.of(() -> {}, () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertThrows(RuntimeException.class, () -> ThreadUtils.awaitTasks(tasks));
+    }
+
+    @Test
+    public void executorGroup_isBoundedAndReportsStats() throws Exception {
+        ExecutorGroup group = new ExecutorGroup("test-bounded", 4, 60_000, () -> false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(group.submit(() -> {
+                release.await();
+                return null;
+            }));
+        }
+        awaitCondition(() -> group.getActiveCount() == 4);
+
+        assertEquals(4, group.getPoolSize());
+        assertEquals(16, group.getQueueDepth());
+
+        release.countDown();
+        for (Future<?> future : futures) future.get(5, TimeUnit.SECONDS);
+        awaitCondition(() -> group.getCompletedTaskCount() == 20);
+        assertEquals(0, group.getQueueDepth());
+        assertEquals(20, group.getQueueLatencySnapshot().getCount());
+        assertEquals(20, group.getTaskDurationSnapshot().getCount());
+        group.shutDown();
+    }
+
+    @Test
+    public void executorGroup_reusesIdleThreadsAndReleasesThem() throws Exception {
+        ExecutorGroup group = new ExecutorGroup("test-elastic", 100, 50, () -> false);
+        for (int i = 0; i < 100; i++) {
+            group.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        }
+
+        // Sequential tasks reuse idle threads instead of growing the group up to its bound. A thread completes the
+        // future shortly before it becomes idle, so a few threads may get created.
+        assertTrue(group.getPoolSize() < 10, "poolSize=" + group.getPoolSize());
+        awaitCondition(() -> group.getPoolSize() == 0);
+        group.shutDown();
+    }
+
+    // Many thread ids with tasks submitted from several threads, like connections and trades receiving messages
+    @Test
+    public void execute_stress() throws Exception {
+        int numThreadIds = 200;
+        int numTasksPerId = 500;
+        List<String> threadIds = new ArrayList<>();
+        Map<String, List<Integer>> orders = new ConcurrentHashMap<>();
+        for (int i = 0; i < numThreadIds; i++) {
+            String threadId = newThreadId();
+            threadIds.add(threadId);
+            orders.put(threadId, Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        long ts = System.currentTimeMillis();
+        List<Thread> submitters = new ArrayList<>();
+        List<Future<?>> futures = Collections.synchronizedList(new ArrayList<>());
+        for (int s = 0; s < 4; s++) {
+            int submitter = s;
+            Thread thread = new Thread(() -> {
+                // Each submitter owns a quarter of the ids, so the submission order per id is defined
+                for (int task = 0; task < numTasksPerId; task++) {
+                    for (int i = submitter; i < numThreadIds; i += 4) {
+                        String threadId = threadIds.get(i);
+                        int index = task;
+                        futures.add(ThreadUtils.execute(() -> orders.get(threadId).add(index), threadId));
+                    }
+                }
+            });
+            submitters.add(thread);
+            thread.start();
+        }
+        for (Thread thread : submitters) thread.join();
+        for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        log.info("Ran {} tasks on {} thread ids in {} ms", numThreadIds * numTasksPerId, numThreadIds,
+                System.currentTimeMillis() - ts);
+
+        for (List<Integer> order : orders.values()) {
+            assertEquals(numTasksPerId, order.size());
+            for (int i = 0; i < numTasksPerId; i++) assertEquals(i, order.get(i));
+        }
+        awaitCondition(() -> threadIds.stream().noneMatch(ThreadUtils::hasThreadId));
+    }
+
+    // Like closing all trades, where each trade awaits its own shut down tasks
+    @Test
+    public void awaitTasks_nestedAwaitsDoNotStarve() {
+        int numOuterTasks = 300;
+        AtomicInteger innerRuns = new AtomicInteger();
+        CountDownLatch allOuterStarted = new CountDownLatch(numOuterTasks);
+        List<Runnable> outerTasks = new ArrayList<>();
+        for (int i = 0; i < numOuterTasks; i++) {
+            outerTasks.add(() -> {
+                allOuterStarted.countDown();
+                try {
+                    // All outer tasks block before any inner task runs
+                    assertTrue(allOuterStarted.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                ThreadUtils.awaitTasks(List.of(innerRuns::incrementAndGet, innerRuns::incrementAndGet));
+            });
+        }
+
+        ThreadUtils.awaitTasks(outerTasks, numOuterTasks, 20_000L);
+
+        assertEquals(2 * numOuterTasks, innerRuns.get());
+    }
+
+    @Test
+    public void await_crossThreadIdsDoNotStarve() throws Exception {
+        int numThreadIds = 300;
+        List<String> threadIds = new ArrayList<>();
+        for (int i = 0; i < numThreadIds; i++) threadIds.add(newThreadId());
+        CountDownLatch allStarted = new CountDownLatch(numThreadIds);
+        AtomicInteger otherRuns = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreadIds; i++) {
+            String otherThreadId = newThreadId();
+            futures.add(ThreadUtils.execute(() -> {
+                allStarted.countDown();
+                try {
+                    // All ids are busy before any of them awaits another id
+                    assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                ThreadUtils.await(otherRuns::incrementAndGet, otherThreadId);
+            }, threadIds.get(i)));
+        }
+        for (Future<?> future : futures) future.get(20, TimeUnit.SECONDS);
+
+        assertEquals(numThreadIds, otherRuns.get());
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupGraphTest {
+
+    @Test
+    public void detectsCycles() {
+        StartupGraph graph = new StartupGraph("test", Runnable::run)
+                .addNode("a", () -> {})
+                .addNode("b", () -> {}, "a", "d")
+                .addNode("c", () -> {}, "b")
+                .addNode("d", () -> {}, "c");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, graph::validate);
+        assertTrue(exception.getMessage().contains("b -> d -> c -> b"), exception.getMessage());
+        assertThrows(IllegalStateException.class, () -> graph.start(timeline -> {}, (message, throwable) -> {}));
+    }
+
+    @Test
+    public void detectsSelfDependencyAndUnknownDependencies() {
+        assertThrows(IllegalStateException.class, () -> new StartupGraph("test", Runnable::run)
+                .addNode("a", () -> {}, "a")
+                .validate());
+        assertThrows(IllegalArgumentException.class, () -> new StartupGraph("test", Runnable::run)
+                .addNode("a", () -> {}, "missing")
+                .validate());
+        assertThrows(IllegalArgumentException.class, () -> new StartupGraph("test", Runnable::run)
+                .addNode("a", () -> {})
+                .addNode("a", () -> {}));
+    }
+
+    @Test
+    public void directExecutorRunsNodesInInsertionOrder() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        StartupGraph graph = new StartupGraph("test", Runnable::run);
+        for (String name : Arrays.asList("a", "b", "c", "d", "e")) {
+            graph.addNode(name, () -> order.add(name), name.equals("b") ? new String[]{"a"} :
+                    name.equals("e") ? new String[]{"b", "d"} : new String[0]);
+        }
+        AtomicInteger completions = new AtomicInteger();
+
+        graph.start(timeline -> completions.incrementAndGet(), (message, throwable) -> {});
+
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), order);
+        assertEquals(order, graph.validate());
+        assertEquals(1, completions.get());
+    }
+
+    @Test
+    public void dependentsStartOnlyAfterAllDependenciesCompleted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // Diamond with a slow branch: d depends on b and c, both depend on a
+            Map<String, Long> started = new ConcurrentHashMap<>();
+            Map<String, Long> completed = new ConcurrentHashMap<>();
+            StartupGraph graph = new StartupGraph("test", executor);
+            addTimedNode(graph, "a", 10, started, completed);
+            addTimedNode(graph, "b", 10, started, completed, "a");
+            addTimedNode(graph, "c", 80, started, completed, "a");
+            addTimedNode(graph, "d", 10, started, completed, "b", "c");
+            addTimedNode(graph, "e", 10, started, completed);
+
+            CompletableFuture<StartupGraph.Timeline> result = new CompletableFuture<>();
+            graph.start(result::complete, (message, throwable) -> result.completeExceptionally(throwable));
+            StartupGraph.Timeline timeline = result.get(10, TimeUnit.SECONDS);
+
+            assertTrue(started.get("b") >= completed.get("a"));
+            assertTrue(started.get("c") >= completed.get("a"));
+            assertTrue(started.get("d") >= completed.get("b"));
+            assertTrue(started.get("d") >= completed.get("c"));
+            // e has no dependencies and does not wait for the others
+            assertTrue(started.get("e") < completed.get("a"));
+
+            assertEquals(Arrays.asList("a", "c", "d"), timeline.getCriticalPath());
+            assertEquals(5, timeline.getNodeTimings().size());
+            assertTrue(timeline.getTotalMs() >= 100);
+            assertTrue(timeline.toString().contains("Critical path: a -> c -> d"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void independentNodesRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Each node waits for the others to have started, which only completes if they run at the same time
+            CountDownLatch allStarted = new CountDownLatch(3);
+            StartupGraph graph = new StartupGraph("test", executor);
+            for (String name : Arrays.asList("a", "b", "c")) {
+                graph.addNode(name, () -> {
+                    allStarted.countDown();
+                    try {
+                        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+            CompletableFuture<StartupGraph.Timeline> result = new CompletableFuture<>();
+            graph.start(result::complete, (message, throwable) -> result.completeExceptionally(throwable));
+            result.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncNodesCompleteFromOtherThreads() throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            List<String> order = new CopyOnWriteArrayList<>();
+            StartupGraph graph = new StartupGraph("test", Runnable::run)
+                    .addAsyncNode("read", completeHandler -> readers.execute(() -> {
+                        order.add("read");
+                        completeHandler.run();
+                    }))
+                    .addNode("init", () -> order.add("init"), "read");
+            CompletableFuture<StartupGraph.Timeline> result = new CompletableFuture<>();
+            graph.start(result::complete, (message, throwable) -> result.completeExceptionally(throwable));
+            result.get(10, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("read", "init"), order);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedNodeStopsDependents() {
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<String> faults = new CopyOnWriteArrayList<>();
+        StartupGraph graph = new StartupGraph("test", Runnable::run)
+                .addNode("a", () -> {
+                    throw new IllegalStateException("broken");
+                })
+                .addNode("b", () -> order.add("b"), "a");
+        AtomicInteger completions = new AtomicInteger();
+
+        graph.start(timeline -> completions.incrementAndGet(), (message, throwable) -> faults.add(throwable.getMessage()));
+
+        assertEquals(Collections.singletonList("broken"), faults);
+        assertTrue(order.isEmpty());
+        assertEquals(0, completions.get());
+    }
+
+    @Test
+    public void emptyGraphCompletesImmediately() {
+        AtomicInteger completions = new AtomicInteger();
+        new StartupGraph("test", Runnable::run).start(timeline -> {
+            assertTrue(timeline.getCriticalPath().isEmpty());
+            completions.incrementAndGet();
+        }, (message, throwable) -> {});
+        assertEquals(1, completions.get());
+    }
+
+    private static void addTimedNode(StartupGraph graph, String name, long durationMs,
+                                     Map<String, Long> started, Map<String, Long> completed, String... dependencies) {
+        graph.addNode(name, () -> {
+            started.put(name, System.nanoTime());
+            try {
+                Thread.sleep(durationMs);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            completed.put(name, System.nanoTime());
+        }, dependencies);
+    }
+}
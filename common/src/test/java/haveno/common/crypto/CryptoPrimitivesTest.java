@@ -0,0 +1,181 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.crypto;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CryptoPrimitivesTest {
+    private static final Logger log = LoggerFactory.getLogger(CryptoPrimitivesTest.class);
+
+    private static KeyPair sigKeyPair;
+    private static KeyPair otherSigKeyPair;
+    private static KeyPair encryptionKeyPair;
+
+    @BeforeAll
+    public static void setUp() {
+        sigKeyPair = Sig.generateKeyPair();
+        otherSigKeyPair = Sig.generateKeyPair();
+        encryptionKeyPair = Encryption.generateKeyPair();
+    }
+
+    @Test
+    public void getMessageDigest_isReusedPerThreadAndReset() throws Exception {
+        MessageDigest digest = CryptoPrimitives.getMessageDigest("SHA-256");
+        digest.update(new byte[]{1, 2, 3});
+
+        MessageDigest reused = CryptoPrimitives.getMessageDigest("SHA-256");
+
+        assertSame(digest, reused);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(new byte[0]), reused.digest());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertNotSame(digest, executor.submit(() -> CryptoPrimitives.getMessageDigest("SHA-256")).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failedOperationDoesNotAffectNextUse() throws Exception {
+        SecretKey secretKey = Encryption.generateSecretKey(256);
+        byte[] payload = "payload".getBytes();
+
+        assertThrows(CryptoException.class, () -> Encryption.decrypt(new byte[]{1, 2, 3}, secretKey));
+        assertThrows(CryptoException.class, () -> Sig.verify(sigKeyPair.getPublic(), payload, new byte[]{1, 2, 3}));
+
+        assertArrayEquals(payload, Encryption.decrypt(Encryption.encrypt(payload, secretKey), secretKey));
+        assertTrue(Sig.verify(sigKeyPair.getPublic(), payload, Sig.sign(sigKeyPair.getPrivate(), payload)));
+    }
+
+    // Runs hashing, signing, verification and encryption with different keys concurrently on a small pool, so each
+    // thread reuses its instances many times with interleaved keys and modes. Any state leaking between operations or
+    // threads results in wrong hashes, failed verifications or failed decryptions.
+    @Test
+    public void concurrentUseProducesSameResultsAsFreshInstances() throws Exception {
+        int numThreads = 8;
+        int numTasks = 2_000;
+        Random random = new Random(1);
+        List<byte[]> payloads = new ArrayList<>();
+        List<byte[]> expectedHashes = new ArrayList<>();
+        for (int i = 0; i < numTasks; i++) {
+            byte[] payload = new byte[1 + random.nextInt(2_000)];
+            random.nextBytes(payload);
+            payloads.add(payload);
+            expectedHashes.add(MessageDigest.getInstance("SHA-256").digest(payload));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < numTasks; i++) {
+                int index = i;
+                Callable<Void> task = () -> {
+                    byte[] payload = payloads.get(index);
+                    assertArrayEquals(expectedHashes.get(index), Hash.getSha256Hash(payload));
+
+                    KeyPair keyPair = index % 2 == 0 ? sigKeyPair : otherSigKeyPair;
+                    KeyPair wrongKeyPair = index % 2 == 0 ? otherSigKeyPair : sigKeyPair;
+                    byte[] signature = Sig.sign(keyPair.getPrivate(), payload);
+                    assertTrue(Sig.verify(keyPair.getPublic(), payload, signature));
+                    assertFalse(Sig.verify(wrongKeyPair.getPublic(), payload, signature));
+
+                    SecretKey secretKey = Encryption.generateSecretKey(256);
+                    byte[] encrypted = Encryption.encryptPayloadWithHmac(payload, secretKey);
+                    assertArrayEquals(payload, Encryption.decryptPayloadWithHmac(encrypted, secretKey));
+
+                    if (index % 20 == 0) {
+                        byte[] encryptedSecretKey = Encryption.encryptSecretKey(secretKey, encryptionKeyPair.getPublic());
+                        SecretKey decryptedSecretKey = Encryption.decryptSecretKey(encryptedSecretKey,
+                                encryptionKeyPair.getPrivate());
+                        assertTrue(Arrays.equals(secretKey.getEncoded(), decryptedSecretKey.getEncoded()));
+                    }
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void benchmarkHashAndVerify() throws Exception {
+        byte[] payload = new byte[256];
+        new Random(2).nextBytes(payload);
+        byte[] signature = Sig.sign(sigKeyPair.getPrivate(), payload);
+        int iterations = 20_000;
+
+        long ts = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MessageDigest.getInstance("SHA-256").digest(payload);
+        }
+        long freshHashNanos = System.nanoTime() - ts;
+
+        ts = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Hash.getSha256Hash(payload);
+        }
+        long pooledHashNanos = System.nanoTime() - ts;
+
+        SignatureVerificationCache cache = new SignatureVerificationCache(10);
+        byte[] pubKeyBytes = Sig.getPublicKeyBytes(sigKeyPair.getPublic());
+        ts = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            Sig.verify(sigKeyPair.getPublic(), payload, signature);
+        }
+        long verifyNanos = System.nanoTime() - ts;
+
+        ts = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(cache.verify(pubKeyBytes, sigKeyPair.getPublic(), payload, signature));
+        }
+        long cachedVerifyNanos = System.nanoTime() - ts;
+
+        log.info("{} SHA-256 hashes: fresh MessageDigest {} ms, pooled {} ms. 1000 verifications: {} ms, cached {} ms",
+                iterations, freshHashNanos / 1_000_000, pooledHashNanos / 1_000_000,
+                verifyNanos / 1_000_000, cachedVerifyNanos / 1_000_000);
+        assertEquals(1, cache.size());
+    }
+}
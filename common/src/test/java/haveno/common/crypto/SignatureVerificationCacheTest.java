@@ -0,0 +1,70 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.crypto;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SignatureVerificationCacheTest {
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    @BeforeAll
+    public static void setUp() {
+        keyPair = Sig.generateKeyPair();
+        otherKeyPair = Sig.generateKeyPair();
+    }
+
+    @Test
+    public void verify_cachesOnlyValidSignatures() throws CryptoException {
+        SignatureVerificationCache cache = new SignatureVerificationCache(100);
+        byte[] data = "data".getBytes();
+        byte[] signature = Sig.sign(keyPair.getPrivate(), data);
+        byte[] pubKeyBytes = Sig.getPublicKeyBytes(keyPair.getPublic());
+        byte[] otherPubKeyBytes = Sig.getPublicKeyBytes(otherKeyPair.getPublic());
+
+        assertTrue(cache.verify(pubKeyBytes, keyPair.getPublic(), data, signature));
+        assertTrue(cache.verify(pubKeyBytes, keyPair.getPublic(), data, signature));
+        assertEquals(1, cache.size());
+
+        assertFalse(cache.verify(otherPubKeyBytes, otherKeyPair.getPublic(), data, signature));
+        assertFalse(cache.verify(pubKeyBytes, keyPair.getPublic(), "other data".getBytes(), signature));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void verify_isBounded() throws CryptoException {
+        SignatureVerificationCache cache = new SignatureVerificationCache(10);
+        byte[] pubKeyBytes = Sig.getPublicKeyBytes(keyPair.getPublic());
+        for (int i = 0; i < 50; i++) {
+            byte[] data = ("data" + i).getBytes();
+            assertTrue(cache.verify(pubKeyBytes, keyPair.getPublic(), data, Sig.sign(keyPair.getPrivate(), data)));
+        }
+
+        assertTrue(cache.size() <= 10);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.common.file;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BackupStoreTest {
+    private static final String FILE_NAME = "TradeStatistics3Store";
+    private static final int FILE_SIZE = 50 * 1024 * 1024;
+    private static final int NUM_MAX_VERSIONS = 3;
+
+    @TempDir
+    File dir;
+
+    private final Random random = new Random(42);
+
+    private File getFile() {
+        return new File(dir, FILE_NAME);
+    }
+
+    @Test
+    public void repeatedSmallMutations_writeOnlyChangedChunks() throws Exception {
+        byte[] content = new byte[FILE_SIZE];
+        random.nextBytes(content);
+        Files.write(getFile().toPath(), content);
+        BackupStore store = BackupStore.of(dir, FILE_NAME);
+
+        long initialBytesWritten = store.backup(NUM_MAX_VERSIONS);
+        assertTrue(initialBytesWritten >= FILE_SIZE);
+
+        Map<Long, byte[]> hashByVersion = new LinkedHashMap<>();
+        hashByVersion.put(lastVersion(store), sha256(content));
+        List<Long> bytesWrittenPerBackup = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            if (i % 3 == 2) {
+                // Inserting bytes shifts all following bytes
+                int position = random.nextInt(content.length);
+                byte[] inserted = new byte[1 + random.nextInt(100)];
+                random.nextBytes(inserted);
+                byte[] mutated = new byte[content.length + inserted.length];
+                System.arraycopy(content, 0, mutated, 0, position);
+                System.arraycopy(inserted, 0, mutated, position, inserted.length);
+                System.arraycopy(content, position, mutated, position + inserted.length, content.length - position);
+                content = mutated;
+            } else {
+                int position = random.nextInt(content.length - 100);
+                for (int j = 0; j < 100; j++) {
+                    content[position + j] ^= (byte) (1 + random.nextInt(255));
+                }
+            }
+            Files.write(getFile().toPath(), content);
+
+            bytesWrittenPerBackup.add(store.backup(NUM_MAX_VERSIONS));
+            hashByVersion.put(lastVersion(store), sha256(content));
+        }
+
+        // A mutation changes at most the chunks around it, each of them at most MAX_CHUNK_SIZE
+        long maxBytesWritten = bytesWrittenPerBackup.stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertTrue(maxBytesWritten <= 3L * BackupStore.MAX_CHUNK_SIZE + 64 * 1024,
+                "Bytes written per backup: " + bytesWrittenPerBackup);
+
+        // Only the latest versions are kept and can be restored byte identical
+        List<Long> versions = store.getVersions();
+        assertEquals(NUM_MAX_VERSIONS, versions.size());
+        List<Long> expectedVersions = new ArrayList<>(hashByVersion.keySet());
+        assertEquals(expectedVersions.subList(expectedVersions.size() - NUM_MAX_VERSIONS, expectedVersions.size()), versions);
+        for (long version : versions) {
+            File restored = new File(dir, "restored");
+            store.restore(version, restored);
+            assertArrayEquals(hashByVersion.get(version), sha256(Files.readAllBytes(restored.toPath())));
+        }
+
+        // Unreferenced chunks are pruned
+        long storeSize = Files.walk(new File(dir, "backup").toPath())
+                .filter(Files::isRegularFile)
+                .mapToLong(path -> path.toFile().length())
+                .sum();
+        assertTrue(storeSize < FILE_SIZE + 2 * NUM_MAX_VERSIONS * 3L * BackupStore.MAX_CHUNK_SIZE, "Store size: " + storeSize);
+    }
+
+    @Test
+    public void unchangedFile_doesNotAddVersion() throws Exception {
+        Files.write(getFile().toPath(), randomBytes(300_000));
+        BackupStore store = BackupStore.of(dir, FILE_NAME);
+        store.backup(NUM_MAX_VERSIONS);
+
+        assertEquals(0, store.backup(NUM_MAX_VERSIONS));
+        assertEquals(1, store.getVersions().size());
+    }
+
+    @Test
+    public void emptyFile_canBeRestored() throws Exception {
+        Files.write(getFile().toPath(), new byte[0]);
+        BackupStore store = BackupStore.of(dir, FILE_NAME);
+        store.backup(NUM_MAX_VERSIONS);
+
+        File restored = new File(dir, "restored");
+        store.restore(store.getVersions().get(0), restored);
+
+        assertEquals(0, restored.length());
+    }
+
+    @Test
+    public void legacyBackups_areImported() throws Exception {
+        File legacyDir = new File(dir, "backup/backups_" + FILE_NAME);
+        assertTrue(legacyDir.mkdirs());
+        byte[] older = randomBytes(100_000);
+        byte[] newer = randomBytes(100_000);
+        Files.write(new File(legacyDir, "1000_" + FILE_NAME).toPath(), older);
+        Files.write(new File(legacyDir, "2000_" + FILE_NAME).toPath(), newer);
+
+        BackupStore store = BackupStore.of(dir, FILE_NAME);
+
+        assertEquals(Arrays.asList(1000L, 2000L), store.getVersions());
+        File restored = new File(dir, "restored");
+        store.restore(1000, restored);
+        assertArrayEquals(older, Files.readAllBytes(restored.toPath()));
+        store.restore(2000, restored);
+        assertArrayEquals(newer, Files.readAllBytes(restored.toPath()));
+        assertTrue(!legacyDir.exists());
+    }
+
+    @Test
+    public void restore_failsOnMissingChunkWithoutTouchingTarget() throws Exception {
+        Files.write(getFile().toPath(), randomBytes(1_000_000));
+        BackupStore store = BackupStore.of(dir, FILE_NAME);
+        store.backup(NUM_MAX_VERSIONS);
+        File[] chunks = new File(dir, "backup/store_" + FILE_NAME + "/chunks").listFiles();
+        assertTrue(chunks != null && chunks.length > 1);
+        Files.delete(chunks[0].toPath());
+        File target = new File(dir, "target");
+        Files.write(target.toPath(), new byte[]{1, 2, 3});
+
+        assertThrows(IOException.class, () -> store.restore(store.getVersions().get(0), target));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(target.toPath()));
+        assertEquals(1, dir.listFiles((file, name) -> name.startsWith("target")).length);
+    }
+
+    @Test
+    public void split_isContentDefined() throws Exception {
+        byte[] content = randomBytes(4 * 1024 * 1024);
+        List<Integer> lengths = new ArrayList<>();
+        BackupStore.split(new ByteArrayInputStream(content), (chunk, length) -> lengths.add(length));
+
+        assertEquals(content.length, lengths.stream().mapToInt(Integer::intValue).sum());
+        lengths.subList(0, lengths.size() - 1).forEach(length -> {
+            assertTrue(length >= BackupStore.MIN_CHUNK_SIZE);
+            assertTrue(length <= BackupStore.MAX_CHUNK_SIZE);
+        });
+        assertTrue(lengths.size() > 20 && lengths.size() < 80, "Number of chunks: " + lengths.size());
+    }
+
+    private long lastVersion(BackupStore store) {
+        List<Long> versions = store.getVersions();
+        return versions.get(versions.size() - 1);
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] sha256(byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(bytes);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+package haveno.common.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsRegistryTest {
+    private FakeClock clock;
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new FakeClock();
+        // 60 sec window with 6 slices of 10 sec
+        registry = new MetricsRegistry(clock, TimeUnit.SECONDS.toMillis(60), 6);
+    }
+
+    @Test
+    public void counter_countsOverRollingWindow() {
+        Counter counter = registry.counter("test_total", "Test counter");
+        counter.inc(5);
+        clock.advance(30_000);
+        counter.inc(3);
+
+        assertEquals(8, counter.getWindowCount());
+        assertEquals(8 / 60d, counter.getWindowRatePerSec(), 1e-9);
+
+        clock.advance(35_000);
+        assertEquals(3, counter.getWindowCount());
+
+        clock.advance(60_000);
+        assertEquals(0, counter.getWindowCount());
+        assertEquals(8, counter.getCount());
+
+        // A reused slice does not contain counts of an earlier window
+        counter.inc();
+        assertEquals(1, counter.getWindowCount());
+    }
+
+    @Test
+    public void counter_isReturnedForSameNameAndLabels() {
+        Counter counter = registry.counter("messages_total", "Messages", "type", "Ping");
+
+        assertSame(counter, registry.counter("messages_total", "Messages", "type", "Ping"));
+        assertTrue(counter != registry.counter("messages_total", "Messages", "type", "Pong"));
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("messages_total", "Messages"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("invalid name", "Messages"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("messages_total", "Messages", "type"));
+    }
+
+    @Test
+    public void counter_concurrentIncrements() throws Exception {
+        Counter counter = registry.counter("concurrent_total", "Concurrent counter");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10_000; j++) {
+                        counter.inc();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(80_000, counter.getCount());
+        assertEquals(80_000, counter.getWindowCount());
+    }
+
+    @Test
+    public void histogram_percentilesOverRollingWindow() {
+        Histogram histogram = registry.histogram("latency_ms", "Latency");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 1e-9);
+        assertWithinRelativeError(500, snapshot.getPercentile(50));
+        assertWithinRelativeError(990, snapshot.getPercentile(99));
+        assertEquals(1000, snapshot.getPercentile(100));
+
+        clock.advance(30_000);
+        histogram.record(5_000);
+        assertEquals(1001, histogram.getSnapshot().getCount());
+
+        clock.advance(35_000);
+        snapshot = histogram.getSnapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(5_000, snapshot.getPercentile(50));
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500_500 + 5_000, histogram.getSum());
+
+        clock.advance(60_000);
+        assertEquals(0, histogram.getSnapshot().getCount());
+        assertEquals(0, histogram.getSnapshot().getPercentile(99));
+    }
+
+    @Test
+    public void histogram_bucketBoundsContainValue() {
+        Random random = new Random(1);
+        int previousIndex = -1;
+        for (long value = 0; value < 100_000; value++) {
+            int index = Histogram.getBucketIndex(value);
+            assertTrue(index == previousIndex || index == previousIndex + 1, "Buckets must be contiguous");
+            assertTrue(Histogram.getBucketLowerBound(index) <= value && value <= Histogram.getBucketUpperBound(index));
+            previousIndex = index;
+        }
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (16 + random.nextInt(48));
+            int index = Histogram.getBucketIndex(value);
+            long lowerBound = Histogram.getBucketLowerBound(index);
+            long upperBound = Histogram.getBucketUpperBound(index);
+            assertTrue(lowerBound <= value && value <= upperBound, "value " + value);
+            assertTrue(upperBound - lowerBound <= Math.max(1, lowerBound / 16));
+        }
+        assertEquals(Histogram.NUM_BUCKETS - 1, Histogram.getBucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void removeMetric_keepsReplacingGauge() {
+        Gauge gauge = registry.gauge("connections", "Number of connections", () -> 7, "node", "1");
+        registry.remove(gauge);
+        assertTrue(registry.find("connections", "node", "1").isEmpty());
+
+        Gauge replacedGauge = registry.gauge("connections", "Number of connections", () -> 7, "node", "1");
+        Gauge replacingGauge = registry.gauge("connections", "Number of connections", () -> 8, "node", "1");
+        registry.remove(replacedGauge);
+        assertSame(replacingGauge, registry.find("connections", "node", "1").orElseThrow());
+
+        registry.remove(replacingGauge);
+        assertTrue(registry.getMetrics().isEmpty());
+    }
+
+    @Test
+    public void prometheusTextFormat() {
+        registry.counter("messages_total", "Received messages", "type", "Ping").inc(3);
+        registry.counter("messages_total", "Received messages", "type", "Pong\"\n").inc();
+        registry.gauge("connections", "Number of connections", () -> 7);
+        Histogram histogram = registry.histogram("write_ms", "Write duration");
+        histogram.record(10);
+        histogram.record(20);
+
+        String text = PrometheusTextFormat.format(registry);
+
+        assertEquals("# HELP connections Number of connections\n" +
+                        "# TYPE connections gauge\n" +
+                        "connections 7\n" +
+                        "# HELP messages_total Received messages\n" +
+                        "# TYPE messages_total counter\n" +
+                        "messages_total{type=\"Ping\"} 3\n" +
+                        "messages_total{type=\"Pong\\\"\\n\"} 1\n" +
+                        "# HELP write_ms Write duration\n" +
+                        "# TYPE write_ms summary\n" +
+                        "write_ms{quantile=\"0.5\"} 10\n" +
+                        "write_ms{quantile=\"0.9\"} 20\n" +
+                        "write_ms{quantile=\"0.99\"} 20\n" +
+                        "write_ms_sum 30\n" +
+                        "write_ms_count 2\n",
+                text);
+    }
+
+    @Test
+    public void httpServerServesPrometheusText() throws Exception {
+        registry.counter("served_total", "Served").inc(2);
+        MetricsHttpServer server = new MetricsHttpServer(registry, 0);
+        try {
+            URL url = new URL("http://127.0.0.1:" + server.getPort() + MetricsHttpServer.PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            try (InputStream inputStream = connection.getInputStream()) {
+                String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("served_total 2\n"));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void jmxExporterExposesAttributes() throws Exception {
+        registry.counter("jmx_total", "Jmx", "type", "a").inc(4);
+        MetricsJmxExporter exporter = new MetricsJmxExporter(registry);
+
+        assertEquals(4L, exporter.getAttribute("jmx_total{type=a}.count"));
+        assertTrue(exporter.getMBeanInfo().getAttributes().length > 0);
+    }
+
+    private static void assertWithinRelativeError(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= expected / 16, "expected " + expected + " but was " + actual);
+    }
+
+    private static class FakeClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long deltaMillis) {
+            millis += deltaMillis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteSchedulerTest {
+    private final Queue<Runnable> ioTasks = new ArrayDeque<>();
+    private final List<DelayedTask> delayedTasks = new ArrayList<>();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private FakeFileSystem fileSystem;
+
+    @BeforeEach
+    public void setUp() {
+        fileSystem = new FakeFileSystem();
+    }
+
+    private WriteScheduler createScheduler(int maxConcurrentWrites, int maxSyncsPerSecond) {
+        return new WriteScheduler(ioTasks::add, Runnable::run,
+                (task, delayMs) -> delayedTasks.add(new DelayedTask(clock.get() + delayMs, task)),
+                clock::get, maxConcurrentWrites, maxSyncsPerSecond);
+    }
+
+    private void schedule(WriteScheduler scheduler, String fileName, WriteScheduler.Priority priority, String content) {
+        scheduler.schedule(fileName, priority, () -> fileSystem.write(fileName, content), null);
+    }
+
+    private void runIoTasks() {
+        Runnable task;
+        while ((task = ioTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advanceClock(long ms) {
+        clock.addAndGet(ms);
+        List<DelayedTask> due = new ArrayList<>();
+        for (Iterator<DelayedTask> iterator = delayedTasks.iterator(); iterator.hasNext(); ) {
+            DelayedTask delayedTask = iterator.next();
+            if (delayedTask.dueMs <= clock.get()) {
+                due.add(delayedTask);
+                iterator.remove();
+            }
+        }
+        due.forEach(delayedTask -> delayedTask.task.run());
+    }
+
+    @Test
+    public void writesOfTheSameFileAreCoalesced() {
+        WriteScheduler scheduler = createScheduler(4, 100);
+        AtomicInteger completed = new AtomicInteger();
+
+        // The first write is started, the following ones wait for it and replace each other
+        for (int i = 1; i <= 5; i++) {
+            int version = i;
+            scheduler.schedule("trades", WriteScheduler.Priority.HIGH, () -> fileSystem.write("trades", "v" + version),
+                    completed::incrementAndGet);
+        }
+        assertEquals(1, ioTasks.size());
+        assertEquals(1, scheduler.getNumPending());
+
+        runIoTasks();
+
+        assertEquals(Arrays.asList("trades=v1", "trades=v5"), fileSystem.writeLog);
+        assertEquals("v5", fileSystem.read("trades"));
+        assertEquals(5, completed.get());
+        assertEquals(0, scheduler.getNumPending());
+        assertEquals(0, scheduler.getNumRunning());
+    }
+
+    @Test
+    public void pendingWritesStartByPriorityThenInRequestOrder() {
+        WriteScheduler scheduler = createScheduler(1, 100);
+        schedule(scheduler, "first", WriteScheduler.Priority.LOW, "1");
+        schedule(scheduler, "network", WriteScheduler.Priority.LOW, "1");
+        schedule(scheduler, "preferences", WriteScheduler.Priority.NORMAL, "1");
+        schedule(scheduler, "user", WriteScheduler.Priority.HIGH, "1");
+        schedule(scheduler, "trades", WriteScheduler.Priority.HIGH, "1");
+        // A coalesced write keeps its position but gets the higher priority
+        schedule(scheduler, "network", WriteScheduler.Priority.HIGH, "2");
+
+        runIoTasks();
+
+        assertEquals(Arrays.asList("first=1", "network=2", "user=1", "trades=1", "preferences=1"),
+                fileSystem.writeLog);
+    }
+
+    @Test
+    public void syncBudgetDefersWrites() {
+        WriteScheduler scheduler = createScheduler(4, 2);
+        for (String fileName : Arrays.asList("a", "b", "c", "d")) {
+            schedule(scheduler, fileName, WriteScheduler.Priority.NORMAL, "1");
+        }
+        runIoTasks();
+        assertEquals(Arrays.asList("a=1", "b=1"), fileSystem.writeLog);
+        assertEquals(2, scheduler.getNumPending());
+        assertEquals(1, delayedTasks.size());
+
+        // Writes waiting for the budget are coalesced
+        schedule(scheduler, "c", WriteScheduler.Priority.NORMAL, "2");
+
+        // One sync is refilled every 500 ms
+        advanceClock(499);
+        runIoTasks();
+        assertEquals(2, fileSystem.writeLog.size());
+        advanceClock(1);
+        runIoTasks();
+        assertEquals(Arrays.asList("a=1", "b=1", "c=2"), fileSystem.writeLog);
+        advanceClock(500);
+        runIoTasks();
+        assertEquals(Arrays.asList("a=1", "b=1", "c=2", "d=1"), fileSystem.writeLog);
+        assertEquals(4, fileSystem.numSyncs);
+    }
+
+    @Test
+    public void shutDownFlushesEverythingOnceAndRejectsLaterWrites() {
+        WriteScheduler scheduler = createScheduler(2, 1);
+        for (String fileName : Arrays.asList("a", "b", "c")) {
+            schedule(scheduler, fileName, WriteScheduler.Priority.LOW, "1");
+        }
+        runIoTasks();
+        assertEquals(1, fileSystem.writeLog.size());
+        schedule(scheduler, "b", WriteScheduler.Priority.HIGH, "2");
+
+        AtomicInteger flushed = new AtomicInteger();
+        scheduler.shutDown(flushed::incrementAndGet);
+        AtomicInteger rejectedCompleted = new AtomicInteger();
+        scheduler.schedule("d", WriteScheduler.Priority.HIGH, () -> fileSystem.write("d", "1"),
+                rejectedCompleted::incrementAndGet);
+        assertEquals(0, flushed.get());
+
+        runIoTasks();
+
+        assertEquals(1, flushed.get());
+        assertEquals(Arrays.asList("a=1", "b=2", "c=1"), fileSystem.writeLog);
+        assertNull(fileSystem.read("d"));
+        assertEquals(1, rejectedCompleted.get());
+
+        // A repeated shut down does not write again
+        scheduler.shutDown(flushed::incrementAndGet);
+        runIoTasks();
+        assertEquals(2, flushed.get());
+        assertEquals(3, fileSystem.writeLog.size());
+    }
+
+    @Test
+    public void flushWaitsForRunningWrites() {
+        WriteScheduler scheduler = createScheduler(2, 100);
+        schedule(scheduler, "a", WriteScheduler.Priority.HIGH, "1");
+        AtomicInteger flushed = new AtomicInteger();
+        scheduler.flush(flushed::incrementAndGet);
+        assertEquals(0, flushed.get());
+
+        runIoTasks();
+        assertEquals(1, flushed.get());
+
+        // Writes are accepted after a flush
+        schedule(scheduler, "a", WriteScheduler.Priority.HIGH, "2");
+        runIoTasks();
+        assertEquals("2", fileSystem.read("a"));
+    }
+
+    @Test
+    public void crashDuringWriteKeepsLastCompleteSnapshot() {
+        WriteScheduler scheduler = createScheduler(1, 100);
+        schedule(scheduler, "trades", WriteScheduler.Priority.HIGH, "v1");
+        runIoTasks();
+
+        // The write fails after writing the temp file but before it replaces the file
+        fileSystem.crashBeforeRename = true;
+        AtomicInteger completed = new AtomicInteger();
+        scheduler.schedule("trades", WriteScheduler.Priority.HIGH, () -> fileSystem.write("trades", "v2"),
+                completed::incrementAndGet);
+        runIoTasks();
+        fileSystem.crashBeforeRename = false;
+
+        assertEquals("v1", fileSystem.read("trades"));
+        assertFalse(fileSystem.hasTempFiles());
+        assertEquals(1, completed.get());
+
+        // The failed write does not block later writes
+        schedule(scheduler, "offers", WriteScheduler.Priority.HIGH, "v1");
+        schedule(scheduler, "trades", WriteScheduler.Priority.HIGH, "v3");
+        runIoTasks();
+        assertEquals("v1", fileSystem.read("offers"));
+        assertEquals("v3", fileSystem.read("trades"));
+        assertEquals(0, scheduler.getNumRunning());
+    }
+
+    @Test
+    public void filesAreNeverWrittenConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            WriteScheduler scheduler = new WriteScheduler(executor, Runnable::run, (task, delayMs) -> {},
+                    System::currentTimeMillis, 4, 1_000_000);
+            Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+            AtomicInteger overlaps = new AtomicInteger();
+            for (int i = 0; i < 2_000; i++) {
+                String fileName = "file" + (i % 3);
+                scheduler.schedule(fileName, WriteScheduler.Priority.NORMAL, () -> {
+                    if (running.computeIfAbsent(fileName, k -> new AtomicInteger()).incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.yield();
+                    running.get(fileName).decrementAndGet();
+                }, null);
+            }
+            CountDownLatch flushed = new CountDownLatch(1);
+            scheduler.flush(flushed::countDown);
+            assertTrue(flushed.await(10, TimeUnit.SECONDS));
+            assertEquals(0, overlaps.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class DelayedTask {
+        private final long dueMs;
+        private final Runnable task;
+
+        private DelayedTask(long dueMs, Runnable task) {
+            this.dueMs = dueMs;
+            this.task = task;
+        }
+    }
+
+    // Writes like the PersistenceManager: write and sync a temp file and rename it to the file
+    private static class FakeFileSystem {
+        private final Map<String, byte[]> files = new HashMap<>();
+        private final List<String> writeLog = new ArrayList<>();
+        private boolean crashBeforeRename;
+        private int numSyncs;
+
+        synchronized void write(String fileName, String content) {
+            String tempFileName = "temp_" + fileName;
+            try {
+                files.put(tempFileName, content.getBytes(StandardCharsets.UTF_8));
+                numSyncs++;
+                if (crashBeforeRename) {
+                    throw new IllegalStateException("Simulated crash writing " + fileName);
+                }
+                files.put(fileName, files.remove(tempFileName));
+                writeLog.add(fileName + "=" + content);
+            } finally {
+                files.remove(tempFileName);
+            }
+        }
+
+        synchronized String read(String fileName) {
+            byte[] bytes = files.get(fileName);
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        synchronized boolean hasTempFiles() {
+            return files.keySet().stream().anyMatch(fileName -> fileName.startsWith("temp_"));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.taskrunner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskRunnerTest {
+
+    static class TestModel implements Model {
+        final String id = UUID.randomUUID().toString();
+        final List<String> runTasks = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public String getTaskTraceId() {
+            return id;
+        }
+    }
+
+    public static class FirstTask extends Task<TestModel> {
+        public FirstTask(TaskRunner<TestModel> taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.runTasks.add("first");
+            complete();
+        }
+    }
+
+    public static class SecondTask extends Task<TestModel> {
+        public SecondTask(TaskRunner<TestModel> taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.runTasks.add("second");
+            complete();
+        }
+    }
+
+    public static class SlowAsyncTask extends Task<TestModel> {
+        public SlowAsyncTask(TaskRunner<TestModel> taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignore) {
+                }
+                model.runTasks.add("slow");
+                complete();
+            }).start();
+        }
+    }
+
+    public static class FailingTask extends Task<TestModel> {
+        public FailingTask(TaskRunner<TestModel> taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            model.runTasks.add("failing");
+            failed("invalid state");
+        }
+    }
+
+    public static class ThrowingTask extends Task<TestModel> {
+        public ThrowingTask(TaskRunner<TestModel> taskHandler, TestModel model) {
+            super(taskHandler, model);
+        }
+
+        @Override
+        protected void run() {
+            throw new IllegalStateException("unexpected");
+        }
+    }
+
+    public static class TaskWithoutRunnerConstructor extends Task<TestModel> {
+        public TaskWithoutRunnerConstructor(TestModel model) {
+            super(null, model);
+        }
+
+        @Override
+        protected void run() {
+        }
+    }
+
+    private static class Result {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<String> errorMessage = new AtomicReference<>();
+        boolean completed;
+
+        TaskRunner<TestModel> newTaskRunner(TestModel model) {
+            return new TaskRunner<>(model,
+                    () -> {
+                        completed = true;
+                        done.countDown();
+                    },
+                    errorMessage -> {
+                        this.errorMessage.set(errorMessage);
+                        done.countDown();
+                    });
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void run_tasksAddedByClassRunInOrder() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(FirstTask.class, SecondTask.class, FirstTask.class);
+        taskRunner.run();
+        result.await();
+
+        assertTrue(result.completed);
+        assertEquals(List.of("first", "second", "first"), model.runTasks);
+    }
+
+    @Test
+    public void run_tasksAddedByConstructorReferenceRunInOrder() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(SecondTask::new, SlowAsyncTask::new, FirstTask::new);
+        taskRunner.run();
+        result.await();
+
+        assertTrue(result.completed);
+        assertEquals(List.of("second", "slow", "first"), model.runTasks);
+    }
+
+    @Test
+    public void run_failedTaskStopsPipelineAndReportsError() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(FirstTask::new, FailingTask::new, SecondTask::new);
+        taskRunner.run();
+        result.await();
+
+        assertEquals(List.of("first", "failing"), model.runTasks);
+        assertTrue(result.errorMessage.get().contains("invalid state"));
+    }
+
+    @Test
+    public void run_exceptionOfTaskIsReportedAsError() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(ThrowingTask.class, FirstTask.class);
+        taskRunner.run();
+        result.await();
+
+        assertTrue(model.runTasks.isEmpty());
+        assertTrue(result.errorMessage.get().contains("unexpected"));
+    }
+
+    @Test
+    public void run_taskClassWithoutMatchingConstructorIsReportedAsError() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(TaskWithoutRunnerConstructor.class);
+        taskRunner.run();
+        result.await();
+
+        assertTrue(result.errorMessage.get().contains("TaskWithoutRunnerConstructor"));
+    }
+
+    @Test
+    public void run_recordsTimingAndFailuresPerTraceId() throws Exception {
+        TestModel model = new TestModel();
+        Result result = new Result();
+        TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+        taskRunner.addTasks(SlowAsyncTask::new, FailingTask::new);
+        taskRunner.run();
+        result.await();
+
+        List<TaskTrace> traces = TaskTraces.getInstance().getTraces(model.getTaskTraceId());
+        assertEquals(2, traces.size());
+        assertEquals("SlowAsyncTask", traces.get(0).getTaskName());
+        assertEquals(TaskTrace.Result.COMPLETED, traces.get(0).getResult());
+        assertTrue(traces.get(0).getDurationMs() >= 50, "durationMs=" + traces.get(0).getDurationMs());
+        assertNull(traces.get(0).getErrorMessage());
+        assertEquals("FailingTask", traces.get(1).getTaskName());
+        assertEquals(TaskTrace.Result.FAILED, traces.get(1).getResult());
+        assertTrue(traces.get(1).getErrorMessage().contains("invalid state"));
+        assertTrue(traces.get(1).getStartTime() >= traces.get(0).getStartTime());
+    }
+
+    @Test
+    public void run_countsRetriesOfTaskForSameTraceId() throws Exception {
+        TestModel model = new TestModel();
+        for (int i = 0; i < 3; i++) {
+            Result result = new Result();
+            TaskRunner<TestModel> taskRunner = result.newTaskRunner(model);
+            taskRunner.addTasks(FirstTask::new);
+            taskRunner.run();
+            result.await();
+        }
+
+        List<TaskTrace> traces = TaskTraces.getInstance().getTraces(model.getTaskTraceId());
+        assertEquals(3, traces.size());
+        for (int i = 0; i < 3; i++) assertEquals(i + 1, traces.get(i).getAttempt());
+    }
+
+    @Test
+    public void taskTraces_areBounded() {
+        TaskTraces taskTraces = new TaskTraces(2, 3);
+        for (int i = 0; i < 5; i++) {
+            taskTraces.add("a", "task" + i, i, 1, TaskTrace.Result.COMPLETED, null);
+        }
+        taskTraces.add("b", "task", 0, 1, TaskTrace.Result.COMPLETED, null);
+        taskTraces.getTraces("a");
+        taskTraces.add("c", "task", 0, 1, TaskTrace.Result.COMPLETED, null);
+
+        List<TaskTrace> traces = taskTraces.getTraces("a");
+        assertEquals(3, traces.size());
+        assertEquals("task2", traces.get(0).getTaskName());
+        // b was the least recently used id
+        assertTrue(taskTraces.getTraces("b").isEmpty());
+        assertEquals(1, taskTraces.getTraces("c").size());
+    }
+}
@@ -51,6 +51,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.ECKey;
@@ -86,6 +87,9 @@ public class SignedWitnessService {
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
 
+    // Incremented at each change of the signed witnesses, so results derived from them can be memoized
+    private final AtomicLong dataVersion = new AtomicLong();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -151,6 +155,10 @@ public class SignedWitnessService {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
     public Collection<SignedWitness> getSignedWitnessMapValues() {
         return signedWitnessMap.values();
     }
@@ -526,6 +534,7 @@ public class SignedWitnessService {
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
         signedWitnessSetByOwnerPubKey.putIfAbsent(ownerPubKey, new HashSet<>());
         signedWitnessSetByOwnerPubKey.get(ownerPubKey).add(signedWitness);
+        dataVersion.incrementAndGet();
     }
 
     private void publishSignedWitness(SignedWitness signedWitness) {
@@ -563,6 +572,7 @@ public class SignedWitnessService {
                 signedWitnessSetByOwnerPubKey.remove(ownerPubKey);
             }
         }
+        dataVersion.incrementAndGet();
     }
 
     // Remove SignedWitnesses that are signed by TRADE that also have an ARBITRATOR signature
@@ -145,6 +145,9 @@ public class AccountAgeWitnessService {
     // not found there we use the accountAgeWitnessMap and put then the new item into our cache.
     private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessCache = new ConcurrentHashMap<>();
 
+    // The offer book evaluates the sign state of each offer at each render, so we memoize the sign info per witness
+    private final WitnessSignInfoCache signInfoCache;
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -174,6 +177,7 @@ public class AccountAgeWitnessService {
                 this,
                 signedWitnessService,
                 keyRing);
+        signInfoCache = new WitnessSignInfoCache(signedWitnessService, filterManager);
 
         // We need to add that early (before onAllServicesInitialized) as it will be used at startup.
         appendOnlyDataStoreService.addService(accountAgeWitnessStorageService);
@@ -236,7 +240,9 @@ public class AccountAgeWitnessService {
     @VisibleForTesting
     public void addToMap(AccountAgeWitness accountAgeWitness) {
         synchronized (this) {
-            accountAgeWitnessMap.putIfAbsent(accountAgeWitness.getHashAsByteArray(), accountAgeWitness);
+            if (accountAgeWitnessMap.putIfAbsent(accountAgeWitness.getHashAsByteArray(), accountAgeWitness) == null) {
+                signInfoCache.invalidate();
+            }
         }
     }
 
@@ -371,11 +377,11 @@ public class AccountAgeWitnessService {
 
     // Return -1 if not signed
     public long getWitnessSignAge(AccountAgeWitness accountAgeWitness, Date now) {
-        List<Long> dates = signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness);
-        if (dates.isEmpty()) {
+        WitnessSignInfoCache.SignInfo signInfo = signInfoCache.get(accountAgeWitness);
+        if (!signInfo.isSigned()) {
             return -1L;
         } else {
-            return now.getTime() - dates.get(0);
+            return now.getTime() - signInfo.getFirstSignDate();
         }
     }
 
@@ -474,7 +480,7 @@ public class AccountAgeWitnessService {
     // - are mature
     // - were signed by an arbitrator
     private boolean hasTradeLimitException(AccountAgeWitness accountAgeWitness) {
-        return !isImmature(accountAgeWitness) || signedWitnessService.isSignedByArbitrator(accountAgeWitness);
+        return !isImmature(accountAgeWitness) || signInfoCache.get(accountAgeWitness).isSignedByArbitrator();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -833,7 +839,7 @@ public class AccountAgeWitnessService {
 
     public boolean hasSignedWitness(Offer offer) {
         return findWitness(offer)
-                .map(signedWitnessService::isSignedAccountAgeWitness)
+                .map(witness -> signInfoCache.get(witness).isSigned())
                 .orElse(false);
     }
 
@@ -868,10 +874,11 @@ public class AccountAgeWitnessService {
         // Add hash to sign state info when running in debug mode
         String hash = log.isDebugEnabled() ? Utilities.bytesAsHexString(accountAgeWitness.getHash()) + "\n" +
                 signedWitnessService.ownerPubKeyAsString(accountAgeWitness) : "";
-        if (signedWitnessService.isFilteredWitness(accountAgeWitness)) {
+        WitnessSignInfoCache.SignInfo signInfo = signInfoCache.get(accountAgeWitness);
+        if (signInfo.isBanned()) {
             return SignState.BANNED.addHash(hash);
         }
-        if (signedWitnessService.isSignedByArbitrator(accountAgeWitness)) {
+        if (signInfo.isSignedByArbitrator()) {
             return SignState.ARBITRATOR.addHash(hash);
         } else {
             final long accountSignAge = getWitnessSignAge(accountAgeWitness, new Date());
@@ -0,0 +1,144 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.account.witness;
+
+import com.google.common.annotations.VisibleForTesting;
+import haveno.core.account.sign.SignedWitnessService;
+import haveno.core.filter.Filter;
+import haveno.core.filter.FilterManager;
+import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Memoizes the sign info of account age witnesses by their hash. Evaluating it walks the signed witness sets and
+ * verifies the chains of signers, which is too expensive for the offer book and the trade checks calling it per offer.
+ * <p>
+ * An entry is valid as long as the signed witnesses, the account age witnesses and the banned signers of the filter
+ * did not change. As signer chains are verified against the current time, entries are also only valid for the day
+ * they were evaluated.
+ */
+class WitnessSignInfoCache {
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final SignedWitnessService signedWitnessService;
+    private final FilterManager filterManager;
+    private final LongSupplier clock;
+    private final Map<P2PDataStorage.ByteArray, SignInfo> signInfoByWitnessHash = new ConcurrentHashMap<>();
+
+    // Version of the account age witnesses and the banned signers
+    private long version;
+    @Nullable
+    private Filter filter;
+    private List<String> bannedSignerPubKeys = Collections.emptyList();
+
+    WitnessSignInfoCache(SignedWitnessService signedWitnessService, FilterManager filterManager) {
+        this(signedWitnessService, filterManager, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    WitnessSignInfoCache(SignedWitnessService signedWitnessService, FilterManager filterManager, LongSupplier clock) {
+        this.signedWitnessService = signedWitnessService;
+        this.filterManager = filterManager;
+        this.clock = clock;
+    }
+
+    SignInfo get(AccountAgeWitness accountAgeWitness) {
+        long signedWitnessVersion = signedWitnessService.getDataVersion();
+        long version = getVersion();
+        long day = clock.getAsLong() / DAY_MS;
+        P2PDataStorage.ByteArray hash = accountAgeWitness.getHashAsByteArray();
+        SignInfo signInfo = signInfoByWitnessHash.get(hash);
+        if (signInfo == null || !signInfo.isValid(signedWitnessVersion, version, day)) {
+            // If the data changes while evaluating, the entry has an outdated version and is evaluated again
+            List<Long> signDates = signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness);
+            signInfo = new SignInfo(signedWitnessVersion, version, day,
+                    signedWitnessService.isFilteredWitness(accountAgeWitness),
+                    signedWitnessService.isSignedByArbitrator(accountAgeWitness),
+                    signDates.isEmpty() ? -1 : signDates.get(0));
+            signInfoByWitnessHash.put(hash, signInfo);
+        }
+        return signInfo;
+    }
+
+    // Called if an account age witness was added
+    synchronized void invalidate() {
+        version++;
+    }
+
+    private synchronized long getVersion() {
+        Filter currentFilter = filterManager.getFilter();
+        if (currentFilter != filter) {
+            filter = currentFilter;
+            List<String> currentBannedSignerPubKeys = currentFilter == null ||
+                    currentFilter.getBannedAccountWitnessSignerPubKeys() == null ?
+                    Collections.emptyList() :
+                    currentFilter.getBannedAccountWitnessSignerPubKeys();
+            // Filter updates only change the sign info if they change the banned signers
+            if (!Objects.equals(currentBannedSignerPubKeys, bannedSignerPubKeys)) {
+                bannedSignerPubKeys = currentBannedSignerPubKeys;
+                version++;
+            }
+        }
+        return version;
+    }
+
+    static class SignInfo {
+        private final long signedWitnessVersion;
+        private final long version;
+        private final long day;
+        @Getter
+        private final boolean banned;
+        @Getter
+        private final boolean signedByArbitrator;
+        // Date of the first verified signature or -1 if the witness is not signed
+        @Getter
+        private final long firstSignDate;
+
+        private SignInfo(long signedWitnessVersion,
+                         long version,
+                         long day,
+                         boolean banned,
+                         boolean signedByArbitrator,
+                         long firstSignDate) {
+            this.signedWitnessVersion = signedWitnessVersion;
+            this.version = version;
+            this.day = day;
+            this.banned = banned;
+            this.signedByArbitrator = signedByArbitrator;
+            this.firstSignDate = firstSignDate;
+        }
+
+        boolean isSigned() {
+            return firstSignDate >= 0;
+        }
+
+        private boolean isValid(long signedWitnessVersion, long version, long day) {
+            return this.signedWitnessVersion == signedWitnessVersion && this.version == version && this.day == day;
+        }
+    }
+}
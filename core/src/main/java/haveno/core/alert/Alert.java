@@ -24,7 +24,9 @@ import haveno.common.util.CollectionUtils;
 import haveno.common.util.ExtraDataMapValidator;
 import haveno.core.user.Preferences;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
+import haveno.network.p2p.storage.payload.PayloadHash;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
@@ -63,6 +65,10 @@ public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
     @Nullable
     private Map<String, String> extraDataMap;
 
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final transient PayloadHash payloadHash = new PayloadHash();
+
     public Alert(String message,
                  boolean isUpdateInfo,
                  boolean isPreReleaseInfo,
@@ -139,11 +145,17 @@ public final class Alert implements ProtectedStoragePayload, ExpirablePayload {
         return TTL;
     }
 
+    @Override
+    public PayloadHash getPayloadHash() {
+        return payloadHash;
+    }
+
     public void setSigAndPubKey(String signatureAsBase64, PublicKey ownerPubKey) {
         this.signatureAsBase64 = signatureAsBase64;
         this.ownerPubKey = ownerPubKey;
 
         ownerPubKeyBytes = Sig.getPublicKeyBytes(ownerPubKey);
+        payloadHash.invalidate();
     }
 
     public boolean isNewVersion(Preferences preferences) {
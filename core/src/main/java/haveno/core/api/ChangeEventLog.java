@@ -0,0 +1,139 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded in-memory log of change events which listeners can resume from after reconnecting.
+ * <p>
+ * Each event gets a resume token made of the epoch of the log, which is random per run of the application, and the
+ * sequence number of the event. A listener added with the token of the last event it has received gets the later
+ * events of the log replayed in order before any new event. If the token is missing, of another run, or its event
+ * has been evicted from the log already, the listener is told to resync its state instead.
+ */
+@Slf4j
+public class ChangeEventLog<T> {
+
+    private static final char TOKEN_SEPARATOR = ':';
+
+    public interface Listener<T> {
+
+        // Called once when the listener is added, before any event, with the token to resume from later. If the
+        // listener resumes, that is the token it resumed from, as the replayed events follow the start event.
+        void onStart(String resumeToken, boolean isResyncRequired);
+
+        void onEvent(T event);
+    }
+
+    @Getter
+    private final int capacity;
+    @Getter
+    private final String epoch;
+    private final ArrayDeque<T> events = new ArrayDeque<>();
+    private final List<Listener<T>> listeners = new LinkedList<>();
+    private long lastSequence;
+
+    public ChangeEventLog(int capacity) {
+        this(capacity, UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    @VisibleForTesting
+    ChangeEventLog(int capacity, String epoch) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        this.capacity = capacity;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Appends the event created with its resume token and sends it to the listeners.
+     */
+    public synchronized T append(@NonNull Function<String, T> eventFactory) {
+        T event = eventFactory.apply(toResumeToken(++lastSequence));
+        events.addLast(event);
+        if (events.size() > capacity) events.removeFirst();
+        for (Iterator<Listener<T>> iter = listeners.iterator(); iter.hasNext(); ) {
+            Listener<T> listener = iter.next();
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("Failed to send change event to listener {}: {}", listener, e.getMessage());
+                iter.remove();
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Adds the listener and replays the events after the given resume token to it.
+     *
+     * @return true if the listener resumes from the token, false if it has to resync its state
+     */
+    public synchronized boolean addListener(@Nullable String resumeToken, @NonNull Listener<T> listener) {
+        long resumeSequence = toSequence(resumeToken);
+        long firstSequence = lastSequence - events.size() + 1;
+        boolean isResumed = resumeSequence >= firstSequence - 1 && resumeSequence <= lastSequence;
+        listener.onStart(toResumeToken(isResumed ? resumeSequence : lastSequence), !isResumed);
+        if (isResumed) {
+            int numSkipped = (int) (resumeSequence - firstSequence + 1);
+            events.stream().skip(numSkipped).forEach(listener::onEvent);
+        }
+        listeners.add(listener);
+        return isResumed;
+    }
+
+    public synchronized void removeListener(@NonNull Listener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized int getNumListeners() {
+        return listeners.size();
+    }
+
+    public synchronized String getLastResumeToken() {
+        return toResumeToken(lastSequence);
+    }
+
+    private String toResumeToken(long sequence) {
+        return epoch + TOKEN_SEPARATOR + sequence;
+    }
+
+    // Returns -1 if the token is not of this log
+    private long toSequence(@Nullable String resumeToken) {
+        if (resumeToken == null || resumeToken.isEmpty()) return -1;
+        int separatorIndex = resumeToken.lastIndexOf(TOKEN_SEPARATOR);
+        if (separatorIndex < 0 || !epoch.equals(resumeToken.substring(0, separatorIndex))) return -1;
+        try {
+            return Long.parseLong(resumeToken.substring(separatorIndex + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -42,36 +42,41 @@ import haveno.common.crypto.IncorrectPasswordException;
 import haveno.common.handlers.ErrorMessageHandler;
 import haveno.common.handlers.FaultHandler;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.taskrunner.TaskTrace;
+import haveno.common.taskrunner.TaskTraces;
 import haveno.core.api.model.AddressBalanceInfo;
 import haveno.core.api.model.BalancesInfo;
+import haveno.core.api.model.EditOfferParams;
 import haveno.core.api.model.MarketDepthInfo;
 import haveno.core.api.model.MarketPriceInfo;
 import haveno.core.api.model.PaymentAccountForm;
 import haveno.core.api.model.PaymentAccountFormField;
+import haveno.core.api.model.PostOfferParams;
 import haveno.core.app.AppStartupState;
-import haveno.core.monetary.Price;
 import haveno.core.offer.Offer;
-import haveno.core.offer.OfferDirection;
 import haveno.core.offer.OpenOffer;
 import haveno.core.payment.PaymentAccount;
 import haveno.core.payment.payload.PaymentMethod;
 import haveno.core.support.dispute.Attachment;
 import haveno.core.support.dispute.Dispute;
 import haveno.core.support.dispute.DisputeResult;
+import haveno.core.support.dispute.agent.MultipleHolderNameDetection;
 import haveno.core.support.messages.ChatMessage;
 import haveno.core.trade.Trade;
 import haveno.core.trade.statistics.TradeStatistics3;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.xmr.XmrNodeSettings;
 import haveno.proto.grpc.NotificationMessage;
+import haveno.proto.grpc.TradeEvent;
+import haveno.proto.grpc.WalletEvent;
 import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -102,6 +107,7 @@ public class CoreApi {
     private final CoreWalletsService walletsService;
     private final TradeStatisticsManager tradeStatisticsManager;
     private final CoreNotificationService notificationService;
+    private final CoreChangeEventsService changeEventsService;
     private final XmrConnectionService xmrConnectionService;
     private final XmrLocalNode xmrLocalNode;
 
@@ -119,6 +125,7 @@ public class CoreApi {
                    CoreWalletsService walletsService,
                    TradeStatisticsManager tradeStatisticsManager,
                    CoreNotificationService notificationService,
+                   CoreChangeEventsService changeEventsService,
                    XmrConnectionService xmrConnectionService,
                    XmrLocalNode xmrLocalNode) {
         this.config = config;
@@ -134,6 +141,7 @@ public class CoreApi {
         this.walletsService = walletsService;
         this.tradeStatisticsManager = tradeStatisticsManager;
         this.notificationService = notificationService;
+        this.changeEventsService = changeEventsService;
         this.xmrConnectionService = xmrConnectionService;
         this.xmrLocalNode = xmrLocalNode;
     }
@@ -355,6 +363,26 @@ public class CoreApi {
         notificationService.sendNotification(notification);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Change events
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean addWalletEventListener(String resumeToken, ChangeEventLog.Listener<WalletEvent> listener) {
+        return changeEventsService.addWalletEventListener(resumeToken, listener);
+    }
+
+    public void removeWalletEventListener(ChangeEventLog.Listener<WalletEvent> listener) {
+        changeEventsService.removeWalletEventListener(listener);
+    }
+
+    public boolean addTradeEventListener(String resumeToken, ChangeEventLog.Listener<TradeEvent> listener) {
+        return changeEventsService.addTradeEventListener(resumeToken, listener);
+    }
+
+    public void removeTradeEventListener(ChangeEventLog.Listener<TradeEvent> listener) {
+        changeEventsService.removeTradeEventListener(listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Disputes
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -380,6 +408,14 @@ public class CoreApi {
         coreDisputeService.sendDisputeChatMessage(disputeId, message, attachments);
     }
 
+    public int getNumSuspiciousTraders() {
+        return coreDisputeService.getNumSuspiciousTraders();
+    }
+
+    public List<MultipleHolderNameDetection.SuspiciousTrader> getSuspiciousTraders(int offset, int limit) {
+        return coreDisputeService.getSuspiciousTraders(offset, limit);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Dispute Agents
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -448,38 +484,32 @@ public class CoreApi {
                 errorMessageHandler);
     }
 
-    public Offer editOffer(String offerId,
-                           String currencyCode,
-                           OfferDirection direction,
-                           Price price,
-                           boolean useMarketBasedPrice,
-                           double marketPriceMargin,
-                           BigInteger amount,
-                           BigInteger minAmount,
-                           double securityDepositPct,
-                           PaymentAccount paymentAccount,
-                           boolean isPrivateOffer,
-                           boolean buyerAsTakerWithoutDeposit,
-                           String extraInfo) {
-        return coreOffersService.editOffer(offerId,
-                currencyCode,
-                direction,
-                price,
-                useMarketBasedPrice,
-                marketPriceMargin,
-                amount,
-                minAmount,
-                securityDepositPct,
-                paymentAccount,
-                isPrivateOffer,
-                buyerAsTakerWithoutDeposit,
-                extraInfo);
+    public void postOffers(List<PostOfferParams> offersParams,
+                           BiConsumer<Integer, Offer> resultHandler,
+                           BiConsumer<Integer, String> errorMessageHandler) {
+        coreOffersService.postOffers(offersParams, resultHandler, errorMessageHandler);
+    }
+
+    public void editOffer(EditOfferParams params, Consumer<OpenOffer> resultHandler, ErrorMessageHandler errorMessageHandler) {
+        coreOffersService.editOffer(params, resultHandler, errorMessageHandler);
+    }
+
+    public void editOffers(List<EditOfferParams> offersParams,
+                           BiConsumer<Integer, OpenOffer> resultHandler,
+                           BiConsumer<Integer, String> errorMessageHandler) {
+        coreOffersService.editOffers(offersParams, resultHandler, errorMessageHandler);
     }
 
     public void cancelOffer(String id, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         coreOffersService.cancelOffer(id, resultHandler, errorMessageHandler);
     }
 
+    public void cancelOffers(List<String> ids,
+                             Consumer<Integer> resultHandler,
+                             BiConsumer<Integer, String> errorMessageHandler) {
+        coreOffersService.cancelOffers(ids, resultHandler, errorMessageHandler);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PaymentAccounts
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -588,4 +618,16 @@ public class CoreApi {
     public void sendChatMessage(String tradeId, String message) {
         coreTradesService.sendChatMessage(tradeId, message);
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Task traces
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the recently run protocol tasks of the trade or offer with the given id, oldest first.
+     */
+    public List<TaskTrace> getTaskTraces(String tradeOrOfferId) {
+        return TaskTraces.getInstance().getTraces(tradeOrOfferId);
+    }
 }
@@ -0,0 +1,255 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import haveno.common.ThreadUtils;
+import haveno.core.api.model.XmrTx;
+import haveno.core.trade.Trade;
+import haveno.core.trade.TradeManager;
+import haveno.core.xmr.listeners.XmrBalanceListener;
+import haveno.core.xmr.wallet.XmrWalletService;
+import haveno.proto.grpc.TradeEvent;
+import haveno.proto.grpc.TradeEvent.TradeEventType;
+import haveno.proto.grpc.WalletEvent;
+import haveno.proto.grpc.WalletEvent.WalletEventType;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javax.annotation.Nullable;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import monero.wallet.model.MoneroTxQuery;
+import monero.wallet.model.MoneroTxWallet;
+import monero.wallet.model.MoneroWalletListener;
+
+/**
+ * Logs changes of the wallet and the trades as events which API clients can subscribe to and resume from.
+ * <p>
+ * Listening to the wallet and the trades starts with the first subscription.
+ */
+@Singleton
+@Slf4j
+public class CoreChangeEventsService {
+
+    private static final int MAX_EVENTS = 1000;
+    private static final String THREAD_ID = CoreChangeEventsService.class.getSimpleName();
+
+    private final XmrWalletService xmrWalletService;
+    private final TradeManager tradeManager;
+    private final ChangeEventLog<WalletEvent> walletEvents = new ChangeEventLog<>(MAX_EVENTS);
+    private final ChangeEventLog<TradeEvent> tradeEvents = new ChangeEventLog<>(MAX_EVENTS);
+    private final Map<String, ChangeListener<Trade.State>> tradeStateListeners = new HashMap<>();
+    private boolean isStarted;
+
+    // Only accessed on the thread of this service
+    private BigInteger lastBalance;
+    private BigInteger lastAvailableBalance;
+    private Set<String> txHashes;
+    private Set<String> unconfirmedTxHashes;
+    private Long lastConfirmedHeight;
+
+    @Inject
+    public CoreChangeEventsService(XmrWalletService xmrWalletService, TradeManager tradeManager) {
+        this.xmrWalletService = xmrWalletService;
+        this.tradeManager = tradeManager;
+    }
+
+    public boolean addWalletEventListener(@Nullable String resumeToken, @NonNull ChangeEventLog.Listener<WalletEvent> listener) {
+        startIfNecessary();
+        return walletEvents.addListener(resumeToken, listener);
+    }
+
+    public void removeWalletEventListener(@NonNull ChangeEventLog.Listener<WalletEvent> listener) {
+        walletEvents.removeListener(listener);
+    }
+
+    public boolean addTradeEventListener(@Nullable String resumeToken, @NonNull ChangeEventLog.Listener<TradeEvent> listener) {
+        startIfNecessary();
+        return tradeEvents.addListener(resumeToken, listener);
+    }
+
+    public void removeTradeEventListener(@NonNull ChangeEventLog.Listener<TradeEvent> listener) {
+        tradeEvents.removeListener(listener);
+    }
+
+    private synchronized void startIfNecessary() {
+        if (isStarted) return;
+        isStarted = true;
+
+        // listen to the wallet, the current balances and txs are the baseline of later changes
+        ThreadUtils.execute(this::updateWallet, THREAD_ID);
+        xmrWalletService.addBalanceListener(new XmrBalanceListener() {
+            @Override
+            public void onBalanceChanged(BigInteger balance) {
+                ThreadUtils.execute(() -> updateWallet(), THREAD_ID);
+            }
+        });
+        xmrWalletService.addWalletListener(new MoneroWalletListener() {
+            @Override
+            public void onNewBlock(long height) {
+                ThreadUtils.execute(() -> updateTxs(), THREAD_ID);
+            }
+        });
+
+        // listen to the trades
+        tradeManager.getObservableList().addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                if (change.wasRemoved()) change.getRemoved().forEach(this::removeTradeStateListener);
+                if (change.wasAdded()) change.getAddedSubList().forEach(trade -> addTradeStateListener(trade, true));
+            }
+        });
+        tradeManager.getObservableList().forEach(trade -> addTradeStateListener(trade, false));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Wallet events
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void updateWallet() {
+        updateBalances();
+        updateTxs();
+    }
+
+    private void updateBalances() {
+        BigInteger balance = xmrWalletService.getBalance();
+        BigInteger availableBalance = xmrWalletService.getAvailableBalance();
+        if (balance == null || availableBalance == null) return; // wallet not synced yet
+        if (lastBalance == null) {
+            lastBalance = balance;
+            lastAvailableBalance = availableBalance;
+            return;
+        }
+        if (balance.equals(lastBalance) && availableBalance.equals(lastAvailableBalance)) return;
+        BigInteger balanceDelta = balance.subtract(lastBalance);
+        BigInteger availableBalanceDelta = availableBalance.subtract(lastAvailableBalance);
+        lastBalance = balance;
+        lastAvailableBalance = availableBalance;
+        walletEvents.append(resumeToken -> WalletEvent.newBuilder()
+                .setType(WalletEventType.BALANCE_CHANGED)
+                .setResumeToken(resumeToken)
+                .setTimestamp(System.currentTimeMillis())
+                .setBalance(balance.longValueExact())
+                .setBalanceDelta(balanceDelta.longValueExact())
+                .setAvailableBalance(availableBalance.longValueExact())
+                .setAvailableBalanceDelta(availableBalanceDelta.longValueExact())
+                .build());
+    }
+
+    // Only the txs confirmed at or after the last confirmed height and the unconfirmed txs are compared, the
+    // older txs cannot change anymore
+    private void updateTxs() {
+        List<MoneroTxWallet> txs;
+        try {
+            txs = new ArrayList<>(xmrWalletService.getTxs(new MoneroTxQuery()
+                    .setIsConfirmed(true)
+                    .setMinHeight(lastConfirmedHeight)));
+            txs.addAll(xmrWalletService.getTxs(new MoneroTxQuery()
+                    .setIsConfirmed(false)
+                    .setIsFailed(false)));
+        } catch (Exception e) {
+            // the wallet may not be open yet, the txs are compared again on the next change
+            log.warn("Failed to get txs for wallet events: {}", e.getMessage());
+            return;
+        }
+        boolean isBaseline = txHashes == null;
+        if (isBaseline) {
+            txHashes = new HashSet<>();
+            unconfirmedTxHashes = new HashSet<>();
+        }
+        Set<String> newUnconfirmedTxHashes = new HashSet<>();
+        for (MoneroTxWallet tx : txs) {
+            boolean isConfirmed = Boolean.TRUE.equals(tx.isConfirmed());
+            boolean isNew = txHashes.add(tx.getHash());
+            boolean wasUnconfirmed = unconfirmedTxHashes.contains(tx.getHash());
+            if (!isConfirmed) {
+                newUnconfirmedTxHashes.add(tx.getHash());
+            } else if (tx.getHeight() != null && (lastConfirmedHeight == null || tx.getHeight() > lastConfirmedHeight)) {
+                lastConfirmedHeight = tx.getHeight();
+            }
+            if (isBaseline) continue;
+            if (isNew) appendTxEvent(WalletEventType.TX_ADDED, tx);
+            if (isConfirmed && (isNew || wasUnconfirmed)) appendTxEvent(WalletEventType.TX_CONFIRMED, tx);
+        }
+        unconfirmedTxHashes = newUnconfirmedTxHashes;
+    }
+
+    private void appendTxEvent(WalletEventType type, MoneroTxWallet tx) {
+        walletEvents.append(resumeToken -> WalletEvent.newBuilder()
+                .setType(type)
+                .setResumeToken(resumeToken)
+                .setTimestamp(System.currentTimeMillis())
+                .setTx(XmrTx.toXmrTx(tx).toProtoMessage())
+                .build());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Trade events
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addTradeStateListener(Trade trade, boolean isNewTrade) {
+        ChangeListener<Trade.State> listener = (observable, oldState, newState) -> onTradeStateChanged(trade, oldState, newState);
+        synchronized (tradeStateListeners) {
+            if (tradeStateListeners.containsKey(trade.getId())) return;
+            tradeStateListeners.put(trade.getId(), listener);
+        }
+        trade.stateProperty().addListener(listener);
+        if (isNewTrade) onTradeStateChanged(trade, null, trade.getState());
+    }
+
+    private void removeTradeStateListener(Trade trade) {
+        ChangeListener<Trade.State> listener;
+        synchronized (tradeStateListeners) {
+            listener = tradeStateListeners.remove(trade.getId());
+        }
+        if (listener != null) trade.stateProperty().removeListener(listener);
+    }
+
+    private void onTradeStateChanged(Trade trade, @Nullable Trade.State oldState, Trade.State newState) {
+        tradeEvents.append(resumeToken -> toTradeEvent(TradeEventType.STATE_CHANGED, resumeToken, trade, oldState, newState));
+        if (oldState == null || oldState.getPhase() != newState.getPhase()) {
+            tradeEvents.append(resumeToken -> toTradeEvent(TradeEventType.PHASE_CHANGED, resumeToken, trade, oldState, newState));
+        }
+    }
+
+    private static TradeEvent toTradeEvent(TradeEventType type,
+                                           String resumeToken,
+                                           Trade trade,
+                                           @Nullable Trade.State oldState,
+                                           Trade.State newState) {
+        TradeEvent.Builder builder = TradeEvent.newBuilder()
+                .setType(type)
+                .setResumeToken(resumeToken)
+                .setTimestamp(System.currentTimeMillis())
+                .setTradeId(trade.getId())
+                .setState(newState.name())
+                .setPhase(newState.getPhase().name());
+        if (oldState != null) {
+            builder.setPreviousState(oldState.name())
+                    .setPreviousPhase(oldState.getPhase().name());
+        }
+        return builder.build();
+    }
+}
@@ -37,6 +37,7 @@ import haveno.core.support.dispute.DisputeManager;
 import haveno.core.support.dispute.DisputeResult;
 import haveno.core.support.dispute.DisputeSummaryVerification;
 import haveno.core.support.dispute.DisputeResult.SubtractFeeFrom;
+import haveno.core.support.dispute.agent.MultipleHolderNameDetection;
 import haveno.core.support.dispute.arbitration.ArbitrationManager;
 import haveno.core.support.messages.ChatMessage;
 import haveno.core.trade.Contract;
@@ -75,6 +76,7 @@ public class CoreDisputesService {
     private final CoinFormatter formatter;
     private final KeyRing keyRing;
     private final TradeManager tradeManager;
+    private MultipleHolderNameDetection multipleHolderNameDetection;
 
     @Inject
     public CoreDisputesService(ArbitrationManager arbitrationManager,
@@ -312,4 +314,22 @@ public class CoreDisputesService {
         dispute.addAndPersistChatMessage(chatMessage);
         arbitrationManager.sendChatMessage(chatMessage);
     }
+
+    public int getNumSuspiciousTraders() {
+        return getMultipleHolderNameDetection().getNumSuspiciousTraders();
+    }
+
+    public List<MultipleHolderNameDetection.SuspiciousTrader> getSuspiciousTraders(int offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        return getMultipleHolderNameDetection().getSuspiciousTraders(offset, limit == 0 ? Integer.MAX_VALUE : limit);
+    }
+
+    // Created on first use, as only dispute agents query suspicious traders
+    private synchronized MultipleHolderNameDetection getMultipleHolderNameDetection() {
+        if (multipleHolderNameDetection == null) {
+            multipleHolderNameDetection = new MultipleHolderNameDetection(arbitrationManager);
+        }
+        return multipleHolderNameDetection;
+    }
 }
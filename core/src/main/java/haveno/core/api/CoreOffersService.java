@@ -42,6 +42,8 @@ import haveno.common.handlers.ResultHandler;
 import static haveno.common.util.MathUtils.exactMultiply;
 import static haveno.common.util.MathUtils.roundDoubleToLong;
 import static haveno.common.util.MathUtils.scaleUpByPowerOf10;
+import haveno.core.api.model.EditOfferParams;
+import haveno.core.api.model.PostOfferParams;
 import haveno.core.locale.CurrencyUtil;
 import haveno.core.locale.Res;
 import haveno.core.monetary.CryptoMoney;
@@ -67,7 +69,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Comparator;
 import static java.util.Comparator.comparing;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -199,6 +204,106 @@ public class CoreOffersService {
         }
 
         // create new offer
+        Offer offer = createOffer(currencyCode,
+                directionAsString,
+                priceAsString,
+                useMarketBasedPrice,
+                marketPriceMargin,
+                amountAsLong,
+                minAmountAsLong,
+                securityDepositPct,
+                paymentAccount,
+                isPrivateOffer,
+                buyerAsTakerWithoutDeposit,
+                extraInfo);
+
+        placeOffer(offer,
+                triggerPriceAsString,
+                true,
+                reserveExactAmount,
+                null,
+                transaction -> resultHandler.accept(offer),
+                errorMessageHandler);
+    }
+
+    // Posts the offers in one batch and reports the result of each offer by its index. The offers are funded one
+    // after another, but each offer is signed while the next ones are funded.
+    void postOffers(List<PostOfferParams> offersParams,
+                    BiConsumer<Integer, Offer> resultHandler,
+                    BiConsumer<Integer, String> errorMessageHandler) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+
+        List<OpenOffer> openOffers = new ArrayList<>();
+        Map<String, Integer> indicesByOfferId = new HashMap<>();
+        for (int i = 0; i < offersParams.size(); i++) {
+            PostOfferParams params = offersParams.get(i);
+            int index = i;
+            try {
+
+                // clones share the funds of their source offer, so they are posted one by one
+                if (!params.getSourceOfferId().isEmpty()) {
+                    postOffer(params.getCurrencyCode(),
+                            params.getDirection(),
+                            params.getPrice(),
+                            params.isUseMarketBasedPrice(),
+                            params.getMarketPriceMarginPct(),
+                            params.getAmount(),
+                            params.getMinAmount(),
+                            params.getSecurityDepositPct(),
+                            params.getTriggerPrice(),
+                            params.isReserveExactAmount(),
+                            params.getPaymentAccountId(),
+                            params.isPrivateOffer(),
+                            params.isBuyerAsTakerWithoutDeposit(),
+                            params.getExtraInfo(),
+                            params.getSourceOfferId(),
+                            offer -> resultHandler.accept(index, offer),
+                            errorMessage -> errorMessageHandler.accept(index, errorMessage));
+                    continue;
+                }
+
+                PaymentAccount paymentAccount = user.getPaymentAccount(params.getPaymentAccountId());
+                if (paymentAccount == null) throw new IllegalArgumentException(format("payment account with id %s not found", params.getPaymentAccountId()));
+                Offer offer = createOffer(params.getCurrencyCode(),
+                        params.getDirection(),
+                        params.getPrice(),
+                        params.isUseMarketBasedPrice(),
+                        params.getMarketPriceMarginPct(),
+                        params.getAmount(),
+                        params.getMinAmount(),
+                        params.getSecurityDepositPct(),
+                        paymentAccount,
+                        params.isPrivateOffer(),
+                        params.isBuyerAsTakerWithoutDeposit(),
+                        params.getExtraInfo());
+                long triggerPrice = PriceUtil.getMarketPriceAsLong(params.getTriggerPrice(), offer.getCurrencyCode());
+                openOffers.add(new OpenOffer(offer, triggerPrice, params.isReserveExactAmount()));
+                indicesByOfferId.put(offer.getId(), index);
+            } catch (Exception e) {
+                errorMessageHandler.accept(index, e.getMessage());
+            }
+        }
+
+        // place offers
+        if (openOffers.isEmpty()) return;
+        openOfferManager.placeOffers(openOffers,
+                openOffer -> resultHandler.accept(indicesByOfferId.get(openOffer.getId()), openOffer.getOffer()),
+                (openOffer, errorMessage) -> errorMessageHandler.accept(indicesByOfferId.get(openOffer.getId()), errorMessage));
+    }
+
+    private Offer createOffer(String currencyCode,
+                              String directionAsString,
+                              String priceAsString,
+                              boolean useMarketBasedPrice,
+                              double marketPriceMargin,
+                              long amountAsLong,
+                              long minAmountAsLong,
+                              double securityDepositPct,
+                              PaymentAccount paymentAccount,
+                              boolean isPrivateOffer,
+                              boolean buyerAsTakerWithoutDeposit,
+                              String extraInfo) {
         String upperCaseCurrencyCode = currencyCode.toUpperCase();
         String offerId = createOfferService.getRandomOfferId();
         OfferDirection direction = OfferDirection.valueOf(directionAsString.toUpperCase());
@@ -220,14 +325,7 @@ public class CoreOffersService {
                 extraInfo);
 
         verifyPaymentAccountIsValidForNewOffer(offer, paymentAccount);
-
-        placeOffer(offer,
-                triggerPriceAsString,
-                true,
-                reserveExactAmount,
-                null,
-                transaction -> resultHandler.accept(offer),
-                errorMessageHandler);
+        return offer;
     }
 
     private void cloneOffer(String sourceOfferId,
@@ -284,33 +382,47 @@ public class CoreOffersService {
                 errorMessageHandler);
     }
 
-    // TODO: this implementation is missing; implement.
-    Offer editOffer(String offerId,
-                    String currencyCode,
-                    OfferDirection direction,
-                    Price price,
-                    boolean useMarketBasedPrice,
-                    double marketPriceMargin,
-                    BigInteger amount,
-                    BigInteger minAmount,
-                    double securityDepositPct,
-                    PaymentAccount paymentAccount,
-                    boolean isPrivateOffer,
-                    boolean buyerAsTakerWithoutDeposit,
-                    String extraInfo) {
-        return createOfferService.createAndGetOffer(offerId,
-                direction,
-                currencyCode.toUpperCase(),
-                amount,
-                minAmount,
+    // Edits the price, trigger price and extra info of an offer. The offer is signed again if its price changed.
+    void editOffer(EditOfferParams params, Consumer<OpenOffer> resultHandler, ErrorMessageHandler errorMessageHandler) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+
+        OpenOffer openOffer = getMyOffer(params.getOfferId());
+        Offer offer = openOffer.getOffer();
+        String currencyCode = offer.getCurrencyCode();
+        Price price = params.getPrice().isEmpty() ? null : Price.valueOf(currencyCode, priceStringToLong(params.getPrice(), currencyCode));
+        String extraInfo = params.getExtraInfo().isEmpty() ? offer.getOfferExtraInfo() : params.getExtraInfo();
+        Offer editedOffer = createOfferService.createEditedOffer(offer,
                 price,
-                useMarketBasedPrice,
-                exactMultiply(marketPriceMargin, 0.01),
-                securityDepositPct,
-                paymentAccount,
-                isPrivateOffer,
-                buyerAsTakerWithoutDeposit,
+                params.isUseMarketBasedPrice(),
+                exactMultiply(params.getMarketPriceMarginPct(), 0.01),
                 extraInfo);
+        long triggerPrice = params.getTriggerPrice().isEmpty()
+                ? openOffer.getTriggerPrice()
+                : PriceUtil.getMarketPriceAsLong(params.getTriggerPrice(), currencyCode);
+        OpenOffer.State originalState = openOffer.getState();
+        openOfferManager.editOpenOfferStart(openOffer, () -> {
+            openOfferManager.editOpenOfferPublish(editedOffer,
+                    triggerPrice,
+                    originalState,
+                    () -> resultHandler.accept(getMyOffer(editedOffer.getId())),
+                    errorMessageHandler);
+        }, errorMessageHandler);
+    }
+
+    void editOffers(List<EditOfferParams> offersParams,
+                    BiConsumer<Integer, OpenOffer> resultHandler,
+                    BiConsumer<Integer, String> errorMessageHandler) {
+        for (int i = 0; i < offersParams.size(); i++) {
+            int index = i;
+            try {
+                editOffer(offersParams.get(i),
+                        openOffer -> resultHandler.accept(index, openOffer),
+                        errorMessage -> errorMessageHandler.accept(index, errorMessage));
+            } catch (Exception e) {
+                errorMessageHandler.accept(index, e.getMessage());
+            }
+        }
     }
 
     void cancelOffer(String id, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
@@ -318,6 +430,21 @@ public class CoreOffersService {
         openOfferManager.removeOffer(offer, resultHandler, errorMessageHandler);
     }
 
+    void cancelOffers(List<String> ids,
+                      Consumer<Integer> resultHandler,
+                      BiConsumer<Integer, String> errorMessageHandler) {
+        for (int i = 0; i < ids.size(); i++) {
+            int index = i;
+            try {
+                cancelOffer(ids.get(i),
+                        () -> resultHandler.accept(index),
+                        errorMessage -> errorMessageHandler.accept(index, errorMessage));
+            } catch (Exception e) {
+                errorMessageHandler.accept(index, e.getMessage());
+            }
+        }
+    }
+
     // -------------------------- PRIVATE HELPERS -----------------------------
 
     private void verifyPaymentAccountIsValidForNewOffer(Offer offer, PaymentAccount paymentAccount) {
@@ -0,0 +1,45 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.api.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The parameters of an offer to post, as given to the api.
+ */
+@Value
+@Builder
+public class PostOfferParams {
+    String currencyCode;
+    String direction;
+    String price;
+    boolean useMarketBasedPrice;
+    double marketPriceMarginPct;
+    long amount;
+    long minAmount;
+    double securityDepositPct;
+    String triggerPrice;
+    boolean reserveExactAmount;
+    String paymentAccountId;
+    boolean isPrivateOffer;
+    boolean buyerAsTakerWithoutDeposit;
+    String extraInfo;
+    String sourceOfferId;
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.api.model;
+
+import haveno.common.Payload;
+import haveno.common.taskrunner.TaskTrace;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import static com.google.common.base.Strings.nullToEmpty;
+
+@ToString
+@Getter
+@AllArgsConstructor
+public class TaskTraceInfo implements Payload {
+
+    private final String taskName;
+    private final long startTime;
+    private final long durationMs;
+    private final String result;
+    private final String errorMessage;
+    private final int attempt;
+
+    public static TaskTraceInfo toTaskTraceInfo(TaskTrace taskTrace) {
+        return new TaskTraceInfo(taskTrace.getTaskName(),
+                taskTrace.getStartTime(),
+                taskTrace.getDurationMs(),
+                taskTrace.getResult().name(),
+                nullToEmpty(taskTrace.getErrorMessage()),
+                taskTrace.getAttempt());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public haveno.proto.grpc.TaskTraceInfo toProtoMessage() {
+        return haveno.proto.grpc.TaskTraceInfo.newBuilder()
+                .setTaskName(taskName)
+                .setStartTime(startTime)
+                .setDurationMs(durationMs)
+                .setResult(result)
+                .setErrorMessage(errorMessage)
+                .setAttempt(attempt)
+                .build();
+    }
+
+    public static TaskTraceInfo fromProto(haveno.proto.grpc.TaskTraceInfo proto) {
+        return new TaskTraceInfo(proto.getTaskName(),
+                proto.getStartTime(),
+                proto.getDurationMs(),
+                proto.getResult(),
+                proto.getErrorMessage(),
+                proto.getAttempt());
+    }
+}
@@ -19,6 +19,7 @@ package haveno.core.app;
 
 import com.google.inject.Inject;
 import haveno.common.ClockWatcher;
+import haveno.common.app.StartupGraph;
 import haveno.common.persistence.PersistenceManager;
 import haveno.core.account.sign.SignedWitnessService;
 import haveno.core.account.witness.AccountAgeWitnessService;
@@ -161,57 +162,72 @@ public class DomainInitialisation {
                                    Consumer<String> filterWarningHandler,
                                    Consumer<List<RevolutAccount>> revolutAccountsUpdateHandler,
                                    Consumer<List<AmazonGiftCardAccount>> amazonGiftCardAccountsUpdateHandler) {
-        clockWatcher.start();
-
-        PersistenceManager.onAllServicesInitialized();
-
-        arbitratorManager.onAllServicesInitialized();
-        mediatorManager.onAllServicesInitialized();
-        refundAgentManager.onAllServicesInitialized();
-
-        tradeManager.onAllServicesInitialized();
-        arbitrationManager.onAllServicesInitialized();
-        mediationManager.onAllServicesInitialized();
-        refundManager.onAllServicesInitialized();
-        traderChatManager.onAllServicesInitialized();
-
-        closedTradableManager.onAllServicesInitialized();
-        failedTradesManager.onAllServicesInitialized();
-
-        filterManager.setFilterWarningHandler(filterWarningHandler);
-        filterManager.onAllServicesInitialized();
-
-        openOfferManager.onAllServicesInitialized();
-
-        balances.onAllServicesInitialized();
-
-        walletAppSetup.setRejectedTxErrorMessageHandler(rejectedTxErrorMessageHandler, openOfferManager, tradeManager);
-
-        privateNotificationManager.privateNotificationProperty().addListener((observable, oldValue, newValue) -> {
-            if (displayPrivateNotificationHandler != null)
-                displayPrivateNotificationHandler.accept(newValue);
+        // The services register listeners on observable state and are not thread safe, so the graph runs on the
+        // calling user thread. It starts the services in the order they are added here as long as that order
+        // respects the declared dependencies.
+        StartupGraph graph = new StartupGraph("initDomainServices", Runnable::run)
+                .addNode("ClockWatcher", clockWatcher::start)
+                .addNode("PersistenceManager", PersistenceManager::onAllServicesInitialized)
+                .addNode("ArbitratorManager", arbitratorManager::onAllServicesInitialized)
+                .addNode("MediatorManager", mediatorManager::onAllServicesInitialized)
+                .addNode("RefundAgentManager", refundAgentManager::onAllServicesInitialized)
+                .addNode("TradeManager", tradeManager::onAllServicesInitialized,
+                        "PersistenceManager", "ArbitratorManager")
+                .addNode("ArbitrationManager", arbitrationManager::onAllServicesInitialized,
+                        "TradeManager", "ArbitratorManager")
+                .addNode("MediationManager", mediationManager::onAllServicesInitialized,
+                        "TradeManager", "MediatorManager")
+                .addNode("RefundManager", refundManager::onAllServicesInitialized,
+                        "TradeManager", "RefundAgentManager")
+                .addNode("TraderChatManager", traderChatManager::onAllServicesInitialized, "TradeManager")
+                .addNode("ClosedTradableManager", closedTradableManager::onAllServicesInitialized, "TradeManager")
+                .addNode("FailedTradesManager", failedTradesManager::onAllServicesInitialized, "TradeManager")
+                .addNode("FilterManager", () -> {
+                    filterManager.setFilterWarningHandler(filterWarningHandler);
+                    filterManager.onAllServicesInitialized();
+                })
+                .addNode("OpenOfferManager", openOfferManager::onAllServicesInitialized,
+                        "TradeManager", "FilterManager")
+                .addNode("Balances", balances::onAllServicesInitialized,
+                        "TradeManager", "OpenOfferManager", "ClosedTradableManager", "FailedTradesManager")
+                .addNode("WalletAppSetup", () -> walletAppSetup.setRejectedTxErrorMessageHandler(
+                        rejectedTxErrorMessageHandler, openOfferManager, tradeManager), "TradeManager", "OpenOfferManager")
+                .addNode("PrivateNotificationManager", () -> privateNotificationManager.privateNotificationProperty()
+                        .addListener((observable, oldValue, newValue) -> {
+                            if (displayPrivateNotificationHandler != null)
+                                displayPrivateNotificationHandler.accept(newValue);
+                        }))
+                .addNode("P2PService", p2PService::onAllServicesInitialized, "OpenOfferManager", "TradeManager")
+                .addNode("TradeStatisticsManager", tradeStatisticsManager::onAllServicesInitialized, "P2PService")
+                .addNode("AccountAgeWitnessService", accountAgeWitnessService::onAllServicesInitialized,
+                        "P2PService", "FilterManager")
+                .addNode("SignedWitnessService", signedWitnessService::onAllServicesInitialized,
+                        "AccountAgeWitnessService")
+                .addNode("PriceFeedService", () -> {
+                    priceFeedService.setCurrencyCodeOnInit();
+                    priceFeedService.startRequestingPrices();
+                })
+                .addNode("MobileNotificationService", mobileNotificationService::onAllServicesInitialized)
+                .addNode("MyOfferTakenEvents", myOfferTakenEvents::onAllServicesInitialized,
+                        "MobileNotificationService", "OpenOfferManager")
+                .addNode("TradeEvents", tradeEvents::onAllServicesInitialized,
+                        "MobileNotificationService", "TradeManager")
+                .addNode("DisputeMsgEvents", disputeMsgEvents::onAllServicesInitialized,
+                        "MobileNotificationService", "ArbitrationManager", "MediationManager", "RefundManager")
+                .addNode("PriceAlert", priceAlert::onAllServicesInitialized,
+                        "MobileNotificationService", "PriceFeedService")
+                .addNode("MarketAlerts", marketAlerts::onAllServicesInitialized,
+                        "MobileNotificationService", "P2PService")
+                .addNode("TriggerPriceService", triggerPriceService::onAllServicesInitialized,
+                        "OpenOfferManager", "PriceFeedService")
+                // Mailbox messages are applied once all services which handle them have registered their listeners
+                .addNode("MailboxMessageService", mailboxMessageService::onAllServicesInitialized,
+                        "P2PService", "TradeManager", "OpenOfferManager", "ArbitrationManager", "MediationManager",
+                        "RefundManager", "TraderChatManager");
+        graph.start(timeline -> {}, (errorMessage, throwable) -> {
+            throw throwable instanceof RuntimeException ? (RuntimeException) throwable : new RuntimeException(throwable);
         });
 
-        p2PService.onAllServicesInitialized();
-
-        tradeStatisticsManager.onAllServicesInitialized();
-
-        accountAgeWitnessService.onAllServicesInitialized();
-        signedWitnessService.onAllServicesInitialized();
-
-        priceFeedService.setCurrencyCodeOnInit();
-        priceFeedService.startRequestingPrices();
-
-        mobileNotificationService.onAllServicesInitialized();
-        myOfferTakenEvents.onAllServicesInitialized();
-        tradeEvents.onAllServicesInitialized();
-        disputeMsgEvents.onAllServicesInitialized();
-        priceAlert.onAllServicesInitialized();
-        marketAlerts.onAllServicesInitialized();
-        triggerPriceService.onAllServicesInitialized();
-
-        mailboxMessageService.onAllServicesInitialized();
-
         if (revolutAccountsUpdateHandler != null && user.getPaymentAccountsAsObservable() != null) {
             revolutAccountsUpdateHandler.accept(user.getPaymentAccountsAsObservable().stream()
                     .filter(paymentAccount -> paymentAccount instanceof RevolutAccount)
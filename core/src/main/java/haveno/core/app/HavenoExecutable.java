@@ -40,6 +40,7 @@ import com.google.inject.Injector;
 import haveno.common.ThreadUtils;
 import haveno.common.UserThread;
 import haveno.common.app.AppModule;
+import haveno.common.app.StartupGraph;
 import haveno.common.config.Config;
 import haveno.common.config.ConfigException;
 import haveno.common.config.HavenoHelpFormatter;
@@ -286,14 +287,16 @@ public abstract class HavenoExecutable implements GracefulShutDownHandler, Haven
             hosts.addAll(additionalHosts);
         }
 
-        AtomicInteger remaining = new AtomicInteger(hosts.size());
-        hosts.forEach(host -> {
-            host.readPersisted(() -> {
-                if (remaining.decrementAndGet() == 0) {
-                    UserThread.execute(completeHandler);
-                }
-            });
-        });
+        // The hosts do not depend on each other. Reads run on the bounded read group of the PersistenceManager and
+        // the result handlers on the user thread.
+        StartupGraph graph = new StartupGraph("readAllPersisted", Runnable::run);
+        hosts.forEach(host -> graph.addAsyncNode(host.getClass().getSimpleName(), host::readPersisted));
+        graph.start(timeline -> UserThread.execute(completeHandler),
+                (errorMessage, throwable) -> {
+                    // Persisting the data of the other hosts could overwrite data which could not be read
+                    log.error("Reading persisted data failed, shutting down: {}", errorMessage);
+                    UserThread.execute(() -> shutDownNoPersist(null, false));
+                });
     }
 
     protected void setupAvoidStandbyMode() {
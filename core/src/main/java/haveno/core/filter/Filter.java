@@ -25,7 +25,10 @@ import haveno.common.util.CollectionUtils;
 import haveno.common.util.ExtraDataMapValidator;
 import haveno.common.util.Utilities;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
+import haveno.network.p2p.storage.payload.PayloadHash;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
@@ -83,6 +86,9 @@ public final class Filter implements ProtectedStoragePayload, ExpirablePayload {
 
     private transient PublicKey ownerPubKey;
 
+    @Getter(AccessLevel.NONE)
+    private final transient PayloadHash payloadHash = new PayloadHash();
+
     // added at v1.3.8
     private final boolean disableAutoConf;
 
@@ -353,6 +359,11 @@ public final class Filter implements ProtectedStoragePayload, ExpirablePayload {
         return TTL;
     }
 
+    @Override
+    public PayloadHash getPayloadHash() {
+        return payloadHash;
+    }
+
     @Override
     public String toString() {
         return "Filter{" +
@@ -0,0 +1,281 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.network.p2p.inventory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Enums;
+import com.google.common.collect.Maps;
+import haveno.core.network.p2p.inventory.model.InventoryItem;
+import haveno.network.p2p.storage.HashMapChangedListener;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import haveno.network.p2p.storage.persistence.HistoricalDataStoreService;
+import haveno.network.p2p.storage.persistence.MapStoreService;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the data objects by their inventory item for the inventory responses of seed nodes.
+ * <p>
+ * The counts of the protected storage entries and the live append only data are updated from the listeners of
+ * P2PDataStorage. The keys of the counted objects are kept, so repeated notifications of updated entries or
+ * notifications of removed entries which were not stored do not change the counts. The historical stores never
+ * change and are counted once per version.
+ * <p>
+ * Requests are served from an immutable snapshot per requester version, which is refreshed at most every
+ * {@link #SNAPSHOT_MAX_AGE_MS}. A full recount runs at the first request and every {@link #FULL_RECOUNT_INTERVAL_MS}
+ * to pick up entries which were added without notifying the listeners, like the data read at startup.
+ */
+@Slf4j
+public class DataInventoryCounter implements HashMapChangedListener, AppendOnlyDataStoreListener {
+    @VisibleForTesting
+    static final long SNAPSHOT_MAX_AGE_MS = 5_000;
+    @VisibleForTesting
+    static final long FULL_RECOUNT_INTERVAL_MS = 10 * 60 * 1000;
+    private static final int MAX_SNAPSHOTS = 20;
+
+    private final P2PDataStorage p2PDataStorage;
+    private final AppendOnlyDataStoreService appendOnlyDataStoreService;
+    private final LongSupplier clock;
+    private final Map<Class<?>, Optional<InventoryItem>> itemByClass = new ConcurrentHashMap<>();
+
+    // Guarded by countsLock. Listeners are called while P2PDataStorage holds the lock of its map, so the lock of the
+    // map is always acquired before countsLock.
+    private final Object countsLock = new Object();
+    private final Map<P2PDataStorage.ByteArray, InventoryItem> protectedItems = new HashMap<>();
+    private final Set<P2PDataStorage.ByteArray> liveAppendOnlyKeys = new HashSet<>();
+    private final Map<InventoryItem, Integer> protectedCounts = new EnumMap<>(InventoryItem.class);
+    private final Map<InventoryItem, Integer> liveAppendOnlyCounts = new EnumMap<>(InventoryItem.class);
+
+    // Guarded by this
+    private final Map<String, Map<InventoryItem, Integer>> historicalCounts = new HashMap<>();
+    private final Map<String, Snapshot> snapshotsByVersion = new HashMap<>();
+    private long lastFullRecount;
+    private boolean recounted;
+
+    public DataInventoryCounter(P2PDataStorage p2PDataStorage, AppendOnlyDataStoreService appendOnlyDataStoreService) {
+        this(p2PDataStorage, appendOnlyDataStoreService, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    DataInventoryCounter(P2PDataStorage p2PDataStorage,
+                         AppendOnlyDataStoreService appendOnlyDataStoreService,
+                         LongSupplier clock) {
+        this.p2PDataStorage = p2PDataStorage;
+        this.appendOnlyDataStoreService = appendOnlyDataStoreService;
+        this.clock = clock;
+
+        p2PDataStorage.addHashMapChangedListener(this);
+        p2PDataStorage.addAppendOnlyDataStoreListener(this);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the number of data objects by inventory item as a requester with the given version would get them in
+     * a data response. Items without objects are not contained.
+     */
+    public synchronized Map<InventoryItem, Integer> getCounts(@Nullable String requestersVersion) {
+        long now = clock.getAsLong();
+        String key = String.valueOf(requestersVersion);
+        Snapshot snapshot = snapshotsByVersion.get(key);
+        if (snapshot != null && now - snapshot.createdAt < SNAPSHOT_MAX_AGE_MS) {
+            return snapshot.counts;
+        }
+
+        if (!recounted || now - lastFullRecount >= FULL_RECOUNT_INTERVAL_MS) {
+            recount();
+            recounted = true;
+            lastFullRecount = now;
+        }
+        if (snapshotsByVersion.size() >= MAX_SNAPSHOTS) {
+            snapshotsByVersion.clear();
+        }
+        snapshot = new Snapshot(now, createCounts(requestersVersion));
+        snapshotsByVersion.put(key, snapshot);
+        return snapshot.counts;
+    }
+
+    public void shutDown() {
+        p2PDataStorage.removeHashMapChangedListener(this);
+        p2PDataStorage.removeAppendOnlyDataStoreListener(this);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // HashMapChangedListener, AppendOnlyDataStoreListener
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+        synchronized (countsLock) {
+            protectedStorageEntries.forEach(this::addProtectedEntry);
+        }
+    }
+
+    @Override
+    public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+        synchronized (countsLock) {
+            protectedStorageEntries.forEach(protectedStorageEntry -> {
+                InventoryItem item = protectedItems.remove(P2PDataStorage.get32ByteHashAsByteArray(
+                        protectedStorageEntry.getProtectedStoragePayload()));
+                if (item != null) {
+                    add(protectedCounts, item, -1);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onAdded(PersistableNetworkPayload payload) {
+        // Data of other stores is counted at each snapshot
+        if (appendOnlyDataStoreService.getServices().stream()
+                .anyMatch(service -> service instanceof HistoricalDataStoreService && service.canHandle(payload))) {
+            synchronized (countsLock) {
+                addLiveAppendOnlyPayload(payload);
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void recount() {
+        long ts = System.currentTimeMillis();
+        Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> map = p2PDataStorage.getMap();
+        synchronized (map) {
+            synchronized (countsLock) {
+                protectedItems.clear();
+                protectedCounts.clear();
+                map.values().forEach(this::addProtectedEntry);
+            }
+        }
+        synchronized (countsLock) {
+            liveAppendOnlyKeys.clear();
+            liveAppendOnlyCounts.clear();
+            forEachHistoricalService(service -> service.getMapOfLiveData().values().forEach(this::addLiveAppendOnlyPayload));
+        }
+        log.info("Recounting the inventory data took {} ms", System.currentTimeMillis() - ts);
+    }
+
+    private Map<InventoryItem, Integer> createCounts(@Nullable String requestersVersion) {
+        Map<InventoryItem, Integer> counts = new EnumMap<>(InventoryItem.class);
+        synchronized (countsLock) {
+            protectedCounts.forEach((item, count) -> add(counts, item, count));
+            liveAppendOnlyCounts.forEach((item, count) -> add(counts, item, count));
+        }
+        appendOnlyDataStoreService.getServices().forEach(service -> {
+            if (service instanceof HistoricalDataStoreService) {
+                HistoricalDataStoreService<?> historicalService = (HistoricalDataStoreService<?>) service;
+                historicalService.getStoresSinceVersion(requestersVersion).forEach((storeVersion, store) ->
+                        getHistoricalCounts(historicalService, storeVersion, store)
+                                .forEach((item, count) -> add(counts, item, count)));
+            } else {
+                countAll(service.getMap().values(), counts);
+            }
+        });
+        return Maps.immutableEnumMap(counts);
+    }
+
+    private Map<InventoryItem, Integer> getHistoricalCounts(HistoricalDataStoreService<?> service,
+                                                            String storeVersion,
+                                                            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> store) {
+        String key = service.getClass().getName() + "_" + storeVersion;
+        Map<InventoryItem, Integer> counts = historicalCounts.get(key);
+        if (counts == null) {
+            counts = new EnumMap<>(InventoryItem.class);
+            countAll(store.values(), counts);
+            historicalCounts.put(key, counts);
+        }
+        return counts;
+    }
+
+    private void countAll(Collection<? extends PersistableNetworkPayload> payloads, Map<InventoryItem, Integer> counts) {
+        payloads.forEach(payload -> getItem(payload).ifPresent(item -> add(counts, item, 1)));
+    }
+
+    private void addProtectedEntry(ProtectedStorageEntry protectedStorageEntry) {
+        getItem(protectedStorageEntry.getProtectedStoragePayload()).ifPresent(item -> {
+            P2PDataStorage.ByteArray hash = P2PDataStorage.get32ByteHashAsByteArray(
+                    protectedStorageEntry.getProtectedStoragePayload());
+            if (protectedItems.putIfAbsent(hash, item) == null) {
+                add(protectedCounts, item, 1);
+            }
+        });
+    }
+
+    private void addLiveAppendOnlyPayload(PersistableNetworkPayload payload) {
+        getItem(payload).ifPresent(item -> {
+            if (liveAppendOnlyKeys.add(new P2PDataStorage.ByteArray(payload.getHash()))) {
+                add(liveAppendOnlyCounts, item, 1);
+            }
+        });
+    }
+
+    private void forEachHistoricalService(Consumer<HistoricalDataStoreService<?>> consumer) {
+        for (MapStoreService<?, PersistableNetworkPayload> service : appendOnlyDataStoreService.getServices()) {
+            if (service instanceof HistoricalDataStoreService) {
+                consumer.accept((HistoricalDataStoreService<?>) service);
+            }
+        }
+    }
+
+    private Optional<InventoryItem> getItem(Object payload) {
+        return itemByClass.computeIfAbsent(payload.getClass(),
+                clazz -> Enums.getIfPresent(InventoryItem.class, clazz.getSimpleName()).toJavaUtil());
+    }
+
+    private static void add(Map<InventoryItem, Integer> counts, InventoryItem item, int delta) {
+        int count = counts.getOrDefault(item, 0) + delta;
+        if (count == 0) {
+            counts.remove(item);
+        } else {
+            counts.put(item, count);
+        }
+    }
+
+    private static class Snapshot {
+        private final long createdAt;
+        private final Map<InventoryItem, Integer> counts;
+
+        private Snapshot(long createdAt, Map<InventoryItem, Integer> counts) {
+            this.createdAt = createdAt;
+            this.counts = counts;
+        }
+    }
+}
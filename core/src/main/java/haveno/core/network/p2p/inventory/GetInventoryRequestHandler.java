@@ -17,9 +17,7 @@
 
 package haveno.core.network.p2p.inventory;
 
-import com.google.common.base.Enums;
 import com.google.common.base.Joiner;
-import com.google.common.base.Optional;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import haveno.common.app.Version;
@@ -38,7 +36,7 @@ import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.network.Statistic;
 import haveno.network.p2p.peers.PeerManager;
 import haveno.network.p2p.storage.P2PDataStorage;
-import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,7 +46,7 @@ import lombok.extern.slf4j.Slf4j;
 public class GetInventoryRequestHandler implements MessageListener {
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
-    private final P2PDataStorage p2PDataStorage;
+    private final DataInventoryCounter dataInventoryCounter;
     private final FilterManager filterManager;
     private final int maxConnections;
 
@@ -56,11 +54,12 @@ public class GetInventoryRequestHandler implements MessageListener {
     public GetInventoryRequestHandler(NetworkNode networkNode,
                                       PeerManager peerManager,
                                       P2PDataStorage p2PDataStorage,
+                                      AppendOnlyDataStoreService appendOnlyDataStoreService,
                                       FilterManager filterManager,
                                       @Named(Config.MAX_CONNECTIONS) int maxConnections) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
-        this.p2PDataStorage = p2PDataStorage;
+        this.dataInventoryCounter = new DataInventoryCounter(p2PDataStorage, appendOnlyDataStoreService);
         this.filterManager = filterManager;
         this.maxConnections = maxConnections;
 
@@ -72,16 +71,9 @@ public class GetInventoryRequestHandler implements MessageListener {
         if (networkEnvelope instanceof GetInventoryRequest) {
             // Data
             GetInventoryRequest getInventoryRequest = (GetInventoryRequest) networkEnvelope;
-            Map<InventoryItem, Integer> dataObjects = new HashMap<>();
-            p2PDataStorage.getMapForDataResponse(getInventoryRequest.getVersion()).values().stream()
-                    .map(e -> e.getClass().getSimpleName())
-                    .forEach(className -> addClassNameToMap(dataObjects, className));
-            p2PDataStorage.getMap().values().stream()
-                    .map(ProtectedStorageEntry::getProtectedStoragePayload)
-                    .map(e -> e.getClass().getSimpleName())
-                    .forEach(className -> addClassNameToMap(dataObjects, className));
             Map<InventoryItem, String> inventory = new HashMap<>();
-            dataObjects.forEach((key, value) -> inventory.put(key, String.valueOf(value)));
+            dataInventoryCounter.getCounts(getInventoryRequest.getVersion())
+                    .forEach((key, value) -> inventory.put(key, String.valueOf(value)));
 
 
 
@@ -117,15 +109,6 @@ public class GetInventoryRequestHandler implements MessageListener {
 
     public void shutDown() {
         networkNode.removeMessageListener(this);
-    }
-
-    private void addClassNameToMap(Map<InventoryItem, Integer> dataObjects, String className) {
-        Optional<InventoryItem> optionalEnum = Enums.getIfPresent(InventoryItem.class, className);
-        if (optionalEnum.isPresent()) {
-            InventoryItem key = optionalEnum.get();
-            dataObjects.putIfAbsent(key, 0);
-            int prev = dataObjects.get(key);
-            dataObjects.put(key, prev + 1);
-        }
+        dataInventoryCounter.shutDown();
     }
 }
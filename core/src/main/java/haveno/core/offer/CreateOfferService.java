@@ -332,6 +332,76 @@ public class CreateOfferService {
         return clonedOffer;
     }
 
+    // Edits the price and extra info of an offer, keeping its amounts and reserved funds
+    public Offer createEditedOffer(Offer offer,
+                                   Price fixedPrice,
+                                   boolean useMarketBasedPrice,
+                                   double marketPriceMargin,
+                                   String extraInfo) {
+        log.info("Editing offer with id={}, " +
+                        "fixedPrice={}, " +
+                        "useMarketBasedPrice={}, " +
+                        "marketPriceMargin={}, " +
+                        "extraInfo={}",
+                offer.getId(),
+                fixedPrice == null ? null : fixedPrice.getValue(),
+                useMarketBasedPrice,
+                marketPriceMargin,
+                extraInfo);
+
+        // verify fixed price xor market price with margin
+        if (fixedPrice != null && useMarketBasedPrice) throw new IllegalArgumentException("Can edit offer with fixed price or floating market price but not both");
+        if (fixedPrice == null && !useMarketBasedPrice) throw new IllegalArgumentException("Must provide fixed price");
+        if (useMarketBasedPrice && (!isMarketPriceAvailable(offer.getCurrencyCode()) || PaymentMethod.isFixedPriceOnly(offer.getPaymentMethodId()))) {
+            throw new IllegalArgumentException("Cannot use market based price for offer " + offer.getId());
+        }
+
+        OfferPayload offerPayload = offer.getOfferPayload();
+        OfferPayload editedOfferPayload = new OfferPayload(offerPayload.getId(),
+                offerPayload.getDate(),
+                offerPayload.getOwnerNodeAddress(),
+                offerPayload.getPubKeyRing(),
+                offerPayload.getDirection(),
+                fixedPrice != null ? fixedPrice.getValue() : 0L,
+                useMarketBasedPrice ? marketPriceMargin : 0,
+                useMarketBasedPrice,
+                offerPayload.getAmount(),
+                offerPayload.getMinAmount(),
+                offerPayload.getMakerFeePct(),
+                offerPayload.getTakerFeePct(),
+                offerPayload.getPenaltyFeePct(),
+                offerPayload.getBuyerSecurityDepositPct(),
+                offerPayload.getSellerSecurityDepositPct(),
+                offerPayload.getBaseCurrencyCode(),
+                offerPayload.getCounterCurrencyCode(),
+                offerPayload.getPaymentMethodId(),
+                offerPayload.getMakerPaymentAccountId(),
+                offerPayload.getCountryCode(),
+                offerPayload.getAcceptedCountryCodes(),
+                offerPayload.getBankId(),
+                offerPayload.getAcceptedBankIds(),
+                offerPayload.getVersionNr(),
+                offerPayload.getBlockHeightAtOfferCreation(),
+                offerPayload.getMaxTradeLimit(),
+                offerPayload.getMaxTradePeriod(),
+                offerPayload.isUseAutoClose(),
+                offerPayload.isUseReOpenAfterAutoClose(),
+                offerPayload.getLowerClosePrice(),
+                offerPayload.getUpperClosePrice(),
+                offerPayload.isPrivateOffer(),
+                offerPayload.getChallengeHash(),
+                offerPayload.getExtraDataMap(),
+                offerPayload.getProtocolVersion(),
+                offerPayload.getArbitratorSigner(),
+                offerPayload.getArbitratorSignature(),
+                offerPayload.getReserveTxKeyImages(),
+                extraInfo);
+        Offer editedOffer = new Offer(editedOfferPayload);
+        editedOffer.setPriceFeedService(priceFeedService);
+        editedOffer.setState(Offer.State.AVAILABLE);
+        return editedOffer;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
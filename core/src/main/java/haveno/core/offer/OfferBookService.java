@@ -34,6 +34,7 @@
 
 package haveno.core.offer;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
@@ -69,6 +70,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import monero.daemon.model.MoneroKeyImageSpentStatus;
@@ -239,6 +241,18 @@ public class OfferBookService {
         }
     }
 
+    // The result handler gets the offer payloads which were not refreshed
+    public void refreshTTLs(List<OfferPayload> offerPayloads,
+                            Consumer<List<OfferPayload>> resultHandler,
+                            ErrorMessageHandler errorMessageHandler) {
+        if (filterManager.requireUpdateToNewVersionForTrading()) {
+            errorMessageHandler.handleErrorMessage(Res.get("popup.warning.mandatoryUpdate.trading"));
+            return;
+        }
+
+        resultHandler.accept(p2PService.refreshTTLs(offerPayloads));
+    }
+
     public void activateOffer(Offer offer,
                               @Nullable ResultHandler resultHandler,
                               @Nullable ErrorMessageHandler errorMessageHandler) {
@@ -323,7 +337,8 @@ public class OfferBookService {
         return false;
     }
     
-    private void replaceValidOffer(Offer offer) {
+    @VisibleForTesting
+    public void replaceValidOffer(Offer offer) {
         synchronized (validOffers) {
             removeValidOffer(offer.getId());
             validOffers.add(offer);
@@ -366,7 +381,8 @@ public class OfferBookService {
         }
     }
 
-    private void validateOfferPayload(OfferPayload offerPayload) {
+    @VisibleForTesting
+    public void validateOfferPayload(OfferPayload offerPayload) {
 
         // validate offer is not banned
         if (filterManager.isOfferIdBanned(offerPayload.getId())) {
@@ -21,7 +21,6 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 import com.google.protobuf.ByteString;
-import haveno.common.crypto.Hash;
 import haveno.common.crypto.PubKeyRing;
 import haveno.common.proto.ProtoUtil;
 import haveno.common.util.CollectionUtils;
@@ -32,11 +31,12 @@ import haveno.core.trade.HavenoUtils;
 import haveno.core.xmr.wallet.Restrictions;
 import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
+import haveno.network.p2p.storage.payload.PayloadHash;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
 import haveno.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
@@ -51,7 +51,7 @@ import java.util.concurrent.TimeUnit;
 
 // OfferPayload has about 1.4 kb. We should look into options to make it smaller but will be hard to do it in a
 // backward compatible way. Maybe a candidate when segwit activation is done as hardfork?
-@EqualsAndHashCode(exclude = {"hash"})
+@EqualsAndHashCode
 @Getter
 @Slf4j
 public final class OfferPayload implements ProtectedStoragePayload, ExpirablePayload, RequiresOwnerIsOnlinePayload {
@@ -75,19 +75,16 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
     protected final int protocolVersion;
     @JsonExclude
     protected final PubKeyRing pubKeyRing;
-    // cache
-    protected transient byte[] hash;
+    @Getter(AccessLevel.NONE)
+    private final transient PayloadHash payloadHash = new PayloadHash();
     @Nullable
     protected final Map<String, String> extraDataMap;
 
     // address and signature of signing arbitrator
-    @Setter
     @Nullable
     protected NodeAddress arbitratorSigner;
-    @Setter
     @Nullable
     protected byte[] arbitratorSignature;
-    @Setter
     @Nullable
     protected List<String> reserveTxKeyImages;
 
@@ -247,10 +244,28 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
     }
 
     public byte[] getHash() {
-        if (this.hash == null) {
-            this.hash = Hash.getSha256Hash(this.toProtoMessage().toByteArray());
-        }
-        return this.hash;
+        return payloadHash.get(this);
+    }
+
+    @Override
+    public PayloadHash getPayloadHash() {
+        return payloadHash;
+    }
+
+    // The setters change the serialized payload, so they invalidate the cached hash
+    public void setArbitratorSigner(@Nullable NodeAddress arbitratorSigner) {
+        this.arbitratorSigner = arbitratorSigner;
+        payloadHash.invalidate();
+    }
+
+    public void setArbitratorSignature(@Nullable byte[] arbitratorSignature) {
+        this.arbitratorSignature = arbitratorSignature;
+        payloadHash.invalidate();
+    }
+
+    public void setReserveTxKeyImages(@Nullable List<String> reserveTxKeyImages) {
+        this.reserveTxKeyImages = reserveTxKeyImages;
+        payloadHash.invalidate();
     }
 
     public byte[] getSignatureHash() {
@@ -474,7 +489,7 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
                 ",\r\n     versionNr='" + versionNr + '\'' +
                 ",\r\n     protocolVersion=" + protocolVersion +
                 ",\r\n     pubKeyRing=" + pubKeyRing +
-                ",\r\n     hash=" + (hash != null ? Hex.encode(hash) : "null") +
+                ",\r\n     hash=" + Hex.encode(getHash()) +
                 ",\r\n     extraDataMap=" + extraDataMap +
                 ",\r\n     reserveTxKeyImages=" + reserveTxKeyImages +
                 ",\r\n     marketPriceMargin=" + marketPriceMarginPct +
@@ -99,8 +99,10 @@ import haveno.network.p2p.peers.PeerManager;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -109,6 +111,8 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -136,6 +140,8 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     private static final long REPUBLISH_AGAIN_AT_STARTUP_DELAY_SEC = 30;
     private static final long REPUBLISH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(30);
     private static final long REFRESH_INTERVAL_MS = OfferPayload.TTL / 2;
+    private static final long REFRESH_RETRY_DELAY_SEC = 10;
+    private static final int MAX_REFRESH_ATTEMPTS = 3; // the bundled refresh and 2 retries per offer
     private static final int NUM_ATTEMPTS_THRESHOLD = 5; // process offer only on republish cycle after this many attempts
     private static final long SHUTDOWN_TIMEOUT_MS = 60000;
     private static final String OPEN_OFFER_GROUP_KEY_IMAGE_ID = OpenOffer.class.getSimpleName();
@@ -584,6 +590,34 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         }, THREAD_ID);
     }
 
+    // Places the offers one after another like placeOffer, but the next offer is funded as soon as the funds of
+    // the previous one are reserved, so the arbitrators sign the offers while the following ones are funded.
+    public void placeOffers(List<OpenOffer> openOffers,
+                            Consumer<OpenOffer> resultHandler,
+                            BiConsumer<OpenOffer, String> errorMessageHandler) {
+        ThreadUtils.execute(() -> {
+            for (OpenOffer openOffer : openOffers) {
+                synchronized (processOffersLock) {
+                    addOpenOffer(openOffer);
+                    CountDownLatch latch = new CountDownLatch(1);
+                    processOffer(getOpenOffers(), openOffer, latch::countDown, (transaction) -> {
+                        requestPersistence();
+                        latch.countDown();
+                        resultHandler.accept(openOffer);
+                    }, (errorMessage) -> {
+                        if (!openOffer.isCanceled()) {
+                            log.warn("Error processing offer {}: {}", openOffer.getId(), errorMessage);
+                            doCancelOffer(openOffer);
+                        }
+                        latch.countDown();
+                        errorMessageHandler.accept(openOffer, errorMessage);
+                    });
+                    HavenoUtils.awaitLatch(latch);
+                }
+            }
+        }, THREAD_ID);
+    }
+
     // Remove from offerbook
     public void removeOffer(Offer offer, ResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         Optional<OpenOffer> openOfferOptional = getOpenOffer(offer.getId());
@@ -1039,6 +1073,10 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     }
 
     private void processOffer(List<OpenOffer> openOffers, OpenOffer openOffer, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
+        processOffer(openOffers, openOffer, null, resultHandler, errorMessageHandler);
+    }
+
+    private void processOffer(List<OpenOffer> openOffers, OpenOffer openOffer, @Nullable ResultHandler fundsReservedHandler, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         
         // skip if already processing
         if (openOffer.isProcessing()) {
@@ -1048,7 +1086,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
         // process offer
         openOffer.setProcessing(true);
-        doProcessOffer(openOffers, openOffer, (transaction) -> {
+        doProcessOffer(openOffers, openOffer, fundsReservedHandler, (transaction) -> {
             openOffer.setProcessing(false);
             resultHandler.handleResult(transaction);
         }, (errorMsg) -> {
@@ -1069,7 +1107,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         });
     }
 
-    private void doProcessOffer(List<OpenOffer> openOffers, OpenOffer openOffer, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
+    private void doProcessOffer(List<OpenOffer> openOffers, OpenOffer openOffer, @Nullable ResultHandler fundsReservedHandler, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         new Thread(() -> {
             try {
 
@@ -1120,7 +1158,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
                 // sign and post offer if already funded
                 if (openOffer.getReserveTxHash() != null) {
-                    signAndPostOffer(openOffer, false, resultHandler, errorMessageHandler);
+                    signAndPostOffer(openOffer, false, fundsReservedHandler, resultHandler, errorMessageHandler);
                     return;
                 }
 
@@ -1155,19 +1193,19 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
                     // if wallet has exact available balance, try to sign and post directly
                     if (xmrWalletService.getAvailableBalance().equals(amountNeeded)) {
-                        signAndPostOffer(openOffer, true, resultHandler, (errorMessage) -> {
-                            splitOrSchedule(splitOutputTx, openOffers, openOffer, amountNeeded, resultHandler, errorMessageHandler);
+                        signAndPostOffer(openOffer, true, fundsReservedHandler, resultHandler, (errorMessage) -> {
+                            splitOrSchedule(splitOutputTx, openOffers, openOffer, amountNeeded, fundsReservedHandler, resultHandler, errorMessageHandler);
                         });
                         return;
                     } else {
-                        splitOrSchedule(splitOutputTx, openOffers, openOffer, amountNeeded, resultHandler, errorMessageHandler);
+                        splitOrSchedule(splitOutputTx, openOffers, openOffer, amountNeeded, fundsReservedHandler, resultHandler, errorMessageHandler);
                     }
                 } else {
 
                     // sign and post offer if enough funds
                     boolean hasSufficientBalance = xmrWalletService.getAvailableBalance().compareTo(amountNeeded) >= 0;
                     if (hasSufficientBalance) {
-                        signAndPostOffer(openOffer, true, resultHandler, errorMessageHandler);
+                        signAndPostOffer(openOffer, true, fundsReservedHandler, resultHandler, errorMessageHandler);
                         return;
                     } else if (openOffer.getScheduledTxHashes() == null) {
                         scheduleWithEarliestTxs(openOffers, openOffer);
@@ -1284,7 +1322,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     }
 
     // if split tx not found and cannot reserve exact amount directly, create tx to split or reserve exact output
-    private void splitOrSchedule(MoneroTxWallet splitOutputTx, List<OpenOffer> openOffers, OpenOffer openOffer, BigInteger amountNeeded, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
+    private void splitOrSchedule(MoneroTxWallet splitOutputTx, List<OpenOffer> openOffers, OpenOffer openOffer, BigInteger amountNeeded, @Nullable ResultHandler fundsReservedHandler, TransactionResultHandler resultHandler, ErrorMessageHandler errorMessageHandler) {
         if (splitOutputTx == null) {
             if (openOffer.getSplitOutputTxHash() != null) {
                 log.warn("Split output tx unexpectedly unavailable for offer, offerId={}, split output tx={}", openOffer.getId(), openOffer.getSplitOutputTxHash());
@@ -1303,7 +1341,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         } else if (!splitOutputTx.isLocked()) {
 
             // otherwise sign and post offer if split output available
-            signAndPostOffer(openOffer, true, resultHandler, errorMessageHandler);
+            signAndPostOffer(openOffer, true, fundsReservedHandler, resultHandler, errorMessageHandler);
             return;
         } else {
             resultHandler.handleResult(null);
@@ -1464,6 +1502,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
 
     private void signAndPostOffer(OpenOffer openOffer,
                                   boolean useSavingsWallet, // TODO: remove this?
+                                  @Nullable ResultHandler fundsReservedHandler,
                                   TransactionResultHandler resultHandler,
                                   ErrorMessageHandler errorMessageHandler) {
         log.info("Signing and posting offer " + openOffer.getId());
@@ -1485,6 +1524,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
                 filterManager,
                 accountAgeWitnessService,
                 this);
+        model.setFundsReservedHandler(fundsReservedHandler);
 
         // create protocol
         PlaceOfferProtocol placeOfferProtocol = new PlaceOfferProtocol(model,
@@ -1516,172 +1556,161 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
     // Arbitrator Signs Offer
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Sign offer requests are processed in stages so concurrent requests do not wait for each other: the checks of
+    // the request run in parallel, the reserve txs are verified in batches and only the commit of the signed offer
+    // runs on the thread of the OpenOfferManager.
     private void handleSignOfferRequest(SignOfferRequest request, NodeAddress peer) {
         log.info("Received SignOfferRequest from {} with offerId {} and uid {}",
                 peer, request.getOfferId(), request.getUid());
+        ThreadUtils.submitToPool(() -> {
+            try {
 
-        boolean result = false;
-        String errorMessage = null;
-        try {
+                // verify request
+                Offer offer = new Offer(request.getOfferPayload());
+                String errorMessage = getSignOfferRequestError(request, offer);
+                if (errorMessage != null) {
+                    log.warn(errorMessage);
+                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
+                    return;
+                }
 
-            // verify this node is an arbitrator
-            Arbitrator thisArbitrator = user.getRegisteredArbitrator();
-            NodeAddress thisAddress = p2PService.getNetworkNode().getNodeAddress();
-            if (thisArbitrator == null || !thisArbitrator.getNodeAddress().equals(thisAddress)) {
-              errorMessage = "Cannot sign offer because we are not a registered arbitrator";
-              log.warn(errorMessage);
-              sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-              return;
-            }
+                // verify maker's reserve tx (double spend, trade fee, trade amount, mining fee)
+                BigInteger penaltyFee = HavenoUtils.multiply(offer.getAmount(), HavenoUtils.PENALTY_FEE_PCT);
+                BigInteger maxTradeFee = HavenoUtils.multiply(offer.getAmount(), hasBuyerAsTakerWithoutDeposit(offer) ? HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT : HavenoUtils.MAKER_FEE_PCT);
+                BigInteger sendTradeAmount =  offer.getDirection() == OfferDirection.BUY ? BigInteger.ZERO : offer.getAmount();
+                BigInteger securityDeposit = offer.getDirection() == OfferDirection.BUY ? offer.getMaxBuyerSecurityDeposit() : offer.getMaxSellerSecurityDeposit();
+                xmrWalletService.verifyReserveTxAsync(
+                        offer.getId(),
+                        penaltyFee,
+                        maxTradeFee,
+                        sendTradeAmount,
+                        securityDeposit,
+                        request.getPayoutAddress(),
+                        request.getReserveTxHash(),
+                        request.getReserveTxHex(),
+                        request.getReserveTxKey(),
+                        request.getReserveTxKeyImages()).whenComplete((verifiedTx, error) -> ThreadUtils.submitToPool(() -> {
+                            if (error != null) {
+                                handleSignOfferRequestError(request, peer, error);
+                                return;
+                            }
+                            try {
 
-            // verify arbitrator is signer of offer payload
-            if (!thisAddress.equals(request.getOfferPayload().getArbitratorSigner())) {
-                errorMessage = "Cannot sign offer because offer payload is for a different arbitrator";
-                log.warn(errorMessage);
-                sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                return;
+                                // arbitrator signs offer to certify they have valid reserve tx
+                                byte[] signature = HavenoUtils.signOffer(request.getOfferPayload(), keyRing);
+                                ThreadUtils.execute(() -> commitSignedOffer(request, peer, offer, maxTradeFee, verifiedTx, signature), THREAD_ID);
+                            } catch (Exception e) {
+                                handleSignOfferRequestError(request, peer, e);
+                            }
+                        }));
+            } catch (Exception e) {
+                handleSignOfferRequestError(request, peer, e);
             }
+        });
+    }
 
-            // private offers must have challenge hash
-            Offer offer = new Offer(request.getOfferPayload());
-            if (offer.isPrivateOffer() && (offer.getChallengeHash() == null || offer.getChallengeHash().length() == 0)) {
-                errorMessage = "Private offer must have challenge hash for offer " + request.offerId;
-                log.warn(errorMessage);
-                sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                return;
-            }
+    @Nullable
+    private String getSignOfferRequestError(SignOfferRequest request, Offer offer) {
 
-            // verify max length of extra info
-            if (offer.getOfferPayload().getExtraInfo() != null && offer.getOfferPayload().getExtraInfo().length() > Restrictions.MAX_EXTRA_INFO_LENGTH) {
-                errorMessage = "Extra info is too long for offer " + request.offerId + ". Max length is " + Restrictions.MAX_EXTRA_INFO_LENGTH + " but got " + offer.getOfferPayload().getExtraInfo().length();
-                log.warn(errorMessage);
-                sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                return;
-            }
+        // verify this node is an arbitrator
+        Arbitrator thisArbitrator = user.getRegisteredArbitrator();
+        NodeAddress thisAddress = p2PService.getNetworkNode().getNodeAddress();
+        if (thisArbitrator == null || !thisArbitrator.getNodeAddress().equals(thisAddress)) {
+            return "Cannot sign offer because we are not a registered arbitrator";
+        }
 
-            // verify the trade protocol version
-            if (request.getOfferPayload().getProtocolVersion() != Version.TRADE_PROTOCOL_VERSION) {
-                errorMessage = "Unsupported protocol version: " + request.getOfferPayload().getProtocolVersion();
-                log.warn(errorMessage);
-                sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                return;
-            }
+        // verify arbitrator is signer of offer payload
+        if (!thisAddress.equals(request.getOfferPayload().getArbitratorSigner())) {
+            return "Cannot sign offer because offer payload is for a different arbitrator";
+        }
 
-            // verify the min version number
-            if (filterManager.getDisableTradeBelowVersion() != null) {
-                if (Version.compare(request.getOfferPayload().getVersionNr(), filterManager.getDisableTradeBelowVersion()) < 0) {
-                    errorMessage = "Offer version number is too low: " + request.getOfferPayload().getVersionNr() + " < " + filterManager.getDisableTradeBelowVersion();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
-            }
+        // private offers must have challenge hash
+        if (offer.isPrivateOffer() && (offer.getChallengeHash() == null || offer.getChallengeHash().length() == 0)) {
+            return "Private offer must have challenge hash for offer " + request.offerId;
+        }
 
-            // verify maker and taker fees
-            boolean hasBuyerAsTakerWithoutDeposit = offer.getDirection() == OfferDirection.SELL && offer.isPrivateOffer() && offer.getChallengeHash() != null && offer.getChallengeHash().length() > 0 && offer.getTakerFeePct() == 0;
-            if (hasBuyerAsTakerWithoutDeposit) {
+        // verify max length of extra info
+        if (offer.getOfferPayload().getExtraInfo() != null && offer.getOfferPayload().getExtraInfo().length() > Restrictions.MAX_EXTRA_INFO_LENGTH) {
+            return "Extra info is too long for offer " + request.offerId + ". Max length is " + Restrictions.MAX_EXTRA_INFO_LENGTH + " but got " + offer.getOfferPayload().getExtraInfo().length();
+        }
 
-                // verify maker's trade fee
-                if (offer.getMakerFeePct() != HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT) {
-                    errorMessage = "Wrong maker fee for offer " + request.offerId + ". Expected " + HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT + " but got " + offer.getMakerFeePct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+        // verify the trade protocol version
+        if (request.getOfferPayload().getProtocolVersion() != Version.TRADE_PROTOCOL_VERSION) {
+            return "Unsupported protocol version: " + request.getOfferPayload().getProtocolVersion();
+        }
 
-                // verify taker's trade fee
-                if (offer.getTakerFeePct() != 0) {
-                    errorMessage = "Wrong taker fee for offer " + request.offerId + ". Expected 0 but got " + offer.getTakerFeePct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+        // verify the min version number
+        if (filterManager.getDisableTradeBelowVersion() != null) {
+            if (Version.compare(request.getOfferPayload().getVersionNr(), filterManager.getDisableTradeBelowVersion()) < 0) {
+                return "Offer version number is too low: " + request.getOfferPayload().getVersionNr() + " < " + filterManager.getDisableTradeBelowVersion();
+            }
+        }
 
-                // verify maker security deposit
-                if (offer.getSellerSecurityDepositPct() != Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
-                    errorMessage = "Wrong seller security deposit for offer " + request.offerId + ". Expected " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getSellerSecurityDepositPct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+        // verify maker and taker fees
+        if (hasBuyerAsTakerWithoutDeposit(offer)) {
 
-                // verify taker's security deposit
-                if (offer.getBuyerSecurityDepositPct() != 0) {
-                    errorMessage = "Wrong buyer security deposit for offer " + request.offerId + ". Expected 0 but got " + offer.getBuyerSecurityDepositPct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
-            } else {
+            // verify maker's trade fee
+            if (offer.getMakerFeePct() != HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT) {
+                return "Wrong maker fee for offer " + request.offerId + ". Expected " + HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT + " but got " + offer.getMakerFeePct();
+            }
 
-                // verify maker's trade fee
-                if (offer.getMakerFeePct() != HavenoUtils.MAKER_FEE_PCT) {
-                    errorMessage = "Wrong maker fee for offer " + request.offerId + ". Expected " + HavenoUtils.MAKER_FEE_PCT + " but got " + offer.getMakerFeePct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+            // verify taker's trade fee
+            if (offer.getTakerFeePct() != 0) {
+                return "Wrong taker fee for offer " + request.offerId + ". Expected 0 but got " + offer.getTakerFeePct();
+            }
 
-                // verify taker's trade fee
-                if (offer.getTakerFeePct() != HavenoUtils.TAKER_FEE_PCT) {
-                    errorMessage = "Wrong taker fee for offer " + request.offerId + ". Expected " + HavenoUtils.TAKER_FEE_PCT + " but got " + offer.getTakerFeePct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+            // verify maker security deposit
+            if (offer.getSellerSecurityDepositPct() != Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
+                return "Wrong seller security deposit for offer " + request.offerId + ". Expected " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getSellerSecurityDepositPct();
+            }
 
-                // verify seller's security deposit
-                if (offer.getSellerSecurityDepositPct() < Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
-                    errorMessage = "Insufficient seller security deposit for offer " + request.offerId + ". Expected at least " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getSellerSecurityDepositPct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+            // verify taker's security deposit
+            if (offer.getBuyerSecurityDepositPct() != 0) {
+                return "Wrong buyer security deposit for offer " + request.offerId + ". Expected 0 but got " + offer.getBuyerSecurityDepositPct();
+            }
+        } else {
 
-                // verify buyer's security deposit
-                if (offer.getBuyerSecurityDepositPct() < Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
-                    errorMessage = "Insufficient buyer security deposit for offer " + request.offerId + ". Expected at least " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getBuyerSecurityDepositPct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+            // verify maker's trade fee
+            if (offer.getMakerFeePct() != HavenoUtils.MAKER_FEE_PCT) {
+                return "Wrong maker fee for offer " + request.offerId + ". Expected " + HavenoUtils.MAKER_FEE_PCT + " but got " + offer.getMakerFeePct();
+            }
 
-                // security deposits must be equal
-                if (offer.getBuyerSecurityDepositPct() != offer.getSellerSecurityDepositPct()) {
-                    errorMessage = "Buyer and seller security deposits are not equal for offer " + request.offerId + ": " + offer.getSellerSecurityDepositPct() + " vs " + offer.getBuyerSecurityDepositPct();
-                    log.warn(errorMessage);
-                    sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                    return;
-                }
+            // verify taker's trade fee
+            if (offer.getTakerFeePct() != HavenoUtils.TAKER_FEE_PCT) {
+                return "Wrong taker fee for offer " + request.offerId + ". Expected " + HavenoUtils.TAKER_FEE_PCT + " but got " + offer.getTakerFeePct();
             }
 
-            // verify penalty fee
-            if (offer.getPenaltyFeePct() != HavenoUtils.PENALTY_FEE_PCT) {
-                errorMessage = "Wrong penalty fee for offer " + request.offerId;
-                log.warn(errorMessage);
-                sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
-                return;
+            // verify seller's security deposit
+            if (offer.getSellerSecurityDepositPct() < Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
+                return "Insufficient seller security deposit for offer " + request.offerId + ". Expected at least " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getSellerSecurityDepositPct();
             }
 
-            // verify maker's reserve tx (double spend, trade fee, trade amount, mining fee)
-            BigInteger penaltyFee = HavenoUtils.multiply(offer.getAmount(), HavenoUtils.PENALTY_FEE_PCT);
-            BigInteger maxTradeFee = HavenoUtils.multiply(offer.getAmount(), hasBuyerAsTakerWithoutDeposit ? HavenoUtils.MAKER_FEE_FOR_TAKER_WITHOUT_DEPOSIT_PCT : HavenoUtils.MAKER_FEE_PCT);
-            BigInteger sendTradeAmount =  offer.getDirection() == OfferDirection.BUY ? BigInteger.ZERO : offer.getAmount();
-            BigInteger securityDeposit = offer.getDirection() == OfferDirection.BUY ? offer.getMaxBuyerSecurityDeposit() : offer.getMaxSellerSecurityDeposit();
-            MoneroTx verifiedTx = xmrWalletService.verifyReserveTx(
-                    offer.getId(),
-                    penaltyFee,
-                    maxTradeFee,
-                    sendTradeAmount,
-                    securityDeposit,
-                    request.getPayoutAddress(),
-                    request.getReserveTxHash(),
-                    request.getReserveTxHex(),
-                    request.getReserveTxKey(),
-                    request.getReserveTxKeyImages());
+            // verify buyer's security deposit
+            if (offer.getBuyerSecurityDepositPct() < Restrictions.MIN_SECURITY_DEPOSIT_PCT) {
+                return "Insufficient buyer security deposit for offer " + request.offerId + ". Expected at least " + Restrictions.MIN_SECURITY_DEPOSIT_PCT + " but got " + offer.getBuyerSecurityDepositPct();
+            }
 
-            // arbitrator signs offer to certify they have valid reserve tx
-            byte[] signature = HavenoUtils.signOffer(request.getOfferPayload(), keyRing);
+            // security deposits must be equal
+            if (offer.getBuyerSecurityDepositPct() != offer.getSellerSecurityDepositPct()) {
+                return "Buyer and seller security deposits are not equal for offer " + request.offerId + ": " + offer.getSellerSecurityDepositPct() + " vs " + offer.getBuyerSecurityDepositPct();
+            }
+        }
+
+        // verify penalty fee
+        if (offer.getPenaltyFeePct() != HavenoUtils.PENALTY_FEE_PCT) {
+            return "Wrong penalty fee for offer " + request.offerId;
+        }
+        return null;
+    }
+
+    private static boolean hasBuyerAsTakerWithoutDeposit(Offer offer) {
+        return offer.getDirection() == OfferDirection.SELL && offer.isPrivateOffer() && offer.getChallengeHash() != null && offer.getChallengeHash().length() > 0 && offer.getTakerFeePct() == 0;
+    }
+
+    private void commitSignedOffer(SignOfferRequest request, NodeAddress peer, Offer offer, BigInteger maxTradeFee, MoneroTx verifiedTx, byte[] signature) {
+        boolean result = false;
+        String errorMessage = null;
+        try {
             OfferPayload signedOfferPayload = request.getOfferPayload();
             signedOfferPayload.setArbitratorSignature(signature);
 
@@ -1735,6 +1764,12 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         }
     }
 
+    private void handleSignOfferRequestError(SignOfferRequest request, NodeAddress peer, Throwable error) {
+        String errorMessage = "Exception at handleSignOfferRequest " + error.getMessage();
+        log.error(errorMessage + "\n", error);
+        sendAckMessage(request.getClass(), peer, request.getPubKeyRing(), request.getOfferId(), request.getUid(), false, errorMessage);
+    }
+
     private void handleSignOfferResponse(SignOfferResponse response, NodeAddress peer) {
         log.info("Received SignOfferResponse from {} with offerId {} and uid {}",
                 peer, response.getOfferId(), response.getUid());
@@ -2178,28 +2213,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         if (periodicRefreshOffersTimer == null)
             periodicRefreshOffersTimer = UserThread.runPeriodically(() -> {
                         if (!stopped) {
-                            synchronized (openOffers.getList()) {
-                                int size = openOffers.size();
-                                //we clone our list as openOffers might change during our delayed call
-                                final ArrayList<OpenOffer> openOffersList = new ArrayList<>(openOffers.getList());
-                                for (int i = 0; i < size; i++) {
-                                    // we delay to avoid reaching throttle limits
-                                    // roughly 4 offers per second
-    
-                                    long delay = 300;
-                                    final long minDelay = (i + 1) * delay;
-                                    final long maxDelay = (i + 2) * delay;
-                                    final OpenOffer openOffer = openOffersList.get(i);
-                                    UserThread.runAfterRandomDelay(() -> {
-                                        // we need to check if in the meantime the offer has been removed
-                                        boolean contained = false;
-                                        synchronized (openOffers.getList()) {
-                                            contained = openOffers.contains(openOffer);
-                                        }
-                                        if (contained) maybeRefreshOffer(openOffer, 0, 1);
-                                    }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
-                                }
-                            }
+                            refreshOffers();
                         } else {
                             log.debug("We have stopped already. We ignore that periodicRefreshOffersTimer.run call.");
                         }
@@ -2210,14 +2224,56 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             log.trace("periodicRefreshOffersTimer already stated");
     }
 
+    // refresh all offers with bundled messages instead of one message per offer
+    private void refreshOffers() {
+        List<OpenOffer> openOffersToRefresh;
+        synchronized (openOffers.getList()) {
+            openOffersToRefresh = openOffers.getList().stream()
+                    .filter(openOffer -> !preventedFromPublishing(openOffer))
+                    .collect(Collectors.toList());
+        }
+        if (openOffersToRefresh.isEmpty()) return;
+        List<OfferPayload> offerPayloads = openOffersToRefresh.stream()
+                .map(openOffer -> openOffer.getOffer().getOfferPayload())
+                .collect(Collectors.toList());
+        offerBookService.refreshTTLs(offerPayloads,
+                notRefreshedOfferPayloads -> {
+                    if (notRefreshedOfferPayloads.isEmpty()) {
+                        log.debug("Successful refreshed TTL for {} offers", offerPayloads.size());
+                        return;
+                    }
+                    log.warn("Refresh TTL failed for {} of {} offers. We retry them one by one.",
+                            notRefreshedOfferPayloads.size(), offerPayloads.size());
+                    Set<OfferPayload> notRefreshed = Collections.newSetFromMap(new IdentityHashMap<>());
+                    notRefreshed.addAll(notRefreshedOfferPayloads);
+                    List<OpenOffer> openOffersToRetry = openOffersToRefresh.stream()
+                            .filter(openOffer -> notRefreshed.contains(openOffer.getOffer().getOfferPayload()))
+                            .collect(Collectors.toList());
+                    for (int i = 0; i < openOffersToRetry.size(); i++) {
+                        // we delay to avoid reaching throttle limits
+                        // roughly 4 offers per second
+                        long minDelay = TimeUnit.SECONDS.toMillis(REFRESH_RETRY_DELAY_SEC) + i * 300;
+                        long maxDelay = minDelay + 300;
+                        OpenOffer openOffer = openOffersToRetry.get(i);
+                        UserThread.runAfterRandomDelay(() -> maybeRefreshOffer(openOffer, 1, MAX_REFRESH_ATTEMPTS),
+                                minDelay, maxDelay, TimeUnit.MILLISECONDS);
+                    }
+                },
+                log::warn);
+    }
+
     private void maybeRefreshOffer(OpenOffer openOffer, int numAttempts, int maxAttempts) {
-        if (preventedFromPublishing(openOffer)) return;
+        // we need to check if in the meantime the offer has been removed
+        synchronized (openOffers.getList()) {
+            if (!openOffers.contains(openOffer)) return;
+        }
+        if (stopped || preventedFromPublishing(openOffer)) return;
         offerBookService.refreshTTL(openOffer.getOffer().getOfferPayload(),
                 () -> log.debug("Successful refreshed TTL for offer"),
                 (errorMessage) -> {
                     log.warn(errorMessage);
                     if (numAttempts + 1 < maxAttempts) {
-                        UserThread.runAfter(() -> maybeRefreshOffer(openOffer, numAttempts + 1, maxAttempts), 10);
+                        UserThread.runAfter(() -> maybeRefreshOffer(openOffer, numAttempts + 1, maxAttempts), REFRESH_RETRY_DELAY_SEC);
                     }
                 });
     }
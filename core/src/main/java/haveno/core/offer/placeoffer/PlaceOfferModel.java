@@ -18,6 +18,7 @@
 package haveno.core.offer.placeoffer;
 
 import haveno.common.crypto.KeyRing;
+import haveno.common.handlers.ResultHandler;
 import haveno.common.taskrunner.Model;
 import haveno.core.account.witness.AccountAgeWitnessService;
 import haveno.core.filter.FilterManager;
@@ -38,6 +39,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Transaction;
 
+import javax.annotation.Nullable;
 import java.math.BigInteger;
 
 @Slf4j
@@ -74,6 +76,10 @@ public class PlaceOfferModel implements Model {
     @Setter
     @Getter
     protected PlaceOfferProtocol protocol;
+    // Called once the funds are reserved, before the offer is signed
+    @Setter
+    @Nullable
+    private ResultHandler fundsReservedHandler;
 
     public PlaceOfferModel(OpenOffer openOffer,
                            BigInteger reservedFundsForOffer,
@@ -109,7 +115,16 @@ public class PlaceOfferModel implements Model {
         this.openOfferManager = openOfferManager;
     }
 
+    public void onFundsReserved() {
+        if (fundsReservedHandler != null) fundsReservedHandler.handleResult();
+    }
+
     @Override
     public void onComplete() {
     }
+
+    @Override
+    public String getTaskTraceId() {
+        return openOffer.getId();
+    }
 }
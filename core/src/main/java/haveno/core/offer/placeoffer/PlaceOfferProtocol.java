@@ -79,9 +79,9 @@ public class PlaceOfferProtocol {
                 }
         );
         taskRunner.addTasks(
-                ValidateOffer.class,
-                MakerReserveOfferFunds.class,
-                MakerSendSignOfferRequest.class
+                ValidateOffer::new,
+                MakerReserveOfferFunds::new,
+                MakerSendSignOfferRequest::new
         );
 
         taskRunner.run();
@@ -135,8 +135,8 @@ public class PlaceOfferProtocol {
                 }
         );
         taskRunner.addTasks(
-                MakerProcessSignOfferResponse.class,
-                MaybeAddToOfferBook.class
+                MakerProcessSignOfferResponse::new,
+                MaybeAddToOfferBook::new
         );
 
         taskRunner.run();
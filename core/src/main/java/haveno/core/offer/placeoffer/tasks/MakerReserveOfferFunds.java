@@ -57,6 +57,7 @@ public class MakerReserveOfferFunds extends Task<PlaceOfferModel> {
             // skip if reserve tx already created
             if (openOffer.getReserveTxHash() != null && !openOffer.getReserveTxHash().isEmpty()) {
                 log.info("Reserve tx already created for offerId={}", openOffer.getShortId());
+                model.onFundsReserved();
                 complete();
                 return;
             }
@@ -166,6 +167,7 @@ public class MakerReserveOfferFunds extends Task<PlaceOfferModel> {
                     }
                 }
             }
+            model.onFundsReserved();
             complete();
         } catch (Throwable t) {
             offer.setErrorMessage("An error occurred.\n" +
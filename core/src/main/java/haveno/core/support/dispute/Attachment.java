@@ -18,28 +18,143 @@
 package haveno.core.support.dispute;
 
 import com.google.protobuf.ByteString;
+import haveno.common.crypto.Hash;
 import haveno.common.proto.network.NetworkPayload;
-import lombok.Value;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 
-@Value
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * File attached to a chat message, identified by the SHA-256 hash of its bytes.
+ * <p>
+ * Once the bytes are written to an {@link AttachmentStore} they are dropped from the heap and loaded from the store
+ * when they are requested. Attachments read from the persisted disputes only carry hash and size and get their bytes
+ * from the store they are bound to. Attachments received from peers always carry their bytes, so a peer cannot refer
+ * to a blob of another dispute by its hash.
+ */
+@Slf4j
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
 public final class Attachment implements NetworkPayload {
+    @Getter
+    @EqualsAndHashCode.Include
+    @ToString.Include
     private final String fileName;
-    private final byte[] bytes;
+    @Getter
+    @EqualsAndHashCode.Include
+    private final byte[] hash;
+    @Getter
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private final long size;
+    @Nullable
+    private volatile byte[] bytes;
+    @Nullable
+    private volatile AttachmentStore store;
 
     public Attachment(String fileName, byte[] bytes) {
+        this(fileName, Hash.getSha256Hash(bytes), bytes.length, bytes);
+    }
+
+    private Attachment(String fileName, byte[] hash, long size, @Nullable byte[] bytes) {
         this.fileName = fileName;
+        this.hash = hash;
+        this.size = size;
         this.bytes = bytes;
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
     @Override
     public protobuf.Attachment toProtoMessage() {
         return protobuf.Attachment.newBuilder()
                 .setFileName(fileName)
-                .setBytes(ByteString.copyFrom(bytes))
+                .setBytes(ByteString.copyFrom(getBytes()))
+                .setHash(ByteString.copyFrom(hash))
+                .setSize(size)
                 .build();
     }
 
+    // The bytes of stored attachments are not persisted with the disputes, nor are they available for attachments
+    // whose blob is missing
+    public protobuf.Attachment toPersistableProtoMessage() {
+        if (bytes != null) {
+            return toProtoMessage();
+        }
+        return protobuf.Attachment.newBuilder()
+                .setFileName(fileName)
+                .setHash(ByteString.copyFrom(hash))
+                .setSize(size)
+                .build();
+    }
+
+    // Attachments received from peers have to carry their bytes. Attachments of old clients only have the bytes.
     public static Attachment fromProto(protobuf.Attachment proto) {
-        return new Attachment(proto.getFileName(), proto.getBytes().toByteArray());
+        Attachment attachment = new Attachment(proto.getFileName(), proto.getBytes().toByteArray());
+        checkArgument(proto.getHash().isEmpty() || Arrays.equals(attachment.hash, proto.getHash().toByteArray()),
+                "Hash of attachment %s does not match its bytes", proto.getFileName());
+        return attachment;
+    }
+
+    // Attachments persisted before the attachment store only have the bytes
+    public static Attachment fromPersistedProto(protobuf.Attachment proto) {
+        if (proto.getHash().isEmpty() || !proto.getBytes().isEmpty()) {
+            Attachment attachment = new Attachment(proto.getFileName(), proto.getBytes().toByteArray());
+            if (!proto.getHash().isEmpty() && !Arrays.equals(attachment.hash, proto.getHash().toByteArray())) {
+                log.warn("Hash of attachment {} does not match its bytes", proto.getFileName());
+            }
+            return attachment;
+        }
+        return new Attachment(proto.getFileName(), proto.getHash().toByteArray(), proto.getSize(), null);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public byte[] getBytes() {
+        byte[] bytes = this.bytes;
+        if (bytes != null) {
+            return bytes;
+        }
+        AttachmentStore store = this.store;
+        if (store == null) {
+            throw new IllegalStateException("Bytes of attachment " + fileName + " are not available");
+        }
+        try {
+            return store.load(this);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load attachment " + fileName, e);
+        }
+    }
+
+    public boolean isStored() {
+        return store != null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package scope
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    byte[] getInlineBytes() {
+        return bytes;
+    }
+
+    void setStored(AttachmentStore store) {
+        this.store = store;
+        bytes = null;
     }
 }
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.support.dispute;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Encryption;
+import haveno.common.crypto.Hash;
+import haveno.common.crypto.KeyRing;
+import haveno.common.util.Hex;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Content addressed store of the bytes of chat message attachments. Each blob is stored once under the hex encoded
+ * SHA-256 hash of the attachment bytes and encrypted with the symmetric key of the key ring like the persisted files.
+ * <p>
+ * Blobs are written to a temp file and renamed, and an attachment is only persisted without its bytes after its blob
+ * is written, so the persisted disputes never refer to missing data. Loaded blobs are checked against the hash and size
+ * of the attachment.
+ */
+@Slf4j
+public class AttachmentStore {
+    private static final String BLOB_SUFFIX = ".blob";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File dir;
+    @Nullable
+    private final KeyRing keyRing;
+
+    public AttachmentStore(File dir, @Nullable KeyRing keyRing) {
+        this.dir = dir;
+        this.keyRing = keyRing;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Writes the bytes of the attachment to the store if not stored yet and drops them from the heap. An attachment
+     * without bytes is only bound to the store if its blob exists.
+     *
+     * @return false if the attachment could not be stored and keeps its bytes, or if its blob is missing
+     */
+    public synchronized boolean store(Attachment attachment) {
+        if (attachment.isStored()) {
+            return true;
+        }
+        if (keyRing != null && !keyRing.isUnlocked()) {
+            return false;
+        }
+        try {
+            byte[] bytes = attachment.getInlineBytes();
+            File blobFile = getBlobFile(attachment.getHash());
+            if (bytes != null && !blobFile.exists()) {
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("Could not create directory " + dir);
+                }
+                writeAtomically(blobFile, keyRing != null ? Encryption.encryptPayloadWithHmac(bytes, keyRing.getSymmetricKey()) : bytes);
+            } else if (bytes == null && !blobFile.exists()) {
+                log.warn("Blob of attachment {} is missing", attachment.getFileName());
+                return false;
+            }
+            attachment.setStored(this);
+            return true;
+        } catch (IOException | CryptoException e) {
+            log.error("Could not store attachment {}", attachment.getFileName(), e);
+            return false;
+        }
+    }
+
+    public byte[] load(Attachment attachment) throws IOException {
+        File blobFile = getBlobFile(attachment.getHash());
+        if (!blobFile.exists()) {
+            throw new IOException("Blob of attachment " + attachment.getFileName() + " is missing");
+        }
+        byte[] bytes = Files.readAllBytes(blobFile.toPath());
+        if (keyRing != null) {
+            try {
+                bytes = Encryption.decryptPayloadWithHmac(bytes, keyRing.getSymmetricKey());
+            } catch (CryptoException e) {
+                throw new IOException("Could not decrypt blob of attachment " + attachment.getFileName(), e);
+            }
+        }
+        if (bytes.length != attachment.getSize() || !Arrays.equals(Hash.getSha256Hash(bytes), attachment.getHash())) {
+            throw new IOException("Blob of attachment " + attachment.getFileName() + " is corrupted");
+        }
+        return bytes;
+    }
+
+    public boolean contains(Attachment attachment) {
+        return getBlobFile(attachment.getHash()).exists();
+    }
+
+    /**
+     * Deletes the blobs which are not referenced by the given attachments and left over temp files.
+     *
+     * @return the number of deleted files
+     */
+    public synchronized int collectGarbage(Collection<Attachment> referencedAttachments) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return 0;
+        }
+        Set<String> referencedFileNames = new HashSet<>();
+        referencedAttachments.forEach(attachment -> referencedFileNames.add(getBlobFile(attachment.getHash()).getName()));
+        int numDeleted = 0;
+        for (File file : files) {
+            if (!referencedFileNames.contains(file.getName())) {
+                try {
+                    Files.delete(file.toPath());
+                    numDeleted++;
+                } catch (IOException e) {
+                    log.warn("Could not delete unreferenced attachment blob {}", file, e);
+                }
+            }
+        }
+        if (numDeleted > 0) {
+            log.info("Deleted {} unreferenced attachment blobs from {}", numDeleted, dir);
+        }
+        return numDeleted;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private File getBlobFile(byte[] hash) {
+        return new File(dir, Hex.encode(hash) + BLOB_SUFFIX);
+    }
+
+    private static void writeAtomically(File target, byte[] bytes) throws IOException {
+        File tempFile = new File(target.getParentFile(), target.getName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            out.write(bytes);
+            out.getFD().sync();
+        }
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -241,6 +241,15 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
 
     @Override
     public protobuf.Dispute toProtoMessage() {
+        return toProtoMessage(false);
+    }
+
+    // Stored attachments of the chat messages are persisted without their bytes
+    public protobuf.Dispute toPersistableProtoMessage() {
+        return toProtoMessage(true);
+    }
+
+    private protobuf.Dispute toProtoMessage(boolean isPersistable) {
         // Needed to avoid ConcurrentModificationException
         List<ChatMessage> clonedChatMessages = new ArrayList<>(chatMessages);
         protobuf.Dispute.Builder builder = protobuf.Dispute.newBuilder()
@@ -257,7 +266,7 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
                 .setAgentPubKeyRing(agentPubKeyRing.toProtoMessage())
                 .setIsSupportTicket(isSupportTicket)
                 .addAllChatMessage(clonedChatMessages.stream()
-                        .map(msg -> msg.toProtoNetworkEnvelope().getChatMessage())
+                        .map(msg -> isPersistable ? msg.toPersistableProtoMessage() : msg.toProtoNetworkEnvelope().getChatMessage())
                         .collect(Collectors.toList()))
                 .setIsClosed(this.isClosed())
                 .setOpeningDate(openingDate)
@@ -282,6 +291,15 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
     }
 
     public static Dispute fromProto(protobuf.Dispute proto, CoreProtoResolver coreProtoResolver) {
+        return fromProto(proto, coreProtoResolver, false);
+    }
+
+    // Persisted disputes may refer to stored attachments without their bytes
+    public static Dispute fromPersistedProto(protobuf.Dispute proto, CoreProtoResolver coreProtoResolver) {
+        return fromProto(proto, coreProtoResolver, true);
+    }
+
+    private static Dispute fromProto(protobuf.Dispute proto, CoreProtoResolver coreProtoResolver, boolean isPersisted) {
         Dispute dispute = new Dispute(proto.getOpeningDate(),
                 proto.getTradeId(),
                 proto.getTraderId(),
@@ -308,7 +326,7 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
                 null : ExtraDataMapValidator.getValidatedExtraDataMap(proto.getExtraDataMap()));
 
         dispute.chatMessages.addAll(proto.getChatMessageList().stream()
-                .map(ChatMessage::fromPayloadProto)
+                .map(chatMessage -> isPersisted ? ChatMessage.fromPersistedProto(chatMessage) : ChatMessage.fromPayloadProto(chatMessage))
                 .collect(Collectors.toList()));
 
         if (proto.hasDisputeResult())
@@ -18,11 +18,20 @@
 package haveno.core.support.dispute;
 
 import haveno.common.proto.persistable.PersistableListAsObservable;
-import haveno.common.proto.persistable.PersistablePayload;
+import haveno.core.support.messages.ChatMessage;
+import javafx.collections.ListChangeListener;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @ToString
@@ -31,13 +40,250 @@ import java.util.Collection;
  *
  * Calls to the List are delegated because this class intercepts the add/remove calls so changes
  * can be saved to disc.
+ *
+ * The disputes are indexed by trade id, dispute id and the uids of their chat messages. The indexes are updated from
+ * the change events of the list and of the chat messages of each dispute, so they stay consistent with any change,
+ * including the replacement of all disputes when reading the persisted list. The attachments of indexed chat messages
+ * which are not in an attachment store yet are collected to be stored before the list is persisted.
  */
-public abstract class DisputeList<T extends PersistablePayload> extends PersistableListAsObservable<T> {
+public abstract class DisputeList<T extends Dispute> extends PersistableListAsObservable<T> {
+    // Disputes are mutable and compared by value, so the indexes hold them by identity.
+    // Lock order is list, chat messages of a dispute, indexLock.
+    @ToString.Exclude
+    private final Object indexLock = new Object();
+    @ToString.Exclude
+    private final Map<String, List<T>> disputesByTradeId = new HashMap<>();
+    @ToString.Exclude
+    private final Map<String, List<T>> disputesById = new HashMap<>();
+    @ToString.Exclude
+    private final Map<String, List<T>> disputesByChatMessageUid = new HashMap<>();
+    @ToString.Exclude
+    private final Map<T, ListChangeListener<ChatMessage>> chatMessagesListeners = new IdentityHashMap<>();
+    @ToString.Exclude
+    private final List<Attachment> unstoredAttachments = new ArrayList<>();
 
     public DisputeList() {
+        initIndexes();
     }
 
     protected DisputeList(Collection<T> collection) {
         super(collection);
+        initIndexes();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public Optional<T> findDispute(String tradeId) {
+        synchronized (indexLock) {
+            List<T> disputes = disputesByTradeId.get(tradeId);
+            return disputes == null ? Optional.empty() : Optional.of(disputes.get(0));
+        }
+    }
+
+    public Optional<T> findDispute(String tradeId, int traderId) {
+        synchronized (indexLock) {
+            List<T> disputes = disputesByTradeId.get(tradeId);
+            return disputes == null ? Optional.empty() : disputes.stream()
+                    .filter(dispute -> dispute.getTraderId() == traderId)
+                    .findFirst();
+        }
+    }
+
+    public List<T> findDisputes(String tradeId) {
+        synchronized (indexLock) {
+            List<T> disputes = disputesByTradeId.get(tradeId);
+            return disputes == null ? new ArrayList<>() : new ArrayList<>(disputes);
+        }
+    }
+
+    public Optional<T> findDisputeById(String disputeId) {
+        synchronized (indexLock) {
+            List<T> disputes = disputesById.get(disputeId);
+            return disputes == null ? Optional.empty() : Optional.of(disputes.get(0));
+        }
+    }
+
+    public boolean hasChatMessage(T dispute, String uid) {
+        synchronized (indexLock) {
+            List<T> disputes = disputesByChatMessageUid.get(uid);
+            return disputes != null && containsIdentical(disputes, dispute);
+        }
+    }
+
+    public List<ChatMessage> getChatMessages(String tradeId) {
+        return findDisputes(tradeId).stream()
+                .flatMap(dispute -> dispute.getChatMessages().stream())
+                .collect(Collectors.toList());
+    }
+
+    // Returns and forgets the attachments of the added chat messages which are not in an attachment store yet
+    public List<Attachment> pollUnstoredAttachments() {
+        synchronized (indexLock) {
+            List<Attachment> attachments = new ArrayList<>(unstoredAttachments);
+            unstoredAttachments.clear();
+            return attachments;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void initIndexes() {
+        // The list is already filled if created from the persisted disputes
+        synchronized (list) {
+            addListener(this::onDisputesChanged);
+            list.forEach(this::index);
+        }
+    }
+
+    private void onDisputesChanged(ListChangeListener.Change<? extends T> change) {
+        boolean isOrderChanged = false;
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                isOrderChanged = true;
+            }
+            if (change.wasRemoved()) {
+                change.getRemoved().forEach(this::unindex);
+            }
+            if (change.wasAdded()) {
+                change.getAddedSubList().forEach(this::index);
+                // Disputes are indexed in the order they are added, which is the list order if appended
+                isOrderChanged |= change.getTo() != change.getList().size();
+            }
+        }
+        if (isOrderChanged) {
+            sortIndexes(change.getList());
+        }
+    }
+
+    // Restores the list order of the disputes of each trade id and dispute id, so the lookups return the first match
+    // in the list as a linear search does
+    private void sortIndexes(List<? extends T> disputes) {
+        Map<T, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < disputes.size(); i++) {
+            positions.putIfAbsent(disputes.get(i), i);
+        }
+        synchronized (indexLock) {
+            sortByPosition(disputesByTradeId, positions);
+            sortByPosition(disputesById, positions);
+        }
+    }
+
+    private void sortByPosition(Map<String, List<T>> index, Map<T, Integer> positions) {
+        index.values().stream()
+                .filter(disputes -> disputes.size() > 1)
+                .forEach(disputes -> disputes.sort(Comparator.comparing(positions::get)));
+    }
+
+    private void index(T dispute) {
+        ListChangeListener<ChatMessage> chatMessagesListener = change -> onChatMessagesChanged(dispute, change);
+        synchronized (indexLock) {
+            add(disputesByTradeId, dispute.getTradeId(), dispute);
+            add(disputesById, dispute.getId(), dispute);
+            // The same dispute object can be contained multiple times
+            if (chatMessagesListeners.putIfAbsent(dispute, chatMessagesListener) != null) {
+                return;
+            }
+        }
+        synchronized (dispute.getChatMessages()) {
+            dispute.getChatMessages().addListener(chatMessagesListener);
+            synchronized (indexLock) {
+                dispute.getChatMessages().forEach(chatMessage -> {
+                    addIfAbsent(disputesByChatMessageUid, chatMessage.getUid(), dispute);
+                    addUnstoredAttachments(chatMessage);
+                });
+            }
+        }
+    }
+
+    private void unindex(T dispute) {
+        ListChangeListener<ChatMessage> chatMessagesListener;
+        synchronized (indexLock) {
+            remove(disputesByTradeId, dispute.getTradeId(), dispute);
+            remove(disputesById, dispute.getId(), dispute);
+            List<T> disputesWithId = disputesById.get(dispute.getId());
+            if (disputesWithId != null && containsIdentical(disputesWithId, dispute)) {
+                return;
+            }
+            chatMessagesListener = chatMessagesListeners.remove(dispute);
+        }
+        if (chatMessagesListener == null) {
+            return;
+        }
+        synchronized (dispute.getChatMessages()) {
+            dispute.getChatMessages().removeListener(chatMessagesListener);
+            synchronized (indexLock) {
+                dispute.getChatMessages().forEach(chatMessage ->
+                        remove(disputesByChatMessageUid, chatMessage.getUid(), dispute));
+            }
+        }
+    }
+
+    private void onChatMessagesChanged(T dispute, ListChangeListener.Change<? extends ChatMessage> change) {
+        synchronized (indexLock) {
+            while (change.next()) {
+                if (change.wasRemoved()) {
+                    // The list is already changed, so we keep the entry if another message with the same uid remains
+                    change.getRemoved().stream()
+                            .map(ChatMessage::getUid)
+                            .filter(uid -> dispute.getChatMessages().stream()
+                                    .noneMatch(chatMessage -> chatMessage.getUid().equals(uid)))
+                            .forEach(uid -> remove(disputesByChatMessageUid, uid, dispute));
+                }
+                if (change.wasAdded()) {
+                    change.getAddedSubList().forEach(chatMessage -> {
+                        addIfAbsent(disputesByChatMessageUid, chatMessage.getUid(), dispute);
+                        addUnstoredAttachments(chatMessage);
+                    });
+                }
+            }
+        }
+    }
+
+    private void addUnstoredAttachments(ChatMessage chatMessage) {
+        chatMessage.getAttachments().stream()
+                .filter(attachment -> !attachment.isStored())
+                .forEach(unstoredAttachments::add);
+    }
+
+    private void add(Map<String, List<T>> index, String key, T dispute) {
+        index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(dispute);
+    }
+
+    private void addIfAbsent(Map<String, List<T>> index, String key, T dispute) {
+        List<T> disputes = index.computeIfAbsent(key, k -> new ArrayList<>(1));
+        if (!containsIdentical(disputes, dispute)) {
+            disputes.add(dispute);
+        }
+    }
+
+    private void remove(Map<String, List<T>> index, String key, T dispute) {
+        List<T> disputes = index.get(key);
+        if (disputes == null) {
+            return;
+        }
+        for (int i = 0; i < disputes.size(); i++) {
+            if (disputes.get(i) == dispute) {
+                disputes.remove(i);
+                break;
+            }
+        }
+        if (disputes.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static boolean containsIdentical(List<?> disputes, Object dispute) {
+        for (Object element : disputes) {
+            if (element == dispute) {
+                return true;
+            }
+        }
+        return false;
     }
 }
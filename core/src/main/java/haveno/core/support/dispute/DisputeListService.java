@@ -18,8 +18,10 @@
 package haveno.core.support.dispute;
 
 import haveno.common.UserThread;
+import haveno.common.crypto.KeyRing;
 import haveno.common.persistence.PersistenceManager;
 import haveno.common.proto.persistable.PersistedDataHost;
+import haveno.core.support.messages.ChatMessage;
 import haveno.core.trade.Contract;
 import haveno.network.p2p.NodeAddress;
 import javafx.beans.property.IntegerProperty;
@@ -30,6 +32,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.fxmisc.easybind.EasyBind;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -46,15 +50,17 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
     private final IntegerProperty numOpenDisputes = new SimpleIntegerProperty();
     @Getter
     private final Set<String> disputedTradeIds = new HashSet<>();
+    private final AttachmentStore attachmentStore;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public DisputeListService(PersistenceManager<T> persistenceManager) {
+    public DisputeListService(PersistenceManager<T> persistenceManager, File storageDir, KeyRing keyRing) {
         this.persistenceManager = persistenceManager;
         disputeList = getConcreteDisputeList();
+        attachmentStore = new AttachmentStore(new File(storageDir, getFileName() + "Attachments"), keyRing);
 
         this.persistenceManager.initialize(disputeList, getFileName(), PersistenceManager.Source.PRIVATE);
     }
@@ -77,6 +83,15 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
             synchronized (persisted.getList()) {
                 disputeList.setAll(persisted.getList());
             }
+            // Attachments persisted with their bytes are moved to the attachment store
+            List<Attachment> unstoredAttachments = disputeList.pollUnstoredAttachments();
+            boolean hasInlineAttachments = unstoredAttachments.stream()
+                    .anyMatch(attachment -> attachment.getInlineBytes() != null);
+            storeAttachments(unstoredAttachments);
+            attachmentStore.collectGarbage(getAttachments());
+            if (hasInlineAttachments) {
+                persistenceManager.requestPersistence();
+            }
             completeHandler.run();
         },
         completeHandler);
@@ -144,6 +159,24 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private void storeAttachments(List<Attachment> attachments) {
+        attachments.forEach(attachmentStore::store);
+    }
+
+    private List<Attachment> getAttachments() {
+        List<Attachment> attachments = new ArrayList<>();
+        synchronized (disputeList.getObservableList()) {
+            disputeList.stream().forEach(dispute -> {
+                synchronized (dispute.getChatMessages()) {
+                    dispute.getChatMessages().stream()
+                            .map(ChatMessage::getAttachments)
+                            .forEach(attachments::addAll);
+                }
+            });
+        }
+        return attachments;
+    }
+
     private void onDisputesChangeListener(List<? extends Dispute> addedList,
                                           @Nullable List<? extends Dispute> removedList) {
         if (removedList != null) {
@@ -174,6 +207,7 @@ public abstract class DisputeListService<T extends DisputeList<Dispute>> impleme
     }
 
     public void requestPersistence() {
+        storeAttachments(disputeList.pollUnstoredAttachments());
         persistenceManager.requestPersistence();
     }
 }
@@ -96,7 +96,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -190,12 +189,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
 
     @Override
     public List<ChatMessage> getAllChatMessages(String tradeId) {
-        synchronized (getDisputeList().getObservableList()) {
-            return getDisputeList().stream()
-                    .filter(dispute -> dispute.getTradeId().equals(tradeId))
-                    .flatMap(dispute -> dispute.getChatMessages().stream())
-                    .collect(Collectors.toList());
-        }
+        return getDisputeList().getChatMessages(tradeId);
     }
 
     @Override
@@ -206,7 +200,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     @Override
     public void addAndPersistChatMessage(ChatMessage message) {
         findDispute(message).ifPresent(dispute -> {
-            if (dispute.getChatMessages().stream().noneMatch(m -> m.getUid().equals(message.getUid()))) {
+            if (!getDisputeList().hasChatMessage(dispute, message.getUid())) {
                 dispute.addAndPersistChatMessage(message);
                 requestPersistence();
             } else {
@@ -307,14 +301,12 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
     }
 
     public Optional<Dispute> findOwnDispute(String tradeId) {
-        synchronized (getDisputeList()) {
-            T disputeList = getDisputeList();
-            if (disputeList == null) {
-                log.warn("disputes is null");
-                return Optional.empty();
-            }
-            return disputeList.stream().filter(e -> e.getTradeId().equals(tradeId)).findAny();
+        T disputeList = getDisputeList();
+        if (disputeList == null) {
+            log.warn("disputes is null");
+            return Optional.empty();
         }
+        return disputeList.findDispute(tradeId);
     }
 
     public void maybeClearSensitiveData() {
@@ -1030,9 +1022,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
             log.warn("disputes is null");
             return Optional.empty();
         }
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId) && e.getTraderId() == traderId)
-                .findAny();
+        return disputeList.findDispute(tradeId, traderId);
     }
 
     public Optional<Dispute> findDispute(String tradeId) {
@@ -1041,17 +1031,13 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
             log.warn("disputes is null");
             return Optional.empty();
         }
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId))
-                .findAny();
+        return disputeList.findDispute(tradeId);
     }
 
     public List<Dispute> findDisputes(String tradeId) {
         T disputeList = getDisputeList();
         if (disputeList == null) return new ArrayList<Dispute>();
-        return disputeList.stream()
-                .filter(e -> e.getTradeId().equals(tradeId))
-                .collect(Collectors.toList());
+        return disputeList.findDisputes(tradeId);
     }
 
     public Optional<Dispute> findDisputeById(String disputeId) {
@@ -1060,9 +1046,7 @@ public abstract class DisputeManager<T extends DisputeList<Dispute>> extends Sup
             log.warn("disputes is null");
             return Optional.empty();
         }
-        return disputeList.stream()
-                .filter(e -> e.getId().equals(disputeId))
-                .findAny();
+        return disputeList.findDisputeById(disputeId);
     }
 
     public Optional<Trade> findTrade(Dispute dispute) {
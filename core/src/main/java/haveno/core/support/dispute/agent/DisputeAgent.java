@@ -22,7 +22,9 @@ import haveno.common.util.ExtraDataMapValidator;
 import haveno.common.util.Utilities;
 import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.storage.payload.ExpirablePayload;
+import haveno.network.p2p.storage.payload.PayloadHash;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -56,6 +58,9 @@ public abstract class DisputeAgent implements ProtectedStoragePayload, Expirable
     @Nullable
     protected Map<String, String> extraDataMap;
 
+    @Getter(AccessLevel.NONE)
+    private final transient PayloadHash payloadHash = new PayloadHash();
+
     public DisputeAgent(NodeAddress nodeAddress,
                         PubKeyRing pubKeyRing,
                         List<String> languageCodes,
@@ -86,6 +91,11 @@ public abstract class DisputeAgent implements ProtectedStoragePayload, Expirable
         return TTL;
     }
 
+    @Override
+    public PayloadHash getPayloadHash() {
+        return payloadHash;
+    }
+
     @Override
     public PublicKey getOwnerPubKey() {
         return pubKeyRing.getSignaturePubKey();
@@ -17,6 +17,7 @@
 
 package haveno.core.support.dispute.agent;
 
+import com.google.common.annotations.VisibleForTesting;
 import haveno.common.crypto.Hash;
 import haveno.common.crypto.PubKeyRing;
 import haveno.common.util.Tuple2;
@@ -30,7 +31,9 @@ import haveno.core.support.dispute.DisputeManager;
 import haveno.core.support.dispute.DisputeResult;
 import haveno.core.user.DontShowAgainLookup;
 import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
@@ -38,9 +41,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
@@ -48,6 +55,9 @@ import java.util.stream.Collectors;
  * Detects traders who had disputes where they used different account holder names. Only payment methods where a
  * real name is required are used for the check.
  * Strings are not translated here as it is only visible to dispute agents
+ * <p>
+ * The disputes are grouped by trader as they are added to or removed from the dispute list, with the holder name of
+ * each dispute normalized once, so a change only updates the group of the trader of the changed dispute.
  */
 @Slf4j
 public class MultipleHolderNameDetection {
@@ -104,17 +114,50 @@ public class MultipleHolderNameDetection {
         return "'\n        Role: " + (isBuyer ? "'Buyer'" : "'Seller'");
     }
 
+    // Differences in case and white space are not considered as different names
+    @VisibleForTesting
+    static String normalizeHolderName(String holderName) {
+        return holderName == null ? "" : holderName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // SuspiciousTrader
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Value
+    public static class SuspiciousTrader {
+        // Hex of hash of sig pubKey
+        String traderId;
+        List<String> holderNames;
+        List<Dispute> disputes;
+    }
+
+    // Disputes of a trader with the number of disputes per normalized holder name
+    private static class TraderDisputes {
+        private final List<Dispute> disputes = new ArrayList<>();
+        private final Map<String, Integer> numDisputesByHolderName = new HashMap<>();
+
+        private boolean isSuspicious() {
+            return numDisputesByHolderName.size() > 1;
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private final DisputeManager<? extends DisputeList<Dispute>> disputeManager;
+    private final ObservableList<Dispute> disputes;
 
     // Key is hex of hash of sig pubKey which we consider a trader identity. We could use onion address as well but
     // once we support multiple onion addresses that would not work anymore.
+    // Sorted by trader to page through the suspicious traders in a stable order.
     @Getter
-    private final Map<String, List<Dispute>> suspiciousDisputesByTraderMap = new HashMap<>();
+    private final Map<String, List<Dispute>> suspiciousDisputesByTraderMap = new TreeMap<>();
+    private final Map<String, TraderDisputes> allDisputesByTraderMap = new HashMap<>();
+    // Trader and normalized holder name of each grouped dispute. Disputes are mutable and compared by value.
+    private final Map<Dispute, Tuple2<String, String>> traderAndHolderNameByDispute = new IdentityHashMap<>();
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
 
 
@@ -123,14 +166,17 @@ public class MultipleHolderNameDetection {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public MultipleHolderNameDetection(DisputeManager<? extends DisputeList<Dispute>> disputeManager) {
-        this.disputeManager = disputeManager;
+        this(disputeManager.getDisputesAsObservableList());
+    }
 
-        disputeManager.getDisputesAsObservableList().addListener((ListChangeListener<Dispute>) c -> {
-            c.next();
-            if (c.wasAdded()) {
-                detectMultipleHolderNames();
-            }
-        });
+    @VisibleForTesting
+    MultipleHolderNameDetection(ObservableList<Dispute> disputes) {
+        this.disputes = disputes;
+
+        synchronized (disputes) {
+            disputes.addListener((ListChangeListener<Dispute>) this::onDisputesChanged);
+            disputes.forEach(this::add);
+        }
     }
 
 
@@ -138,30 +184,30 @@ public class MultipleHolderNameDetection {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Groups all disputes again
     public void detectMultipleHolderNames() {
-        String previous = suspiciousDisputesByTraderMap.toString();
-        getAllDisputesByTraderMap().forEach((key, value) -> {
-            Set<String> userNames = value.stream()
-                    .map(dispute -> getPayloadWithHolderName(dispute).getHolderName())
-                    .collect(Collectors.toSet());
-            if (userNames.size() > 1) {
-                // As we compare previous results we need to make sorting deterministic
-                value.sort(Comparator.comparing(Dispute::getId));
-                suspiciousDisputesByTraderMap.put(key, value);
+        boolean changed;
+        synchronized (disputes) {
+            synchronized (this) {
+                Map<String, List<Dispute>> previous = new HashMap<>(suspiciousDisputesByTraderMap);
+                suspiciousDisputesByTraderMap.clear();
+                allDisputesByTraderMap.clear();
+                traderAndHolderNameByDispute.clear();
+                disputes.forEach(this::add);
+                changed = !previous.equals(suspiciousDisputesByTraderMap);
             }
-        });
-        String updated = suspiciousDisputesByTraderMap.toString();
-        if (!previous.equals(updated)) {
+        }
+        if (changed) {
             listeners.forEach(Listener::onSuspiciousDisputeDetected);
         }
     }
 
-    public boolean hasSuspiciousDisputesDetected() {
+    public synchronized boolean hasSuspiciousDisputesDetected() {
         return !suspiciousDisputesByTraderMap.isEmpty();
     }
 
     // Returns all disputes of a trader who used multiple names
-    public List<Dispute> getDisputesForTrader(Dispute dispute) {
+    public synchronized List<Dispute> getDisputesForTrader(Dispute dispute) {
         String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
         if (suspiciousDisputesByTraderMap.containsKey(traderPubKeyHash)) {
             return suspiciousDisputesByTraderMap.get(traderPubKeyHash);
@@ -169,9 +215,30 @@ public class MultipleHolderNameDetection {
         return new ArrayList<>();
     }
 
+    public synchronized int getNumSuspiciousTraders() {
+        return suspiciousDisputesByTraderMap.size();
+    }
+
+    // Returns a page of the traders who used multiple names, ordered by trader id
+    public synchronized List<SuspiciousTrader> getSuspiciousTraders(int offset, int limit) {
+        return suspiciousDisputesByTraderMap.entrySet().stream()
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> new SuspiciousTrader(entry.getKey(),
+                        new ArrayList<>(entry.getValue().stream()
+                                .map(dispute -> getPayloadWithHolderName(dispute).getHolderName())
+                                .collect(Collectors.toCollection(TreeSet::new))),
+                        entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     // Get a report of traders who used multiple names with all their disputes listed
     public String getReportForAllDisputes() {
-        return getReport(suspiciousDisputesByTraderMap.values());
+        Collection<List<Dispute>> values;
+        synchronized (this) {
+            values = new ArrayList<>(suspiciousDisputesByTraderMap.values());
+        }
+        return getReport(values);
     }
 
     // Get a report for a trader who used multiple names with all their disputes listed
@@ -194,22 +261,68 @@ public class MultipleHolderNameDetection {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<String, List<Dispute>> getAllDisputesByTraderMap() {
-        Map<String, List<Dispute>> allDisputesByTraderMap = new HashMap<>();
-        disputeManager.getDisputesAsObservableList().stream()
-                .filter(dispute -> {
-                    PaymentAccountPayload paymentAccountPayload = isBuyer(dispute) ?
-                            dispute.getBuyerPaymentAccountPayload() :
-                            dispute.getSellerPaymentAccountPayload();
-                    return paymentAccountPayload instanceof PayloadWithHolderName;
-                })
-                .forEach(dispute -> {
-                    String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
-                    allDisputesByTraderMap.putIfAbsent(traderPubKeyHash, new ArrayList<>());
-                    List<Dispute> disputes = allDisputesByTraderMap.get(traderPubKeyHash);
-                    disputes.add(dispute);
-                });
-        return allDisputesByTraderMap;
+    private void onDisputesChanged(ListChangeListener.Change<? extends Dispute> change) {
+        boolean changed = false;
+        synchronized (this) {
+            while (change.next()) {
+                if (change.wasRemoved()) {
+                    for (Dispute dispute : change.getRemoved()) {
+                        changed |= remove(dispute);
+                    }
+                }
+                if (change.wasAdded()) {
+                    for (Dispute dispute : change.getAddedSubList()) {
+                        changed |= add(dispute);
+                    }
+                }
+            }
+        }
+        if (changed) {
+            listeners.forEach(Listener::onSuspiciousDisputeDetected);
+        }
+    }
+
+    // Returns true if the suspicious disputes changed
+    private boolean add(Dispute dispute) {
+        if (!(getPaymentAccountPayload(dispute) instanceof PayloadWithHolderName) ||
+                traderAndHolderNameByDispute.containsKey(dispute)) {
+            return false;
+        }
+        String traderPubKeyHash = getSigPubKeyHashAsHex(dispute);
+        String holderName = normalizeHolderName(getPayloadWithHolderName(dispute).getHolderName());
+        traderAndHolderNameByDispute.put(dispute, new Tuple2<>(traderPubKeyHash, holderName));
+
+        TraderDisputes traderDisputes = allDisputesByTraderMap.computeIfAbsent(traderPubKeyHash, k -> new TraderDisputes());
+        traderDisputes.disputes.add(dispute);
+        traderDisputes.numDisputesByHolderName.merge(holderName, 1, Integer::sum);
+        return updateSuspiciousDisputes(traderPubKeyHash, traderDisputes);
+    }
+
+    private boolean remove(Dispute dispute) {
+        Tuple2<String, String> traderAndHolderName = traderAndHolderNameByDispute.remove(dispute);
+        if (traderAndHolderName == null) {
+            return false;
+        }
+        String traderPubKeyHash = traderAndHolderName.first;
+        TraderDisputes traderDisputes = allDisputesByTraderMap.get(traderPubKeyHash);
+        traderDisputes.disputes.removeIf(e -> e == dispute);
+        traderDisputes.numDisputesByHolderName.computeIfPresent(traderAndHolderName.second,
+                (holderName, numDisputes) -> numDisputes > 1 ? numDisputes - 1 : null);
+        if (traderDisputes.disputes.isEmpty()) {
+            allDisputesByTraderMap.remove(traderPubKeyHash);
+        }
+        return updateSuspiciousDisputes(traderPubKeyHash, traderDisputes);
+    }
+
+    private boolean updateSuspiciousDisputes(String traderPubKeyHash, TraderDisputes traderDisputes) {
+        if (!traderDisputes.isSuspicious()) {
+            return suspiciousDisputesByTraderMap.remove(traderPubKeyHash) != null;
+        }
+        List<Dispute> suspiciousDisputes = new ArrayList<>(traderDisputes.disputes);
+        // As we compare previous results we need to make sorting deterministic
+        suspiciousDisputes.sort(Comparator.comparing(Dispute::getId));
+        suspiciousDisputesByTraderMap.put(traderPubKeyHash, suspiciousDisputes);
+        return true;
     }
 
     // Get a text report for a trader who used multiple names and list all the his disputes
@@ -18,7 +18,6 @@
 package haveno.core.support.dispute.mediation;
 
 import com.google.protobuf.Message;
-import haveno.common.proto.ProtoUtil;
 import haveno.core.proto.CoreProtoResolver;
 import haveno.core.support.SupportType;
 import haveno.core.support.dispute.Dispute;
@@ -57,14 +56,14 @@ public final class MediationDisputeList extends DisputeList<Dispute> {
     public Message toProtoMessage() {
         synchronized (getList()) {
             return protobuf.PersistableEnvelope.newBuilder().setMediationDisputeList(protobuf.MediationDisputeList.newBuilder()
-                    .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                    .addAllDispute(getList().stream().map(Dispute::toPersistableProtoMessage).collect(Collectors.toList()))).build();
         }
     }
 
     public static MediationDisputeList fromProto(protobuf.MediationDisputeList proto,
                                                  CoreProtoResolver coreProtoResolver) {
         List<Dispute> list = proto.getDisputeList().stream()
-                .map(disputeProto -> Dispute.fromProto(disputeProto, coreProtoResolver))
+                .map(disputeProto -> Dispute.fromPersistedProto(disputeProto, coreProtoResolver))
                 .filter(e -> e.getSupportType().equals(SupportType.MEDIATION))
                 .collect(Collectors.toList());
         return new MediationDisputeList(list);
@@ -19,9 +19,14 @@ package haveno.core.support.dispute.mediation;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import haveno.common.config.Config;
+import haveno.common.crypto.KeyRing;
 import haveno.common.persistence.PersistenceManager;
 import haveno.core.support.dispute.DisputeListService;
 
+import java.io.File;
+
 @Singleton
 public final class MediationDisputeListService extends DisputeListService<MediationDisputeList> {
 
@@ -30,8 +35,10 @@ public final class MediationDisputeListService extends DisputeListService<Mediat
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Inject
-    public MediationDisputeListService(PersistenceManager<MediationDisputeList> persistenceManager) {
-        super(persistenceManager);
+    public MediationDisputeListService(PersistenceManager<MediationDisputeList> persistenceManager,
+                                       @Named(Config.STORAGE_DIR) File storageDir,
+                                       KeyRing keyRing) {
+        super(persistenceManager, storageDir, keyRing);
     }
 
 
@@ -18,7 +18,6 @@
 package haveno.core.support.dispute.refund;
 
 import com.google.protobuf.Message;
-import haveno.common.proto.ProtoUtil;
 import haveno.core.proto.CoreProtoResolver;
 import haveno.core.support.SupportType;
 import haveno.core.support.dispute.Dispute;
@@ -60,14 +59,14 @@ public final class RefundDisputeList extends DisputeList<Dispute> {
         forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.REFUND), "Support type has to be REFUND"));
         synchronized (getList()) {
             return protobuf.PersistableEnvelope.newBuilder().setRefundDisputeList(protobuf.RefundDisputeList.newBuilder()
-                    .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                    .addAllDispute(getList().stream().map(Dispute::toPersistableProtoMessage).collect(Collectors.toList()))).build();
         }
     }
 
     public static RefundDisputeList fromProto(protobuf.RefundDisputeList proto,
                                               CoreProtoResolver coreProtoResolver) {
         List<Dispute> list = proto.getDisputeList().stream()
-                .map(disputeProto -> Dispute.fromProto(disputeProto, coreProtoResolver))
+                .map(disputeProto -> Dispute.fromPersistedProto(disputeProto, coreProtoResolver))
                 .filter(e -> e.getSupportType().equals(SupportType.REFUND))
                 .collect(Collectors.toList());
         return new RefundDisputeList(list);
@@ -19,9 +19,14 @@ package haveno.core.support.dispute.refund;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import haveno.common.config.Config;
+import haveno.common.crypto.KeyRing;
 import haveno.common.persistence.PersistenceManager;
 import haveno.core.support.dispute.DisputeListService;
 
+import java.io.File;
+
 @Singleton
 public final class RefundDisputeListService extends DisputeListService<RefundDisputeList> {
 
@@ -30,8 +35,10 @@ public final class RefundDisputeListService extends DisputeListService<RefundDis
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Inject
-    public RefundDisputeListService(PersistenceManager<RefundDisputeList> persistenceManager) {
-        super(persistenceManager);
+    public RefundDisputeListService(PersistenceManager<RefundDisputeList> persistenceManager,
+                                    @Named(Config.STORAGE_DIR) File storageDir,
+                                    KeyRing keyRing) {
+        super(persistenceManager, storageDir, keyRing);
     }
 
 
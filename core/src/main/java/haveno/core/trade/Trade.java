@@ -1806,6 +1806,11 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
     public void onComplete() {
     }
 
+    @Override
+    public String getTaskTraceId() {
+        return getId();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Abstract
@@ -19,6 +19,7 @@
 package haveno.core.trade.protocol;
 
 import haveno.common.taskrunner.Task;
+import haveno.common.taskrunner.TaskFactory;
 import haveno.core.trade.Trade;
 import haveno.core.trade.messages.TradeMessage;
 import haveno.network.p2p.NodeAddress;
@@ -27,7 +28,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -346,7 +350,7 @@ public class FluentProtocol {
         private final TradeProtocol tradeProtocol;
         private final Trade trade;
         @Getter
-        private Class<? extends Task<Trade>>[] tasks;
+        private final List<TaskFactory<Trade>> tasks = new ArrayList<>();
         @Getter
         private int timeoutSec;
         @Nullable
@@ -359,7 +363,15 @@ public class FluentProtocol {
 
         @SafeVarargs
         public final Setup tasks(Class<? extends Task<Trade>>... tasks) {
-            this.tasks = tasks;
+            for (Class<? extends Task<Trade>> task : tasks) {
+                this.tasks.add(TaskFactory.of(task));
+            }
+            return this;
+        }
+
+        @SafeVarargs
+        public final Setup tasks(TaskFactory<Trade>... tasks) {
+            this.tasks.addAll(Arrays.asList(tasks));
             return this;
         }
 
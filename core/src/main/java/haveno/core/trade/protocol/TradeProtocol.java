@@ -42,6 +42,7 @@ import haveno.common.crypto.PubKeyRing;
 import haveno.common.handlers.ErrorMessageHandler;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.taskrunner.Task;
+import haveno.common.taskrunner.TaskFactory;
 import haveno.core.network.MessageState;
 import haveno.core.trade.ArbitratorTrade;
 import haveno.core.trade.BuyerTrade;
@@ -729,6 +730,11 @@ public abstract class TradeProtocol implements DecryptedDirectMessageListener, D
         return new FluentProtocol.Setup(this, trade).tasks(tasks);
     }
 
+    @SafeVarargs
+    public final FluentProtocol.Setup tasks(TaskFactory<Trade>... tasks) {
+        return new FluentProtocol.Setup(this, trade).tasks(tasks);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ACK msg
@@ -0,0 +1,440 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.xmr.wallet;
+
+import com.google.common.annotations.VisibleForTesting;
+import common.utils.JsonUtils;
+import haveno.common.ThreadUtils;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
+import haveno.core.trade.HavenoUtils;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import monero.common.MoneroRpcError;
+import monero.daemon.MoneroDaemonRpc;
+import monero.daemon.model.MoneroFeeEstimate;
+import monero.daemon.model.MoneroOutput;
+import monero.daemon.model.MoneroSubmitTxResult;
+import monero.daemon.model.MoneroTx;
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroCheckTx;
+import monero.wallet.model.MoneroTxPriority;
+
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies reserve and deposit txs in batches. Txs submitted while a batch is verified are collected and verified
+ * together with the next batch, so the daemon calls which do not depend on a single tx (looking up known txs,
+ * fetching the tx pool and the fee estimate, flushing the pool) are made once per batch instead of once per tx.
+ * <p>
+ * Each tx is verified independently, a failing tx does not fail the other txs of its batch. Txs which spend the same
+ * key images cannot be in the pool together, so a tx claiming key images of another tx of the batch is deferred to the
+ * next batch, and a tx which the daemon rejects while other txs of the batch are in the pool is verified again with
+ * the next batch, as it would have been verified after them one by one.
+ */
+@Slf4j
+public class TradeTxVerifier {
+    public static final int MAX_BATCH_SIZE = 50;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private static final Histogram BATCH_SIZE = MetricsRegistry.getInstance().histogram("haveno_trade_tx_verification_batch_size",
+            "Number of txs verified together");
+
+    @Value
+    public static class Request {
+        String offerId;
+        BigInteger tradeFeeAmount;
+        String feeAddress;
+        BigInteger sendAmount;
+        String sendAddress;
+        String txHash;
+        String txHex;
+        String txKey;
+        @Nullable
+        List<String> keyImages;
+    }
+
+    private static class PendingVerification {
+        private final Request request;
+        private final CompletableFuture<MoneroTx> future = new CompletableFuture<>();
+
+        private PendingVerification(Request request) {
+            this.request = request;
+        }
+    }
+
+    private final Supplier<MoneroDaemonRpc> daemonSupplier;
+    private final Supplier<MoneroWallet> walletSupplier;
+    private final Supplier<MoneroTxPriority> feePrioritySupplier;
+    private final Object lock;
+    private final String threadId = TradeTxVerifier.class.getSimpleName() + "-" + System.identityHashCode(this);
+    private final Queue<PendingVerification> pendingVerifications = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final long shutDownTimeoutMs;
+    private volatile List<PendingVerification> runningBatch = Collections.emptyList();
+    private volatile boolean isShutDown;
+
+    /**
+     * @param lock lock which is held while txs are in the pool of the daemon
+     */
+    public TradeTxVerifier(Supplier<MoneroDaemonRpc> daemonSupplier,
+                           Supplier<MoneroWallet> walletSupplier,
+                           Supplier<MoneroTxPriority> feePrioritySupplier,
+                           Object lock) {
+        this(daemonSupplier, walletSupplier, feePrioritySupplier, lock, SHUTDOWN_TIMEOUT_MS);
+    }
+
+    @VisibleForTesting
+    TradeTxVerifier(Supplier<MoneroDaemonRpc> daemonSupplier,
+                    Supplier<MoneroWallet> walletSupplier,
+                    Supplier<MoneroTxPriority> feePrioritySupplier,
+                    Object lock,
+                    long shutDownTimeoutMs) {
+        this.daemonSupplier = daemonSupplier;
+        this.walletSupplier = walletSupplier;
+        this.feePrioritySupplier = feePrioritySupplier;
+        this.lock = lock;
+        this.shutDownTimeoutMs = shutDownTimeoutMs;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Queues the tx for verification with the next batch.
+     *
+     * @return future completed with the verified tx from the pool or exceptionally if the verification failed
+     */
+    public CompletableFuture<MoneroTx> submit(Request request) {
+        PendingVerification pendingVerification = new PendingVerification(request);
+        pendingVerifications.add(pendingVerification);
+        if (isShutDown) {
+            failPendingVerifications(); // could have been added after shut down failed the pending txs
+        } else if (draining.compareAndSet(false, true)) {
+            try {
+                ThreadUtils.execute(this::drain, threadId);
+            } catch (RejectedExecutionException e) {
+                failPendingVerifications();
+            }
+        }
+        return pendingVerification.future;
+    }
+
+    /**
+     * Verifies the tx with the next batch and waits for the result.
+     *
+     * @return the verified tx from the pool
+     */
+    public MoneroTx verify(Request request) {
+        try {
+            return submit(request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Fails the queued txs and waits at most a bounded time for the running batch, which may wait for the lock.
+     */
+    public void shutDown() {
+        isShutDown = true;
+        failPendingVerifications();
+        ThreadUtils.shutDown(threadId, shutDownTimeoutMs);
+        fail(runningBatch);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void drain() {
+        // txs deferred from the last batch, verified first with the next one
+        List<PendingVerification> deferred = new ArrayList<>();
+        while (true) {
+            if (isShutDown) {
+                fail(deferred);
+                failPendingVerifications();
+                return;
+            }
+            List<PendingVerification> batch = new ArrayList<>();
+            Set<String> batchKeyImages = new HashSet<>();
+            List<PendingVerification> nextDeferred = new ArrayList<>();
+            for (PendingVerification verification : deferred) {
+                if (!addToBatch(verification, batch, batchKeyImages)) nextDeferred.add(verification);
+            }
+            PendingVerification pendingVerification;
+            while (batch.size() < MAX_BATCH_SIZE && (pendingVerification = pendingVerifications.poll()) != null) {
+                if (!addToBatch(pendingVerification, batch, batchKeyImages)) nextDeferred.add(pendingVerification);
+            }
+            deferred = nextDeferred;
+            if (batch.isEmpty()) {
+                draining.set(false);
+                // a tx could have been submitted after polling and before resetting the flag
+                if (pendingVerifications.isEmpty() || !draining.compareAndSet(false, true)) return;
+                continue;
+            }
+            runningBatch = batch;
+            try {
+                deferred.addAll(0, verifyBatch(batch));
+            } catch (Exception e) {
+                log.warn("Error verifying batch of {} trade txs: {}", batch.size(), e.getMessage());
+                for (PendingVerification verification : batch) verification.future.completeExceptionally(e);
+            } finally {
+                runningBatch = Collections.emptyList();
+            }
+        }
+    }
+
+    // Returns false if the batch is full or the tx claims key images of another tx of the batch
+    private static boolean addToBatch(PendingVerification verification,
+                                      List<PendingVerification> batch,
+                                      Set<String> batchKeyImages) {
+        if (batch.size() >= MAX_BATCH_SIZE) return false;
+        List<String> keyImages = verification.request.getKeyImages();
+        if (keyImages != null) {
+            for (String keyImage : keyImages) {
+                if (batchKeyImages.contains(keyImage)) return false;
+            }
+            batchKeyImages.addAll(keyImages);
+        }
+        batch.add(verification);
+        return true;
+    }
+
+    private void failPendingVerifications() {
+        PendingVerification pendingVerification;
+        while ((pendingVerification = pendingVerifications.poll()) != null) {
+            pendingVerification.future.completeExceptionally(new IllegalStateException("Trade tx verifier is shut down"));
+        }
+    }
+
+    private static void fail(List<PendingVerification> verifications) {
+        for (PendingVerification verification : verifications) {
+            verification.future.completeExceptionally(new IllegalStateException("Trade tx verifier is shut down"));
+        }
+    }
+
+    // Returns the txs to verify again with the next batch
+    private List<PendingVerification> verifyBatch(List<PendingVerification> batch) {
+        BATCH_SIZE.record(batch.size());
+        MoneroDaemonRpc daemon = daemonSupplier.get();
+        MoneroWallet wallet = walletSupplier.get();
+        Map<PendingVerification, MoneroTx> verifiedTxs = new HashMap<>();
+        Map<PendingVerification, RuntimeException> errors = new HashMap<>();
+        List<PendingVerification> retried = new ArrayList<>();
+        Set<String> txHashes = new LinkedHashSet<>();
+        for (PendingVerification verification : batch) {
+            if (verification.request.getTxHash() == null) {
+                errors.put(verification, new IllegalArgumentException("Cannot verify trade tx with null id"));
+            } else {
+                txHashes.add(verification.request.getTxHash());
+            }
+        }
+        if (txHashes.isEmpty()) {
+            complete(batch, verifiedTxs, errors);
+            return retried;
+        }
+
+        synchronized (lock) {
+            if (isShutDown) throw new IllegalStateException("Trade tx verifier is shut down");
+            try {
+
+                // verify txs not submitted to pool
+                Set<String> knownTxHashes = daemon.getTxs(new ArrayList<>(txHashes)).stream()
+                        .map(MoneroTx::getHash)
+                        .collect(Collectors.toSet());
+                Set<String> seenTxHashes = new HashSet<>();
+                List<PendingVerification> submitted = new ArrayList<>();
+                for (PendingVerification verification : batch) {
+                    if (errors.containsKey(verification)) continue;
+                    try {
+                        String txHash = verification.request.getTxHash();
+                        if (knownTxHashes.contains(txHash) || !seenTxHashes.add(txHash)) throw new RuntimeException("Tx is already submitted");
+
+                        // submit tx to pool
+                        MoneroSubmitTxResult result = daemon.submitTxHex(verification.request.getTxHex(), true); // TODO (woodser): invert doNotRelay flag to relay for library consistency?
+                        if (!result.isGood() && !submitted.isEmpty()) {
+                            // could spend the key images of a submitted tx, which were flushed before verifying it one by one
+                            retried.add(verification);
+                            continue;
+                        }
+                        if (!result.isGood()) throw new RuntimeException("Failed to submit tx to daemon: " + JsonUtils.serialize(result));
+                        submitted.add(verification);
+                    } catch (RuntimeException e) {
+                        errors.put(verification, e);
+                    }
+                }
+                if (submitted.isEmpty()) return retried;
+
+                // get pool txs which have weight and size
+                Map<String, MoneroTx> poolTxs = new HashMap<>();
+                for (MoneroTx poolTx : daemon.getTxPool()) poolTxs.put(poolTx.getHash(), poolTx);
+                MoneroFeeEstimate feeEstimates = daemon.getFeeEstimate();
+                MoneroTxPriority feePriority = feePrioritySupplier.get();
+
+                for (PendingVerification verification : submitted) {
+                    try {
+                        verifiedTxs.put(verification, verifyPoolTx(verification.request, poolTxs.get(verification.request.getTxHash()), feeEstimates, feePriority, wallet));
+                    } catch (RuntimeException e) {
+                        errors.put(verification, e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                for (PendingVerification verification : batch) errors.putIfAbsent(verification, e);
+            } finally {
+                try {
+                    daemon.flushTxPool(txHashes.toArray(new String[0])); // flush txs from pool
+                } catch (MoneroRpcError err) {
+                    RuntimeException flushError = err.getCode().equals(-32601) ? new RuntimeException("Failed to flush tx from pool. Arbitrator must use trusted, unrestricted daemon") : err;
+                    verifiedTxs.clear();
+                    retried.clear();
+                    for (PendingVerification verification : batch) errors.put(verification, flushError);
+                }
+                List<PendingVerification> completed = new ArrayList<>(batch);
+                completed.removeAll(retried);
+                complete(completed, verifiedTxs, errors);
+            }
+        }
+        return retried;
+    }
+
+    private void complete(List<PendingVerification> batch,
+                          Map<PendingVerification, MoneroTx> verifiedTxs,
+                          Map<PendingVerification, RuntimeException> errors) {
+        for (PendingVerification verification : batch) {
+            RuntimeException error = errors.get(verification);
+            if (error != null) {
+                log.warn("Error verifying trade tx with offer id=" + verification.request.getOfferId() + ": " + error.getMessage());
+                verification.future.completeExceptionally(error);
+            } else {
+                verification.future.complete(verifiedTxs.get(verification));
+            }
+        }
+    }
+
+    private static MoneroTx verifyPoolTx(Request request,
+                                         @Nullable MoneroTx tx,
+                                         MoneroFeeEstimate feeEstimates,
+                                         MoneroTxPriority feePriority,
+                                         MoneroWallet wallet) {
+        if (tx == null) throw new RuntimeException("Tx is not in pool after being submitted");
+        try {
+
+            // verify key images
+            if (request.getKeyImages() != null) {
+                Set<String> txKeyImages = new HashSet<String>();
+                for (MoneroOutput input : tx.getInputs()) txKeyImages.add(input.getKeyImage().getHex());
+                if (!txKeyImages.equals(new HashSet<String>(request.getKeyImages()))) throw new RuntimeException("Tx inputs do not match claimed key images");
+            }
+
+            // verify unlock height
+            if (!BigInteger.ZERO.equals(tx.getUnlockTime())) throw new RuntimeException("Unlock height must be 0");
+
+            // verify miner fee
+            BigInteger minerFeeEstimate = getFeeEstimate(feeEstimates, feePriority, tx.getWeight());
+            HavenoUtils.verifyMinerFee(minerFeeEstimate, tx.getFee());
+            log.info("Trade miner fee {} is within tolerance", tx.getFee());
+
+            // verify proof to fee address
+            BigInteger actualTradeFee = BigInteger.ZERO;
+            if (request.getTradeFeeAmount().compareTo(BigInteger.ZERO) > 0) {
+                MoneroCheckTx tradeFeeCheck = wallet.checkTxKey(request.getTxHash(), request.getTxKey(), request.getFeeAddress());
+                if (!tradeFeeCheck.isGood()) throw new RuntimeException("Invalid proof to trade fee address");
+                actualTradeFee = tradeFeeCheck.getReceivedAmount();
+            }
+
+            // verify proof to transfer address
+            MoneroCheckTx transferCheck = wallet.checkTxKey(request.getTxHash(), request.getTxKey(), request.getSendAddress());
+            if (!transferCheck.isGood()) throw new RuntimeException("Invalid proof to transfer address");
+            BigInteger actualSendAmount = transferCheck.getReceivedAmount();
+
+            // verify trade fee amount
+            if (!actualTradeFee.equals(request.getTradeFeeAmount())) {
+                if (equalsWithinFractionError(actualTradeFee, request.getTradeFeeAmount())) {
+                    log.warn("Trade fee amount is within fraction error, expected " + request.getTradeFeeAmount() + " but was " + actualTradeFee);
+                } else {
+                    throw new RuntimeException("Invalid trade fee amount, expected " + request.getTradeFeeAmount() + " but was " + actualTradeFee);
+                }
+            }
+
+            // verify send amount
+            BigInteger expectedSendAmount = request.getSendAmount().subtract(tx.getFee());
+            if (!actualSendAmount.equals(expectedSendAmount)) {
+                if (equalsWithinFractionError(actualSendAmount, expectedSendAmount)) {
+                    log.warn("Trade tx send amount is within fraction error, expected " + expectedSendAmount + " but was " + actualSendAmount + " with tx fee " + tx.getFee());
+                } else {
+                    throw new RuntimeException("Invalid send amount, expected " + expectedSendAmount + " but was " + actualSendAmount + " with tx fee " + tx.getFee());
+                }
+            }
+            return tx;
+        } catch (RuntimeException e) {
+            log.warn("Error verifying trade tx with offer id=" + request.getOfferId() + ", tx=\n" + tx + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // TODO: old bug in atomic unit conversion could cause fractional difference error, remove this in future release, maybe re-sign all offers then
+    private static boolean equalsWithinFractionError(BigInteger a, BigInteger b) {
+        return a.subtract(b).abs().compareTo(new BigInteger("1")) <= 0;
+    }
+
+    /**
+     * Get the tx fee estimate based on its weight.
+     *
+     * @param feeEstimates - the fee estimates per kB from the daemon
+     * @param priority - the fee priority
+     * @param txWeight - the tx weight
+     * @return the tx fee estimate
+     */
+    static BigInteger getFeeEstimate(MoneroFeeEstimate feeEstimates, MoneroTxPriority priority, long txWeight) {
+        BigInteger baseFeeEstimate = feeEstimates.getFees().get(priority.ordinal() - 1);
+        BigInteger qmask = feeEstimates.getQuantizationMask();
+        log.info("Monero base fee estimate={}, qmask={}", baseFeeEstimate, qmask);
+
+        // get tx base fee
+        BigInteger baseFee = baseFeeEstimate.multiply(BigInteger.valueOf(txWeight));
+
+        // round up to multiple of quantization mask
+        BigInteger[] quotientAndRemainder = baseFee.divideAndRemainder(qmask);
+        BigInteger feeEstimate = qmask.multiply(quotientAndRemainder[0]);
+        if (quotientAndRemainder[1].compareTo(BigInteger.ZERO) > 0) feeEstimate = feeEstimate.add(qmask);
+        return feeEstimate;
+    }
+}
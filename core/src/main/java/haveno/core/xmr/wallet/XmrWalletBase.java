@@ -10,6 +10,8 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import haveno.common.Timer;
 import haveno.common.UserThread;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.core.api.XmrConnectionService;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.xmr.setup.DownloadListener;
@@ -31,6 +33,8 @@ public abstract class XmrWalletBase {
     public static final int SYNC_PROGRESS_TIMEOUT_SECONDS = 120;
     public static final int DIRECT_SYNC_WITHIN_BLOCKS = 100;
     public static final int SAVE_WALLET_DELAY_SECONDS = 300;
+    private static final Histogram SYNC_WITH_PROGRESS_DURATION = MetricsRegistry.getInstance().histogram(
+            "haveno_wallet_sync_with_progress_duration_ms", "Time to sync a wallet to the target height with progress");
 
     // inherited
     protected MoneroWallet wallet;
@@ -44,6 +48,7 @@ public abstract class XmrWalletBase {
     protected boolean isClosingWallet;
     protected boolean isSyncingWithProgress;
     protected Long syncStartHeight;
+    protected long syncStartTimestamp;
     protected TaskLooper syncProgressLooper;
     protected CountDownLatch syncProgressLatch;
     protected Exception syncProgressError;
@@ -74,6 +79,7 @@ public abstract class XmrWalletBase {
             // set initial state
             isSyncingWithProgress = true;
             syncProgressError = null;
+            syncStartTimestamp = System.currentTimeMillis();
             long targetHeightAtStart = xmrConnectionService.getTargetHeight();
             syncStartHeight = walletHeight.get();
             updateSyncProgress(syncStartHeight, targetHeightAtStart);
@@ -200,6 +206,7 @@ public abstract class XmrWalletBase {
     }
 
     private void setWalletSyncedWithProgress() {
+        SYNC_WITH_PROGRESS_DURATION.record(System.currentTimeMillis() - syncStartTimestamp);
         wasWalletSynced = true;
         isSyncingWithProgress = false;
         syncProgressTimeout.stop();
@@ -22,11 +22,13 @@ import com.google.common.util.concurrent.Service.State;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
-import common.utils.JsonUtils;
 import haveno.common.ThreadUtils;
 import haveno.common.UserThread;
 import haveno.common.config.Config;
-import haveno.common.file.FileUtil;
+import haveno.common.file.BackupStore;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.util.Utilities;
 import haveno.core.api.AccountServiceListener;
 import haveno.core.api.CoreAccountService;
@@ -59,6 +61,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -70,21 +73,17 @@ import javafx.beans.property.ReadOnlyDoubleProperty;
 import javafx.beans.value.ChangeListener;
 import monero.common.MoneroError;
 import monero.common.MoneroRpcConnection;
-import monero.common.MoneroRpcError;
 import monero.common.MoneroUtils;
 import monero.common.TaskLooper;
 import monero.daemon.MoneroDaemonRpc;
 import monero.daemon.model.MoneroDaemonInfo;
-import monero.daemon.model.MoneroFeeEstimate;
 import monero.daemon.model.MoneroKeyImage;
 import monero.daemon.model.MoneroNetworkType;
 import monero.daemon.model.MoneroOutput;
-import monero.daemon.model.MoneroSubmitTxResult;
 import monero.daemon.model.MoneroTx;
 import monero.wallet.MoneroWallet;
 import monero.wallet.MoneroWalletFull;
 import monero.wallet.MoneroWalletRpc;
-import monero.wallet.model.MoneroCheckTx;
 import monero.wallet.model.MoneroDestination;
 import monero.wallet.model.MoneroIncomingTransfer;
 import monero.wallet.model.MoneroOutputQuery;
@@ -126,6 +125,9 @@ public class XmrWalletService extends XmrWalletBase {
     private static final long SHUTDOWN_TIMEOUT_MS = 60000;
     private static final long NUM_BLOCKS_BEHIND_TOLERANCE = 5;
     private static final long POLL_TXS_TOLERANCE_MS = 1000 * 60 * 3; // request connection switch if txs not updated within 3 minutes
+    private static final Histogram WALLET_SYNC_DURATION = MetricsRegistry.getInstance().histogram("haveno_wallet_sync_duration_ms", "Time to sync a wallet including the wait for the sync pool");
+    private static final Counter WALLET_SYNC_BLOCKS = MetricsRegistry.getInstance().counter("haveno_wallet_sync_blocks_total", "Blocks fetched by wallet syncs");
+    private static final Counter WALLET_SYNC_FAILURES = MetricsRegistry.getInstance().counter("haveno_wallet_sync_failures_total", "Failed wallet syncs");
 
     private final User user;
     private final Preferences preferences;
@@ -144,6 +146,7 @@ public class XmrWalletService extends XmrWalletBase {
     private ExecutorService syncWalletThreadPool = Executors.newFixedThreadPool(10); // TODO: adjust based on connection type
 
     private final Object lock = new Object();
+    private final TradeTxVerifier tradeTxVerifier = new TradeTxVerifier(this::getDaemon, this::getWallet, this::getProtocolFeePriority, lock);
     private TaskLooper pollLooper;
     private boolean pollInProgress;
     private Long pollPeriodMs;
@@ -367,10 +370,15 @@ public class XmrWalletService extends XmrWalletBase {
             Callable<MoneroSyncResult> task = () -> {
                 return wallet.sync();
             };
+            long ts = System.currentTimeMillis();
             Future<MoneroSyncResult> future = syncWalletThreadPool.submit(task);
             try {
-                return future.get();
+                MoneroSyncResult result = future.get();
+                WALLET_SYNC_DURATION.record(System.currentTimeMillis() - ts);
+                if (result.getNumBlocksFetched() != null) WALLET_SYNC_BLOCKS.inc(result.getNumBlocksFetched());
+                return result;
             } catch (Exception e) {
+                WALLET_SYNC_FAILURES.inc();
                 throw new MoneroError(e.getMessage());
             }
         }
@@ -425,16 +433,16 @@ public class XmrWalletService extends XmrWalletBase {
 
     public void backupWallet(String walletName) {
         assertNotPath(walletName);
-        FileUtil.rollingBackup(walletDir, walletName, NUM_MAX_WALLET_BACKUPS);
-        FileUtil.rollingBackup(walletDir, walletName + KEYS_FILE_POSTFIX, NUM_MAX_WALLET_BACKUPS);
-        FileUtil.rollingBackup(walletDir, walletName + ADDRESS_FILE_POSTFIX, NUM_MAX_WALLET_BACKUPS);
+        BackupStore.of(walletDir, walletName).backup(NUM_MAX_WALLET_BACKUPS);
+        BackupStore.of(walletDir, walletName + KEYS_FILE_POSTFIX).backup(NUM_MAX_WALLET_BACKUPS);
+        BackupStore.of(walletDir, walletName + ADDRESS_FILE_POSTFIX).backup(NUM_MAX_WALLET_BACKUPS);
     }
 
     public void deleteWalletBackups(String walletName) {
         assertNotPath(walletName);
-        FileUtil.deleteRollingBackup(walletDir, walletName);
-        FileUtil.deleteRollingBackup(walletDir, walletName + KEYS_FILE_POSTFIX);
-        FileUtil.deleteRollingBackup(walletDir, walletName + ADDRESS_FILE_POSTFIX);
+        BackupStore.of(walletDir, walletName).delete();
+        BackupStore.of(walletDir, walletName + KEYS_FILE_POSTFIX).delete();
+        BackupStore.of(walletDir, walletName + ADDRESS_FILE_POSTFIX).delete();
     }
 
     private static void assertNotPath(String name) {
@@ -722,6 +730,7 @@ public class XmrWalletService extends XmrWalletBase {
      * Verify a reserve or deposit transaction.
      * Checks double spends, trade fee, deposit amount and destination, and miner fee.
      * The transaction is submitted to the pool then flushed without relaying.
+     * Txs verified concurrently are submitted to the pool together, see {@link TradeTxVerifier}.
      *
      * @param offerId id of offer to verify trade tx
      * @param tradeFeeAmount amount sent to fee address
@@ -735,121 +744,22 @@ public class XmrWalletService extends XmrWalletBase {
      * @return the verified tx
      */
     public MoneroTx verifyTradeTx(String offerId, BigInteger tradeFeeAmount, String feeAddress, BigInteger sendAmount, String sendAddress, String txHash, String txHex, String txKey, List<String> keyImages) {
-        if (txHash == null) throw new IllegalArgumentException("Cannot verify trade tx with null id");
-        MoneroDaemonRpc daemon = getDaemon();
-        MoneroWallet wallet = getWallet();
-        MoneroTx tx = null;
-        synchronized (lock) {
-            try {
-
-                // verify tx not submitted to pool
-                tx = daemon.getTx(txHash);
-                if (tx != null) throw new RuntimeException("Tx is already submitted");
-
-                // submit tx to pool
-                MoneroSubmitTxResult result = daemon.submitTxHex(txHex, true); // TODO (woodser): invert doNotRelay flag to relay for library consistency?
-                if (!result.isGood()) throw new RuntimeException("Failed to submit tx to daemon: " + JsonUtils.serialize(result));
-
-                // get pool tx which has weight and size
-                for (MoneroTx poolTx : daemon.getTxPool()) if (poolTx.getHash().equals(txHash)) tx = poolTx;
-                if (tx == null) throw new RuntimeException("Tx is not in pool after being submitted");
-
-                // verify key images
-                if (keyImages != null) {
-                    Set<String> txKeyImages = new HashSet<String>();
-                    for (MoneroOutput input : tx.getInputs()) txKeyImages.add(input.getKeyImage().getHex());
-                    if (!txKeyImages.equals(new HashSet<String>(keyImages))) throw new RuntimeException("Tx inputs do not match claimed key images");
-                }
-
-                // verify unlock height
-                if (!BigInteger.ZERO.equals(tx.getUnlockTime())) throw new RuntimeException("Unlock height must be 0");
-
-                // verify miner fee
-                BigInteger minerFeeEstimate = getFeeEstimate(tx.getWeight());
-                HavenoUtils.verifyMinerFee(minerFeeEstimate, tx.getFee());
-                log.info("Trade miner fee {} is within tolerance");
-
-                // verify proof to fee address
-                BigInteger actualTradeFee = BigInteger.ZERO;
-                if (tradeFeeAmount.compareTo(BigInteger.ZERO) > 0) {
-                    MoneroCheckTx tradeFeeCheck = wallet.checkTxKey(txHash, txKey, feeAddress);
-                    if (!tradeFeeCheck.isGood()) throw new RuntimeException("Invalid proof to trade fee address");
-                    actualTradeFee = tradeFeeCheck.getReceivedAmount();
-                }
-
-                // verify proof to transfer address
-                MoneroCheckTx transferCheck = wallet.checkTxKey(txHash, txKey, sendAddress);
-                if (!transferCheck.isGood()) throw new RuntimeException("Invalid proof to transfer address");
-                BigInteger actualSendAmount = transferCheck.getReceivedAmount();
-
-                // verify trade fee amount
-                if (!actualTradeFee.equals(tradeFeeAmount)) {
-                    if (equalsWithinFractionError(actualTradeFee, tradeFeeAmount)) {
-                        log.warn("Trade fee amount is within fraction error, expected " + tradeFeeAmount + " but was " + actualTradeFee);
-                    } else {
-                        throw new RuntimeException("Invalid trade fee amount, expected " + tradeFeeAmount + " but was " + actualTradeFee);
-                    }
-                }
-
-                // verify send amount
-                BigInteger expectedSendAmount = sendAmount.subtract(tx.getFee());
-                if (!actualSendAmount.equals(expectedSendAmount)) {
-                    if (equalsWithinFractionError(actualSendAmount, expectedSendAmount)) {
-                        log.warn("Trade tx send amount is within fraction error, expected " + expectedSendAmount + " but was " + actualSendAmount + " with tx fee " + tx.getFee());
-                    } else {
-                        throw new RuntimeException("Invalid send amount, expected " + expectedSendAmount + " but was " + actualSendAmount + " with tx fee " + tx.getFee());
-                    }
-                }
-                return tx;
-            } catch (Exception e) {
-                log.warn("Error verifying trade tx with offer id=" + offerId + (tx == null ? "" : ", tx=\n" + tx) + ": " + e.getMessage());
-                throw e;
-            } finally {
-                try {
-                    daemon.flushTxPool(txHash); // flush tx from pool
-                } catch (MoneroRpcError err) {
-                    System.out.println(daemon.getRpcConnection());
-                    throw err.getCode().equals(-32601) ? new RuntimeException("Failed to flush tx from pool. Arbitrator must use trusted, unrestricted daemon") : err;
-                }
-            }
-        }
-    }
-
-    // TODO: old bug in atomic unit conversion could cause fractional difference error, remove this in future release, maybe re-sign all offers then
-    private static boolean equalsWithinFractionError(BigInteger a, BigInteger b) {
-        return a.subtract(b).abs().compareTo(new BigInteger("1")) <= 0;
+        return tradeTxVerifier.verify(new TradeTxVerifier.Request(offerId, tradeFeeAmount, feeAddress, sendAmount, sendAddress, txHash, txHex, txKey, keyImages));
     }
 
     /**
-     * Get the tx fee estimate based on its weight.
+     * Queue a reserve tx for verification together with the other reserve and deposit txs submitted meanwhile.
      *
-     * @param txWeight - the tx weight
-     * @return the tx fee estimate
+     * @return future completed with the verified tx
+     * @see #verifyReserveTx
      */
-    private BigInteger getFeeEstimate(long txWeight) {
-
-        // get fee priority
-        MoneroTxPriority priority;
-        if (PROTOCOL_FEE_PRIORITY == MoneroTxPriority.DEFAULT) {
-            priority = wallet.getDefaultFeePriority();
-        } else {
-            priority = PROTOCOL_FEE_PRIORITY;
-        }
-
-        // get fee estimates per kB from daemon
-        MoneroFeeEstimate feeEstimates = getDaemon().getFeeEstimate();
-        BigInteger baseFeeEstimate = feeEstimates.getFees().get(priority.ordinal() - 1);
-        BigInteger qmask = feeEstimates.getQuantizationMask();
-        log.info("Monero base fee estimate={}, qmask={}", baseFeeEstimate, qmask);
-
-        // get tx base fee
-        BigInteger baseFee = baseFeeEstimate.multiply(BigInteger.valueOf(txWeight));
+    public CompletableFuture<MoneroTx> verifyReserveTxAsync(String offerId, BigInteger penaltyFee, BigInteger tradeFee, BigInteger sendTradeAmount, BigInteger securityDeposit, String returnAddress, String txHash, String txHex, String txKey, List<String> keyImages) {
+        BigInteger sendAmount = sendTradeAmount.add(securityDeposit).add(tradeFee).subtract(penaltyFee);
+        return tradeTxVerifier.submit(new TradeTxVerifier.Request(offerId, penaltyFee, HavenoUtils.getBurnAddress(), sendAmount, returnAddress, txHash, txHex, txKey, keyImages));
+    }
 
-        // round up to multiple of quantization mask
-        BigInteger[] quotientAndRemainder = baseFee.divideAndRemainder(qmask);
-        BigInteger feeEstimate = qmask.multiply(quotientAndRemainder[0]);
-        if (quotientAndRemainder[1].compareTo(BigInteger.ZERO) > 0) feeEstimate = feeEstimate.add(qmask);
-        return feeEstimate;
+    private MoneroTxPriority getProtocolFeePriority() {
+        return PROTOCOL_FEE_PRIORITY == MoneroTxPriority.DEFAULT ? wallet.getDefaultFeePriority() : PROTOCOL_FEE_PRIORITY;
     }
 
     public MoneroTx getDaemonTx(String txHash) {
@@ -923,6 +833,9 @@ public class XmrWalletService extends XmrWalletBase {
                 walletListeners.clear();
             }
 
+            // shut down trade tx verifier before taking the lock, which its running batch waits for
+            tradeTxVerifier.shutDown();
+
             // shut down threads
             synchronized (lock) {
                 List<Runnable> shutDownThreads = new ArrayList<>();
@@ -1582,11 +1495,12 @@ public class XmrWalletService extends XmrWalletBase {
                     if (originalCacheFile.exists()) originalCacheFile.renameTo(new File(cachePath + ".backup"));
 
                     // try opening wallet with backup cache files in descending order
-                    List<File> backupCacheFiles = FileUtil.getBackupFiles(walletDir, getWalletName(config.getPath()));
-                    Collections.reverse(backupCacheFiles);
-                    for (File backupCacheFile : backupCacheFiles) {
+                    BackupStore backupStore = BackupStore.of(walletDir, getWalletName(config.getPath()));
+                    List<Long> backupVersions = backupStore.getVersions();
+                    Collections.reverse(backupVersions);
+                    for (long backupVersion : backupVersions) {
                         try {
-                            FileUtil.copyFile(backupCacheFile, new File(cachePath));
+                            backupStore.restore(backupVersion, new File(cachePath));
                             walletFull = MoneroWalletFull.openWallet(config);
                             log.warn("Successfully opened full wallet using backup cache");
                             retrySuccessful = true;
@@ -1712,11 +1626,12 @@ public class XmrWalletService extends XmrWalletBase {
                     if (originalCacheFile.exists()) originalCacheFile.renameTo(new File(cachePath + ".backup"));
 
                     // try opening wallet with backup cache files in descending order
-                    List<File> backupCacheFiles = FileUtil.getBackupFiles(walletDir, config.getPath());
-                    Collections.reverse(backupCacheFiles);
-                    for (File backupCacheFile : backupCacheFiles) {
+                    BackupStore backupStore = BackupStore.of(walletDir, config.getPath());
+                    List<Long> backupVersions = backupStore.getVersions();
+                    Collections.reverse(backupVersions);
+                    for (long backupVersion : backupVersions) {
                         try {
-                            FileUtil.copyFile(backupCacheFile, new File(cachePath));
+                            backupStore.restore(backupVersion, new File(cachePath));
                             walletRpc.openWallet(config);
                             log.warn("Successfully opened RPC wallet using backup cache");
                             retrySuccessful = true;
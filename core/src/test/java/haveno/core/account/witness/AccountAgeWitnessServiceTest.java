@@ -26,6 +26,7 @@ import haveno.common.crypto.Sig;
 import haveno.common.util.Utilities;
 import haveno.core.account.sign.SignedWitness;
 import haveno.core.account.sign.SignedWitnessService;
+import haveno.core.filter.Filter;
 import haveno.core.filter.FilterManager;
 import haveno.core.locale.CountryUtil;
 import haveno.core.offer.OfferPayload;
@@ -53,6 +54,7 @@ import java.security.KeyPair;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
@@ -333,6 +335,45 @@ public class AccountAgeWitnessServiceTest {
         assertTrue(signedWitnessService.isSignedAccountAgeWitness(aew2));
     }
 
+    // The sign info is memoized, so the sign state must follow changes of the signed witnesses and the filter
+    @Test
+    public void testSignStateFollowsSignedWitnessAndFilterChanges() {
+        ECKey arbitratorKey = new ECKey();
+        var pubKeyRing = new KeyRing(new KeyStorage(dir1), null, true).getPubKeyRing();
+        var account = new SepaAccountPayload(PaymentMethod.SEPA_ID, "1", CountryUtil.getAllSepaCountries());
+        var aew = service.getNewWitness(account, pubKeyRing);
+        aew = new AccountAgeWitness(aew.getHash(), new Date().getTime() - TimeUnit.DAYS.toMillis(70));
+        service.addToMap(aew);
+        assertEquals(AccountAgeWitnessService.SignState.UNSIGNED, service.getSignState(aew));
+        assertEquals(-1, service.getWitnessSignAge(aew, new Date()));
+
+        // Arbitrator signs the witness
+        service.arbitratorSignAccountAgeWitness(aew, arbitratorKey, pubKeyRing.getSignaturePubKeyBytes(), aew.getDate());
+        assertEquals(AccountAgeWitnessService.SignState.ARBITRATOR, service.getSignState(aew));
+        assertTrue(service.getWitnessSignAge(aew, new Date()) >= TimeUnit.DAYS.toMillis(70));
+
+        // A filter update without banned signers keeps the sign state
+        Filter filter = mock(Filter.class);
+        when(filterManager.getFilter()).thenReturn(filter);
+        assertEquals(AccountAgeWitnessService.SignState.ARBITRATOR, service.getSignState(aew));
+
+        // A filter update banning the signer
+        Filter filterBanningSigner = mock(Filter.class);
+        when(filterBanningSigner.getBannedAccountWitnessSignerPubKeys()).thenReturn(
+                Collections.singletonList(Utilities.bytesAsHexString(pubKeyRing.getSignaturePubKeyBytes())));
+        when(filterManager.isWitnessSignerPubKeyBanned(any())).thenReturn(true);
+        when(filterManager.getFilter()).thenReturn(filterBanningSigner);
+        assertEquals(AccountAgeWitnessService.SignState.BANNED, service.getSignState(aew));
+        assertEquals(-1, service.getWitnessSignAge(aew, new Date()));
+
+        // Lifting the ban and removing the signed witness
+        when(filterManager.isWitnessSignerPubKeyBanned(any())).thenReturn(false);
+        when(filterManager.getFilter()).thenReturn(filter);
+        assertEquals(AccountAgeWitnessService.SignState.ARBITRATOR, service.getSignState(aew));
+        new ArrayList<>(signedWitnessService.getSignedWitnessSet(aew)).forEach(signedWitnessService::removeSignedWitness);
+        assertEquals(AccountAgeWitnessService.SignState.UNSIGNED, service.getSignState(aew));
+    }
+
     private void signAccountAgeWitness(AccountAgeWitness accountAgeWitness,
                                        PublicKey witnessOwnerPubKey,
                                        long time,
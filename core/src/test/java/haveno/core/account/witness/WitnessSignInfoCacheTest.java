@@ -0,0 +1,148 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.account.witness;
+
+import haveno.core.account.sign.SignedWitnessService;
+import haveno.core.filter.Filter;
+import haveno.core.filter.FilterManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WitnessSignInfoCacheTest {
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final AtomicLong clock = new AtomicLong(100 * DAY_MS + 1_000);
+    private SignedWitnessService signedWitnessService;
+    private FilterManager filterManager;
+    private WitnessSignInfoCache cache;
+    private AccountAgeWitness witness;
+
+    @BeforeEach
+    public void setUp() {
+        signedWitnessService = mock(SignedWitnessService.class);
+        filterManager = mock(FilterManager.class);
+        cache = new WitnessSignInfoCache(signedWitnessService, filterManager, clock::get);
+        witness = new AccountAgeWitness(new byte[]{1, 2, 3}, 0);
+        when(signedWitnessService.getVerifiedWitnessDateList(witness)).thenReturn(Arrays.asList(5_000L, 9_000L));
+    }
+
+    @Test
+    public void repeatedLookupsAreEvaluatedOnce() {
+        WitnessSignInfoCache.SignInfo signInfo = cache.get(witness);
+        assertTrue(signInfo.isSigned());
+        assertEquals(5_000L, signInfo.getFirstSignDate());
+
+        // Equal witnesses share the entry
+        cache.get(new AccountAgeWitness(new byte[]{1, 2, 3}, 0));
+        cache.get(witness);
+        assertEvaluations(1);
+
+        assertFalse(cache.get(new AccountAgeWitness(new byte[]{4}, 0)).isSigned());
+    }
+
+    @Test
+    public void signedWitnessChangesInvalidate() {
+        cache.get(witness);
+        when(signedWitnessService.getDataVersion()).thenReturn(1L);
+        when(signedWitnessService.getVerifiedWitnessDateList(witness)).thenReturn(Collections.emptyList());
+        when(signedWitnessService.isSignedByArbitrator(witness)).thenReturn(true);
+
+        WitnessSignInfoCache.SignInfo signInfo = cache.get(witness);
+        assertFalse(signInfo.isSigned());
+        assertEquals(-1, signInfo.getFirstSignDate());
+        assertTrue(signInfo.isSignedByArbitrator());
+        assertEvaluations(2);
+    }
+
+    @Test
+    public void accountAgeWitnessChangesInvalidate() {
+        cache.get(witness);
+        cache.invalidate();
+        cache.get(witness);
+        cache.get(witness);
+        assertEvaluations(2);
+    }
+
+    @Test
+    public void onlyFilterUpdatesChangingBannedSignersInvalidate() {
+        cache.get(witness);
+        setFilter(mockFilter(null));
+        cache.get(witness);
+        setFilter(mockFilter(Collections.emptyList()));
+        cache.get(witness);
+        assertEvaluations(1);
+
+        setFilter(mockFilter(Collections.singletonList("signer")));
+        when(signedWitnessService.isFilteredWitness(witness)).thenReturn(true);
+        assertTrue(cache.get(witness).isBanned());
+        assertEvaluations(2);
+
+        // Same banned signers in a new filter
+        setFilter(mockFilter(Collections.singletonList("signer")));
+        cache.get(witness);
+        assertEvaluations(2);
+
+        // Removing the filter lifts the ban
+        setFilter(null);
+        when(signedWitnessService.isFilteredWitness(witness)).thenReturn(false);
+        assertFalse(cache.get(witness).isBanned());
+        assertEvaluations(3);
+    }
+
+    @Test
+    public void entriesAreValidForTheDayOfTheirEvaluation() {
+        cache.get(witness);
+        clock.set(101 * DAY_MS - 1);
+        cache.get(witness);
+        assertEvaluations(1);
+
+        clock.set(101 * DAY_MS);
+        cache.get(witness);
+        cache.get(witness);
+        assertEvaluations(2);
+    }
+
+    private void assertEvaluations(int numEvaluations) {
+        verify(signedWitnessService, times(numEvaluations)).getVerifiedWitnessDateList(witness);
+    }
+
+    private void setFilter(Filter filter) {
+        when(filterManager.getFilter()).thenReturn(filter);
+    }
+
+    private static Filter mockFilter(List<String> bannedSignerPubKeys) {
+        Filter filter = mock(Filter.class);
+        when(filter.getBannedAccountWitnessSignerPubKeys()).thenReturn(bannedSignerPubKeys);
+        return filter;
+    }
+}
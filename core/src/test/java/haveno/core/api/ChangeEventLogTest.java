@@ -0,0 +1,131 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChangeEventLogTest {
+
+    private static class RecordingListener implements ChangeEventLog.Listener<String> {
+        private final List<String> events = new ArrayList<>();
+        private String startToken;
+        private boolean isResyncRequired;
+
+        @Override
+        public void onStart(String resumeToken, boolean isResyncRequired) {
+            this.startToken = resumeToken;
+            this.isResyncRequired = isResyncRequired;
+        }
+
+        @Override
+        public void onEvent(String event) {
+            events.add(event);
+        }
+    }
+
+    private static void append(ChangeEventLog<String> log, String... events) {
+        for (String event : events) log.append(token -> event + "@" + token);
+    }
+
+    @Test
+    public void listenerGetsEventsInOrder() {
+        ChangeEventLog<String> log = new ChangeEventLog<>(10, "epoch");
+        RecordingListener listener = new RecordingListener();
+
+        assertFalse(log.addListener(null, listener));
+        append(log, "a", "b", "c");
+
+        assertTrue(listener.isResyncRequired);
+        assertEquals("epoch:0", listener.startToken);
+        assertEquals(Arrays.asList("a@epoch:1", "b@epoch:2", "c@epoch:3"), listener.events);
+        assertEquals("epoch:3", log.getLastResumeToken());
+    }
+
+    @Test
+    public void resumeReplaysEventsAfterToken() {
+        ChangeEventLog<String> log = new ChangeEventLog<>(10, "epoch");
+        append(log, "a", "b", "c");
+        RecordingListener listener = new RecordingListener();
+
+        assertTrue(log.addListener("epoch:1", listener));
+        append(log, "d");
+
+        assertFalse(listener.isResyncRequired);
+        assertEquals("epoch:1", listener.startToken);
+        assertEquals(Arrays.asList("b@epoch:2", "c@epoch:3", "d@epoch:4"), listener.events);
+
+        // resuming from the last event replays nothing
+        RecordingListener upToDateListener = new RecordingListener();
+        assertTrue(log.addListener("epoch:4", upToDateListener));
+        assertEquals("epoch:4", upToDateListener.startToken);
+        assertTrue(upToDateListener.events.isEmpty());
+    }
+
+    @Test
+    public void resumeFromEvictedOrUnknownTokenRequiresResync() {
+        ChangeEventLog<String> log = new ChangeEventLog<>(2, "epoch");
+        append(log, "a", "b", "c");
+
+        // the event after token 1 has been evicted
+        RecordingListener evictedListener = new RecordingListener();
+        assertFalse(log.addListener("epoch:0", evictedListener));
+        assertTrue(evictedListener.isResyncRequired);
+        assertEquals("epoch:3", evictedListener.startToken);
+        assertTrue(evictedListener.events.isEmpty());
+
+        // the oldest event in the log follows token 1
+        RecordingListener oldestListener = new RecordingListener();
+        assertTrue(log.addListener("epoch:1", oldestListener));
+        assertEquals(Arrays.asList("b@epoch:2", "c@epoch:3"), oldestListener.events);
+
+        for (String token : Arrays.asList("other:1", "epoch:4", "epoch:x", "epoch", "")) {
+            RecordingListener listener = new RecordingListener();
+            assertFalse(log.addListener(token, listener), token);
+            assertTrue(listener.events.isEmpty());
+        }
+    }
+
+    @Test
+    public void failingListenerIsRemoved() {
+        ChangeEventLog<String> log = new ChangeEventLog<>(10, "epoch");
+        log.addListener(null, new RecordingListener() {
+            @Override
+            public void onEvent(String event) {
+                throw new IllegalStateException("Stream closed");
+            }
+        });
+        RecordingListener listener = new RecordingListener();
+        log.addListener(null, listener);
+        assertEquals(2, log.getNumListeners());
+
+        append(log, "a", "b");
+
+        assertEquals(1, log.getNumListeners());
+        assertEquals(Arrays.asList("a@epoch:1", "b@epoch:2"), listener.events);
+        log.removeListener(listener);
+        assertEquals(0, log.getNumListeners());
+    }
+}
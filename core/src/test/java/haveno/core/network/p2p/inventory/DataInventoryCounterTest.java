@@ -0,0 +1,264 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.network.p2p.inventory;
+
+import com.google.common.base.Enums;
+import haveno.common.app.Version;
+import haveno.core.account.witness.AccountAgeWitness;
+import haveno.core.alert.Alert;
+import haveno.core.filter.Filter;
+import haveno.core.network.p2p.inventory.model.InventoryItem;
+import haveno.core.offer.OfferPayload;
+import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatistics3StorageService;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.MailboxStoragePayload;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DataInventoryCounterTest {
+    private static final List<Class<? extends ProtectedStoragePayload>> PROTECTED_PAYLOAD_CLASSES =
+            List.of(OfferPayload.class, MailboxStoragePayload.class, Alert.class, Filter.class);
+    private static final List<String> REQUESTER_VERSIONS = Arrays.asList(null, "1.0.0", "1.0.3", "1.0.9");
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger hashCounter = new AtomicInteger();
+    private final Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> protectedMap = new ConcurrentHashMap<>();
+    private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> liveMap = new ConcurrentHashMap<>();
+    private final Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalStores = new LinkedHashMap<>();
+    private DataInventoryCounter counter;
+
+    @BeforeEach
+    public void setUp() {
+        historicalStores.put("1.0.1", createStore(TradeStatistics3.class, 30));
+        historicalStores.put("1.0.5", createStore(TradeStatistics3.class, 20));
+
+        P2PDataStorage p2PDataStorage = mock(P2PDataStorage.class);
+        when(p2PDataStorage.getMap()).thenReturn(protectedMap);
+
+        TradeStatistics3StorageService historicalService = mock(TradeStatistics3StorageService.class);
+        when(historicalService.canHandle(any())).thenReturn(true);
+        when(historicalService.getMapOfLiveData()).thenReturn(liveMap);
+        when(historicalService.getStoresSinceVersion(any())).thenAnswer(invocation ->
+                getStoresSinceVersion(invocation.getArgument(0)));
+
+        AppendOnlyDataStoreService appendOnlyDataStoreService = new AppendOnlyDataStoreService();
+        appendOnlyDataStoreService.addService(historicalService);
+
+        counter = new DataInventoryCounter(p2PDataStorage, appendOnlyDataStoreService, clock::get);
+    }
+
+    @Test
+    public void incrementalCountsMatchFullRecount() {
+        Random random = new Random(42);
+        List<ProtectedStorageEntry> removed = new ArrayList<>();
+
+        // Data read at startup is not notified to the listeners
+        for (int i = 0; i < 50; i++) {
+            ProtectedStorageEntry entry = createEntry(createProtectedPayload(random));
+            protectedMap.put(getHash(entry), entry);
+        }
+        assertCountsMatch();
+
+        for (int i = 1; i <= 3_000; i++) {
+            int operation = random.nextInt(100);
+            if (operation < 35) {
+                // Add a new entry or update an existing one, which is notified as added as well
+                ProtectedStoragePayload payload = protectedMap.isEmpty() || random.nextBoolean() ?
+                        createProtectedPayload(random) :
+                        pick(random, new ArrayList<>(protectedMap.values())).getProtectedStoragePayload();
+                ProtectedStorageEntry entry = createEntry(payload);
+                protectedMap.put(getHash(entry), entry);
+                counter.onAdded(Collections.singletonList(entry));
+            } else if (operation < 60) {
+                // Removes are notified even if the entry was not stored
+                ProtectedStorageEntry entry = !removed.isEmpty() && random.nextInt(4) == 0 ?
+                        pick(random, removed) :
+                        protectedMap.isEmpty() ? createEntry(createProtectedPayload(random)) :
+                                pick(random, new ArrayList<>(protectedMap.values()));
+                protectedMap.remove(getHash(entry));
+                removed.add(entry);
+                counter.onRemoved(Collections.singletonList(entry));
+            } else {
+                PersistableNetworkPayload payload = liveMap.isEmpty() || random.nextInt(5) > 0 ?
+                        createAppendOnlyPayload(TradeStatistics3.class) :
+                        pick(random, new ArrayList<>(liveMap.values()));
+                liveMap.putIfAbsent(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+                counter.onAdded(payload);
+            }
+
+            if (i % 100 == 0) {
+                clock.addAndGet(DataInventoryCounter.SNAPSHOT_MAX_AGE_MS);
+                assertCountsMatch();
+            }
+        }
+    }
+
+    @Test
+    public void snapshotIsReusedWithinMaxAge() {
+        counter.onAdded(Collections.singletonList(addEntry(mock(OfferPayload.class))));
+        Map<InventoryItem, Integer> counts = counter.getCounts(null);
+        assertEquals(1, counts.get(InventoryItem.OfferPayload));
+        assertThrows(UnsupportedOperationException.class, () -> counts.put(InventoryItem.OfferPayload, 2));
+
+        counter.onAdded(Collections.singletonList(addEntry(mock(OfferPayload.class))));
+        clock.addAndGet(DataInventoryCounter.SNAPSHOT_MAX_AGE_MS - 1);
+        assertSame(counts, counter.getCounts(null));
+        assertEquals(1, counter.getCounts(null).get(InventoryItem.OfferPayload));
+
+        clock.addAndGet(1);
+        Map<InventoryItem, Integer> refreshedCounts = counter.getCounts(null);
+        assertNotSame(counts, refreshedCounts);
+        assertEquals(2, refreshedCounts.get(InventoryItem.OfferPayload));
+    }
+
+    @Test
+    public void unnotifiedEntriesAreCountedAfterFullRecount() {
+        assertEquals(fullCount(null), counter.getCounts(null));
+
+        // Own mailbox entries are added to the map without notifying the listeners
+        addEntry(mock(MailboxStoragePayload.class));
+        clock.addAndGet(DataInventoryCounter.SNAPSHOT_MAX_AGE_MS);
+        assertNull(counter.getCounts(null).get(InventoryItem.MailboxStoragePayload));
+
+        clock.addAndGet(DataInventoryCounter.FULL_RECOUNT_INTERVAL_MS);
+        assertEquals(1, counter.getCounts(null).get(InventoryItem.MailboxStoragePayload));
+        assertEquals(fullCount(null), counter.getCounts(null));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void assertCountsMatch() {
+        for (String requesterVersion : REQUESTER_VERSIONS) {
+            assertEquals(fullCount(requesterVersion), counter.getCounts(requesterVersion),
+                    "Counts for requester version " + requesterVersion);
+        }
+    }
+
+    // Counts the data like the inventory request handler did before the counts were maintained incrementally
+    private Map<InventoryItem, Integer> fullCount(String requesterVersion) {
+        Map<InventoryItem, Integer> counts = new EnumMap<>(InventoryItem.class);
+        protectedMap.values().forEach(entry -> count(entry.getProtectedStoragePayload(), counts));
+        liveMap.values().forEach(payload -> count(payload, counts));
+        getStoresSinceVersion(requesterVersion).values()
+                .forEach(store -> store.values().forEach(payload -> count(payload, counts)));
+        return counts;
+    }
+
+    private static void count(Object payload, Map<InventoryItem, Integer> counts) {
+        Enums.getIfPresent(InventoryItem.class, payload.getClass().getSimpleName()).toJavaUtil()
+                .ifPresent(item -> counts.merge(item, 1, Integer::sum));
+    }
+
+    private Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> getStoresSinceVersion(String requesterVersion) {
+        Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> stores = new LinkedHashMap<>();
+        historicalStores.forEach((storeVersion, store) -> {
+            if (requesterVersion == null || Version.isNewVersion(storeVersion, requesterVersion)) {
+                stores.put(storeVersion, store);
+            }
+        });
+        return stores;
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> createStore(Class<? extends PersistableNetworkPayload> payloadClass,
+                                                                                int size) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> store = new ConcurrentHashMap<>();
+        for (int i = 0; i < size; i++) {
+            PersistableNetworkPayload payload = createAppendOnlyPayload(payloadClass);
+            store.put(new P2PDataStorage.ByteArray(payload.getHash()), payload);
+        }
+        PersistableNetworkPayload other = createAppendOnlyPayload(AccountAgeWitness.class);
+        store.put(new P2PDataStorage.ByteArray(other.getHash()), other);
+        return store;
+    }
+
+    private PersistableNetworkPayload createAppendOnlyPayload(Class<? extends PersistableNetworkPayload> payloadClass) {
+        PersistableNetworkPayload payload = mock(payloadClass);
+        byte[] hash = createHash();
+        when(payload.getHash()).thenReturn(hash);
+        return payload;
+    }
+
+    private ProtectedStoragePayload createProtectedPayload(Random random) {
+        ProtectedStoragePayload payload = mock(pick(random, PROTECTED_PAYLOAD_CLASSES));
+        setHash(payload);
+        return payload;
+    }
+
+    private ProtectedStorageEntry addEntry(ProtectedStoragePayload payload) {
+        setHash(payload);
+        ProtectedStorageEntry entry = createEntry(payload);
+        protectedMap.put(getHash(entry), entry);
+        return entry;
+    }
+
+    private static ProtectedStorageEntry createEntry(ProtectedStoragePayload payload) {
+        ProtectedStorageEntry entry = mock(ProtectedStorageEntry.class);
+        when(entry.getProtectedStoragePayload()).thenReturn(payload);
+        return entry;
+    }
+
+    private static P2PDataStorage.ByteArray getHash(ProtectedStorageEntry entry) {
+        return P2PDataStorage.get32ByteHashAsByteArray(entry.getProtectedStoragePayload());
+    }
+
+    // The hash of a payload is computed from its serialized form
+    private void setHash(ProtectedStoragePayload payload) {
+        protobuf.StoragePayload message = mock(protobuf.StoragePayload.class);
+        when(message.toByteArray()).thenReturn(createHash());
+        when(payload.toProtoMessage()).thenReturn(message);
+    }
+
+    private byte[] createHash() {
+        return ByteBuffer.allocate(32).putInt(hashCounter.incrementAndGet()).array();
+    }
+
+    private static <T> T pick(Random random, List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.support.dispute;
+
+import com.google.protobuf.ByteString;
+import haveno.common.crypto.KeyRing;
+import haveno.common.crypto.KeyStorage;
+import haveno.core.support.SupportType;
+import haveno.core.support.messages.ChatMessage;
+import haveno.network.p2p.NodeAddress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttachmentStoreTest {
+    @TempDir
+    File tempDir;
+
+    private final Random random = new Random(42);
+    private KeyRing keyRing;
+    private File storeDir;
+    private AttachmentStore store;
+
+    @BeforeEach
+    public void setUp() {
+        keyRing = createKeyRing("keys");
+        storeDir = new File(tempDir, "attachments");
+        store = new AttachmentStore(storeDir, keyRing);
+    }
+
+    private KeyRing createKeyRing(String dirName) {
+        File keyStorageDir = new File(tempDir, dirName);
+        assertTrue(keyStorageDir.mkdirs());
+        return new KeyRing(new KeyStorage(keyStorageDir), null, true);
+    }
+
+    private byte[] createBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private File getBlobFile() {
+        File[] files = storeDir.listFiles();
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    @Test
+    public void storedAttachmentsLoadTheirBytesLazily() throws IOException {
+        byte[] bytes = createBytes(100_000);
+        Attachment attachment = new Attachment("receipt.png", bytes);
+
+        assertTrue(store.store(attachment));
+
+        assertTrue(attachment.isStored());
+        assertNull(attachment.getInlineBytes());
+        assertArrayEquals(bytes, attachment.getBytes());
+        // The blob is encrypted
+        byte[] blob = Files.readAllBytes(getBlobFile().toPath());
+        assertFalse(Arrays.equals(bytes, Arrays.copyOf(blob, bytes.length)));
+
+        // Only the network representation carries the bytes
+        assertTrue(attachment.toPersistableProtoMessage().getBytes().isEmpty());
+        assertEquals(bytes.length, attachment.toPersistableProtoMessage().getSize());
+        assertEquals(ByteString.copyFrom(bytes), attachment.toProtoMessage().getBytes());
+
+        // Persisted attachments get their bytes from the store they are bound to
+        Attachment persisted = Attachment.fromPersistedProto(attachment.toPersistableProtoMessage());
+        assertEquals(attachment, persisted);
+        assertFalse(persisted.isStored());
+        assertThrows(IllegalStateException.class, persisted::getBytes);
+        assertTrue(store.store(persisted));
+        assertArrayEquals(bytes, persisted.getBytes());
+    }
+
+    @Test
+    public void networkAttachmentsHaveToCarryMatchingBytes() {
+        byte[] bytes = createBytes(1_000);
+        Attachment attachment = new Attachment("receipt.png", bytes);
+        assertTrue(store.store(attachment));
+
+        // A peer cannot refer to a stored blob by its hash only
+        protobuf.Attachment hashOnlyProto = attachment.toPersistableProtoMessage();
+        assertThrows(IllegalArgumentException.class, () -> Attachment.fromProto(hashOnlyProto));
+        protobuf.Attachment forgedProto = attachment.toProtoMessage().toBuilder()
+                .setBytes(ByteString.copyFrom(createBytes(1_000)))
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> Attachment.fromProto(forgedProto));
+
+        assertArrayEquals(bytes, Attachment.fromProto(attachment.toProtoMessage()).getBytes());
+    }
+
+    @Test
+    public void attachmentsWithMissingBlobAreNotBound() {
+        // Stored in the store of another dispute list only
+        Attachment attachment = new Attachment("receipt.png", createBytes(1_000));
+        assertTrue(new AttachmentStore(new File(tempDir, "other"), keyRing).store(attachment));
+        Attachment persisted = Attachment.fromPersistedProto(attachment.toPersistableProtoMessage());
+
+        assertFalse(store.store(persisted));
+
+        assertFalse(persisted.isStored());
+        assertThrows(IllegalStateException.class, persisted::getBytes);
+        // It is still persisted with its hash
+        assertEquals(attachment.toPersistableProtoMessage(), persisted.toPersistableProtoMessage());
+    }
+
+    @Test
+    public void sameBytesAreStoredOnce() {
+        byte[] bytes = createBytes(1_000);
+        assertTrue(store.store(new Attachment("a.txt", bytes)));
+        assertTrue(store.store(new Attachment("b.txt", bytes.clone())));
+
+        assertEquals(1, storeDir.listFiles().length);
+    }
+
+    @Test
+    public void corruptedBlobsAreRejected() throws IOException {
+        byte[] bytes = createBytes(10_000);
+        Attachment attachment = new Attachment("receipt.png", bytes);
+        store.store(attachment);
+        File blobFile = getBlobFile();
+        byte[] blob = Files.readAllBytes(blobFile.toPath());
+
+        // Encrypted with another key
+        KeyRing otherKeyRing = createKeyRing("otherKeys");
+        Attachment otherAttachment = Attachment.fromPersistedProto(attachment.toPersistableProtoMessage());
+        new AttachmentStore(storeDir, otherKeyRing).store(otherAttachment);
+        assertThrows(IllegalStateException.class, otherAttachment::getBytes);
+
+        // Modified blob
+        blob[blob.length / 2] ^= 1;
+        Files.write(blobFile.toPath(), blob);
+        assertThrows(IOException.class, () -> store.load(attachment));
+        assertThrows(IllegalStateException.class, attachment::getBytes);
+
+        // Blob of other bytes under the hash of the attachment
+        Attachment forged = new Attachment("forged.png", createBytes(10_000));
+        new AttachmentStore(new File(tempDir, "forged"), keyRing).store(forged);
+        Files.copy(new File(tempDir, "forged").listFiles()[0].toPath(), blobFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        assertThrows(IOException.class, () -> store.load(attachment));
+
+        // Missing blob
+        Files.delete(blobFile.toPath());
+        assertThrows(IOException.class, () -> store.load(attachment));
+    }
+
+    @Test
+    public void inlineAttachmentsAreMigrated() {
+        byte[] bytes = createBytes(50_000);
+        protobuf.Attachment legacyProto = protobuf.Attachment.newBuilder()
+                .setFileName("receipt.png")
+                .setBytes(ByteString.copyFrom(bytes))
+                .build();
+        ChatMessage chatMessage = new ChatMessage(SupportType.ARBITRATION, "trade", 0, true, "message",
+                new NodeAddress("sender.onion:9999"),
+                new ArrayList<>(Collections.singletonList(Attachment.fromProto(legacyProto))));
+        Attachment attachment = chatMessage.getAttachments().get(0);
+        assertEquals(bytes.length, attachment.getSize());
+        assertFalse(chatMessage.toPersistableProtoMessage().getAttachments(0).getBytes().isEmpty());
+
+        store.store(attachment);
+
+        protobuf.Attachment persistedProto = chatMessage.toPersistableProtoMessage().getAttachments(0);
+        assertTrue(persistedProto.getBytes().isEmpty());
+        assertEquals(ByteString.copyFrom(attachment.getHash()), persistedProto.getHash());
+        // Peers still receive the bytes
+        assertEquals(ByteString.copyFrom(bytes), chatMessage.toProtoNetworkEnvelope().getChatMessage().getAttachments(0).getBytes());
+    }
+
+    @Test
+    public void unreferencedBlobsAreCollected() throws IOException {
+        List<Attachment> attachments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Attachment attachment = new Attachment("file" + i, createBytes(1_000));
+            store.store(attachment);
+            attachments.add(attachment);
+        }
+        // Left over by an interrupted write
+        Files.write(new File(storeDir, "left.blob.tmp").toPath(), new byte[]{1});
+
+        List<Attachment> referenced = attachments.subList(0, 3);
+        assertEquals(3, store.collectGarbage(referenced));
+
+        assertEquals(3, storeDir.listFiles().length);
+        referenced.forEach(attachment -> assertTrue(store.contains(attachment)));
+        assertFalse(store.contains(attachments.get(3)));
+        assertFalse(store.contains(attachments.get(4)));
+        assertArrayEquals(store.load(attachments.get(0)), attachments.get(0).getBytes());
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.support.dispute;
+
+import com.google.protobuf.Message;
+import haveno.core.support.SupportType;
+import haveno.core.support.messages.ChatMessage;
+import haveno.network.p2p.NodeAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DisputeListTest {
+    private static final int NUM_TRADES = 30;
+    private static final NodeAddress SENDER = new NodeAddress("sender.onion:9999");
+
+    private static class TestDisputeList extends DisputeList<Dispute> {
+        TestDisputeList() {
+        }
+
+        TestDisputeList(Collection<Dispute> collection) {
+            super(collection);
+        }
+
+        @Override
+        public Message toProtoMessage() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void indexesAreConsistentAfterRandomChanges() {
+        Random random = new Random(42);
+        TestDisputeList disputeList = new TestDisputeList();
+        List<Dispute> allDisputes = new ArrayList<>();
+        List<ChatMessage> allChatMessages = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            int operation = random.nextInt(100);
+            if (operation < 20 || allDisputes.isEmpty()) {
+                Dispute dispute = createDispute("trade" + random.nextInt(NUM_TRADES), random.nextInt(2));
+                allDisputes.add(dispute);
+                disputeList.add(dispute);
+            } else if (operation < 30) {
+                disputeList.remove(pick(random, allDisputes));
+            } else if (operation < 80) {
+                // Messages are also added to removed disputes and sent again
+                Dispute dispute = pick(random, allDisputes);
+                ChatMessage chatMessage = !allChatMessages.isEmpty() && random.nextInt(10) == 0 ?
+                        pick(random, allChatMessages) :
+                        createChatMessage(dispute);
+                allChatMessages.add(chatMessage);
+                dispute.addAndPersistChatMessage(chatMessage);
+            } else if (operation < 85) {
+                pick(random, allDisputes).removeAllChatMessages();
+            } else if (operation < 90) {
+                // Replaced by the persisted disputes
+                List<Dispute> persisted = new ArrayList<>(disputeList.getList());
+                Collections.shuffle(persisted, random);
+                disputeList.setAll(persisted.subList(0, persisted.size() - persisted.size() / 10));
+            } else if (operation < 92) {
+                // Read from the persisted disputes
+                disputeList = new TestDisputeList(new ArrayList<>(disputeList.getList()));
+            } else if (operation < 94) {
+                // Inserted before other disputes of the same trade
+                Dispute dispute = createDispute("trade" + random.nextInt(NUM_TRADES), random.nextInt(2));
+                allDisputes.add(dispute);
+                disputeList.getObservableList().add(random.nextInt(disputeList.size() + 1), dispute);
+            } else if (operation < 95) {
+                // Sorted so the disputes of a trade change their order
+                Comparator<Dispute> byTraderId = Comparator.comparingInt(Dispute::getTraderId);
+                disputeList.getObservableList().sort(random.nextBoolean() ? byTraderId : byTraderId.reversed());
+            } else {
+                // Same dispute object added a second time
+                List<Dispute> disputes = disputeList.getList();
+                if (!disputes.isEmpty()) {
+                    disputeList.getObservableList().add(random.nextInt(disputes.size() + 1), pick(random, disputes));
+                }
+            }
+
+            if (i % 50 == 0) {
+                assertIndexesMatch(disputeList, allDisputes, allChatMessages);
+            }
+        }
+        assertIndexesMatch(disputeList, allDisputes, allChatMessages);
+    }
+
+    @Test
+    public void removedDisputesAreNotIndexed() {
+        TestDisputeList disputeList = new TestDisputeList();
+        Dispute dispute = createDispute("trade", 0);
+        disputeList.add(dispute);
+        ChatMessage chatMessage = createChatMessage(dispute);
+        dispute.addAndPersistChatMessage(chatMessage);
+        assertTrue(disputeList.hasChatMessage(dispute, chatMessage.getUid()));
+        assertSame(dispute, disputeList.findDisputeById("trade_0").orElseThrow());
+
+        disputeList.remove(dispute);
+        ChatMessage laterChatMessage = createChatMessage(dispute);
+        dispute.addAndPersistChatMessage(laterChatMessage);
+
+        assertFalse(disputeList.hasChatMessage(dispute, chatMessage.getUid()));
+        assertFalse(disputeList.hasChatMessage(dispute, laterChatMessage.getUid()));
+        assertFalse(disputeList.findDispute("trade").isPresent());
+        assertTrue(disputeList.getChatMessages("trade").isEmpty());
+    }
+
+    @Test
+    public void unstoredAttachmentsArePolledOnce() {
+        Dispute dispute = createDispute("trade", 0);
+        Attachment attachment = new Attachment("receipt.png", new byte[]{1, 2, 3});
+        dispute.addAndPersistChatMessage(new ChatMessage(SupportType.ARBITRATION, "trade", 0, true, "message", SENDER,
+                new ArrayList<>(Collections.singletonList(attachment))));
+        // The persisted disputes are indexed at construction
+        TestDisputeList disputeList = new TestDisputeList(Collections.singletonList(dispute));
+
+        assertEquals(Collections.singletonList(attachment), disputeList.pollUnstoredAttachments());
+        assertTrue(disputeList.pollUnstoredAttachments().isEmpty());
+
+        Attachment laterAttachment = new Attachment("screenshot.png", new byte[]{4, 5, 6});
+        dispute.addAndPersistChatMessage(new ChatMessage(SupportType.ARBITRATION, "trade", 0, true, "message", SENDER,
+                new ArrayList<>(Collections.singletonList(laterAttachment))));
+        assertEquals(Collections.singletonList(laterAttachment), disputeList.pollUnstoredAttachments());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Compares the indexes with linear searches in the list as the dispute manager did before
+    private static void assertIndexesMatch(TestDisputeList disputeList,
+                                           List<Dispute> allDisputes,
+                                           List<ChatMessage> allChatMessages) {
+        List<Dispute> disputes = new ArrayList<>(disputeList.getList());
+        for (int i = 0; i < NUM_TRADES; i++) {
+            String tradeId = "trade" + i;
+            List<Dispute> disputesOfTrade = disputes.stream()
+                    .filter(dispute -> dispute.getTradeId().equals(tradeId))
+                    .collect(Collectors.toList());
+            assertSameElements(disputesOfTrade, disputeList.findDisputes(tradeId));
+            assertSameOptional(disputesOfTrade.stream().findFirst(), disputeList.findDispute(tradeId));
+            assertEquals(disputesOfTrade.stream()
+                            .flatMap(dispute -> dispute.getChatMessages().stream())
+                            .collect(Collectors.toList()),
+                    disputeList.getChatMessages(tradeId));
+            for (int traderId = 0; traderId < 2; traderId++) {
+                int finalTraderId = traderId;
+                Optional<Dispute> expected = disputesOfTrade.stream()
+                        .filter(dispute -> dispute.getTraderId() == finalTraderId)
+                        .findFirst();
+                assertSameOptional(expected, disputeList.findDispute(tradeId, traderId));
+                assertSameOptional(expected, disputeList.findDisputeById(tradeId + "_" + traderId));
+            }
+        }
+
+        // The own messages of each dispute and the latest messages of all disputes
+        List<ChatMessage> sampledChatMessages = allChatMessages.subList(Math.max(0, allChatMessages.size() - 20),
+                allChatMessages.size());
+        for (Dispute dispute : allDisputes) {
+            boolean contained = disputes.stream().anyMatch(element -> element == dispute);
+            List<ChatMessage> chatMessages = new ArrayList<>(dispute.getChatMessages());
+            chatMessages.addAll(sampledChatMessages);
+            for (ChatMessage chatMessage : chatMessages) {
+                boolean expected = contained && dispute.getChatMessages().stream()
+                        .anyMatch(element -> element.getUid().equals(chatMessage.getUid()));
+                assertEquals(expected, disputeList.hasChatMessage(dispute, chatMessage.getUid()));
+            }
+        }
+    }
+
+    private static void assertSameElements(List<Dispute> expected, List<Dispute> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static void assertSameOptional(Optional<Dispute> expected, Optional<Dispute> actual) {
+        assertEquals(expected.isPresent(), actual.isPresent());
+        expected.ifPresent(dispute -> assertSame(dispute, actual.get()));
+    }
+
+    private static Dispute createDispute(String tradeId, int traderId) {
+        return new Dispute(System.currentTimeMillis(),
+                tradeId,
+                traderId,
+                true,
+                true,
+                true,
+                null,
+                0,
+                0,
+                null,
+                null,
+                null,
+                null,
+                "contractAsJson",
+                null,
+                null,
+                null,
+                null,
+                null,
+                false,
+                SupportType.ARBITRATION);
+    }
+
+    private static ChatMessage createChatMessage(Dispute dispute) {
+        return new ChatMessage(SupportType.ARBITRATION, dispute.getTradeId(), dispute.getTraderId(), true,
+                "message", SENDER);
+    }
+
+    private static <T> T pick(Random random, List<T> list) {
+        return list.get(random.nextInt(list.size()));
+    }
+}
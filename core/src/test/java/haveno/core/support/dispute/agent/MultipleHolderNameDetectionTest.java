@@ -0,0 +1,201 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.support.dispute.agent;
+
+import haveno.common.crypto.PubKeyRing;
+import haveno.core.payment.payload.SepaInstantAccountPayload;
+import haveno.core.support.dispute.Dispute;
+import haveno.core.trade.Contract;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MultipleHolderNameDetectionTest {
+    private static final String[] HOLDER_NAMES = {"Alice Smith", "alice  smith ", "Bob Jones", "BOB JONES", "Carol"};
+
+    private final Random random = new Random(42);
+    private final List<PubKeyRing> traders = new ArrayList<>();
+    private final PubKeyRing otherTrader = createPubKeyRing(-1);
+    private final Map<Dispute, Integer> traderIndexByDispute = new IdentityHashMap<>();
+    private final Map<Dispute, String> holderNameByDispute = new IdentityHashMap<>();
+    private int disputeCount;
+
+    @Test
+    public void incrementalDetectionMatchesFullRebuild() {
+        for (int i = 0; i < 40; i++) {
+            traders.add(createPubKeyRing(i));
+        }
+        List<Dispute> allDisputes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            allDisputes.add(createDispute(random.nextInt(traders.size()), HOLDER_NAMES[random.nextInt(HOLDER_NAMES.length)]));
+        }
+        ObservableList<Dispute> disputes = FXCollections.observableArrayList(allDisputes.subList(0, 50));
+        MultipleHolderNameDetection detection = new MultipleHolderNameDetection(disputes);
+        AtomicInteger numNotifications = new AtomicInteger();
+        detection.addListener(numNotifications::incrementAndGet);
+
+        for (int i = 0; i < 2_000; i++) {
+            int operation = random.nextInt(100);
+            if (operation < 50) {
+                Dispute dispute = allDisputes.get(random.nextInt(allDisputes.size()));
+                if (!disputes.contains(dispute)) {
+                    disputes.add(dispute);
+                }
+            } else if (operation < 90) {
+                if (!disputes.isEmpty()) {
+                    disputes.remove(random.nextInt(disputes.size()));
+                }
+            } else if (operation < 95) {
+                // Persisted disputes replace all disputes
+                List<Dispute> subset = new ArrayList<>(allDisputes);
+                Collections.shuffle(subset, random);
+                disputes.setAll(subset.subList(0, random.nextInt(subset.size())));
+            } else {
+                disputes.clear();
+            }
+
+            Set<Set<String>> expected = getSuspiciousDisputeIds(disputes);
+            assertEquals(expected, toDisputeIds(detection.getSuspiciousDisputesByTraderMap()));
+            assertEquals(expected, toDisputeIds(new MultipleHolderNameDetection(FXCollections.observableArrayList(disputes))
+                    .getSuspiciousDisputesByTraderMap()));
+            assertEquals(!expected.isEmpty(), detection.hasSuspiciousDisputesDetected());
+        }
+        assertTrue(numNotifications.get() > 0);
+
+        // A full rebuild does not change anything
+        int numNotificationsBeforeRebuild = numNotifications.get();
+        Map<String, List<Dispute>> suspiciousDisputes = new HashMap<>(detection.getSuspiciousDisputesByTraderMap());
+        detection.detectMultipleHolderNames();
+        assertEquals(suspiciousDisputes, detection.getSuspiciousDisputesByTraderMap());
+        assertEquals(numNotificationsBeforeRebuild, numNotifications.get());
+    }
+
+    @Test
+    public void suspiciousTradersArePaged() {
+        for (int i = 0; i < 5; i++) {
+            traders.add(createPubKeyRing(i));
+        }
+        ObservableList<Dispute> disputes = FXCollections.observableArrayList();
+        for (int i = 0; i < traders.size(); i++) {
+            disputes.add(createDispute(i, "Alice"));
+            disputes.add(createDispute(i, "Bob"));
+        }
+        // Same name with other case and white space
+        disputes.add(createDispute(0, " alice"));
+        MultipleHolderNameDetection detection = new MultipleHolderNameDetection(disputes);
+
+        assertEquals(5, detection.getNumSuspiciousTraders());
+        List<MultipleHolderNameDetection.SuspiciousTrader> all = detection.getSuspiciousTraders(0, Integer.MAX_VALUE);
+        List<String> traderIds = all.stream().map(MultipleHolderNameDetection.SuspiciousTrader::getTraderId).collect(Collectors.toList());
+        List<String> sortedTraderIds = new ArrayList<>(traderIds);
+        Collections.sort(sortedTraderIds);
+        assertEquals(sortedTraderIds, traderIds);
+
+        List<MultipleHolderNameDetection.SuspiciousTrader> page = detection.getSuspiciousTraders(2, 2);
+        assertEquals(all.subList(2, 4), page);
+        assertEquals(1, detection.getSuspiciousTraders(4, 2).size());
+        assertTrue(detection.getSuspiciousTraders(5, 2).isEmpty());
+
+        // The report shows the names as entered
+        MultipleHolderNameDetection.SuspiciousTrader firstTrader = all.stream()
+                .filter(trader -> trader.getDisputes().size() == 3)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of(" alice", "Alice", "Bob"), firstTrader.getHolderNames());
+
+        // Removing the other name of a trader makes the trader unsuspicious
+        disputes.removeIf(dispute -> traderIndexByDispute.get(dispute) == 1 && holderNameByDispute.get(dispute).equals("Bob"));
+        assertEquals(4, detection.getNumSuspiciousTraders());
+        assertFalse(detection.getSuspiciousTraders(0, 10).stream()
+                .anyMatch(trader -> trader.getDisputes().stream().anyMatch(dispute -> traderIndexByDispute.get(dispute) == 1)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Groups all disputes with a linear pass like the detection did before it was incremental
+    private Set<Set<String>> getSuspiciousDisputeIds(List<Dispute> disputes) {
+        Map<Integer, List<Dispute>> disputesByTrader = disputes.stream()
+                .collect(Collectors.groupingBy(traderIndexByDispute::get));
+        return disputesByTrader.values().stream()
+                .filter(disputesOfTrader -> disputesOfTrader.stream()
+                        .map(dispute -> MultipleHolderNameDetection.normalizeHolderName(holderNameByDispute.get(dispute)))
+                        .distinct()
+                        .count() > 1)
+                .map(disputesOfTrader -> disputesOfTrader.stream().map(Dispute::getId).collect(Collectors.toSet()))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Set<String>> toDisputeIds(Map<String, List<Dispute>> suspiciousDisputesByTrader) {
+        Set<Set<String>> disputeIds = new HashSet<>();
+        suspiciousDisputesByTrader.values().forEach(disputes ->
+                disputeIds.add(disputes.stream().map(Dispute::getId).collect(Collectors.toSet())));
+        return disputeIds;
+    }
+
+    private static PubKeyRing createPubKeyRing(int index) {
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        when(pubKeyRing.getSignaturePubKeyBytes()).thenReturn(new byte[]{(byte) (index >> 8), (byte) index});
+        return pubKeyRing;
+    }
+
+    private Dispute createDispute(int traderIndex, String holderName) {
+        PubKeyRing trader = traders.get(traderIndex);
+        boolean isBuyer = random.nextBoolean();
+        Contract contract = mock(Contract.class);
+        when(contract.getBuyerPubKeyRing()).thenReturn(isBuyer ? trader : otherTrader);
+        SepaInstantAccountPayload payload = mock(SepaInstantAccountPayload.class);
+        when(payload.getHolderName()).thenReturn(holderName);
+
+        Dispute dispute = mock(Dispute.class);
+        String id = "trade" + disputeCount++;
+        when(dispute.getId()).thenReturn(id + "_" + traderIndex);
+        when(dispute.getTradeId()).thenReturn(id);
+        when(dispute.getTraderPubKeyRing()).thenReturn(trader);
+        when(dispute.getContract()).thenReturn(contract);
+        if (isBuyer) {
+            when(dispute.getBuyerPaymentAccountPayload()).thenReturn(payload);
+        } else {
+            when(dispute.getSellerPaymentAccountPayload()).thenReturn(payload);
+        }
+        traderIndexByDispute.put(dispute, traderIndex);
+        holderNameByDispute.put(dispute, holderName);
+        return dispute;
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import monero.daemon.MoneroDaemonRpc;
+import monero.daemon.model.MoneroKeyImageSpentStatus;
+import monero.daemon.model.MoneroSubmitTxResult;
+import monero.daemon.model.MoneroTx;
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroDestination;
+import monero.wallet.model.MoneroMultisigInfo;
+import monero.wallet.model.MoneroMultisigInitResult;
+import monero.wallet.model.MoneroMultisigSignResult;
+import monero.wallet.model.MoneroTxConfig;
+import monero.wallet.model.MoneroTxSet;
+import monero.wallet.model.MoneroTxWallet;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory stand-in for monerod and the wallets of trade participants, so code calling the Monero daemon and wallet
+ * interfaces can be tested offline. Only the daemon and wallet calls of deposits, payouts, the multisig key exchange
+ * and key image polling are stubbed, the other calls return the defaults of the Mockito mocks.
+ * <p>
+ * Txs submitted to the daemon wait in the pool until a block is mined with {@link #mineBlock()}. Hashes, key images
+ * and multisig hexes are derived from counters, so the same calls in the same order build the same chain. Multisig
+ * wallets are complete after the rounds of key exchange between their 3 participants, their outputs can be spent once
+ * the multisig hex of a peer exported after receiving them has been imported, and each key image can be spent once.
+ */
+public class MoneroChainStub {
+    public static final BigInteger FEE = BigInteger.valueOf(1_000_000);
+    private static final int MULTISIG_THRESHOLD = 2;
+    private static final int MULTISIG_PARTICIPANTS = 3;
+
+    private final long rpcLatencyMs;
+    private final Map<String, StubTx> txs = new LinkedHashMap<>();
+    private final Map<String, StubTx> createdTxsByHex = new HashMap<>();
+    private final Map<String, String> spendingTxHashByKeyImage = new HashMap<>();
+    private final List<StubOutput> outputs = new ArrayList<>();
+    private long height = 1;
+    private long nextId = 1;
+
+    public MoneroChainStub(long rpcLatencyMs) {
+        this.rpcLatencyMs = rpcLatencyMs;
+    }
+
+    private static class StubOutput {
+        private final long index;
+        private final String keyImage;
+        private final String address;
+        private final BigInteger amount;
+
+        private StubOutput(long index, String address, BigInteger amount) {
+            this.index = index;
+            this.keyImage = "keyImage" + index;
+            this.address = address;
+            this.amount = amount;
+        }
+    }
+
+    private static class StubTx {
+        private final String hash;
+        private final String hex;
+        private final List<String> spentKeyImages;
+        private final List<StubOutput> outputs;
+        private Long height;
+
+        private StubTx(long id, List<String> spentKeyImages, List<StubOutput> outputs) {
+            this.hash = "tx" + id;
+            this.hex = "txHex" + id;
+            this.spentKeyImages = spentKeyImages;
+            this.outputs = outputs;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Chain
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized long getHeight() {
+        return height;
+    }
+
+    public synchronized void mineBlock() {
+        for (StubTx tx : txs.values()) {
+            if (tx.height == null) tx.height = height;
+        }
+        height++;
+    }
+
+    public void mineBlocks(int numBlocks) {
+        for (int i = 0; i < numBlocks; i++) mineBlock();
+    }
+
+    public synchronized int getTxPoolSize() {
+        return (int) txs.values().stream().filter(tx -> tx.height == null).count();
+    }
+
+    /**
+     * Sends the amount to the address in a tx of the genesis block and returns its hash.
+     */
+    public synchronized String fund(String address, BigInteger amount) {
+        StubTx tx = new StubTx(nextId++, List.of(), List.of(newOutput(address, amount)));
+        tx.height = 0L;
+        txs.put(tx.hash, tx);
+        outputs.addAll(tx.outputs);
+        return tx.hash;
+    }
+
+    public synchronized List<String> getOutputKeyImages(String txHash, String address) {
+        StubTx tx = txs.get(txHash);
+        if (tx == null) return List.of();
+        return tx.outputs.stream()
+                .filter(output -> output.address.equals(address))
+                .map(output -> output.keyImage)
+                .collect(Collectors.toList());
+    }
+
+    public synchronized MoneroKeyImageSpentStatus getSpentStatus(String keyImage) {
+        String txHash = spendingTxHashByKeyImage.get(keyImage);
+        if (txHash == null) return MoneroKeyImageSpentStatus.NOT_SPENT;
+        return txs.get(txHash).height == null ? MoneroKeyImageSpentStatus.TX_POOL : MoneroKeyImageSpentStatus.CONFIRMED;
+    }
+
+    private StubOutput newOutput(String address, BigInteger amount) {
+        return new StubOutput(nextId++, address, amount);
+    }
+
+    // Returns false if the tx is unknown or spends a key image which is spent already
+    private synchronized boolean submit(String txHex) {
+        StubTx tx = createdTxsByHex.get(txHex);
+        if (tx == null) return false;
+        if (txs.containsKey(tx.hash)) return true;
+        for (String keyImage : tx.spentKeyImages) {
+            if (spendingTxHashByKeyImage.containsKey(keyImage)) return false;
+        }
+        for (String keyImage : tx.spentKeyImages) spendingTxHashByKeyImage.put(keyImage, tx.hash);
+        txs.put(tx.hash, tx);
+        outputs.addAll(tx.outputs);
+        return true;
+    }
+
+    private synchronized List<StubOutput> getUnspentOutputs(String address) {
+        return outputs.stream()
+                .filter(output -> output.address.equals(address) && !spendingTxHashByKeyImage.containsKey(output.keyImage))
+                .collect(Collectors.toList());
+    }
+
+    private synchronized StubTx createTx(List<StubOutput> inputs, MoneroTxConfig config, String changeAddress) {
+        BigInteger inputAmount = inputs.stream().map(input -> input.amount).reduce(BigInteger.ZERO, BigInteger::add);
+        BigInteger sendAmount = config.getDestinations().stream().map(MoneroDestination::getAmount).reduce(BigInteger.ZERO, BigInteger::add);
+        BigInteger change = inputAmount.subtract(sendAmount).subtract(FEE);
+        if (change.signum() < 0) throw new IllegalArgumentException("not enough money");
+        List<StubOutput> txOutputs = new ArrayList<>();
+        for (MoneroDestination destination : config.getDestinations()) {
+            txOutputs.add(newOutput(destination.getAddress(), destination.getAmount()));
+        }
+        if (change.signum() > 0) txOutputs.add(newOutput(changeAddress, change));
+        StubTx tx = new StubTx(nextId++, inputs.stream().map(input -> input.keyImage).collect(Collectors.toList()), txOutputs);
+        createdTxsByHex.put(tx.hex, tx);
+        return tx;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Daemon
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MoneroDaemonRpc createDaemon() {
+        MoneroDaemonRpc daemon = mock(MoneroDaemonRpc.class);
+        when(daemon.getHeight()).thenAnswer(invocation -> {
+            simulateLatency();
+            return getHeight();
+        });
+        MoneroSubmitTxResult goodResult = mock(MoneroSubmitTxResult.class);
+        when(goodResult.isGood()).thenReturn(true);
+        MoneroSubmitTxResult badResult = mock(MoneroSubmitTxResult.class);
+        when(daemon.submitTxHex(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            simulateLatency();
+            return submit(invocation.getArgument(0)) ? goodResult : badResult;
+        });
+        when(daemon.getTxs(anyList())).thenAnswer(invocation -> {
+            simulateLatency();
+            List<MoneroTx> daemonTxs = new ArrayList<>();
+            for (String txHash : invocation.<List<String>>getArgument(0)) {
+                synchronized (this) {
+                    if (txs.containsKey(txHash)) daemonTxs.add(toDaemonTx(txHash));
+                }
+            }
+            return daemonTxs;
+        });
+        when(daemon.getTxPool()).thenAnswer(invocation -> {
+            simulateLatency();
+            synchronized (this) {
+                return txs.values().stream()
+                        .filter(tx -> tx.height == null)
+                        .map(tx -> toDaemonTx(tx.hash))
+                        .collect(Collectors.toList());
+            }
+        });
+        when(daemon.getKeyImageSpentStatuses(anyList())).thenAnswer(invocation -> {
+            simulateLatency();
+            return invocation.<List<String>>getArgument(0).stream()
+                    .map(this::getSpentStatus)
+                    .collect(Collectors.toList());
+        });
+        return daemon;
+    }
+
+    private MoneroTx toDaemonTx(String txHash) {
+        MoneroTx tx = mock(MoneroTx.class);
+        when(tx.getHash()).thenReturn(txHash);
+        when(tx.getFee()).thenReturn(FEE);
+        when(tx.isConfirmed()).thenAnswer(invocation -> getNumConfirmations(txHash) > 0);
+        when(tx.getNumConfirmations()).thenAnswer(invocation -> getNumConfirmations(txHash));
+        when(tx.getHeight()).thenAnswer(invocation -> {
+            synchronized (this) {
+                return txs.get(txHash).height;
+            }
+        });
+        return tx;
+    }
+
+    public synchronized long getNumConfirmations(String txHash) {
+        StubTx tx = txs.get(txHash);
+        return tx == null || tx.height == null ? 0 : height - tx.height;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Wallets
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a wallet which can receive funds and become a multisig wallet.
+     */
+    public MoneroWallet createWallet(String name) {
+        StubWallet stubWallet = new StubWallet(name);
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        when(wallet.getPrimaryAddress()).thenAnswer(invocation -> stubWallet.getAddress());
+        when(wallet.getHeight()).thenAnswer(invocation -> getHeight());
+        when(wallet.getBalance()).thenAnswer(invocation -> getUnspentOutputs(stubWallet.getAddress()).stream()
+                .map(output -> output.amount)
+                .reduce(BigInteger.ZERO, BigInteger::add));
+        when(wallet.createTx(any(MoneroTxConfig.class))).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.createTx(invocation.getArgument(0));
+        });
+
+        // multisig
+        when(wallet.prepareMultisig()).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.prepareMultisig();
+        });
+        when(wallet.makeMultisig(anyList(), anyInt(), any())).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.makeMultisig(invocation.getArgument(0), invocation.getArgument(1));
+        });
+        when(wallet.exchangeMultisigKeys(anyList(), any())).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.exchangeMultisigKeys(invocation.getArgument(0));
+        });
+        when(wallet.getMultisigInfo()).thenAnswer(invocation -> stubWallet.getMultisigInfo());
+        when(wallet.isMultisigImportNeeded()).thenAnswer(invocation -> stubWallet.isMultisigImportNeeded());
+        when(wallet.exportMultisigHex()).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.exportMultisigHex();
+        });
+        doAnswer(invocation -> {
+            simulateLatency();
+            Object[] arguments = invocation.getArguments();
+            String[] multisigHexes = arguments.length == 1 && arguments[0] instanceof String[] ?
+                    (String[]) arguments[0] :
+                    Arrays.copyOf(arguments, arguments.length, String[].class);
+            stubWallet.importMultisigHex(multisigHexes);
+            return multisigHexes.length;
+        }).when(wallet).importMultisigHex(any(String[].class));
+        when(wallet.signMultisigTxHex(anyString())).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.signMultisigTxHex(invocation.getArgument(0));
+        });
+        when(wallet.submitMultisigTxHex(anyString())).thenAnswer(invocation -> {
+            simulateLatency();
+            return stubWallet.submitMultisigTxHex(invocation.getArgument(0));
+        });
+        return wallet;
+    }
+
+    private enum MultisigState {
+        NONE,
+        PREPARED,
+        MADE,
+        EXCHANGED,
+        READY
+    }
+
+    private class StubWallet {
+        private final String name;
+        private MultisigState multisigState = MultisigState.NONE;
+        private List<String> peers;
+        private String multisigAddress;
+        private long importedOutputIndex;
+
+        private StubWallet(String name) {
+            this.name = name;
+        }
+
+        private synchronized String getAddress() {
+            return multisigAddress == null ? "address-" + name : multisigAddress;
+        }
+
+        private synchronized MoneroTxWallet createTx(MoneroTxConfig config) {
+            List<StubOutput> inputs = getUnspentOutputs(getAddress());
+            if (multisigState == MultisigState.READY) {
+                if (isMultisigImportNeeded()) throw new IllegalStateException("Multisig import is needed to create tx");
+            } else if (multisigState != MultisigState.NONE) {
+                throw new IllegalStateException("Multisig wallet is not ready");
+            }
+            StubTx tx = MoneroChainStub.this.createTx(inputs, config, getAddress());
+            MoneroTxWallet walletTx = mock(MoneroTxWallet.class);
+            when(walletTx.getHash()).thenReturn(tx.hash);
+            when(walletTx.getFullHex()).thenReturn(tx.hex);
+            when(walletTx.getKey()).thenReturn("txKey-" + tx.hash);
+            when(walletTx.getFee()).thenReturn(FEE);
+            if (multisigState == MultisigState.READY) {
+                MoneroTxSet txSet = mock(MoneroTxSet.class);
+                when(txSet.getMultisigTxHex()).thenReturn(toMultisigTxHex(tx.hex, List.of(name)));
+                when(walletTx.getTxSet()).thenReturn(txSet);
+            }
+            return walletTx;
+        }
+
+        private synchronized String prepareMultisig() {
+            checkMultisigState(MultisigState.NONE);
+            multisigState = MultisigState.PREPARED;
+            return "prepared:" + name;
+        }
+
+        private synchronized String makeMultisig(List<String> preparedHexes, int threshold) {
+            checkMultisigState(MultisigState.PREPARED);
+            if (threshold != MULTISIG_THRESHOLD) throw new IllegalArgumentException("Unsupported threshold: " + threshold);
+            peers = toSenders("prepared:", preparedHexes);
+            if (peers.size() != MULTISIG_PARTICIPANTS - 1 || peers.contains(name)) throw new IllegalArgumentException("Invalid prepared multisig hexes");
+            multisigState = MultisigState.MADE;
+            return "made:" + name;
+        }
+
+        private synchronized MoneroMultisigInitResult exchangeMultisigKeys(List<String> multisigHexes) {
+            MoneroMultisigInitResult result = mock(MoneroMultisigInitResult.class);
+            if (multisigState == MultisigState.MADE) {
+                checkPeers(toSenders("made:", multisigHexes));
+                multisigState = MultisigState.EXCHANGED;
+                when(result.getMultisigHex()).thenReturn("exchanged:" + name);
+            } else {
+                checkMultisigState(MultisigState.EXCHANGED);
+                checkPeers(toSenders("exchanged:", multisigHexes));
+                multisigState = MultisigState.READY;
+                TreeSet<String> participants = new TreeSet<>(peers);
+                participants.add(name);
+                multisigAddress = "multisig-" + String.join("+", participants);
+                when(result.getAddress()).thenReturn(multisigAddress);
+            }
+            return result;
+        }
+
+        private synchronized MoneroMultisigInfo getMultisigInfo() {
+            MoneroMultisigInfo info = mock(MoneroMultisigInfo.class);
+            when(info.isMultisig()).thenReturn(multisigState.compareTo(MultisigState.MADE) >= 0);
+            when(info.isReady()).thenReturn(multisigState == MultisigState.READY);
+            when(info.getThreshold()).thenReturn(MULTISIG_THRESHOLD);
+            when(info.getNumParticipants()).thenReturn(MULTISIG_PARTICIPANTS);
+            return info;
+        }
+
+        private synchronized boolean isMultisigImportNeeded() {
+            return multisigState == MultisigState.READY &&
+                    getUnspentOutputs(getAddress()).stream().anyMatch(output -> output.index > importedOutputIndex);
+        }
+
+        // The hex tells up to which output the key images of the exporting wallet are known
+        private synchronized String exportMultisigHex() {
+            checkMultisigState(MultisigState.READY);
+            long lastOutputIndex;
+            synchronized (MoneroChainStub.this) {
+                lastOutputIndex = outputs.stream().mapToLong(output -> output.index).max().orElse(0);
+            }
+            return "exported:" + name + ":" + lastOutputIndex;
+        }
+
+        private synchronized void importMultisigHex(String[] multisigHexes) {
+            checkMultisigState(MultisigState.READY);
+            for (String multisigHex : multisigHexes) {
+                String[] parts = multisigHex.split(":");
+                if (parts.length != 3 || !parts[0].equals("exported") || !peers.contains(parts[1])) {
+                    throw new IllegalArgumentException("Invalid multisig hex: " + multisigHex);
+                }
+                importedOutputIndex = Math.max(importedOutputIndex, Long.parseLong(parts[2]));
+            }
+        }
+
+        private synchronized MoneroMultisigSignResult signMultisigTxHex(String multisigTxHex) {
+            checkMultisigState(MultisigState.READY);
+            String[] parts = multisigTxHex.split(":");
+            List<String> signers = new ArrayList<>(Arrays.asList(parts[2].split("\\+")));
+            List<String> participants = new ArrayList<>(peers);
+            participants.add(name);
+            if (!participants.containsAll(signers)) throw new IllegalArgumentException("Multisig tx is not of this wallet");
+            if (!signers.contains(name)) signers.add(name);
+            MoneroMultisigSignResult result = mock(MoneroMultisigSignResult.class);
+            when(result.getSignedMultisigTxHex()).thenReturn(toMultisigTxHex(parts[1], signers));
+            return result;
+        }
+
+        private List<String> submitMultisigTxHex(String multisigTxHex) {
+            String[] parts = multisigTxHex.split(":");
+            if (parts[2].split("\\+").length < MULTISIG_THRESHOLD) throw new IllegalStateException("Not enough signers");
+            if (!submit(parts[1])) throw new IllegalStateException("Tx was rejected");
+            synchronized (MoneroChainStub.this) {
+                return List.of(createdTxsByHex.get(parts[1]).hash);
+            }
+        }
+
+        private void checkMultisigState(MultisigState expectedState) {
+            if (multisigState != expectedState) {
+                throw new IllegalStateException("Multisig wallet " + name + " is " + multisigState + " but should be " + expectedState);
+            }
+        }
+
+        private void checkPeers(List<String> senders) {
+            if (!new TreeSet<>(senders).equals(new TreeSet<>(peers))) throw new IllegalArgumentException("Multisig hexes are not of the peers");
+        }
+    }
+
+    private static List<String> toSenders(String prefix, List<String> multisigHexes) {
+        List<String> senders = new ArrayList<>();
+        for (String multisigHex : multisigHexes) {
+            if (!multisigHex.startsWith(prefix)) throw new IllegalArgumentException("Unexpected multisig hex: " + multisigHex);
+            senders.add(multisigHex.substring(prefix.length()));
+        }
+        return senders;
+    }
+
+    private static String toMultisigTxHex(String txHex, List<String> signers) {
+        return "multisigTx:" + txHex + ":" + String.join("+", signers);
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        if (rpcLatencyMs > 0) Thread.sleep(rpcLatencyMs);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import monero.daemon.MoneroDaemonRpc;
+import monero.daemon.model.MoneroKeyImageSpentStatus;
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroTxConfig;
+import monero.wallet.model.MoneroTxWallet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link MoneroChainStub} behaves like monerod and the wallets for the calls of the Monero side of a trade:
+ * the multisig key exchange, the deposit and payout txs, their confirmations and the spent statuses of key images seen
+ * by a {@link XmrKeyImagePoller}. The trade steps are driven by the test itself, not by the trade protocol.
+ */
+public class MoneroChainStubTest {
+    private static final long RPC_LATENCY_MS = 0;
+    private static final long POLL_PERIOD_MS = 10;
+    private static final long TIMEOUT_MS = 10_000;
+    private static final int UNLOCK_CONFIRMATIONS = 10;
+    private static final String PASSWORD = "password";
+    private static final BigInteger FUNDING_AMOUNT = BigInteger.valueOf(2_000_000_000_000L);
+    private static final BigInteger TRADE_AMOUNT = BigInteger.valueOf(1_000_000_000_000L);
+    private static final BigInteger SECURITY_DEPOSIT = BigInteger.valueOf(150_000_000_000L);
+    private static final BigInteger HALF_FEE = MoneroChainStub.FEE.divide(BigInteger.TWO);
+
+    private final Map<String, MoneroKeyImageSpentStatus> spentStatuses = new ConcurrentHashMap<>();
+    private MoneroChainStub chain;
+    private MoneroDaemonRpc daemon;
+    private XmrKeyImagePoller keyImagePoller;
+
+    @BeforeEach
+    public void setUp() {
+        chain = new MoneroChainStub(RPC_LATENCY_MS);
+        daemon = chain.createDaemon();
+        keyImagePoller = new XmrKeyImagePoller(daemon, POLL_PERIOD_MS);
+        keyImagePoller.addListener(spentStatuses::putAll);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        keyImagePoller.clearKeyImages();
+    }
+
+    @Test
+    public void depositAndPayout_confirmOnStubChain() throws Exception {
+        MoneroWallet buyerWallet = fundedWallet("buyer");
+        MoneroWallet sellerWallet = fundedWallet("seller");
+        List<MoneroWallet> multisigWallets = createMultisigWallets("trade");
+        MoneroWallet buyerMultisigWallet = multisigWallets.get(0);
+        MoneroWallet sellerMultisigWallet = multisigWallets.get(1);
+        String multisigAddress = completeMultisig(multisigWallets);
+
+        // the deposit txs are published and their outputs watched
+        MoneroTxWallet buyerDepositTx = buyerWallet.createTx(new MoneroTxConfig()
+                .setAccountIndex(0)
+                .addDestination(multisigAddress, SECURITY_DEPOSIT)
+                .setRelay(false));
+        MoneroTxWallet sellerDepositTx = sellerWallet.createTx(new MoneroTxConfig()
+                .setAccountIndex(0)
+                .addDestination(multisigAddress, TRADE_AMOUNT.add(SECURITY_DEPOSIT))
+                .setRelay(false));
+        assertTrue(daemon.submitTxHex(buyerDepositTx.getFullHex(), false).isGood());
+        assertTrue(daemon.submitTxHex(sellerDepositTx.getFullHex(), false).isGood());
+        List<String> depositTxHashes = List.of(buyerDepositTx.getHash(), sellerDepositTx.getHash());
+        List<String> depositKeyImages = new ArrayList<>();
+        for (String depositTxHash : depositTxHashes) depositKeyImages.addAll(chain.getOutputKeyImages(depositTxHash, multisigAddress));
+        assertEquals(2, depositKeyImages.size());
+        keyImagePoller.addKeyImages(depositKeyImages, "trade");
+
+        chain.mineBlocks(UNLOCK_CONFIRMATIONS);
+        assertEquals(UNLOCK_CONFIRMATIONS, getMinConfirmations(depositTxHashes));
+
+        // the payout tx is created after exchanging multisig hexes and signed by the peer
+        String buyerMultisigHex = buyerMultisigWallet.exportMultisigHex();
+        String sellerMultisigHex = sellerMultisigWallet.exportMultisigHex();
+        buyerMultisigWallet.importMultisigHex(sellerMultisigHex);
+        sellerMultisigWallet.importMultisigHex(buyerMultisigHex);
+        MoneroTxWallet payoutTx = buyerMultisigWallet.createTx(new MoneroTxConfig()
+                .setAccountIndex(0)
+                .addDestination(buyerWallet.getPrimaryAddress(), TRADE_AMOUNT.add(SECURITY_DEPOSIT).subtract(HALF_FEE))
+                .addDestination(sellerWallet.getPrimaryAddress(), SECURITY_DEPOSIT.subtract(HALF_FEE))
+                .setRelay(false));
+        String signedPayoutTxHex = sellerMultisigWallet.signMultisigTxHex(payoutTx.getTxSet().getMultisigTxHex()).getSignedMultisigTxHex();
+        assertEquals(List.of(payoutTx.getHash()), sellerMultisigWallet.submitMultisigTxHex(signedPayoutTxHex));
+
+        // the poller sees the deposit outputs spent in the pool and then confirmed
+        waitFor(() -> depositKeyImages.stream().allMatch(keyImage -> spentStatuses.get(keyImage) == MoneroKeyImageSpentStatus.TX_POOL));
+        chain.mineBlock();
+        waitFor(() -> depositKeyImages.stream().allMatch(keyImage -> spentStatuses.get(keyImage) == MoneroKeyImageSpentStatus.CONFIRMED));
+
+        assertEquals(FUNDING_AMOUNT.add(TRADE_AMOUNT).subtract(MoneroChainStub.FEE).subtract(HALF_FEE), buyerWallet.getBalance());
+        assertEquals(FUNDING_AMOUNT.subtract(TRADE_AMOUNT).subtract(MoneroChainStub.FEE).subtract(HALF_FEE), sellerWallet.getBalance());
+        assertEquals(0, chain.getTxPoolSize());
+    }
+
+    @Test
+    public void submitTx_rejectsDoubleSpend() {
+        MoneroWallet wallet = fundedWallet("wallet");
+        MoneroTxWallet tx1 = wallet.createTx(new MoneroTxConfig().setAccountIndex(0).addDestination("address1", TRADE_AMOUNT).setRelay(false));
+        MoneroTxWallet tx2 = wallet.createTx(new MoneroTxConfig().setAccountIndex(0).addDestination("address2", TRADE_AMOUNT).setRelay(false));
+
+        assertTrue(daemon.submitTxHex(tx1.getFullHex(), false).isGood());
+        assertFalse(daemon.submitTxHex(tx2.getFullHex(), false).isGood());
+        assertEquals(1, chain.getTxPoolSize());
+        chain.mineBlock();
+        assertEquals(1, chain.getNumConfirmations(tx1.getHash()));
+        assertEquals(0, chain.getNumConfirmations(tx2.getHash()));
+    }
+
+    @Test
+    public void multisig_requiresHexesOfPeers() {
+        List<MoneroWallet> wallets = List.of(chain.createWallet("a"), chain.createWallet("b"), chain.createWallet("c"));
+        List<String> preparedHexes = new ArrayList<>();
+        for (MoneroWallet wallet : wallets) preparedHexes.add(wallet.prepareMultisig());
+        List<String> madeHexes = new ArrayList<>();
+        for (int i = 0; i < wallets.size(); i++) madeHexes.add(wallets.get(i).makeMultisig(others(preparedHexes, i), 2, PASSWORD));
+
+        MoneroWallet otherWallet = chain.createWallet("d");
+        otherWallet.prepareMultisig();
+        String otherMadeHex = otherWallet.makeMultisig(others(preparedHexes, 2), 2, PASSWORD);
+        assertThrows(IllegalArgumentException.class,
+                () -> wallets.get(0).exchangeMultisigKeys(List.of(madeHexes.get(1), otherMadeHex), PASSWORD));
+        assertFalse(wallets.get(0).getMultisigInfo().isReady());
+    }
+
+    @Test
+    public void payout_needsTwoSigners() throws Exception {
+        List<MoneroWallet> multisigWallets = createMultisigWallets("trade");
+        String multisigAddress = completeMultisig(multisigWallets);
+        MoneroWallet sellerWallet = fundedWallet("seller");
+        MoneroTxWallet depositTx = sellerWallet.createTx(new MoneroTxConfig().setAccountIndex(0).addDestination(multisigAddress, TRADE_AMOUNT).setRelay(false));
+        assertTrue(daemon.submitTxHex(depositTx.getFullHex(), false).isGood());
+        chain.mineBlock();
+
+        // the outputs of the deposit cannot be spent before the peers' multisig hexes are imported
+        MoneroTxConfig payoutConfig = new MoneroTxConfig().setAccountIndex(0).addDestination("buyer", TRADE_AMOUNT.subtract(MoneroChainStub.FEE)).setRelay(false);
+        assertTrue(multisigWallets.get(0).isMultisigImportNeeded());
+        assertThrows(IllegalStateException.class, () -> multisigWallets.get(0).createTx(payoutConfig));
+        multisigWallets.get(0).importMultisigHex(multisigWallets.get(1).exportMultisigHex());
+        MoneroTxWallet payoutTx = multisigWallets.get(0).createTx(payoutConfig);
+
+        String unsignedHex = payoutTx.getTxSet().getMultisigTxHex();
+        Exception exception = assertThrows(IllegalStateException.class, () -> multisigWallets.get(0).submitMultisigTxHex(unsignedHex));
+        assertTrue(exception.getMessage().contains("Not enough signers"));
+        String signedHex = multisigWallets.get(1).signMultisigTxHex(unsignedHex).getSignedMultisigTxHex();
+        assertEquals(List.of(payoutTx.getHash()), multisigWallets.get(1).submitMultisigTxHex(signedHex));
+        for (String keyImage : chain.getOutputKeyImages(depositTx.getHash(), multisigAddress)) {
+            assertEquals(MoneroKeyImageSpentStatus.TX_POOL, chain.getSpentStatus(keyImage));
+        }
+    }
+
+    private MoneroWallet fundedWallet(String name) {
+        MoneroWallet wallet = chain.createWallet(name);
+        chain.fund(wallet.getPrimaryAddress(), FUNDING_AMOUNT);
+        return wallet;
+    }
+
+    // The wallets of buyer, seller and arbitrator
+    private List<MoneroWallet> createMultisigWallets(String tradeId) {
+        return List.of(chain.createWallet(tradeId + "-buyerMultisig"),
+                chain.createWallet(tradeId + "-sellerMultisig"),
+                chain.createWallet(tradeId + "-arbitratorMultisig"));
+    }
+
+    // Each round of the key exchange passes the hexes of each participant to the others
+    private static String completeMultisig(List<MoneroWallet> wallets) {
+        List<String> preparedHexes = new ArrayList<>();
+        for (MoneroWallet wallet : wallets) preparedHexes.add(wallet.prepareMultisig());
+        List<String> madeHexes = new ArrayList<>();
+        for (int i = 0; i < wallets.size(); i++) madeHexes.add(wallets.get(i).makeMultisig(others(preparedHexes, i), 2, PASSWORD));
+        List<String> exchangedHexes = new ArrayList<>();
+        for (int i = 0; i < wallets.size(); i++) exchangedHexes.add(wallets.get(i).exchangeMultisigKeys(others(madeHexes, i), PASSWORD).getMultisigHex());
+        Set<String> multisigAddresses = new HashSet<>();
+        for (int i = 0; i < wallets.size(); i++) multisigAddresses.add(wallets.get(i).exchangeMultisigKeys(others(exchangedHexes, i), PASSWORD).getAddress());
+        assertEquals(1, multisigAddresses.size());
+        for (MoneroWallet wallet : wallets) assertTrue(wallet.getMultisigInfo().isReady());
+        return multisigAddresses.iterator().next();
+    }
+
+    private static List<String> others(List<String> hexes, int index) {
+        List<String> others = new ArrayList<>(hexes);
+        others.remove(index);
+        return others;
+    }
+
+    private long getMinConfirmations(List<String> txHashes) {
+        return daemon.getTxs(txHashes).stream()
+                .mapToLong(tx -> tx.getNumConfirmations())
+                .min()
+                .orElse(0);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) throw new TimeoutException("Condition not met within " + TIMEOUT_MS + " ms");
+            Thread.sleep(POLL_PERIOD_MS);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.core.xmr.wallet;
+
+import monero.daemon.MoneroDaemonRpc;
+import monero.daemon.model.MoneroFeeEstimate;
+import monero.daemon.model.MoneroKeyImage;
+import monero.daemon.model.MoneroOutput;
+import monero.daemon.model.MoneroSubmitTxResult;
+import monero.daemon.model.MoneroTx;
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroCheckTx;
+import monero.wallet.model.MoneroTxPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the batched verification of reserve txs against a stubbed daemon and wallet which simulate the latency of
+ * RPC calls. The daemon rejects txs which spend the key images of a tx in its pool.
+ */
+public class TradeTxVerifierTest {
+    private static final long RPC_LATENCY_MS = 1;
+    private static final int NUM_REQUESTS = 500;
+    private static final BigInteger TRADE_FEE = BigInteger.valueOf(1_000_000);
+    private static final BigInteger SEND_AMOUNT = BigInteger.valueOf(100_000_000);
+    private static final BigInteger MINER_FEE = BigInteger.valueOf(1_500_000);
+    private static final String FEE_ADDRESS = "feeAddress";
+    private static final String SEND_ADDRESS = "sendAddress";
+
+    private final Map<String, MoneroTx> txPool = new ConcurrentHashMap<>();
+    private final Map<String, MoneroTx> knownTxs = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> keyImagesByTxHash = new ConcurrentHashMap<>();
+    private final AtomicInteger maxPoolSize = new AtomicInteger();
+    private final CountDownLatch batchEntered = new CountDownLatch(1);
+    private volatile CountDownLatch batchGate;
+    private final Object lock = new Object();
+    private MoneroDaemonRpc daemon;
+    private MoneroWallet wallet;
+    private TradeTxVerifier verifier;
+
+    @BeforeEach
+    public void setUp() {
+        daemon = mock(MoneroDaemonRpc.class);
+        wallet = mock(MoneroWallet.class);
+
+        MoneroSubmitTxResult goodResult = mock(MoneroSubmitTxResult.class);
+        when(goodResult.isGood()).thenReturn(true);
+        MoneroSubmitTxResult badResult = mock(MoneroSubmitTxResult.class);
+        when(daemon.submitTxHex(anyString(), anyBoolean())).thenAnswer(invocation -> {
+            simulateLatency();
+            String txHex = invocation.getArgument(0);
+            if (txHex.startsWith("invalid")) return badResult;
+            String txHash = txHex.replace("hex", "hash");
+            List<String> keyImages = getKeyImages(txHash);
+            synchronized (txPool) {
+                for (String poolTxHash : txPool.keySet()) {
+                    if (!Collections.disjoint(getKeyImages(poolTxHash), keyImages)) return badResult; // double spend
+                }
+                txPool.put(txHash, newTx(txHash, keyImages));
+                maxPoolSize.accumulateAndGet(txPool.size(), Math::max);
+            }
+            return goodResult;
+        });
+        when(daemon.getTxs(anyList())).thenAnswer(invocation -> {
+            CountDownLatch gate = batchGate;
+            if (gate != null) {
+                batchEntered.countDown();
+                gate.await();
+            }
+            simulateLatency();
+            List<MoneroTx> txs = new ArrayList<>();
+            for (String txHash : invocation.<List<String>>getArgument(0)) {
+                if (knownTxs.containsKey(txHash)) txs.add(knownTxs.get(txHash));
+            }
+            return txs;
+        });
+        when(daemon.getTxPool()).thenAnswer(invocation -> {
+            simulateLatency();
+            return new ArrayList<>(txPool.values());
+        });
+        MoneroFeeEstimate feeEstimate = mock(MoneroFeeEstimate.class);
+        when(feeEstimate.getFees()).thenReturn(List.of(BigInteger.valueOf(1000)));
+        when(feeEstimate.getQuantizationMask()).thenReturn(BigInteger.valueOf(10000));
+        when(daemon.getFeeEstimate()).thenAnswer(invocation -> {
+            simulateLatency();
+            return feeEstimate;
+        });
+        doAnswer(invocation -> {
+            simulateLatency();
+            for (Object txHash : invocation.getArguments()) {
+                if (txHash instanceof String[]) {
+                    for (String hash : (String[]) txHash) txPool.remove(hash);
+                } else {
+                    txPool.remove(txHash);
+                }
+            }
+            return null;
+        }).when(daemon).flushTxPool(any(String[].class));
+
+        MoneroCheckTx tradeFeeCheck = newCheckTx(TRADE_FEE);
+        MoneroCheckTx transferCheck = newCheckTx(SEND_AMOUNT.subtract(MINER_FEE));
+        when(wallet.checkTxKey(anyString(), anyString(), eq(FEE_ADDRESS))).thenAnswer(invocation -> {
+            simulateLatency();
+            return tradeFeeCheck;
+        });
+        when(wallet.checkTxKey(anyString(), anyString(), eq(SEND_ADDRESS))).thenAnswer(invocation -> {
+            simulateLatency();
+            return transferCheck;
+        });
+
+        verifier = newVerifier(10000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        verifier.shutDown();
+    }
+
+    @Test
+    public void verify_validTx() {
+        MoneroTx tx = verifier.verify(newRequest(0));
+
+        assertEquals("hash0", tx.getHash());
+        assertTrue(txPool.isEmpty());
+    }
+
+    @Test
+    public void verify_invalidTxsDoNotFailOtherTxsOfBatch() {
+        knownTxs.put("hash1", newTx("hash1", Collections.emptyList()));
+        List<CompletableFuture<MoneroTx>> futures = new ArrayList<>();
+        futures.add(verifier.submit(newRequest(0)));
+        futures.add(verifier.submit(newRequest(1))); // already known to the daemon
+        futures.add(verifier.submit(new TradeTxVerifier.Request("offer2", TRADE_FEE, FEE_ADDRESS, SEND_AMOUNT, SEND_ADDRESS,
+                "hash2", "invalidHex2", "key2", null)));
+        futures.add(verifier.submit(newRequest(3)));
+        futures.add(verifier.submit(new TradeTxVerifier.Request("offer4", TRADE_FEE.add(BigInteger.TEN), FEE_ADDRESS, SEND_AMOUNT, SEND_ADDRESS,
+                "hash4", "hex4", "key4", null))); // wrong trade fee
+        futures.add(verifier.submit(newRequest(5)));
+
+        assertEquals("hash0", futures.get(0).join().getHash());
+        assertThrows(CompletionException.class, () -> futures.get(1).join());
+        assertThrows(CompletionException.class, () -> futures.get(2).join());
+        assertEquals("hash3", futures.get(3).join().getHash());
+        assertThrows(CompletionException.class, () -> futures.get(4).join());
+        assertEquals("hash5", futures.get(5).join().getHash());
+        assertTrue(txPool.isEmpty());
+    }
+
+    @Test
+    public void submit_txsSpendingSameKeyImagesDoNotFailEachOther() throws InterruptedException {
+        keyImagesByTxHash.put("hash1", List.of("keyImage1"));
+        keyImagesByTxHash.put("hash2", List.of("keyImage1"));
+        keyImagesByTxHash.put("hash3", List.of("keyImage2"));
+        keyImagesByTxHash.put("hash4", List.of("keyImage2"));
+
+        // hold the first batch until the others are queued, so they are verified together
+        batchGate = new CountDownLatch(1);
+        CompletableFuture<MoneroTx> first = verifier.submit(newRequest(0));
+        batchEntered.await();
+        List<CompletableFuture<MoneroTx>> futures = new ArrayList<>();
+        futures.add(verifier.submit(newRequest(1, List.of("keyImage1"))));
+        futures.add(verifier.submit(newRequest(2, List.of("keyImage1"))));
+        futures.add(verifier.submit(newRequest(3))); // key images are not claimed
+        futures.add(verifier.submit(newRequest(4)));
+        batchGate.countDown();
+
+        assertEquals("hash0", first.join().getHash());
+        for (int i = 0; i < futures.size(); i++) assertEquals("hash" + (i + 1), futures.get(i).join().getHash());
+
+        // the claimed conflict is deferred before submitting, the unclaimed one is retried after the flush
+        verify(daemon, times(1)).submitTxHex(eq("hex2"), anyBoolean());
+        verify(daemon, times(2)).submitTxHex(eq("hex4"), anyBoolean());
+        assertTrue(txPool.isEmpty());
+    }
+
+    @Test
+    public void submit_concurrentTxsAreVerifiedInBoundedBatches() {
+        // the first batch waits for the lock until all txs are queued
+        List<CompletableFuture<MoneroTx>> futures = new ArrayList<>();
+        synchronized (lock) {
+            for (int i = 0; i < NUM_REQUESTS; i++) futures.add(verifier.submit(newRequest(i)));
+        }
+        for (int i = 0; i < NUM_REQUESTS; i++) assertEquals("hash" + i, futures.get(i).join().getHash());
+
+        verify(daemon, atMost(1 + NUM_REQUESTS / TradeTxVerifier.MAX_BATCH_SIZE)).getTxPool();
+        verify(daemon, atMost(1 + NUM_REQUESTS / TradeTxVerifier.MAX_BATCH_SIZE)).getFeeEstimate();
+        assertTrue(maxPoolSize.get() <= TradeTxVerifier.MAX_BATCH_SIZE);
+        assertTrue(txPool.isEmpty());
+    }
+
+    @Test
+    @Timeout(10)
+    public void shutDown_failsQueuedTxsWhileLockIsHeld() {
+        verifier.shutDown();
+        verifier = newVerifier(100);
+        CompletableFuture<MoneroTx> running;
+        CompletableFuture<MoneroTx> queued;
+        synchronized (lock) {
+            running = verifier.submit(newRequest(0));
+            queued = verifier.submit(newRequest(1));
+
+            // returns although the running batch waits for the lock held here
+            verifier.shutDown();
+        }
+
+        assertThrows(CompletionException.class, running::join);
+        assertThrows(CompletionException.class, queued::join);
+        assertThrows(CompletionException.class, () -> verifier.submit(newRequest(2)).join());
+        verify(daemon, never()).submitTxHex(anyString(), anyBoolean());
+    }
+
+    private TradeTxVerifier newVerifier(long shutDownTimeoutMs) {
+        return new TradeTxVerifier(() -> daemon, () -> wallet, () -> MoneroTxPriority.UNIMPORTANT, lock, shutDownTimeoutMs);
+    }
+
+    private List<String> getKeyImages(String txHash) {
+        return keyImagesByTxHash.getOrDefault(txHash, Collections.emptyList());
+    }
+
+    private static TradeTxVerifier.Request newRequest(int index) {
+        return newRequest(index, null);
+    }
+
+    private static TradeTxVerifier.Request newRequest(int index, List<String> keyImages) {
+        return new TradeTxVerifier.Request("offer" + index, TRADE_FEE, FEE_ADDRESS, SEND_AMOUNT, SEND_ADDRESS,
+                "hash" + index, "hex" + index, "key" + index, keyImages);
+    }
+
+    private static MoneroTx newTx(String txHash, List<String> keyImages) {
+        List<MoneroOutput> inputs = new ArrayList<>();
+        for (String keyImageHex : keyImages) {
+            MoneroKeyImage keyImage = mock(MoneroKeyImage.class);
+            when(keyImage.getHex()).thenReturn(keyImageHex);
+            MoneroOutput input = mock(MoneroOutput.class);
+            when(input.getKeyImage()).thenReturn(keyImage);
+            inputs.add(input);
+        }
+        MoneroTx tx = mock(MoneroTx.class);
+        when(tx.getHash()).thenReturn(txHash);
+        when(tx.getFee()).thenReturn(MINER_FEE);
+        when(tx.getWeight()).thenReturn(1500L);
+        when(tx.getUnlockTime()).thenReturn(BigInteger.ZERO);
+        when(tx.getInputs()).thenReturn(inputs);
+        return tx;
+    }
+
+    private static MoneroCheckTx newCheckTx(BigInteger receivedAmount) {
+        MoneroCheckTx checkTx = mock(MoneroCheckTx.class);
+        when(checkTx.isGood()).thenReturn(true);
+        when(checkTx.getReceivedAmount()).thenReturn(receivedAmount);
+        return checkTx;
+    }
+
+    private static void simulateLatency() throws InterruptedException {
+        Thread.sleep(RPC_LATENCY_MS);
+    }
+}
@@ -22,6 +22,8 @@ import haveno.common.UserThread;
 import haveno.common.app.AppModule;
 import haveno.common.crypto.IncorrectPasswordException;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.metrics.MetricsHttpServer;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.persistence.PersistenceManager;
 import haveno.core.api.AccountServiceListener;
 import haveno.core.app.ConsoleInput;
@@ -91,6 +93,7 @@ public class HavenoDaemonMain extends HavenoHeadlessAppMain {
     @Override
     protected void onApplicationLaunched() {
         super.onApplicationLaunched();
+        MetricsHttpServer.start(MetricsRegistry.getInstance(), config.metricsPort);
         headlessApp.setGracefulShutDownHandler(this);
     }
 
@@ -130,6 +133,7 @@ public class HavenoDaemonMain extends HavenoHeadlessAppMain {
     public void gracefulShutDown(ResultHandler resultHandler, boolean exit) {
         super.gracefulShutDown(resultHandler, exit);
         if (grpcServer != null) grpcServer.shutdown(); // could be null if application attempted to shutdown early
+        MetricsHttpServer.shutDown();
     }
 
     /**
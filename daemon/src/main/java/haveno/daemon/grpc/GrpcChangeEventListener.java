@@ -0,0 +1,59 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.daemon.grpc;
+
+import haveno.core.api.ChangeEventLog;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.function.BiFunction;
+import lombok.NonNull;
+
+/**
+ * Streams the change events of a {@link ChangeEventLog} to a gRPC client.
+ * <p>
+ * The stream starts with an event created by the given factory from the resume token and whether the client has to
+ * resync its state.
+ */
+class GrpcChangeEventListener<T> implements ChangeEventLog.Listener<T> {
+
+    private final ServerCallStreamObserver<T> responseObserver;
+    private final BiFunction<String, Boolean, T> startEventFactory;
+
+    GrpcChangeEventListener(@NonNull StreamObserver<T> responseObserver,
+                            @NonNull BiFunction<String, Boolean, T> startEventFactory) {
+        this.responseObserver = (ServerCallStreamObserver<T>) responseObserver;
+        this.startEventFactory = startEventFactory;
+    }
+
+    // Must be called before the listener is added, while the call is handled
+    void setOnCancelHandler(Runnable onCancelHandler) {
+        responseObserver.setOnCancelHandler(onCancelHandler);
+    }
+
+    @Override
+    public void onStart(String resumeToken, boolean isResyncRequired) {
+        onEvent(startEventFactory.apply(resumeToken, isResyncRequired));
+    }
+
+    @Override
+    public void onEvent(T event) {
+        if (!responseObserver.isCancelled()) {
+            responseObserver.onNext(event);
+        }
+    }
+}
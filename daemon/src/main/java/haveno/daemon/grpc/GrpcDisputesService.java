@@ -12,6 +12,7 @@ import static haveno.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCu
 import haveno.proto.grpc.DisputesGrpc.DisputesImplBase;
 import static haveno.proto.grpc.DisputesGrpc.getGetDisputeMethod;
 import static haveno.proto.grpc.DisputesGrpc.getGetDisputesMethod;
+import static haveno.proto.grpc.DisputesGrpc.getGetSuspiciousTradersMethod;
 import static haveno.proto.grpc.DisputesGrpc.getOpenDisputeMethod;
 import static haveno.proto.grpc.DisputesGrpc.getResolveDisputeMethod;
 import static haveno.proto.grpc.DisputesGrpc.getSendDisputeChatMessageMethod;
@@ -19,12 +20,15 @@ import haveno.proto.grpc.GetDisputeReply;
 import haveno.proto.grpc.GetDisputeRequest;
 import haveno.proto.grpc.GetDisputesReply;
 import haveno.proto.grpc.GetDisputesRequest;
+import haveno.proto.grpc.GetSuspiciousTradersReply;
+import haveno.proto.grpc.GetSuspiciousTradersRequest;
 import haveno.proto.grpc.OpenDisputeReply;
 import haveno.proto.grpc.OpenDisputeRequest;
 import haveno.proto.grpc.ResolveDisputeReply;
 import haveno.proto.grpc.ResolveDisputeRequest;
 import haveno.proto.grpc.SendDisputeChatMessageReply;
 import haveno.proto.grpc.SendDisputeChatMessageRequest;
+import haveno.proto.grpc.SuspiciousTrader;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
@@ -126,6 +130,31 @@ public class GrpcDisputesService extends DisputesImplBase {
         }
     }
 
+    @Override
+    public void getSuspiciousTraders(GetSuspiciousTradersRequest req,
+                                     StreamObserver<GetSuspiciousTradersReply> responseObserver) {
+        try {
+            var suspiciousTraders = coreApi.getSuspiciousTraders(req.getOffset(), req.getLimit());
+            var suspiciousTradersProtobuf = suspiciousTraders.stream()
+                    .map(t -> SuspiciousTrader.newBuilder()
+                            .setTraderId(t.getTraderId())
+                            .addAllHolderNames(t.getHolderNames())
+                            .addAllTradeIds(t.getDisputes().stream()
+                                    .map(d -> d.getTradeId())
+                                    .collect(Collectors.toList()))
+                            .build())
+                    .collect(Collectors.toList());
+            var reply = GetSuspiciousTradersReply.newBuilder()
+                    .addAllSuspiciousTraders(suspiciousTradersProtobuf)
+                    .setTotalCount(coreApi.getNumSuspiciousTraders())
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -141,6 +170,7 @@ public class GrpcDisputesService extends DisputesImplBase {
                             put(getResolveDisputeMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 40 : 1, SECONDS));
                             put(getOpenDisputeMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 20 : 1, SECONDS));
                             put(getSendDisputeChatMessageMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 40 : 2, SECONDS));
+                            put(getGetSuspiciousTradersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 10 : 1, SECONDS));
                         }}
                 )));
     }
@@ -20,7 +20,9 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.common.config.Config;
 import haveno.core.api.CoreApi;
+import haveno.core.api.model.EditOfferParams;
 import haveno.core.api.model.OfferInfo;
+import haveno.core.api.model.PostOfferParams;
 import haveno.core.offer.Offer;
 import haveno.core.offer.OpenOffer;
 import haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor;
@@ -28,6 +30,12 @@ import haveno.daemon.grpc.interceptor.GrpcCallRateMeter;
 import static haveno.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import haveno.proto.grpc.CancelOfferReply;
 import haveno.proto.grpc.CancelOfferRequest;
+import haveno.proto.grpc.CancelOfferResult;
+import haveno.proto.grpc.CancelOffersReply;
+import haveno.proto.grpc.CancelOffersRequest;
+import haveno.proto.grpc.EditOfferRequest;
+import haveno.proto.grpc.EditOffersReply;
+import haveno.proto.grpc.EditOffersRequest;
 import haveno.proto.grpc.GetMyOfferReply;
 import haveno.proto.grpc.GetMyOfferRequest;
 import haveno.proto.grpc.GetMyOffersReply;
@@ -36,29 +44,42 @@ import haveno.proto.grpc.GetOfferReply;
 import haveno.proto.grpc.GetOfferRequest;
 import haveno.proto.grpc.GetOffersReply;
 import haveno.proto.grpc.GetOffersRequest;
+import haveno.proto.grpc.OfferResult;
 import static haveno.proto.grpc.OffersGrpc.OffersImplBase;
 import static haveno.proto.grpc.OffersGrpc.getCancelOfferMethod;
+import static haveno.proto.grpc.OffersGrpc.getCancelOffersMethod;
+import static haveno.proto.grpc.OffersGrpc.getEditOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetMyOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetMyOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getPostOfferMethod;
+import static haveno.proto.grpc.OffersGrpc.getPostOffersMethod;
 import haveno.proto.grpc.PostOfferReply;
 import haveno.proto.grpc.PostOfferRequest;
+import haveno.proto.grpc.PostOffersReply;
+import haveno.proto.grpc.PostOffersRequest;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 class GrpcOffersService extends OffersImplBase {
 
+    // Batch requests share the rate limit of the single offer requests, so their size is bounded too
+    private static final int MAX_BATCH_SIZE = 20;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -194,6 +215,146 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void postOffers(PostOffersRequest req,
+                           StreamObserver<PostOffersReply> responseObserver) {
+        try {
+            verifyBatchSize(req.getOffersCount());
+            BatchResults<OfferResult> results = new BatchResults<>(req.getOffersCount(), offerResults -> {
+                responseObserver.onNext(PostOffersReply.newBuilder().addAllResults(offerResults).build());
+                responseObserver.onCompleted();
+            });
+            List<PostOfferParams> offersParams = req.getOffersList().stream()
+                    .map(this::toPostOfferParams)
+                    .collect(Collectors.toList());
+            coreApi.postOffers(offersParams,
+                    (index, offer) -> results.set(index, toOfferResult(offer.getId())),
+                    (index, errorMessage) -> results.set(index, toErrorResult(errorMessage)));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void editOffers(EditOffersRequest req,
+                           StreamObserver<EditOffersReply> responseObserver) {
+        try {
+            verifyBatchSize(req.getOffersCount());
+            BatchResults<OfferResult> results = new BatchResults<>(req.getOffersCount(), offerResults -> {
+                responseObserver.onNext(EditOffersReply.newBuilder().addAllResults(offerResults).build());
+                responseObserver.onCompleted();
+            });
+            List<EditOfferParams> offersParams = req.getOffersList().stream()
+                    .map(this::toEditOfferParams)
+                    .collect(Collectors.toList());
+            coreApi.editOffers(offersParams,
+                    (index, openOffer) -> results.set(index, toOfferResult(openOffer.getId())),
+                    (index, errorMessage) -> results.set(index, toErrorResult(errorMessage)));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void cancelOffers(CancelOffersRequest req,
+                             StreamObserver<CancelOffersReply> responseObserver) {
+        try {
+            List<String> ids = req.getIdsList();
+            verifyBatchSize(ids.size());
+            BatchResults<CancelOfferResult> results = new BatchResults<>(ids.size(), cancelResults -> {
+                responseObserver.onNext(CancelOffersReply.newBuilder().addAllResults(cancelResults).build());
+                responseObserver.onCompleted();
+            });
+            coreApi.cancelOffers(ids,
+                    index -> results.set(index, CancelOfferResult.newBuilder().setId(ids.get(index)).build()),
+                    (index, errorMessage) -> results.set(index, CancelOfferResult.newBuilder()
+                            .setId(ids.get(index))
+                            .setErrorMessage(errorMessage == null ? "" : errorMessage)
+                            .build()));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static void verifyBatchSize(int size) {
+        if (size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(format("batch of %d offers exceeds the limit of %d offers per request",
+                    size, MAX_BATCH_SIZE));
+        }
+    }
+
+    private PostOfferParams toPostOfferParams(PostOfferRequest req) {
+        return PostOfferParams.builder()
+                .currencyCode(req.getCurrencyCode())
+                .direction(req.getDirection())
+                .price(req.getPrice())
+                .useMarketBasedPrice(req.getUseMarketBasedPrice())
+                .marketPriceMarginPct(req.getMarketPriceMarginPct())
+                .amount(req.getAmount())
+                .minAmount(req.getMinAmount())
+                .securityDepositPct(req.getSecurityDepositPct())
+                .triggerPrice(req.getTriggerPrice())
+                .reserveExactAmount(req.getReserveExactAmount())
+                .paymentAccountId(req.getPaymentAccountId())
+                .isPrivateOffer(req.getIsPrivateOffer())
+                .buyerAsTakerWithoutDeposit(req.getBuyerAsTakerWithoutDeposit())
+                .extraInfo(req.getExtraInfo())
+                .sourceOfferId(req.getSourceOfferId())
+                .build();
+    }
+
+    private EditOfferParams toEditOfferParams(EditOfferRequest req) {
+        return EditOfferParams.builder()
+                .offerId(req.getId())
+                .price(req.getPrice())
+                .useMarketBasedPrice(req.getUseMarketBasedPrice())
+                .marketPriceMarginPct(req.getMarketPriceMarginPct())
+                .triggerPrice(req.getTriggerPrice())
+                .extraInfo(req.getExtraInfo())
+                .build();
+    }
+
+    private OfferResult toOfferResult(String offerId) {
+        try {
+            OpenOffer openOffer = coreApi.getMyOffer(offerId);
+            return OfferResult.newBuilder()
+                    .setOffer(OfferInfo.toMyOfferInfo(openOffer).toProtoMessage())
+                    .build();
+        } catch (Throwable cause) {
+            return toErrorResult(cause.getMessage());
+        }
+    }
+
+    private OfferResult toErrorResult(String errorMessage) {
+        log.warn("Error in batch offer request: {}", errorMessage);
+        return OfferResult.newBuilder()
+                .setErrorMessage(errorMessage == null ? "" : errorMessage)
+                .build();
+    }
+
+    // Collects the results of the items of a batch request, which complete in any order, and passes them on in the
+    // order of the items once all are complete.
+    private static class BatchResults<T> {
+        private final AtomicReferenceArray<T> results;
+        private final AtomicInteger numPending;
+        private final Consumer<List<T>> completionHandler;
+
+        private BatchResults(int size, Consumer<List<T>> completionHandler) {
+            this.results = new AtomicReferenceArray<>(size);
+            this.numPending = new AtomicInteger(size);
+            this.completionHandler = completionHandler;
+            if (size == 0) completionHandler.accept(new ArrayList<>());
+        }
+
+        private void set(int index, T result) {
+            if (!results.compareAndSet(index, null, result)) return; // an item completes once
+            if (numPending.decrementAndGet() > 0) return;
+            List<T> orderedResults = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) orderedResults.add(results.get(i));
+            completionHandler.accept(orderedResults);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -210,6 +371,9 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getPostOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getPostOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getEditOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getCancelOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                         }}
                 )));
     }
@@ -37,6 +37,7 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.common.config.Config;
 import haveno.core.api.CoreApi;
+import haveno.core.api.model.TaskTraceInfo;
 import haveno.core.api.model.TradeInfo;
 import static haveno.core.api.model.TradeInfo.toTradeInfo;
 import haveno.core.trade.Trade;
@@ -51,24 +52,32 @@ import haveno.proto.grpc.ConfirmPaymentSentReply;
 import haveno.proto.grpc.ConfirmPaymentSentRequest;
 import haveno.proto.grpc.GetChatMessagesReply;
 import haveno.proto.grpc.GetChatMessagesRequest;
+import haveno.proto.grpc.GetTaskTracesReply;
+import haveno.proto.grpc.GetTaskTracesRequest;
 import haveno.proto.grpc.GetTradeReply;
 import haveno.proto.grpc.GetTradeRequest;
 import haveno.proto.grpc.GetTradesReply;
 import haveno.proto.grpc.GetTradesRequest;
 import haveno.proto.grpc.SendChatMessageReply;
 import haveno.proto.grpc.SendChatMessageRequest;
+import haveno.proto.grpc.SubscribeTradeEventsRequest;
 import haveno.proto.grpc.TakeOfferReply;
 import haveno.proto.grpc.TakeOfferRequest;
+import haveno.proto.grpc.TradeEvent;
+import haveno.proto.grpc.TradeEvent.TradeEventType;
 import haveno.proto.grpc.TradesGrpc.TradesImplBase;
 import static haveno.proto.grpc.TradesGrpc.getCompleteTradeMethod;
 import static haveno.proto.grpc.TradesGrpc.getConfirmPaymentReceivedMethod;
 import static haveno.proto.grpc.TradesGrpc.getConfirmPaymentSentMethod;
 import static haveno.proto.grpc.TradesGrpc.getGetChatMessagesMethod;
+import static haveno.proto.grpc.TradesGrpc.getGetTaskTracesMethod;
 import static haveno.proto.grpc.TradesGrpc.getGetTradeMethod;
 import static haveno.proto.grpc.TradesGrpc.getGetTradesMethod;
 import static haveno.proto.grpc.TradesGrpc.getSendChatMessageMethod;
+import static haveno.proto.grpc.TradesGrpc.getSubscribeTradeEventsMethod;
 import static haveno.proto.grpc.TradesGrpc.getTakeOfferMethod;
 import static haveno.proto.grpc.TradesGrpc.getWithdrawFundsMethod;
+import io.grpc.Context;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.util.HashMap;
@@ -241,6 +250,45 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void getTaskTraces(GetTaskTracesRequest req,
+                              StreamObserver<GetTaskTracesReply> responseObserver) {
+        try {
+            var taskTraces = coreApi.getTaskTraces(req.getTradeOrOfferId())
+                    .stream()
+                    .map(taskTrace -> TaskTraceInfo.toTaskTraceInfo(taskTrace).toProtoMessage())
+                    .collect(Collectors.toList());
+            var reply = GetTaskTracesReply.newBuilder()
+                    .addAllTaskTraces(taskTraces)
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void subscribeTradeEvents(SubscribeTradeEventsRequest req,
+                                     StreamObserver<TradeEvent> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                GrpcChangeEventListener<TradeEvent> listener = new GrpcChangeEventListener<>(responseObserver,
+                        (resumeToken, isResyncRequired) -> TradeEvent.newBuilder()
+                                .setType(isResyncRequired ? TradeEventType.RESYNC_REQUIRED : TradeEventType.SUBSCRIBED)
+                                .setResumeToken(resumeToken)
+                                .setTimestamp(System.currentTimeMillis())
+                                .build());
+                listener.setOnCancelHandler(() -> coreApi.removeTradeEventListener(listener));
+                coreApi.addTradeEventListener(req.getResumeToken(), listener);
+                // No onCompleted, as the response observer should be kept open
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -260,6 +308,8 @@ class GrpcTradesService extends TradesImplBase {
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(3, MINUTES));
                             put(getGetChatMessagesMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 4, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getSendChatMessageMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 4, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getGetTaskTracesMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 1, SECONDS));
+                            put(getSubscribeTradeEventsMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
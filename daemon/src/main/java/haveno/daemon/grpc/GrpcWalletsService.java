@@ -67,8 +67,11 @@ import haveno.proto.grpc.RemoveWalletPasswordReply;
 import haveno.proto.grpc.RemoveWalletPasswordRequest;
 import haveno.proto.grpc.SetWalletPasswordReply;
 import haveno.proto.grpc.SetWalletPasswordRequest;
+import haveno.proto.grpc.SubscribeWalletEventsRequest;
 import haveno.proto.grpc.UnlockWalletReply;
 import haveno.proto.grpc.UnlockWalletRequest;
+import haveno.proto.grpc.WalletEvent;
+import haveno.proto.grpc.WalletEvent.WalletEventType;
 import haveno.proto.grpc.WalletsGrpc.WalletsImplBase;
 import static haveno.proto.grpc.WalletsGrpc.getGetAddressBalanceMethod;
 import static haveno.proto.grpc.WalletsGrpc.getGetBalancesMethod;
@@ -76,7 +79,9 @@ import static haveno.proto.grpc.WalletsGrpc.getGetFundingAddressesMethod;
 import static haveno.proto.grpc.WalletsGrpc.getLockWalletMethod;
 import static haveno.proto.grpc.WalletsGrpc.getRemoveWalletPasswordMethod;
 import static haveno.proto.grpc.WalletsGrpc.getSetWalletPasswordMethod;
+import static haveno.proto.grpc.WalletsGrpc.getSubscribeWalletEventsMethod;
 import static haveno.proto.grpc.WalletsGrpc.getUnlockWalletMethod;
+import io.grpc.Context;
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
 import java.math.BigInteger;
@@ -295,6 +300,27 @@ class GrpcWalletsService extends WalletsImplBase {
         }
     }
 
+    @Override
+    public void subscribeWalletEvents(SubscribeWalletEventsRequest req,
+                                      StreamObserver<WalletEvent> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                GrpcChangeEventListener<WalletEvent> listener = new GrpcChangeEventListener<>(responseObserver,
+                        (resumeToken, isResyncRequired) -> WalletEvent.newBuilder()
+                                .setType(isResyncRequired ? WalletEventType.RESYNC_REQUIRED : WalletEventType.SUBSCRIBED)
+                                .setResumeToken(resumeToken)
+                                .setTimestamp(System.currentTimeMillis())
+                                .build());
+                listener.setOnCancelHandler(() -> coreApi.removeWalletEventListener(listener));
+                coreApi.addWalletEventListener(req.getResumeToken(), listener);
+                // No onCompleted, as the response observer should be kept open
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -316,6 +342,7 @@ class GrpcWalletsService extends WalletsImplBase {
 
                             put(getLockWalletMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getUnlockWalletMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getSubscribeWalletEventsMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
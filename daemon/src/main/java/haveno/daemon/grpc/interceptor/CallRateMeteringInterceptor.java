@@ -17,6 +17,7 @@
 
 package haveno.daemon.grpc.interceptor;
 
+import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
@@ -25,17 +26,25 @@ import io.grpc.StatusRuntimeException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
-import static io.grpc.Status.PERMISSION_DENIED;
+import static io.grpc.Metadata.ASCII_STRING_MARSHALLER;
+import static io.grpc.Status.RESOURCE_EXHAUSTED;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
 
 @Slf4j
 public final class CallRateMeteringInterceptor implements ServerInterceptor {
 
+    // Seconds a client should wait before calling again, as in HTTP
+    static final Metadata.Key<String> RETRY_AFTER_KEY = Metadata.Key.of("retry-after", ASCII_STRING_MARSHALLER);
+    // Milliseconds a gRPC client should wait before retrying, see gRPC A6 retry design
+    static final Metadata.Key<String> RETRY_PUSHBACK_MS_KEY = Metadata.Key.of("grpc-retry-pushback-ms", ASCII_STRING_MARSHALLER);
+
     // Maps the gRPC server method names to rate meters.  This allows one interceptor
     // instance to handle rate metering for any or all the methods in a Grpc*Service.
     protected final Map<String, GrpcCallRateMeter> serviceCallRateMeters;
@@ -48,26 +57,29 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
                                                                  Metadata headers,
                                                                  ServerCallHandler<ReqT, RespT> serverCallHandler) {
-        Optional<Map.Entry<String, GrpcCallRateMeter>> rateMeterKV = getRateMeterKV(serverCall);
-        rateMeterKV.ifPresentOrElse(
-                (kv) -> checkRateMeterAndMaybeCloseCall(kv, serverCall),
-                () -> handleMissingRateMeterConfiguration(serverCall));
-
-        // We leave it to the gRPC framework to clean up if the server call was closed
-        // above.  But we still have to invoke startCall here because the method must
-        // return a ServerCall.Listener<RequestT>.
+        String methodName = getRateMeterKey(serverCall);
+        GrpcCallRateMeter rateMeter = serviceCallRateMeters.get(methodName);
+        if (rateMeter == null) {
+            handleMissingRateMeterConfiguration(serverCall);
+        } else if (!checkRateMeterAndMaybeCloseCall(methodName, rateMeter, serverCall)) {
+            // The call is closed, so it is not started and its messages are ignored.
+            return new ServerCall.Listener<>() {
+            };
+        }
         return serverCallHandler.startCall(serverCall, headers);
     }
 
-    private void checkRateMeterAndMaybeCloseCall(Map.Entry<String, GrpcCallRateMeter> rateMeterKV,
-                                                 ServerCall<?, ?> serverCall) {
-        String methodName = rateMeterKV.getKey();
-        GrpcCallRateMeter rateMeter = rateMeterKV.getValue();
-
-        if (!rateMeter.checkAndIncrement())
-            handlePermissionDeniedWarningAndCloseCall(methodName, rateMeter, serverCall);
-        else
-            log.info(rateMeter.getCallsCountProgress(methodName));
+    private boolean checkRateMeterAndMaybeCloseCall(String methodName,
+                                                    GrpcCallRateMeter rateMeter,
+                                                    ServerCall<?, ?> serverCall) {
+        String clientId = getClientId(serverCall);
+        if (!rateMeter.checkAndIncrement(clientId)) {
+            handleResourceExhaustedWarningAndCloseCall(methodName, rateMeter, clientId, serverCall);
+            return false;
+        }
+        if (log.isDebugEnabled())
+            log.debug(rateMeter.getCallsCountProgress(methodName));
+        return true;
     }
 
     private void handleMissingRateMeterConfiguration(ServerCall<?, ?> serverCall)
@@ -77,13 +89,20 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
                 getRateMeterKey(serverCall));
     }
 
-    private void handlePermissionDeniedWarningAndCloseCall(String methodName,
-                                                           GrpcCallRateMeter rateMeter,
-                                                           ServerCall<?, ?> serverCall)
+    private void handleResourceExhaustedWarningAndCloseCall(String methodName,
+                                                            GrpcCallRateMeter rateMeter,
+                                                            @Nullable String clientId,
+                                                            ServerCall<?, ?> serverCall)
             throws StatusRuntimeException {
-        String msg = getDefaultRateExceededError(methodName, rateMeter);
+        String msg = rateMeter.isClientLimitExceeded(clientId)
+                ? getClientRateExceededError(methodName, rateMeter)
+                : getDefaultRateExceededError(methodName, rateMeter);
         log.warn(msg + ".");
-        serverCall.close(PERMISSION_DENIED.withDescription(msg.toLowerCase()), new Metadata());
+        long retryAfterMillis = Math.max(1, rateMeter.getRetryAfterMillis(clientId));
+        Metadata trailers = new Metadata();
+        trailers.put(RETRY_AFTER_KEY, String.valueOf((retryAfterMillis + 999) / 1000));
+        trailers.put(RETRY_PUSHBACK_MS_KEY, String.valueOf(retryAfterMillis));
+        serverCall.close(RESOURCE_EXHAUSTED.withDescription(msg.toLowerCase()), trailers);
     }
 
     private String getDefaultRateExceededError(String methodName,
@@ -99,10 +118,23 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
                 timeUnitName);
     }
 
-    private Optional<Map.Entry<String, GrpcCallRateMeter>> getRateMeterKV(ServerCall<?, ?> serverCall) {
-        String rateMeterKey = getRateMeterKey(serverCall);
-        return serviceCallRateMeters.entrySet().stream()
-                .filter((e) -> e.getKey().equals(rateMeterKey)).findFirst();
+    private String getClientRateExceededError(String methodName,
+                                              GrpcCallRateMeter rateMeter) {
+        String timeUnitName = StringUtils.chop(rateMeter.getTimeUnit().name().toLowerCase());
+        String loggedMethodName = methodName.split("/")[1];
+        return format("The maximum allowed number of %s calls per client (%d/%s) has been exceeded",
+                loggedMethodName,
+                rateMeter.getAllowedCallsPerClientPerTimeWindow(),
+                timeUnitName);
+    }
+
+    @Nullable
+    private String getClientId(ServerCall<?, ?> serverCall) {
+        // Clients are told apart by their host, as the port changes with each connection.
+        SocketAddress remoteAddress = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (remoteAddress instanceof InetSocketAddress)
+            return ((InetSocketAddress) remoteAddress).getHostString();
+        return remoteAddress == null ? null : remoteAddress.toString();
     }
 
     private String getRateMeterKey(ServerCall<?, ?> serverCall) {
@@ -1,102 +1,276 @@
 package haveno.daemon.grpc.interceptor;
 
+import com.google.common.annotations.VisibleForTesting;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.ArrayDeque;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Predicate;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
-import static java.lang.System.currentTimeMillis;
 
+/**
+ * Limits the calls of a gRPC method per sliding time window, for all clients together and optionally per client.
+ * <p>
+ * Calls are counted in a fixed ring of buckets per time window, updated with compare and set, so metering takes
+ * neither a lock nor memory growing with the number of calls. A call is counted for the time window minus at most the
+ * length of one bucket, which is a twentieth of the time window.
+ * <p>
+ * A call is counted before it is checked against the limits and uncounted if it is denied. The meter therefore never
+ * admits more calls than allowed, but it may admit fewer under contention: calls racing for the last allowed calls of
+ * a time window see each other's counts and may all be denied.
+ * <p>
+ * The burst allowance admits calls beyond the limit of a time window as long as the calls of the last two time windows
+ * stay within twice the limit, so clients which were quiet before may briefly call faster.
+ */
 @Slf4j
 public class GrpcCallRateMeter {
 
+    private static final int NUM_BUCKETS_PER_TIME_WINDOW = 20;
+    // Each bucket holds its bucket number in the high and its calls count in the low bits
+    private static final int COUNT_BITS = 22;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int MAX_TRACKED_CLIENTS = 1000;
+    private static final String OTHER_CLIENTS = "";
+
     @Getter
     private final int allowedCallsPerTimeWindow;
     @Getter
     private final TimeUnit timeUnit;
     @Getter
     private final int numTimeUnits;
+    // Not limited per client if 0
+    @Getter
+    private final int allowedCallsPerClientPerTimeWindow;
+    @Getter
+    private final int burstAllowance;
 
     @Getter
     private transient final long timeUnitIntervalInMilliseconds;
 
-    private transient final ArrayDeque<Long> callTimestamps;
+    private transient final LongSupplier clock;
+    private transient final SlidingWindow callsOfAllClients;
+    private transient final Map<String, SlidingWindow> callsByClient = new ConcurrentHashMap<>();
 
     public GrpcCallRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit) {
         this(allowedCallsPerTimeWindow, timeUnit, 1);
     }
 
     public GrpcCallRateMeter(int allowedCallsPerTimeWindow, TimeUnit timeUnit, int numTimeUnits) {
+        this(allowedCallsPerTimeWindow, timeUnit, numTimeUnits, 0, 0);
+    }
+
+    public GrpcCallRateMeter(int allowedCallsPerTimeWindow,
+                             TimeUnit timeUnit,
+                             int numTimeUnits,
+                             int allowedCallsPerClientPerTimeWindow,
+                             int burstAllowance) {
+        this(allowedCallsPerTimeWindow, timeUnit, numTimeUnits, allowedCallsPerClientPerTimeWindow, burstAllowance,
+                System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    GrpcCallRateMeter(int allowedCallsPerTimeWindow,
+                      TimeUnit timeUnit,
+                      int numTimeUnits,
+                      int allowedCallsPerClientPerTimeWindow,
+                      int burstAllowance,
+                      LongSupplier clock) {
+        checkArgument(allowedCallsPerTimeWindow >= 0 && allowedCallsPerClientPerTimeWindow >= 0 && burstAllowance >= 0,
+                "Rate limits must not be negative");
+        checkArgument(allowedCallsPerTimeWindow + burstAllowance < COUNT_MASK / 2, "Rate limit is too high");
         this.allowedCallsPerTimeWindow = allowedCallsPerTimeWindow;
         this.timeUnit = timeUnit;
         this.numTimeUnits = numTimeUnits;
+        this.allowedCallsPerClientPerTimeWindow = allowedCallsPerClientPerTimeWindow;
+        this.burstAllowance = burstAllowance;
         this.timeUnitIntervalInMilliseconds = timeUnit.toMillis(1) * numTimeUnits;
-        this.callTimestamps = new ArrayDeque<>();
+        this.clock = clock;
+        this.callsOfAllClients = new SlidingWindow(timeUnitIntervalInMilliseconds);
     }
 
     public boolean checkAndIncrement() {
-        synchronized (callTimestamps) {
-            if (getCallsCount() < allowedCallsPerTimeWindow) {
-                incrementCallsCount();
-                return true;
-            } else {
-                return false;
-            }
+        return checkAndIncrement(null);
+    }
+
+    public boolean checkAndIncrement(@Nullable String clientId) {
+        long now = clock.getAsLong();
+        long bucket = callsOfAllClients.tryAcquire(now, allowedCallsPerTimeWindow, burstAllowance);
+        if (bucket < 0) {
+            return false;
+        }
+        if (isLimitedPerClient(clientId) &&
+                getCallsOfClient(clientId, now).tryAcquire(now, allowedCallsPerClientPerTimeWindow, burstAllowance) < 0) {
+            callsOfAllClients.release(bucket);
+            return false;
         }
+        return true;
     }
 
     public int getCallsCount() {
-        synchronized (callTimestamps) {
-            removeStaleCallTimestamps();
-            return callTimestamps.size();
+        return callsOfAllClients.count(clock.getAsLong());
+    }
+
+    public int getCallsCount(String clientId) {
+        SlidingWindow callsOfClient = callsByClient.get(clientId);
+        return callsOfClient == null ? 0 : callsOfClient.count(clock.getAsLong());
+    }
+
+    public boolean isClientLimitExceeded(@Nullable String clientId) {
+        return isLimitedPerClient(clientId) && getCallsCount(clientId) >= allowedCallsPerClientPerTimeWindow;
+    }
+
+    // Time until the calls of the client are within the limits again
+    public long getRetryAfterMillis(@Nullable String clientId) {
+        long now = clock.getAsLong();
+        long retryAfterMillis = callsOfAllClients.getRetryAfterMillis(now, allowedCallsPerTimeWindow);
+        SlidingWindow callsOfClient = isLimitedPerClient(clientId) ? callsByClient.get(clientId) : null;
+        if (callsOfClient != null) {
+            retryAfterMillis = Math.max(retryAfterMillis,
+                    callsOfClient.getRetryAfterMillis(now, allowedCallsPerClientPerTimeWindow));
         }
+        return retryAfterMillis;
     }
 
     public String getCallsCountProgress(String calledMethodName) {
-        synchronized (callTimestamps) {
-            String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
-            // Just print 'GetVersion has been called N times...',
-            // not 'io.haveno.protobuffer.GetVersion/GetVersion has been called N times...'
-            String loggedMethodName = calledMethodName.split("/")[1];
-            return format("%s has been called %d time%s in the last %s, rate limit is %d/%s",
-                    loggedMethodName,
-                    callTimestamps.size(),
-                    callTimestamps.size() == 1 ? "" : "s",
-                    shortTimeUnitName,
-                    allowedCallsPerTimeWindow,
-                    shortTimeUnitName);
-        }
+        String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
+        // Just print 'GetVersion has been called N times...',
+        // not 'io.haveno.protobuffer.GetVersion/GetVersion has been called N times...'
+        String loggedMethodName = calledMethodName.split("/")[1];
+        int callsCount = getCallsCount();
+        return format("%s has been called %d time%s in the last %s, rate limit is %d/%s",
+                loggedMethodName,
+                callsCount,
+                callsCount == 1 ? "" : "s",
+                shortTimeUnitName,
+                allowedCallsPerTimeWindow,
+                shortTimeUnitName);
     }
 
-    private void incrementCallsCount() {
-        callTimestamps.add(currentTimeMillis());
+    private boolean isLimitedPerClient(@Nullable String clientId) {
+        return clientId != null && allowedCallsPerClientPerTimeWindow > 0;
     }
 
-    private void removeStaleCallTimestamps() {
-        while (!callTimestamps.isEmpty() && isStale.test(callTimestamps.peek())) {
-            callTimestamps.remove();
+    private SlidingWindow getCallsOfClient(String clientId, long now) {
+        SlidingWindow callsOfClient = callsByClient.get(clientId);
+        if (callsOfClient != null) {
+            return callsOfClient;
+        }
+        if (callsByClient.size() >= MAX_TRACKED_CLIENTS) {
+            callsByClient.values().removeIf(window -> window.isIdle(now));
+            if (callsByClient.size() >= MAX_TRACKED_CLIENTS) {
+                // Clients beyond the bound share their limit
+                clientId = OTHER_CLIENTS;
+            }
         }
+        return callsByClient.computeIfAbsent(clientId, k -> new SlidingWindow(timeUnitIntervalInMilliseconds));
     }
 
-    private final Predicate<Long> isStale = (t) -> {
-        long stale = currentTimeMillis() - this.getTimeUnitIntervalInMilliseconds();
-        // Is the given timestamp before the current time minus 1 timeUnit in millis?
-        return t < stale;
-    };
-
     @Override
     public String toString() {
-        synchronized (callTimestamps) {
-            return "GrpcCallRateMeter{" +
-                    "allowedCallsPerTimeWindow=" + allowedCallsPerTimeWindow +
-                    ", timeUnit=" + timeUnit.name() +
-                    ", timeUnitIntervalInMilliseconds=" + timeUnitIntervalInMilliseconds +
-                    ", callsCount=" + callTimestamps.size() +
-                    '}';
+        return "GrpcCallRateMeter{" +
+                "allowedCallsPerTimeWindow=" + allowedCallsPerTimeWindow +
+                ", timeUnit=" + timeUnit.name() +
+                ", timeUnitIntervalInMilliseconds=" + timeUnitIntervalInMilliseconds +
+                ", allowedCallsPerClientPerTimeWindow=" + allowedCallsPerClientPerTimeWindow +
+                ", burstAllowance=" + burstAllowance +
+                ", callsCount=" + getCallsCount() +
+                '}';
+    }
+
+    // Calls counted in a ring of buckets covering two time windows, for the burst check
+    private static class SlidingWindow {
+        private final long bucketMillis;
+        private final int numBucketsPerTimeWindow;
+        private final AtomicLongArray buckets;
+
+        private SlidingWindow(long timeWindowMillis) {
+            bucketMillis = Math.max(1, timeWindowMillis / NUM_BUCKETS_PER_TIME_WINDOW);
+            numBucketsPerTimeWindow = (int) Math.max(1, timeWindowMillis / bucketMillis);
+            buckets = new AtomicLongArray(2 * numBucketsPerTimeWindow);
+        }
+
+        // Counts the call and returns its bucket, or -1 if it exceeds the limit and is not counted
+        private long tryAcquire(long now, int limit, int burstAllowance) {
+            long bucket = now / bucketMillis;
+            add(bucket, 1);
+            // Calls racing for the last allowed call are all counted here, so they may all be denied (under-admission)
+            // but never all admitted (over-admission)
+            int callsCount = count(bucket, numBucketsPerTimeWindow);
+            boolean isAllowed = callsCount <= limit ||
+                    (callsCount <= limit + burstAllowance && count(bucket, 2 * numBucketsPerTimeWindow) <= 2 * limit);
+            if (!isAllowed) {
+                add(bucket, -1);
+                return -1;
+            }
+            return bucket;
+        }
+
+        private void release(long bucket) {
+            add(bucket, -1);
+        }
+
+        private int count(long now) {
+            return count(now / bucketMillis, numBucketsPerTimeWindow);
+        }
+
+        private boolean isIdle(long now) {
+            return count(now / bucketMillis, 2 * numBucketsPerTimeWindow) == 0;
+        }
+
+        private long getRetryAfterMillis(long now, int limit) {
+            long bucket = now / bucketMillis;
+            // Calls which have to leave the time window before the next call is allowed
+            int excessCalls = count(bucket, numBucketsPerTimeWindow) - limit + 1;
+            if (excessCalls <= 0) {
+                return 0;
+            }
+            for (long oldBucket = bucket - numBucketsPerTimeWindow + 1; oldBucket <= bucket; oldBucket++) {
+                excessCalls -= count(oldBucket, 1);
+                if (excessCalls <= 0) {
+                    return (oldBucket + numBucketsPerTimeWindow) * bucketMillis - now;
+                }
+            }
+            return numBucketsPerTimeWindow * bucketMillis;
+        }
+
+        // Sums the calls of the given number of buckets up to the given bucket
+        private int count(long bucket, int numBuckets) {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                long value = buckets.get(i);
+                long valueBucket = value >>> COUNT_BITS;
+                if (valueBucket <= bucket && valueBucket > bucket - numBuckets) {
+                    count += value & COUNT_MASK;
+                }
+            }
+            return (int) count;
+        }
+
+        private void add(long bucket, int delta) {
+            int index = (int) (bucket % buckets.length());
+            while (true) {
+                long value = buckets.get(index);
+                long newValue;
+                if (value >>> COUNT_BITS == bucket) {
+                    newValue = value + delta;
+                } else if (delta > 0 && value >>> COUNT_BITS < bucket) {
+                    // The bucket is reused for a later time
+                    newValue = bucket << COUNT_BITS | delta;
+                } else {
+                    // The bucket of a released call has been reused already
+                    return;
+                }
+                if (buckets.compareAndSet(index, value, newValue)) {
+                    return;
+                }
+            }
         }
     }
 }
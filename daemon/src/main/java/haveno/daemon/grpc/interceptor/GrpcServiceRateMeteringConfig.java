@@ -55,6 +55,8 @@ public class GrpcServiceRateMeteringConfig {
     private static final String KEY_ALLOWED_CALL_PER_TIME_WINDOW = "allowedCallsPerTimeWindow";
     private static final String KEY_TIME_UNIT = "timeUnit";
     private static final String KEY_NUM_TIME_UNITS = "numTimeUnits";
+    private static final String KEY_ALLOWED_CALLS_PER_CLIENT_PER_TIME_WINDOW = "allowedCallsPerClientPerTimeWindow";
+    private static final String KEY_BURST_ALLOWANCE = "burstAllowance";
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
@@ -82,8 +84,17 @@ public class GrpcServiceRateMeteringConfig {
                                                                 int maxCalls,
                                                                 TimeUnit timeUnit,
                                                                 int numTimeUnits) {
+        return addMethodCallRateMeter(methodName, maxCalls, timeUnit, numTimeUnits, 0, 0);
+    }
+
+    public GrpcServiceRateMeteringConfig addMethodCallRateMeter(String methodName,
+                                                                int maxCalls,
+                                                                TimeUnit timeUnit,
+                                                                int numTimeUnits,
+                                                                int maxCallsPerClient,
+                                                                int burstAllowance) {
         methodRateMeters.add(new LinkedHashMap<>() {{
-            put(methodName, new GrpcCallRateMeter(maxCalls, timeUnit, numTimeUnits));
+            put(methodName, new GrpcCallRateMeter(maxCalls, timeUnit, numTimeUnits, maxCallsPerClient, burstAllowance));
         }});
         return this;
     }
@@ -181,7 +192,19 @@ public class GrpcServiceRateMeteringConfig {
         int allowedCallsPerTimeWindow = ((Number) valueMap.get(KEY_ALLOWED_CALL_PER_TIME_WINDOW)).intValue();
         TimeUnit timeUnit = TimeUnit.valueOf((String) valueMap.get(KEY_TIME_UNIT));
         int numTimeUnits = ((Number) valueMap.get(KEY_NUM_TIME_UNITS)).intValue();
-        return new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits);
+        // Optional, older config files do not limit calls per client or allow bursts
+        int allowedCallsPerClientPerTimeWindow = getOptionalInt(valueMap, KEY_ALLOWED_CALLS_PER_CLIENT_PER_TIME_WINDOW);
+        int burstAllowance = getOptionalInt(valueMap, KEY_BURST_ALLOWANCE);
+        return new GrpcCallRateMeter(allowedCallsPerTimeWindow,
+                timeUnit,
+                numTimeUnits,
+                allowedCallsPerClientPerTimeWindow,
+                burstAllowance);
+    }
+
+    private static int getOptionalInt(Map<String, Object> valueMap, String key) {
+        Object value = valueMap.get(key);
+        return value == null ? 0 : ((Number) value).intValue();
     }
 
     private static void verifyConfigFile(File configFile) {
@@ -231,16 +254,36 @@ public class GrpcServiceRateMeteringConfig {
                                      int maxCalls,
                                      TimeUnit timeUnit,
                                      int numTimeUnits) {
-            log.info("Adding call rate metering definition {}.{} ({}/{}ms).",
+            addCallRateMeter(grpcServiceClassName,
+                    methodName,
+                    maxCalls,
+                    timeUnit,
+                    numTimeUnits,
+                    0,
+                    0);
+        }
+
+        public void addCallRateMeter(String grpcServiceClassName,
+                                     String methodName,
+                                     int maxCalls,
+                                     TimeUnit timeUnit,
+                                     int numTimeUnits,
+                                     int maxCallsPerClient,
+                                     int burstAllowance) {
+            log.info("Adding call rate metering definition {}.{} ({}/{}ms, {} per client, burst {}).",
                     grpcServiceClassName,
                     methodName,
                     maxCalls,
-                    timeUnit.toMillis(1) * numTimeUnits);
+                    timeUnit.toMillis(1) * numTimeUnits,
+                    maxCallsPerClient,
+                    burstAllowance);
             rateMeterConfigs.stream().filter(c -> c.isConfigForGrpcService(grpcServiceClassName))
                     .findFirst().ifPresentOrElse(
-                    (config) -> config.addMethodCallRateMeter(methodName, maxCalls, timeUnit, numTimeUnits),
+                    (config) -> config.addMethodCallRateMeter(methodName, maxCalls, timeUnit, numTimeUnits,
+                            maxCallsPerClient, burstAllowance),
                     () -> rateMeterConfigs.add(new GrpcServiceRateMeteringConfig(grpcServiceClassName)
-                            .addMethodCallRateMeter(methodName, maxCalls, timeUnit, numTimeUnits)));
+                            .addMethodCallRateMeter(methodName, maxCalls, timeUnit, numTimeUnits,
+                                    maxCallsPerClient, burstAllowance)));
         }
 
         public File build() {
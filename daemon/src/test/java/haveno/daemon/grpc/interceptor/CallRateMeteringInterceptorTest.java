@@ -0,0 +1,259 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.daemon.grpc.interceptor;
+
+import haveno.proto.grpc.GetVersionGrpc;
+import haveno.proto.grpc.GetVersionReply;
+import haveno.proto.grpc.GetVersionRequest;
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor.RETRY_AFTER_KEY;
+import static haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor.RETRY_PUSHBACK_MS_KEY;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallRateMeteringInterceptorTest {
+    private static final MethodDescriptor<GetVersionRequest, GetVersionReply> GET_VERSION_METHOD =
+            GetVersionGrpc.getGetVersionMethod();
+
+    // Starts at the beginning of a bucket of the rate meters
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final AtomicInteger numStartedCalls = new AtomicInteger();
+
+    private GrpcCallRateMeter createRateMeter(int maxCalls, int maxCallsPerClient, int burstAllowance) {
+        return new GrpcCallRateMeter(maxCalls, SECONDS, 1, maxCallsPerClient, burstAllowance, clock::get);
+    }
+
+    private CallRateMeteringInterceptor createInterceptor(GrpcCallRateMeter rateMeter) {
+        return new CallRateMeteringInterceptor(Map.of(GET_VERSION_METHOD.getFullMethodName(), rateMeter));
+    }
+
+    private FakeServerCall call(CallRateMeteringInterceptor interceptor, String host, int port) {
+        FakeServerCall serverCall = new FakeServerCall(new InetSocketAddress(host, port));
+        interceptor.interceptCall(serverCall, new Metadata(), (startedCall, headers) -> {
+            numStartedCalls.incrementAndGet();
+            return new ServerCall.Listener<>() {
+            };
+        });
+        return serverCall;
+    }
+
+    private FakeServerCall call(CallRateMeteringInterceptor interceptor) {
+        return call(interceptor, "127.0.0.1", 50000);
+    }
+
+    @Test
+    public void callsAreCountedForTheTimeWindow() {
+        GrpcCallRateMeter rateMeter = createRateMeter(3, 0, 0);
+        CallRateMeteringInterceptor interceptor = createInterceptor(rateMeter);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(call(interceptor).isClosed());
+        }
+        assertTrue(call(interceptor).isClosed());
+        assertEquals(3, numStartedCalls.get());
+
+        // Calls leave the time window with the bucket of 50 ms they were counted in
+        clock.addAndGet(950);
+        assertEquals(3, rateMeter.getCallsCount());
+        assertTrue(call(interceptor).isClosed());
+        clock.addAndGet(50);
+        assertEquals(0, rateMeter.getCallsCount());
+        for (int i = 0; i < 3; i++) {
+            assertFalse(call(interceptor).isClosed());
+        }
+        assertTrue(call(interceptor).isClosed());
+        assertEquals(6, numStartedCalls.get());
+    }
+
+    @Test
+    public void rejectedCallIsClosedWithRetryAfter() {
+        CallRateMeteringInterceptor interceptor = createInterceptor(createRateMeter(3, 0, 0));
+        for (int i = 0; i < 3; i++) {
+            call(interceptor);
+            clock.addAndGet(200);
+        }
+        clock.addAndGet(-100);
+
+        FakeServerCall rejectedCall = call(interceptor);
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, rejectedCall.status.getCode());
+        assertEquals("the maximum allowed number of getversion calls (3/second) has been exceeded",
+                rejectedCall.status.getDescription());
+        // The first call leaves the time window in 500 ms
+        assertEquals("500", rejectedCall.trailers.get(RETRY_PUSHBACK_MS_KEY));
+        assertEquals("1", rejectedCall.trailers.get(RETRY_AFTER_KEY));
+        assertEquals(3, numStartedCalls.get());
+
+        clock.addAndGet(499);
+        assertTrue(call(interceptor).isClosed());
+        clock.addAndGet(1);
+        assertFalse(call(interceptor).isClosed());
+    }
+
+    @Test
+    public void burstIsAllowedAfterQuietTimeWindow() {
+        GrpcCallRateMeter rateMeter = createRateMeter(2, 0, 2);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateMeter.checkAndIncrement());
+        }
+        assertFalse(rateMeter.checkAndIncrement());
+
+        // The burst counts against the next time window
+        clock.addAndGet(1000);
+        assertTrue(rateMeter.checkAndIncrement());
+        assertTrue(rateMeter.checkAndIncrement());
+        assertFalse(rateMeter.checkAndIncrement());
+
+        clock.addAndGet(2000);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateMeter.checkAndIncrement());
+        }
+        assertFalse(rateMeter.checkAndIncrement());
+    }
+
+    @Test
+    public void callsAreLimitedPerClient() {
+        GrpcCallRateMeter rateMeter = createRateMeter(10, 2, 0);
+        CallRateMeteringInterceptor interceptor = createInterceptor(rateMeter);
+
+        // Connections of a client differ in their port only
+        assertFalse(call(interceptor, "10.0.0.1", 50001).isClosed());
+        assertFalse(call(interceptor, "10.0.0.1", 50002).isClosed());
+        FakeServerCall rejectedCall = call(interceptor, "10.0.0.1", 50003);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, rejectedCall.status.getCode());
+        assertEquals("the maximum allowed number of getversion calls per client (2/second) has been exceeded",
+                rejectedCall.status.getDescription());
+
+        assertFalse(call(interceptor, "10.0.0.2", 50001).isClosed());
+        assertFalse(call(interceptor, "10.0.0.2", 50001).isClosed());
+
+        // Rejected calls are not counted against the other clients
+        assertEquals(4, rateMeter.getCallsCount());
+        assertEquals(2, rateMeter.getCallsCount("10.0.0.1"));
+        assertEquals(0, rateMeter.getCallsCount("10.0.0.3"));
+    }
+
+    @Test
+    public void unmeteredMethodIsStarted() {
+        CallRateMeteringInterceptor interceptor = new CallRateMeteringInterceptor(Map.of());
+        FakeServerCall serverCall = call(interceptor);
+        assertFalse(serverCall.isClosed());
+        assertEquals(1, numStartedCalls.get());
+    }
+
+    @Test
+    public void concurrentCallsDoNotExceedLimit() throws Exception {
+        int numThreads = 8;
+        int maxCalls = 1000;
+        GrpcCallRateMeter rateMeter = createRateMeter(maxCalls, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger numAllowed = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < maxCalls / 2; j++) {
+                        if (rateMeter.checkAndIncrement()) {
+                            numAllowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // Calls racing for the last allowed calls may all be rejected, but never more than allowed are admitted
+            assertTrue(numAllowed.get() <= maxCalls);
+            assertTrue(numAllowed.get() >= maxCalls - numThreads);
+            assertEquals(numAllowed.get(), rateMeter.getCallsCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class FakeServerCall extends ServerCall<GetVersionRequest, GetVersionReply> {
+        private final Attributes attributes;
+        private Status status;
+        private Metadata trailers;
+
+        private FakeServerCall(InetSocketAddress remoteAddress) {
+            attributes = Attributes.newBuilder().set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, remoteAddress).build();
+        }
+
+        private boolean isClosed() {
+            return status != null;
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(GetVersionReply message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.status = status;
+            this.trailers = trailers;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public MethodDescriptor<GetVersionRequest, GetVersionReply> getMethodDescriptor() {
+            return GET_VERSION_METHOD;
+        }
+    }
+}
@@ -541,7 +541,7 @@ public class ChatView extends AnchorPane {
     private void onRequestUpload() {
         if (!allowAttachments)
             return;
-        int totalSize = tempAttachments.stream().mapToInt(a -> a.getBytes().length).sum();
+        int totalSize = (int) tempAttachments.stream().mapToLong(Attachment::getSize).sum();
         if (tempAttachments.size() < 3) {
             FileChooser fileChooser = new FileChooser();
             int maxMsgSize = Connection.getPermittedMessageSize();
@@ -625,8 +625,9 @@ public class ChatView extends AnchorPane {
         File file = fileChooser.showSaveDialog(getScene().getWindow());
         if (file != null) {
             try (FileOutputStream fileOutputStream = new FileOutputStream(file.getAbsolutePath())) {
+                // The bytes are loaded from the attachment store
                 fileOutputStream.write(attachment.getBytes());
-            } catch (IOException e) {
+            } catch (IOException | IllegalStateException e) {
                 log.error("Error opening attachment: {}\n", e.getMessage(), e);
             }
         }
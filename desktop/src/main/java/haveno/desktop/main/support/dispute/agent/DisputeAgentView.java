@@ -107,8 +107,6 @@ public abstract class DisputeAgentView extends DisputeView implements MultipleHo
         fullReportButton.setVisible(true);
         fullReportButton.setManaged(true);
 
-        multipleHolderNameDetection.detectMultipleHolderNames();
-
         validationExceptionListener = c -> {
             c.next();
             if (c.wasAdded()) {
@@ -18,6 +18,7 @@
 package haveno.network.p2p;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -47,6 +48,7 @@ import haveno.network.p2p.peers.peerexchange.PeerExchangeManager;
 import haveno.network.p2p.storage.HashMapChangedListener;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
 import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
@@ -67,6 +69,11 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -216,6 +223,10 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
             keepAliveManager.shutDown();
         }
 
+        if (mailboxMessageService != null) {
+            mailboxMessageService.shutDown();
+        }
+
         if (networkReadySubscription != null) {
             networkReadySubscription.unsubscribe();
         }
@@ -484,6 +495,36 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         }
     }
 
+    /**
+     * Refreshes the TTL of the payloads with bundled messages of up to RefreshOffersMessage.MAX_ENTRIES entries.
+     *
+     * @return payloads which were not refreshed
+     */
+    public <T extends ProtectedStoragePayload> List<T> refreshTTLs(Collection<T> protectedStoragePayloads) {
+        if (isBootstrapped()) {
+            List<T> notRefreshed = new ArrayList<>();
+            for (List<T> bundle : Lists.partition(new ArrayList<>(protectedStoragePayloads), RefreshOffersMessage.MAX_ENTRIES)) {
+                try {
+                    RefreshOffersMessage refreshOffersMessage = p2PDataStorage.getRefreshOffersMessage(bundle, keyRing.getSignatureKeyPair());
+                    Set<RefreshOffersMessage.Entry> refreshedEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+                    refreshedEntries.addAll(p2PDataStorage.refreshTTLs(refreshOffersMessage, networkNode.getNodeAddress()));
+                    // The entries are in the order of the payloads
+                    for (int i = 0; i < bundle.size(); i++) {
+                        if (!refreshedEntries.contains(refreshOffersMessage.getEntries().get(i))) {
+                            notRefreshed.add(bundle.get(i));
+                        }
+                    }
+                } catch (CryptoException e) {
+                    log.error("Signing at getRefreshOffersMessage failed. That should never happen.");
+                    notRefreshed.addAll(bundle);
+                }
+            }
+            return notRefreshed;
+        } else {
+            throw new NetworkNotReadyException();
+        }
+    }
+
     public boolean removeData(ProtectedStoragePayload protectedStoragePayload) {
         if (isBootstrapped()) {
             try {
@@ -58,12 +58,17 @@ public class IgnoredMailboxService implements PersistedDataHost {
                 completeHandler);
     }
 
+    // Called from the mailbox decryption threads
     public boolean isIgnored(String uid) {
-        return ignoredMailboxMap.containsKey(uid);
+        synchronized (ignoredMailboxMap) {
+            return ignoredMailboxMap.containsKey(uid);
+        }
     }
 
     public void ignore(String uid, long creationTimeStamp) {
-        ignoredMailboxMap.put(uid, creationTimeStamp);
+        synchronized (ignoredMailboxMap) {
+            ignoredMailboxMap.put(uid, creationTimeStamp);
+        }
         persistenceManager.requestPersistence();
     }
 }
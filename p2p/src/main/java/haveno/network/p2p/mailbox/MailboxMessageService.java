@@ -34,9 +34,11 @@
 
 package haveno.network.p2p.mailbox;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -79,17 +81,22 @@ import java.security.PublicKey;
 import java.time.Clock;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -121,6 +128,10 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
     private static final long MAX_SERIALIZED_SIZE = 50000;
 
+    // Below that number of entries to decrypt we do not use the decryption pool
+    private static final int MIN_ENTRIES_FOR_PARALLEL_DECRYPTION = 100;
+    private static final int NUM_DECRYPTION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
     private final P2PDataStorage p2PDataStorage;
@@ -134,6 +145,12 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private final Set<DecryptedMailboxListener> decryptedMailboxListeners = new CopyOnWriteArraySet<>();
     private final MailboxMessageList mailboxMessageList = new MailboxMessageList();
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
+    // Threads are only started at the first parallel decryption and terminate after being idle for 60 sec.
+    private final ExecutorService decryptionExecutor = Utilities.getListeningExecutorService("MailboxDecryption",
+            NUM_DECRYPTION_THREADS,
+            NUM_DECRYPTION_THREADS,
+            60,
+            new LinkedBlockingQueue<>());
 
     private boolean isBootstrapped;
     private boolean allServicesInitialized;
@@ -268,6 +285,11 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         init();
     }
 
+    public void shutDown() {
+        // A batch which is still decrypting fails and gets processed again from the p2PDataStorage at the next startup
+        decryptionExecutor.shutdownNow();
+    }
+
     private void init() {
         if (allServicesInitialized && initAfterBootstrapped) {
             // Only now we start listening and processing. The p2PDataStorage is our cache for data we have received
@@ -439,7 +461,8 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     }
 
     // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // For about 1000 messages decryption takes about 1 sec. Entries which are not addressed to us are skipped without
+    // decryption and the remaining ones are decrypted in parallel.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
         long ts = System.currentTimeMillis();
         SettableFuture<Set<MailboxItem>> future = SettableFuture.create();
@@ -470,14 +493,57 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         }, MoreExecutors.directExecutor());
     }
 
-    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        Set<MailboxItem> mailboxItems = new HashSet<>();
-        protectedMailboxStorageEntries.stream()
-                .map(this::tryDecryptProtectedMailboxStorageEntry)
-                .forEach(mailboxItems::add);
+    // The order of the items does not matter here as handleMailboxItems sorts them before delivery.
+    @VisibleForTesting
+    public Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
+        Set<MailboxItem> mailboxItems = ConcurrentHashMap.newKeySet();
+        byte[] mySignaturePubKeyBytes = keyRing.getPubKeyRing().getSignaturePubKeyBytes();
+        List<ProtectedMailboxStorageEntry> entriesToDecrypt = new ArrayList<>();
+        protectedMailboxStorageEntries.forEach(entry -> {
+            if (isAddressedToOthers(entry, mySignaturePubKeyBytes)) {
+                mailboxItems.add(new MailboxItem(entry, null));
+            } else {
+                entriesToDecrypt.add(entry);
+            }
+        });
+
+        if (entriesToDecrypt.size() < MIN_ENTRIES_FOR_PARALLEL_DECRYPTION) {
+            entriesToDecrypt.stream()
+                    .map(this::tryDecryptProtectedMailboxStorageEntry)
+                    .forEach(mailboxItems::add);
+            return mailboxItems;
+        }
+
+        int batchSize = (entriesToDecrypt.size() + NUM_DECRYPTION_THREADS - 1) / NUM_DECRYPTION_THREADS;
+        List<Future<?>> futures = new ArrayList<>();
+        Lists.partition(entriesToDecrypt, batchSize).forEach(batch ->
+                futures.add(decryptionExecutor.submit(() -> batch.stream()
+                        .map(this::tryDecryptProtectedMailboxStorageEntry)
+                        .forEach(mailboxItems::add))));
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
         return mailboxItems;
     }
 
+    // The receiversPubKey of a valid ProtectedMailboxStorageEntry is the signature pubKey of the receiver (see
+    // ProtectedMailboxStorageEntry.isValidForAddOperation). So we can skip the expensive decryption if it does not match
+    // ours. Entries without receiversPubKeyBytes take the decryption path.
+    private static boolean isAddressedToOthers(ProtectedMailboxStorageEntry protectedMailboxStorageEntry,
+                                               byte[] mySignaturePubKeyBytes) {
+        byte[] receiversPubKeyBytes = protectedMailboxStorageEntry.getReceiversPubKeyBytes();
+        return receiversPubKeyBytes != null &&
+                receiversPubKeyBytes.length > 0 &&
+                !Arrays.equals(receiversPubKeyBytes, mySignaturePubKeyBytes);
+    }
+
     private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
         PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = protectedMailboxStorageEntry
                 .getMailboxStoragePayload()
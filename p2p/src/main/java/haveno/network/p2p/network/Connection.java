@@ -45,6 +45,8 @@ import haveno.common.app.Capabilities;
 import haveno.common.app.HasCapabilities;
 import haveno.common.app.Version;
 import haveno.common.config.Config;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.proto.ProtobufferException;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkProtoResolver;
@@ -117,6 +119,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(240);
     private static final int SHUTDOWN_TIMEOUT = 100;
     private static final String THREAD_ID = Connection.class.getSimpleName();
+    // We keep the histograms per message type to not look them up in the registry at each message
+    private static final Map<Class<? extends NetworkEnvelope>, Histogram> SEND_DURATION_BY_TYPE = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends NetworkEnvelope>, Histogram> RECEIVE_DURATION_BY_TYPE = new ConcurrentHashMap<>();
 
     public static int getPermittedMessageSize() {
         return PERMITTED_MESSAGE_SIZE;
@@ -282,7 +287,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             if (!stopped) {
                 protoOutputStream.writeEnvelope(networkEnvelope);
                 ThreadUtils.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)), THREAD_ID);
-                ThreadUtils.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize), THREAD_ID);
+                long duration = System.currentTimeMillis() - ts;
+                SEND_DURATION_BY_TYPE.computeIfAbsent(networkEnvelope.getClass(),
+                                type -> MetricsRegistry.getInstance().histogram("haveno_network_send_duration_ms",
+                                        "Time to send a message including throttling",
+                                        "type", type.getSimpleName()))
+                        .record(duration);
+                ThreadUtils.execute(() -> connectionStatistics.addSendMsgMetrics(duration, networkEnvelopeSize), THREAD_ID);
             }
         } catch (Throwable t) {
             handleException(t);
@@ -873,7 +884,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         }
 
                         ThreadUtils.execute(() -> onMessage(networkEnvelope, this), THREAD_ID);
-                        ThreadUtils.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size), THREAD_ID);
+                        long duration = System.currentTimeMillis() - ts;
+                        RECEIVE_DURATION_BY_TYPE.computeIfAbsent(networkEnvelope.getClass(),
+                                        type -> MetricsRegistry.getInstance().histogram("haveno_network_receive_duration_ms",
+                                                "Time to read and validate a received message including throttling",
+                                                "type", type.getSimpleName()))
+                                .record(duration);
+                        ThreadUtils.execute(() -> connectionStatistics.addReceivedMsgMetrics(duration, size), THREAD_ID);
                     }
                 } catch (InvalidClassException e) {
                     reportInvalidRequest(RuleViolation.INVALID_CLASS, e.getMessage());
@@ -26,17 +26,17 @@ import haveno.network.p2p.NodeAddress;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class ConnectionStatistics implements MessageListener {
     private final Connection connection;
     private final ConnectionState connectionState;
-    private final Map<String, Integer> sentDataMap = new HashMap<>();
-    private final Map<String, Integer> receivedDataMap = new HashMap<>();
-    private final Map<String, Long> rrtMap = new HashMap<>();
+    private final Map<String, Integer> sentDataMap = new ConcurrentHashMap<>();
+    private final Map<String, Integer> receivedDataMap = new ConcurrentHashMap<>();
+    private final Map<String, Long> rrtMap = new ConcurrentHashMap<>();
     @Getter
     private final long connectionCreationTimeStamp;
     @Getter
@@ -22,6 +22,8 @@ import haveno.network.p2p.NodeAddress;
 import haveno.common.Timer;
 import haveno.common.UserThread;
 import haveno.common.app.Capabilities;
+import haveno.common.metrics.Gauge;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkProtoResolver;
 import haveno.common.util.Utilities;
@@ -81,6 +83,8 @@ public abstract class NetworkNode implements MessageListener {
     final CopyOnWriteArraySet<SetupListener> setupListeners = new CopyOnWriteArraySet<>();
     private final ListeningExecutorService connectionExecutor;
     private final ListeningExecutorService sendMessageExecutor;
+    private final Gauge connectionsGauge;
+    private final Gauge confirmedConnectionsGauge;
     private Server server;
 
     @Getter
@@ -111,6 +115,12 @@ public abstract class NetworkNode implements MessageListener {
                 maxConnections * 3,
                 30,
                 30);
+
+        // The gauges reference this node, so they get removed again at shutDown
+        connectionsGauge = MetricsRegistry.getInstance().gauge("haveno_network_connections",
+                "Number of connections to peers", () -> getAllConnections().size());
+        confirmedConnectionsGauge = MetricsRegistry.getInstance().gauge("haveno_network_confirmed_connections",
+                "Number of connections to peers with a known address", () -> getConfirmedConnections().size());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -366,6 +376,8 @@ public abstract class NetworkNode implements MessageListener {
         log.info("NetworkNode shutdown started");
         if (!isShutDownStarted) {
             isShutDownStarted = true;
+            MetricsRegistry.getInstance().remove(connectionsGauge);
+            MetricsRegistry.getInstance().remove(confirmedConnectionsGauge);
             if (server != null) {
                 server.shutDown();
                 server = null;
@@ -18,6 +18,9 @@
 package haveno.network.p2p.network;
 
 import haveno.common.UserThread;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.util.Utilities;
 import javafx.beans.property.DoubleProperty;
@@ -45,6 +48,16 @@ public class Statistic {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
 
+    private final static Counter sentBytesCounter = MetricsRegistry.getInstance().counter(
+            "haveno_network_sent_bytes_total", "Bytes sent to all peers");
+    private final static Counter receivedBytesCounter = MetricsRegistry.getInstance().counter(
+            "haveno_network_received_bytes_total", "Bytes received from all peers");
+    private final static Histogram roundTripTimeHistogram = MetricsRegistry.getInstance().histogram(
+            "haveno_network_round_trip_time_ms", "Round trip time of pings to peers");
+    // We keep the counters per message type to not look them up in the registry at each message
+    private final static Map<String, Counter> receivedMessagesCounters = new ConcurrentHashMap<>();
+    private final static Map<String, Counter> sentMessagesCounters = new ConcurrentHashMap<>();
+
     private final static long startTime = System.currentTimeMillis();
     private final static LongProperty totalSentBytes = new SimpleLongProperty(0);
     private final static DoubleProperty totalSentBytesPerSec = new SimpleDoubleProperty(0);
@@ -152,6 +165,7 @@ public class Statistic {
     }
 
     void addSentBytes(int value) {
+        sentBytesCounter.inc(value);
         UserThread.execute(() -> {
             sentBytes.set(sentBytes.get() + value);
             totalSentBytes.set(totalSentBytes.get() + value);
@@ -159,6 +173,7 @@ public class Statistic {
     }
 
     void addReceivedBytes(int value) {
+        receivedBytesCounter.inc(value);
         UserThread.execute(() -> {
             receivedBytes.set(receivedBytes.get() + value);
             totalReceivedBytes.set(totalReceivedBytes.get() + value);
@@ -168,6 +183,9 @@ public class Statistic {
     // TODO would need msg inspection to get useful information...
     void addReceivedMessage(NetworkEnvelope networkEnvelope) {
         String messageClassName = networkEnvelope.getClass().getSimpleName();
+        receivedMessagesCounters.computeIfAbsent(messageClassName,
+                type -> MetricsRegistry.getInstance().counter("haveno_network_received_messages_total",
+                        "Messages received from all peers", "type", type)).inc();
         int counter = 1;
         if (receivedMessages.containsKey(messageClassName)) {
             counter = receivedMessages.get(messageClassName) + 1;
@@ -183,6 +201,9 @@ public class Statistic {
 
     void addSentMessage(NetworkEnvelope networkEnvelope) {
         String messageClassName = networkEnvelope.getClass().getSimpleName();
+        sentMessagesCounters.computeIfAbsent(messageClassName,
+                type -> MetricsRegistry.getInstance().counter("haveno_network_sent_messages_total",
+                        "Messages sent to all peers", "type", type)).inc();
         int counter = 1;
         if (sentMessages.containsKey(messageClassName)) {
             counter = sentMessages.get(messageClassName) + 1;
@@ -197,6 +218,7 @@ public class Statistic {
     }
 
     public void setRoundTripTime(int roundTripTime) {
+        roundTripTimeHistogram.record(roundTripTime);
         this.roundTripTime.set(roundTripTime);
     }
 
@@ -25,6 +25,9 @@ import haveno.network.p2p.storage.messages.BroadcastMessage;
 
 import haveno.common.Timer;
 import haveno.common.UserThread;
+import haveno.common.metrics.Counter;
+import haveno.common.metrics.Histogram;
+import haveno.common.metrics.MetricsRegistry;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -44,6 +47,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -54,6 +58,15 @@ import org.jetbrains.annotations.Nullable;
 public class BroadcastHandler implements PeerManager.Listener {
     private static final long BASE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(120);
 
+    private static final Counter BROADCAST_MESSAGES = MetricsRegistry.getInstance().counter(
+            "haveno_broadcast_messages_total", "Messages passed to a broadcast");
+    private static final Counter SENT_TO_PEERS = MetricsRegistry.getInstance().counter(
+            "haveno_broadcast_peer_sends_total", "Broadcast sends to peers", "result", "success");
+    private static final Counter FAILED_TO_PEERS = MetricsRegistry.getInstance().counter(
+            "haveno_broadcast_peer_sends_total", "Broadcast sends to peers", "result", "failure");
+    private static final Histogram BROADCAST_DURATION = MetricsRegistry.getInstance().histogram(
+            "haveno_broadcast_duration_ms", "Time until a broadcast got a result from all peers");
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Listener
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -83,6 +96,7 @@ public class BroadcastHandler implements PeerManager.Listener {
     private final AtomicInteger numOfCompletedBroadcasts = new AtomicInteger();
     private final AtomicInteger numOfFailedBroadcasts = new AtomicInteger();
     private final AtomicInteger numPeersForBroadcast = new AtomicInteger();
+    private long broadcastStartTs;
     @Nullable
     private Timer timeoutTimer;
     private final Set<SettableFuture<Connection>> sendMessageFutures = new CopyOnWriteArraySet<>();
@@ -111,6 +125,9 @@ public class BroadcastHandler implements PeerManager.Listener {
             return;
         }
 
+        broadcastStartTs = System.currentTimeMillis();
+        BROADCAST_MESSAGES.inc(broadcastRequests.size());
+
         List<Connection> confirmedConnections = new ArrayList<>(networkNode.getConfirmedConnections());
         Collections.shuffle(confirmedConnections);
 
@@ -245,13 +262,18 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     // We exclude the requests containing a message we received from that connection
     // Also we filter out messages which requires a capability but peer does not
-    // support it.
+    // support it, or replace them with their legacy messages if there are any.
     private List<Broadcaster.BroadcastRequest> getBroadcastRequestsForConnection(Connection connection,
             List<Broadcaster.BroadcastRequest> broadcastRequests) {
         return broadcastRequests.stream()
                 .filter(broadcastRequest -> !connection.getPeersNodeAddressOptional().isPresent() ||
                         !connection.getPeersNodeAddressOptional().get().equals(broadcastRequest.getSender()))
-                .filter(broadcastRequest -> connection.testCapability(broadcastRequest.getMessage()))
+                .flatMap(broadcastRequest -> {
+                    if (!connection.testCapability(broadcastRequest.getMessage())) {
+                        return broadcastRequest.getLegacyRequests().stream();
+                    }
+                    return broadcastRequest.isLegacyOnly() ? Stream.empty() : Stream.of(broadcastRequest);
+                })
                 .collect(Collectors.toList());
     }
 
@@ -266,6 +288,7 @@ public class BroadcastHandler implements PeerManager.Listener {
             @Override
             public void onSuccess(Connection connection) {
                 numOfCompletedBroadcasts.incrementAndGet();
+                SENT_TO_PEERS.inc();
 
                 if (stopped.get()) {
                     return;
@@ -283,6 +306,7 @@ public class BroadcastHandler implements PeerManager.Listener {
 
                 log.warn("Broadcast to " + connection.getPeersNodeAddressOptional() + " failed. ", throwable);
                 numOfFailedBroadcasts.incrementAndGet();
+                FAILED_TO_PEERS.inc();
 
                 maybeNotifyListeners(broadcastRequestsForConnection);
                 checkForCompletion();
@@ -331,6 +355,9 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     private void checkForCompletion() {
         if (numOfCompletedBroadcasts.get() + numOfFailedBroadcasts.get() == numPeersForBroadcast.get()) {
+            if (!stopped.get()) {
+                BROADCAST_DURATION.record(System.currentTimeMillis() - broadcastStartTs);
+            }
             cleanup();
         }
     }
@@ -17,6 +17,8 @@
 
 package haveno.network.p2p.peers;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
@@ -34,6 +36,8 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +46,9 @@ import org.jetbrains.annotations.Nullable;
 @Slf4j
 public class Broadcaster implements BroadcastHandler.ResultHandler {
     private static final long BROADCAST_INTERVAL_MS = 2000;
+    // Max. legacy messages sent instead of a message to a peer without its capability in one broadcast.
+    // The further legacy messages follow in the next broadcasts to stay below the throttle limits of the peer.
+    static final int MAX_LEGACY_MESSAGES_PER_BROADCAST = 100;
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -112,7 +119,39 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     public void broadcast(BroadcastMessage message,
             @Nullable NodeAddress sender,
             @Nullable BroadcastHandler.Listener listener) {
-        broadcastRequests.add(new BroadcastRequest(message, sender, listener));
+        addBroadcastRequest(new BroadcastRequest(message, sender, listener, null, false));
+    }
+
+    /**
+     * Broadcasts a message which requires a capability. Peers without the capability get the legacy messages instead,
+     * which are only created if such a peer is selected. The legacy messages are sent in chunks of
+     * MAX_LEGACY_MESSAGES_PER_BROADCAST, one chunk per broadcast interval.
+     */
+    public void broadcastWithLegacyFallback(BroadcastMessage message,
+            @Nullable NodeAddress sender,
+            List<Supplier<BroadcastMessage>> legacyMessages) {
+        List<List<Supplier<BroadcastMessage>>> chunks = Lists.partition(legacyMessages, MAX_LEGACY_MESSAGES_PER_BROADCAST);
+        addBroadcastRequest(new BroadcastRequest(message, sender, null,
+                chunks.isEmpty() ? null : toLegacyMessages(chunks.get(0)), false));
+        for (int i = 1; i < chunks.size(); i++) {
+            BroadcastRequest legacyRequest = new BroadcastRequest(message, sender, null,
+                    toLegacyMessages(chunks.get(i)), true);
+            UserThread.runAfter(() -> {
+                if (!shutDownRequested) {
+                    addBroadcastRequest(legacyRequest);
+                }
+            }, i * BROADCAST_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Supplier<List<BroadcastMessage>> toLegacyMessages(List<Supplier<BroadcastMessage>> chunk) {
+        return Suppliers.memoize(() -> chunk.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList()));
+    }
+
+    private void addBroadcastRequest(BroadcastRequest broadcastRequest) {
+        broadcastRequests.add(broadcastRequest);
         if (timer == null) {
             timer = UserThread.runAfter(this::maybeBroadcastBundle, BROADCAST_INTERVAL_MS, TimeUnit.MILLISECONDS);
         }
@@ -155,13 +194,31 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
         private NodeAddress sender;
         @Nullable
         private BroadcastHandler.Listener listener;
+        @Nullable
+        private Supplier<List<BroadcastMessage>> legacyMessages;
+        // Only the legacy messages are sent, peers with the capability got the message with an earlier request
+        private boolean legacyOnly;
 
         private BroadcastRequest(BroadcastMessage message,
                                  @Nullable NodeAddress sender,
-                                 @Nullable BroadcastHandler.Listener listener) {
+                                 @Nullable BroadcastHandler.Listener listener,
+                                 @Nullable Supplier<List<BroadcastMessage>> legacyMessages,
+                                 boolean legacyOnly) {
             this.message = message;
             this.sender = sender;
             this.listener = listener;
+            this.legacyMessages = legacyMessages;
+            this.legacyOnly = legacyOnly;
+        }
+
+        // Requests to send instead of this one to peers which do not support the capability required by the message
+        List<BroadcastRequest> getLegacyRequests() {
+            if (legacyMessages == null) {
+                return List.of();
+            }
+            return legacyMessages.get().stream()
+                    .map(legacyMessage -> new BroadcastRequest(legacyMessage, sender, listener, null, false))
+                    .collect(Collectors.toList());
         }
     }
 }
@@ -29,6 +29,7 @@ import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
 import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
@@ -60,6 +61,9 @@ public class GetDataRequestHandler {
     private final P2PDataStorage dataStorage;
     private final Listener listener;
     private Timer timeoutTimer;
+    // Nonce of the handled request
+    @Getter
+    private int nonce;
     private boolean stopped;
 
 
@@ -79,6 +83,7 @@ public class GetDataRequestHandler {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void handle(GetDataRequest getDataRequest, final Connection connection) {
+        nonce = getDataRequest.getNonce();
         long ts = System.currentTimeMillis();
         String connectionInfo = "connectionInfo" + connection.getPeersNodeAddressOptional()
                 .map(e -> "node address " + e.getFullAddress())
@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import haveno.common.Timer;
 import haveno.common.UserThread;
+import haveno.common.app.Capability;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkPayload;
 import haveno.common.util.Tuple2;
@@ -35,6 +36,7 @@ import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.PeerManager;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.peers.getdata.messages.ReconciliationSketch;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
@@ -44,6 +46,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -52,6 +55,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 class RequestDataHandler implements MessageListener {
     private static final long TIMEOUT = 240;
 
+    // After that many failed attempts to decode our ReconciliationSketch we fall back to the excluded keys.
+    private static final int MAX_RECONCILIATION_ATTEMPTS = 3;
+
     private NodeAddress peersNodeAddress;
     private String getDataRequestType;
     /*
@@ -85,7 +91,17 @@ class RequestDataHandler implements MessageListener {
     private final PeerManager peerManager;
     private final Listener listener;
     private Timer timeoutTimer;
-    private final int nonce = new Random().nextInt();
+    private final Random random = new Random();
+    // Renewed with each attempt so the peer does not take a retry for a duplicate of the previous request
+    private int nonce;
+    private final long reconciliationSalt = random.nextLong();
+    private boolean isPreliminaryDataRequest;
+    private int reconciliationAttempt;
+    // Number of cells of the first attempt, doubled with each retry
+    private int reconciliationNumCells;
+    // Sketch of the last attempt, built once and folded for the earlier attempts
+    @Nullable
+    private ReconciliationSketch largestReconciliationSketch;
     private boolean stopped;
 
 
@@ -114,67 +130,111 @@ class RequestDataHandler implements MessageListener {
 
     void requestData(NodeAddress nodeAddress, boolean isPreliminaryDataRequest) {
         peersNodeAddress = nodeAddress;
+        this.isPreliminaryDataRequest = isPreliminaryDataRequest;
         if (!stopped) {
-            GetDataRequest getDataRequest;
-
-            if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
-            else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
-
-            if (timeoutTimer == null) {
-                timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                            if (!stopped) {
-                                String errorMessage = "A timeout occurred at sending getDataRequest:" + getDataRequest +
-                                        " on nodeAddress:" + nodeAddress;
-                                log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
-                                handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
-                            } else {
-                                log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
-                                        "Might be caused by a previous networkNode.sendMessage.onFailure.");
-                            }
-                        },
-                        TIMEOUT);
-            }
-
-            getDataRequestType = getDataRequest.getClass().getSimpleName();
-            log.info("\n\n>> We send a {} to peer {}\n", getDataRequestType, nodeAddress);
             networkNode.addMessageListener(this);
+            sendGetDataRequest(nodeAddress);
+        } else {
+            log.warn("We have stopped already. We ignore that requestData call.");
+        }
+    }
 
-            try {
-                SettableFuture<Connection> future = networkNode.sendMessage(nodeAddress, getDataRequest);
-                //noinspection UnstableApiUsage
-                Futures.addCallback(future, new FutureCallback<>() {
-                    @Override
-                    public void onSuccess(Connection connection) {
+    private void sendGetDataRequest(NodeAddress nodeAddress) {
+        GetDataRequest getDataRequest = buildGetDataRequest(nodeAddress);
+
+        if (timeoutTimer == null) {
+            timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
                         if (!stopped) {
-                            log.trace("Send {} to {} succeeded.", getDataRequest, nodeAddress);
+                            String errorMessage = "A timeout occurred at sending getDataRequest:" + getDataRequest +
+                                    " on nodeAddress:" + nodeAddress;
+                            log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
+                            handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
                         } else {
-                            log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call." +
-                                    "Might be caused by a previous timeout.");
+                            log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
+                                    "Might be caused by a previous networkNode.sendMessage.onFailure.");
                         }
+                    },
+                    TIMEOUT);
+        }
+
+        getDataRequestType = getDataRequest.getClass().getSimpleName();
+        log.info("\n\n>> We send a {} to peer {}\n", getDataRequestType, nodeAddress);
+
+        try {
+            SettableFuture<Connection> future = networkNode.sendMessage(nodeAddress, getDataRequest);
+            //noinspection UnstableApiUsage
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(Connection connection) {
+                    if (!stopped) {
+                        log.trace("Send {} to {} succeeded.", getDataRequest, nodeAddress);
+                    } else {
+                        log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call." +
+                                "Might be caused by a previous timeout.");
                     }
-    
-                    @Override
-                    public void onFailure(@NotNull Throwable throwable) {
-                        if (!stopped) {
-                            String errorMessage = "Sending getDataRequest to " + nodeAddress +
-                                    " failed. That is expected if the peer is offline.\n\t" +
-                                    "getDataRequest=" + getDataRequest + "." +
-                                    "\n\tException=" + throwable.getMessage();
-                            handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_FAILURE);
-                        } else {
-                            log.trace("We have stopped already. We ignore that networkNode.sendMessage.onFailure call. " +
-                                    "Might be caused by a previous timeout.");
-                        }
+                }
+
+                @Override
+                public void onFailure(@NotNull Throwable throwable) {
+                    if (!stopped) {
+                        String errorMessage = "Sending getDataRequest to " + nodeAddress +
+                                " failed. That is expected if the peer is offline.\n\t" +
+                                "getDataRequest=" + getDataRequest + "." +
+                                "\n\tException=" + throwable.getMessage();
+                        handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_FAILURE);
+                    } else {
+                        log.trace("We have stopped already. We ignore that networkNode.sendMessage.onFailure call. " +
+                                "Might be caused by a previous timeout.");
                     }
-                }, MoreExecutors.directExecutor());
-            } catch (Exception e) {
-                if (!networkNode.isShutDownStarted()) throw e;
-            }
+                }
+            }, MoreExecutors.directExecutor());
+        } catch (Exception e) {
+            if (!networkNode.isShutDownStarted()) throw e;
+        }
+    }
+
+    private GetDataRequest buildGetDataRequest(NodeAddress nodeAddress) {
+        nonce = random.nextInt();
+        Optional<ReconciliationSketch> reconciliationSketch = Optional.empty();
+        if (reconciliationAttempt < MAX_RECONCILIATION_ATTEMPTS &&
+                peerManager.peerHasCapability(nodeAddress, Capability.SET_RECONCILIATION)) {
+            reconciliationSketch = getReconciliationSketch();
+        }
+
+        if (isPreliminaryDataRequest) {
+            return reconciliationSketch
+                    .map(sketch -> dataStorage.buildPreliminaryGetDataRequest(nonce, sketch))
+                    .orElseGet(() -> dataStorage.buildPreliminaryGetDataRequest(nonce));
         } else {
-            log.warn("We have stopped already. We ignore that requestData call.");
+            return reconciliationSketch
+                    .map(sketch -> dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce, sketch))
+                    .orElseGet(() -> dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce));
+        }
+    }
+
+    private Optional<ReconciliationSketch> getReconciliationSketch() {
+        if (largestReconciliationSketch == null) {
+            reconciliationNumCells = dataStorage.getReconciliationSketchNumCells();
+            if (reconciliationNumCells == 0) {
+                return Optional.empty();
+            }
+            int largestNumCells = reconciliationNumCells;
+            for (int attempt = 1; attempt < MAX_RECONCILIATION_ATTEMPTS &&
+                    largestNumCells * 2 <= ReconciliationSketch.MAX_NUM_CELLS; attempt++) {
+                largestNumCells *= 2;
+            }
+            largestReconciliationSketch = dataStorage.buildReconciliationSketch(largestNumCells, reconciliationSalt).orElse(null);
+            if (largestReconciliationSketch == null) {
+                reconciliationAttempt = MAX_RECONCILIATION_ATTEMPTS;
+                return Optional.empty();
+            }
         }
+
+        long numCells = (long) reconciliationNumCells << reconciliationAttempt;
+        if (numCells > largestReconciliationSketch.getNumCells()) {
+            return Optional.empty();
+        }
+        return Optional.of(largestReconciliationSketch.fold((int) numCells));
     }
 
 
@@ -198,6 +258,14 @@ class RequestDataHandler implements MessageListener {
                             return;
                         }
 
+                        if (getDataResponse.isReconciliationFailed()) {
+                            reconciliationAttempt++;
+                            log.info("Peer could not decode our ReconciliationSketch. We repeat the request with " +
+                                    "attempt {}", reconciliationAttempt);
+                            sendGetDataRequest(peersNodeAddress);
+                            return;
+                        }
+
                         dataStorage.processGetDataResponse(getDataResponse,
                                 connection.getPeersNodeAddressOptional().get());
 
@@ -278,6 +278,15 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
                     return;
                 }
                 final String uid = connection.getUid();
+                GetDataRequestHandler pendingHandler = getDataRequestHandlers.get(uid);
+                if (pendingHandler != null && pendingHandler.getNonce() != getDataRequest.getNonce()) {
+                    // The peer retries with a new nonce, e.g. after our response with a failed reconciliation was
+                    // sent but before the pending handler got completed. The retry supersedes the previous request.
+                    log.info("We got a GetDataRequest with a new nonce for connection {}. " +
+                            "We stop the pending GetDataRequestHandler and handle the new request.", uid);
+                    pendingHandler.stop();
+                    getDataRequestHandlers.remove(uid);
+                }
                 if (!getDataRequestHandlers.containsKey(uid)) {
                     GetDataRequestHandler getDataRequestHandler = new GetDataRequestHandler(networkNode, dataStorage,
                             new GetDataRequestHandler.Listener() {
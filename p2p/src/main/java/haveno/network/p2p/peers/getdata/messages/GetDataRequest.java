@@ -41,13 +41,20 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Sketch of the requesters known keys. If set the excludedKeys are empty. Only sent to peers with the
+    // SET_RECONCILIATION capability.
+    @Nullable
+    protected final ReconciliationSketch reconciliationSketch;
+
     public GetDataRequest(String messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable ReconciliationSketch reconciliationSketch) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.reconciliationSketch = reconciliationSketch;
     }
 }
@@ -0,0 +1,303 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata.messages;
+
+import com.google.protobuf.ByteString;
+import haveno.common.proto.network.NetworkPayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Invertible bloom lookup table (IBLT) over a set of payload hashes. Used in GetDataRequests instead of sending all
+ * known hashes as excluded keys. The receiver builds the same table over its own hashes and decodes the symmetric
+ * difference by subtracting both tables. The size of the table only depends on the expected difference, not on the
+ * number of known hashes. If the difference is too large to decode the requester retries with a larger table or
+ * falls back to the excluded keys. The requester builds the largest table once and folds it for the smaller ones.
+ */
+@EqualsAndHashCode
+@Getter
+@ToString(exclude = "cells")
+public final class ReconciliationSketch implements NetworkPayload {
+    // Hashes are 20 bytes (PersistableNetworkPayload) or 32 bytes (ProtectedStoragePayload)
+    public static final int MAX_KEY_LENGTH = 32;
+    // About 1 MB
+    public static final int MAX_NUM_CELLS = 24_000;
+    public static final int MIN_NUM_CELLS = 1_536;
+
+    private static final int NUM_HASHES = 3;
+    // First byte is the key length followed by the zero padded key
+    private static final int KEY_SUM_LENGTH = MAX_KEY_LENGTH + 1;
+    private static final int CELL_SIZE = 4 + KEY_SUM_LENGTH + 8;
+    // We need about 1.5 cells per differing key to decode with high probability when using 3 hash functions
+    private static final double CELLS_PER_DIFFERENCE = 1.5;
+
+    private final int numCells;
+    private final long salt;
+    // Number of keys the sketch was built from
+    private final int numKeys;
+    private final byte[] cells;
+
+    public static ReconciliationSketch fromKeys(int numCells, long salt, Iterable<P2PDataStorage.ByteArray> keys) {
+        checkArgument(numCells > 0 && numCells % NUM_HASHES == 0, "numCells must be a positive multiple of " + NUM_HASHES);
+        byte[] cells = new byte[numCells * CELL_SIZE];
+        int numKeys = 0;
+        for (P2PDataStorage.ByteArray key : keys) {
+            checkArgument(isSupportedKey(key), "Key size not supported");
+            toggle(cells, numCells, salt, key.bytes, 1);
+            numKeys++;
+        }
+        return new ReconciliationSketch(numCells, salt, numKeys, cells);
+    }
+
+    private ReconciliationSketch(int numCells, long salt, int numKeys, byte[] cells) {
+        this.numCells = numCells;
+        this.salt = salt;
+        this.numKeys = numKeys;
+        this.cells = cells;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.ReconciliationSketch toProtoMessage() {
+        return protobuf.ReconciliationSketch.newBuilder()
+                .setNumCells(numCells)
+                .setSalt(salt)
+                .setNumKeys(numKeys)
+                .setCells(ByteString.copyFrom(cells))
+                .build();
+    }
+
+    public static ReconciliationSketch fromProto(protobuf.ReconciliationSketch proto) {
+        int numCells = proto.getNumCells();
+        checkArgument(numCells > 0 && numCells <= MAX_NUM_CELLS && numCells % NUM_HASHES == 0,
+                "Invalid numCells " + numCells);
+        byte[] cells = proto.getCells().toByteArray();
+        checkArgument(cells.length == numCells * CELL_SIZE, "Cells do not match numCells");
+        return new ReconciliationSketch(numCells, proto.getSalt(), proto.getNumKeys(), cells);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static boolean isSupportedKey(P2PDataStorage.ByteArray key) {
+        return key.bytes.length > 0 && key.bytes.length <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * Returns the number of cells required to decode the expected difference, or 0 if that exceeds MAX_NUM_CELLS.
+     */
+    public static int getNumCellsForDifference(int expectedDifference) {
+        long numCells = Math.max(MIN_NUM_CELLS, (long) Math.ceil(expectedDifference * CELLS_PER_DIFFERENCE));
+        numCells = ((numCells + NUM_HASHES - 1) / NUM_HASHES) * NUM_HASHES;
+        return numCells > MAX_NUM_CELLS ? 0 : (int) numCells;
+    }
+
+    /**
+     * Returns the sketch with the given number of cells over the same keys, which must divide our number of cells.
+     * As the sub table size of the result divides ours, each key maps to the sum of the cells it maps to in our sub
+     * tables, so a retry with a larger sketch does not need to rebuild it from all keys.
+     */
+    public ReconciliationSketch fold(int numCells) {
+        checkArgument(numCells > 0 && numCells % NUM_HASHES == 0 && this.numCells % numCells == 0,
+                "numCells must be a multiple of " + NUM_HASHES + " dividing " + this.numCells);
+        if (numCells == this.numCells) {
+            return this;
+        }
+        int subTableSize = numCells / NUM_HASHES;
+        int fromSubTableSize = this.numCells / NUM_HASHES;
+        byte[] folded = new byte[numCells * CELL_SIZE];
+        for (int cell = 0; cell < this.numCells; cell++) {
+            int fromOffset = cell * CELL_SIZE;
+            int offset = ((cell / fromSubTableSize) * subTableSize + (cell % fromSubTableSize) % subTableSize) * CELL_SIZE;
+            setCount(folded, offset, getCount(folded, offset) + getCount(cells, fromOffset));
+            for (int i = 4; i < CELL_SIZE; i++) {
+                folded[offset + i] ^= cells[fromOffset + i];
+            }
+        }
+        return new ReconciliationSketch(numCells, salt, numKeys, folded);
+    }
+
+    /**
+     * Returns true if the difference in the number of keys already exceeds what a sketch of that size can decode.
+     */
+    public boolean isDifferenceTooLarge(int otherNumKeys) {
+        return Math.abs(numKeys - otherNumKeys) * CELLS_PER_DIFFERENCE > numCells;
+    }
+
+    /**
+     * Subtracts the other sketch, which must have been built with the same numCells and salt, and decodes the
+     * symmetric difference. Returns empty if the difference is too large to be decoded.
+     */
+    public Optional<Difference> decodeDifference(ReconciliationSketch other) {
+        checkArgument(numCells == other.numCells && salt == other.salt, "Sketches are not compatible");
+        byte[] diff = Arrays.copyOf(cells, cells.length);
+        for (int cell = 0; cell < numCells; cell++) {
+            int offset = cell * CELL_SIZE;
+            setCount(diff, offset, getCount(diff, offset) - getCount(other.cells, offset));
+            for (int i = 4; i < CELL_SIZE; i++) {
+                diff[offset + i] ^= other.cells[offset + i];
+            }
+        }
+
+        Set<P2PDataStorage.ByteArray> onlyInThis = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> onlyInOther = new HashSet<>();
+        Deque<Integer> candidates = new ArrayDeque<>();
+        for (int cell = 0; cell < numCells; cell++) {
+            candidates.add(cell);
+        }
+        while (!candidates.isEmpty()) {
+            int cell = candidates.poll();
+            byte[] key = getPureKey(diff, cell * CELL_SIZE, salt);
+            if (key == null) {
+                continue;
+            }
+            int count = getCount(diff, cell * CELL_SIZE);
+            boolean isNew = count == 1 ?
+                    onlyInThis.add(new P2PDataStorage.ByteArray(key)) :
+                    onlyInOther.add(new P2PDataStorage.ByteArray(key));
+            // A key can only be decoded once and a valid difference never exceeds the number of cells, otherwise the
+            // tables were built from inconsistent data
+            if (!isNew || onlyInThis.size() + onlyInOther.size() > numCells) {
+                return Optional.empty();
+            }
+            for (int index : getCellIndices(numCells, salt, key)) {
+                candidates.add(index);
+            }
+            toggle(diff, numCells, salt, key, -count);
+        }
+
+        for (byte b : diff) {
+            if (b != 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new Difference(onlyInThis, onlyInOther));
+    }
+
+    @Value
+    public static class Difference {
+        Set<P2PDataStorage.ByteArray> onlyInThis;
+        Set<P2PDataStorage.ByteArray> onlyInOther;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void toggle(byte[] cells, int numCells, long salt, byte[] key, int count) {
+        long checksum = getChecksum(salt, key);
+        for (int index : getCellIndices(numCells, salt, key)) {
+            int offset = index * CELL_SIZE;
+            setCount(cells, offset, getCount(cells, offset) + count);
+            cells[offset + 4] ^= (byte) key.length;
+            for (int i = 0; i < key.length; i++) {
+                cells[offset + 5 + i] ^= key[i];
+            }
+            int checksumOffset = offset + 4 + KEY_SUM_LENGTH;
+            for (int i = 0; i < 8; i++) {
+                cells[checksumOffset + i] ^= (byte) (checksum >>> (8 * i));
+            }
+        }
+    }
+
+    // Each hash function maps into its own sub table so a key always covers NUM_HASHES distinct cells
+    private static int[] getCellIndices(int numCells, long salt, byte[] key) {
+        int subTableSize = numCells / NUM_HASHES;
+        long hash = hash(salt ^ 0x5DEECE66DL, key);
+        int[] indices = new int[NUM_HASHES];
+        for (int i = 0; i < NUM_HASHES; i++) {
+            indices[i] = i * subTableSize + (int) Long.remainderUnsigned(hash >>> (i * 21), subTableSize);
+        }
+        return indices;
+    }
+
+    private static long getChecksum(long salt, byte[] key) {
+        return hash(salt, key);
+    }
+
+    // FNV-1a with a splitmix64 finalizer. Keys are already cryptographic hashes so we only need a good distribution.
+    private static long hash(long seed, byte[] key) {
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static byte[] getPureKey(byte[] cells, int offset, long salt) {
+        int count = getCount(cells, offset);
+        if (count != 1 && count != -1) {
+            return null;
+        }
+        int keyLength = cells[offset + 4] & 0xff;
+        if (keyLength == 0 || keyLength > MAX_KEY_LENGTH) {
+            return null;
+        }
+        for (int i = keyLength; i < MAX_KEY_LENGTH; i++) {
+            if (cells[offset + 5 + i] != 0) {
+                return null;
+            }
+        }
+        byte[] key = Arrays.copyOfRange(cells, offset + 5, offset + 5 + keyLength);
+        long checksum = 0;
+        int checksumOffset = offset + 4 + KEY_SUM_LENGTH;
+        for (int i = 0; i < 8; i++) {
+            checksum |= (cells[checksumOffset + i] & 0xffL) << (8 * i);
+        }
+        return checksum == getChecksum(salt, key) ? key : null;
+    }
+
+    private static int getCount(byte[] cells, int offset) {
+        return ((cells[offset] & 0xff) << 24) |
+                ((cells[offset + 1] & 0xff) << 16) |
+                ((cells[offset + 2] & 0xff) << 8) |
+                (cells[offset + 3] & 0xff);
+    }
+
+    private static void setCount(byte[] cells, int offset, int count) {
+        cells[offset] = (byte) (count >>> 24);
+        cells[offset + 1] = (byte) (count >>> 16);
+        cells[offset + 2] = (byte) (count >>> 8);
+        cells[offset + 3] = (byte) count;
+    }
+}
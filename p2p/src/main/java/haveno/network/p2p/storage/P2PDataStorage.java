@@ -18,6 +18,7 @@
 package haveno.network.p2p.storage;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
@@ -49,17 +50,20 @@ import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
 import haveno.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
 import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import haveno.network.p2p.peers.getdata.messages.ReconciliationSketch;
 import haveno.network.p2p.storage.messages.AddDataMessage;
 import haveno.network.p2p.storage.messages.AddOncePayload;
 import haveno.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import haveno.network.p2p.storage.messages.BroadcastMessage;
 import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
 import haveno.network.p2p.storage.messages.RemoveDataMessage;
 import haveno.network.p2p.storage.messages.RemoveMailboxDataMessage;
 import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
 import haveno.network.p2p.storage.payload.DateSortedTruncatablePayload;
 import haveno.network.p2p.storage.payload.DateTolerantPayload;
 import haveno.network.p2p.storage.payload.MailboxStoragePayload;
+import haveno.network.p2p.storage.payload.PayloadHash;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
@@ -68,6 +72,7 @@ import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
 import haveno.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import haveno.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+import haveno.network.p2p.storage.persistence.CompositeMapView;
 import haveno.network.p2p.storage.persistence.HistoricalDataStoreService;
 import haveno.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import haveno.network.p2p.storage.persistence.ProtectedDataStoreService;
@@ -87,6 +92,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -96,6 +102,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -119,6 +126,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // Below that number of known keys the excluded keys are small enough and we do not use a ReconciliationSketch.
+    @VisibleForTesting
+    public static final int MIN_KEYS_FOR_RECONCILIATION = 10_000;
+
+    // The first ReconciliationSketch is sized to decode a difference of 1/64 of our known keys.
+    private static final int RECONCILIATION_DIFFERENCE_DIVISOR = 64;
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -141,6 +155,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final RemovedPayloadsService removedPayloadsService;
     private final Clock clock;
 
+    // Keys of our live append only data which we exclude in our data requests. They are only collected again if the
+    // version of the live data has changed.
+    private Set<byte[]> excludedAppendOnlyKeys;
+    private long excludedAppendOnlyKeysVersion = -1;
+
     /// The maximum number of items that must exist in the SequenceNumberMap before it is scheduled for a purge
     /// which removes entries after PURGE_AGE_DAYS.
     private final int maxSequenceNumberMapSizeBeforePurge;
@@ -273,6 +292,48 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
     }
 
+    /**
+     * Returns a PreliminaryGetDataRequest which carries the given ReconciliationSketch instead of the excluded keys.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce,
+                                                                    ReconciliationSketch reconciliationSketch) {
+        return new PreliminaryGetDataRequest(nonce, new HashSet<>(), reconciliationSketch);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest which carries the given ReconciliationSketch instead of the excluded keys.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            ReconciliationSketch reconciliationSketch) {
+        return new GetUpdatedDataRequest(senderNodeAddress, nonce, new HashSet<>(), reconciliationSketch);
+    }
+
+    /**
+     * Returns the number of cells of a ReconciliationSketch over the known payload hashes which is sized to decode a
+     * difference of 1/64 of our keys. Returns 0 if the excluded keys should be used instead, i.e. if we know only a
+     * few keys or the sketch would exceed its max. size.
+     */
+    public int getReconciliationSketchNumCells() {
+        int numKeys = getMapForDataRequest().size() + map.size();
+        if (numKeys < MIN_KEYS_FOR_RECONCILIATION) {
+            return 0;
+        }
+        return ReconciliationSketch.getNumCellsForDifference(numKeys / RECONCILIATION_DIFFERENCE_DIVISOR);
+    }
+
+    /**
+     * Returns a ReconciliationSketch with the given number of cells over the known payload hashes. Returns empty if
+     * a key is not supported by the sketch.
+     */
+    public Optional<ReconciliationSketch> buildReconciliationSketch(int numCells, long salt) {
+        Iterable<ByteArray> keys = Iterables.concat(getMapForDataRequest().keySet(), map.keySet());
+        if (!Iterables.all(keys, ReconciliationSketch::isSupportedKey)) {
+            return Optional.empty();
+        }
+        return Optional.of(ReconciliationSketch.fromKeys(numCells, salt, keys));
+    }
+
     /**
      * Returns the set of known payload hashes. This is used in the GetData path to request missing data from peer nodes
      */
@@ -281,13 +342,34 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // PersistedStoragePayload items don't get removed, so we don't have an issue with the case that
         // an object gets removed in between PreliminaryGetDataRequest and the GetUpdatedDataRequest and we would
         // miss that event if we do not load the full set or use some delta handling.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = getMapForDataRequest();
-        Set<byte[]> excludedKeys = getKeysAsByteSet(mapForDataRequest);
-        Set<byte[]> excludedKeysFromProtectedStorageEntryMap = getKeysAsByteSet(map);
-        excludedKeys.addAll(excludedKeysFromProtectedStorageEntryMap);
+        Set<byte[]> excludedKeys = new HashSet<>(getExcludedAppendOnlyKeys());
+        map.keySet().forEach(key -> excludedKeys.add(key.bytes));
         return excludedKeys;
     }
 
+    private synchronized Set<byte[]> getExcludedAppendOnlyKeys() {
+        // We get the version before we collect the keys, so keys added meanwhile lead to collecting them again
+        long version = getAppendOnlyLiveDataVersion();
+        if (excludedAppendOnlyKeys == null || version < 0 || version != excludedAppendOnlyKeysVersion) {
+            excludedAppendOnlyKeys = Collections.unmodifiableSet(getKeysAsByteSet(getMapForDataRequest()));
+            excludedAppendOnlyKeysVersion = version;
+        }
+        return excludedAppendOnlyKeys;
+    }
+
+    // Returns a value which changes with each change of the live data of our append only stores or -1 if a store
+    // does not provide the version of its live data. Each service adds one, so adding a service changes it as well.
+    private long getAppendOnlyLiveDataVersion() {
+        long version = 0;
+        for (var service : appendOnlyDataStoreService.getServices()) {
+            if (!(service instanceof HistoricalDataStoreService)) {
+                return -1;
+            }
+            version += ((HistoricalDataStoreService<?>) service).getLiveDataVersion() + 1;
+        }
+        return version;
+    }
+
     /**
      * Returns a GetDataResponse object that contains the Payloads known locally, but not remotely.
      */
@@ -306,6 +388,24 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
         // maps of the remaining appendOnlyDataStoreServices.
         Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
+        Map<ByteArray, ProtectedStorageEntry> protectedStorageEntryMap = map;
+
+        // If the requester sent a ReconciliationSketch we decode the keys only we have and filter only those.
+        ReconciliationSketch reconciliationSketch = getDataRequest.getReconciliationSketch();
+        if (reconciliationSketch != null) {
+            Optional<Set<ByteArray>> keysMissingAtPeer = getKeysMissingAtPeer(reconciliationSketch, mapForDataResponse);
+            if (keysMissingAtPeer.isEmpty()) {
+                return new GetDataResponse(
+                        new HashSet<>(),
+                        new HashSet<>(),
+                        getDataRequest.getNonce(),
+                        getDataRequest instanceof GetUpdatedDataRequest,
+                        false,
+                        true);
+            }
+            mapForDataResponse = getSubMap(mapForDataResponse, keysMissingAtPeer.get());
+            protectedStorageEntryMap = getSubMap(map, keysMissingAtPeer.get());
+        }
 
         // Give a bit of tolerance for message overhead
         double maxSize = Connection.getMaxPermittedMessageSize() * 0.6;
@@ -332,7 +432,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // We give 75% space to ProtectedStorageEntries as they contain MailBoxMessages and those can be larger.
         limit = Math.round(maxSize * 0.75);
         Set<ProtectedStorageEntry> filteredProtectedStorageEntries = filterKnownHashes(
-                map,
+                protectedStorageEntryMap,
                 ProtectedStorageEntry::getProtectedStoragePayload,
                 excludedKeysAsByteArray,
                 peerCapabilities,
@@ -342,7 +442,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 false);
         log.info("{} ProtectedStorageEntry entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredProtectedStorageEntries.size(), map.size());
+                filteredProtectedStorageEntries.size(), protectedStorageEntryMap.size());
         log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
                 filteredProtectedStorageEntries.stream()
                         .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
@@ -357,12 +457,50 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 wasTruncated);
     }
 
+    private Optional<Set<ByteArray>> getKeysMissingAtPeer(ReconciliationSketch peersSketch,
+                                                          Map<ByteArray, PersistableNetworkPayload> mapForDataResponse) {
+        long ts = System.currentTimeMillis();
+        int numKeys = mapForDataResponse.size() + map.size();
+        if (peersSketch.isDifferenceTooLarge(numKeys)) {
+            log.info("Peer's ReconciliationSketch with {} cells cannot decode the difference of {} keys to our {} keys",
+                    peersSketch.getNumCells(), peersSketch.getNumKeys(), numKeys);
+            return Optional.empty();
+        }
+
+        Iterable<ByteArray> keys = Iterables.concat(mapForDataResponse.keySet(), map.keySet());
+        if (!Iterables.all(keys, ReconciliationSketch::isSupportedKey)) {
+            log.warn("We have keys not supported by the ReconciliationSketch");
+            return Optional.empty();
+        }
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(peersSketch.getNumCells(), peersSketch.getSalt(), keys);
+        Optional<ReconciliationSketch.Difference> difference = sketch.decodeDifference(peersSketch);
+        log.info("Decoding ReconciliationSketch with {} cells {}. Took {} ms",
+                peersSketch.getNumCells(),
+                difference.map(e -> "resulted in " + e.getOnlyInThis().size() + " keys missing at peer and " +
+                        e.getOnlyInOther().size() + " keys missing at us").orElse("failed"),
+                System.currentTimeMillis() - ts);
+        return difference.map(ReconciliationSketch.Difference::getOnlyInThis);
+    }
+
+    private static <T> Map<ByteArray, T> getSubMap(Map<ByteArray, T> map, Set<ByteArray> keys) {
+        Map<ByteArray, T> subMap = new HashMap<>();
+        keys.forEach(key -> {
+            T value = map.get(key);
+            if (value != null) {
+                subMap.put(key, value);
+            }
+        });
+        return subMap;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Utils for collecting the exclude hashes
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // The returned maps are views over the maps of the append only stores. The stores hold different payload types, so
+    // their keys do not collide.
     private Map<ByteArray, PersistableNetworkPayload> getMapForDataRequest() {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -374,15 +512,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    maps.add(serviceMap);
                     log.debug("We added {} entries from {} to the excluded key set of our request",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return CompositeMapView.ofDisjoint(maps);
     }
 
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -392,11 +530,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    maps.add(serviceMap);
                     log.info("We added {} entries from {} to be filtered by excluded keys",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return CompositeMapView.ofDisjoint(maps);
     }
 
     /**
@@ -674,6 +812,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     remove(((RemoveMailboxDataMessage) networkEnvelope).getProtectedMailboxStorageEntry(), peersNodeAddress);
                 } else if (networkEnvelope instanceof RefreshOfferMessage) {
                     refreshTTL((RefreshOfferMessage) networkEnvelope, peersNodeAddress);
+                } else if (networkEnvelope instanceof RefreshOffersMessage) {
+                    refreshTTLs((RefreshOffersMessage) networkEnvelope, peersNodeAddress);
                 } else if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage) {
                     addPersistableNetworkPayload(((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload(),
                             peersNodeAddress, true, false, true);
@@ -944,36 +1084,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         synchronized (map) {
             try {
                 ByteArray hashOfPayload = new ByteArray(refreshTTLMessage.getHashOfPayload());
-                ProtectedStorageEntry storedData = map.get(hashOfPayload);
-
-                if (storedData == null) {
-                    log.debug("We don't have data for that refresh message in our map. That is expected if we missed the data publishing.");
-
-                    return false;
-                }
-
-                ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
-                ProtectedStorageEntry updatedEntry = new ProtectedStorageEntry(
-                        storedEntry.getProtectedStoragePayload(),
-                        storedEntry.getOwnerPubKey(),
-                        refreshTTLMessage.getSequenceNumber(),
-                        refreshTTLMessage.getSignature(),
-                        this.clock);
-
-
-                // If we have seen a more recent operation for this payload, we ignore the current one
-                if (!hasSequenceNrIncreased(updatedEntry.getSequenceNumber(), hashOfPayload))
+                if (applyRefresh(hashOfPayload, refreshTTLMessage.getSequenceNumber(), refreshTTLMessage.getSignature()) == null)
                     return false;
 
-                // Verify the updated ProtectedStorageEntry is well formed and valid for update
-                if (!updatedEntry.isValidForAddOperation())
-                    return false;
-
-                // Update the hash map with the updated entry
-                map.put(hashOfPayload, updatedEntry);
-
-                // Record the latest sequence number and persist it
-                sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
                 requestPersistence();
 
                 // Always broadcast refreshes
@@ -987,6 +1100,103 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
     }
 
+    /**
+     * Refreshes the TTL of each entry of the message which is valid on its own, so an invalid or outdated entry does
+     * not prevent the refresh of the others. The refreshed entries are broadcast as a single message, peers without
+     * the BUNDLED_OFFER_REFRESH capability get a RefreshOfferMessage per entry.
+     *
+     * @param refreshOffersMessage message containing the updates
+     * @param sender local NodeAddress, if available
+     * @return refreshed entries
+     */
+    public List<RefreshOffersMessage.Entry> refreshTTLs(RefreshOffersMessage refreshOffersMessage,
+                                                        @Nullable NodeAddress sender) {
+        List<RefreshOffersMessage.Entry> entries = refreshOffersMessage.getEntries();
+        if (entries.size() > RefreshOffersMessage.MAX_ENTRIES) {
+            log.warn("Ignoring RefreshOffersMessage with {} entries. Max. allowed are {}.",
+                    entries.size(), RefreshOffersMessage.MAX_ENTRIES);
+            return List.of();
+        }
+
+        synchronized (map) {
+            List<RefreshOffersMessage.Entry> refreshedEntries = new ArrayList<>();
+            List<ProtectedStoragePayload> refreshedPayloads = new ArrayList<>();
+            for (RefreshOffersMessage.Entry entry : entries) {
+                try {
+                    ProtectedStorageEntry updatedEntry = applyRefresh(new ByteArray(entry.getHashOfPayload()),
+                            entry.getSequenceNumber(),
+                            entry.getSignature());
+                    if (updatedEntry != null) {
+                        refreshedEntries.add(entry);
+                        refreshedPayloads.add(updatedEntry.getProtectedStoragePayload());
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warn("Refresh of entry failed, missing data: {}", e.toString());
+                }
+            }
+            if (refreshedEntries.isEmpty())
+                return refreshedEntries;
+
+            requestPersistence();
+
+            RefreshOffersMessage messageToBroadcast = refreshedEntries.size() == entries.size() ?
+                    refreshOffersMessage :
+                    new RefreshOffersMessage(refreshedEntries);
+            broadcaster.broadcastWithLegacyFallback(messageToBroadcast, sender,
+                    toRefreshOfferMessages(refreshedEntries, refreshedPayloads));
+            return refreshedEntries;
+        }
+    }
+
+    // Replaces the stored entry with one carrying the new sequence number and signature. Returns null if the payload
+    // is unknown, the sequence number did not increase or the signature is invalid.
+    @Nullable
+    private ProtectedStorageEntry applyRefresh(ByteArray hashOfPayload, int sequenceNumber, byte[] signature) {
+        ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
+        if (storedEntry == null) {
+            log.debug("We don't have data for that refresh message in our map. That is expected if we missed the data publishing.");
+            return null;
+        }
+
+        ProtectedStorageEntry updatedEntry = new ProtectedStorageEntry(
+                storedEntry.getProtectedStoragePayload(),
+                storedEntry.getOwnerPubKey(),
+                sequenceNumber,
+                signature,
+                this.clock);
+
+        // If we have seen a more recent operation for this payload, we ignore the current one
+        if (!hasSequenceNrIncreased(updatedEntry.getSequenceNumber(), hashOfPayload))
+            return null;
+
+        // Verify the updated ProtectedStorageEntry is well formed and valid for update
+        if (!updatedEntry.isValidForAddOperation())
+            return null;
+
+        // Update the hash map with the updated entry
+        map.put(hashOfPayload, updatedEntry);
+
+        // Record the latest sequence number
+        sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
+        return updatedEntry;
+    }
+
+    // The messages are only created if they are sent to a peer without the BUNDLED_OFFER_REFRESH capability
+    private static List<Supplier<BroadcastMessage>> toRefreshOfferMessages(List<RefreshOffersMessage.Entry> entries,
+                                                                           List<ProtectedStoragePayload> payloads) {
+        List<Supplier<BroadcastMessage>> refreshOfferMessages = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            RefreshOffersMessage.Entry entry = entries.get(i);
+            ProtectedStoragePayload payload = payloads.get(i);
+            refreshOfferMessages.add(() -> new RefreshOfferMessage(
+                    get32ByteHash(new DataAndSeqNrPair(payload, entry.getSequenceNumber())),
+                    entry.getSignature(),
+                    entry.getHashOfPayload(),
+                    entry.getSequenceNumber()));
+        }
+        return refreshOfferMessages;
+    }
+
     /**
      * Removes a ProtectedStorageEntry from the local P2P data storage. If it is successful, it will broadcast that
      * change to the P2P network.
@@ -1073,6 +1283,25 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return new RefreshOfferMessage(hashOfDataAndSeqNr, signature, hashOfPayload.bytes, sequenceNumber);
     }
 
+    public RefreshOffersMessage getRefreshOffersMessage(Collection<? extends ProtectedStoragePayload> protectedStoragePayloads,
+                                                        KeyPair ownerStoragePubKey)
+            throws CryptoException {
+        List<RefreshOffersMessage.Entry> entries = new ArrayList<>(protectedStoragePayloads.size());
+        for (ProtectedStoragePayload protectedStoragePayload : protectedStoragePayloads) {
+            ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+            int sequenceNumber;
+            if (sequenceNumberMap.containsKey(hashOfPayload))
+                sequenceNumber = sequenceNumberMap.get(hashOfPayload).sequenceNr + 1;
+            else
+                sequenceNumber = 1;
+
+            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new DataAndSeqNrPair(protectedStoragePayload, sequenceNumber));
+            byte[] signature = Sig.sign(ownerStoragePubKey.getPrivate(), hashOfDataAndSeqNr);
+            entries.add(new RefreshOffersMessage.Entry(hashOfPayload.bytes, sequenceNumber, signature));
+        }
+        return new RefreshOffersMessage(entries);
+    }
+
     public ProtectedMailboxStorageEntry getMailboxDataWithSignedSeqNr(MailboxStoragePayload expirableMailboxStoragePayload,
                                                                       KeyPair storageSignaturePubKey,
                                                                       PublicKey receiversPublicKey)
@@ -1239,6 +1468,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * @return Hash of data
      */
     public static byte[] get32ByteHash(NetworkPayload data) {
+        PayloadHash payloadHash = data instanceof ProtectedStoragePayload ?
+                ((ProtectedStoragePayload) data).getPayloadHash() : null;
+        if (payloadHash != null) {
+            return payloadHash.get(data);
+        }
         return Hash.getSha256Hash(data.toProtoMessage().toByteArray());
     }
 
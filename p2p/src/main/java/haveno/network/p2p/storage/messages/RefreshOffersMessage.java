@@ -0,0 +1,104 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.messages;
+
+import com.google.protobuf.ByteString;
+import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
+import haveno.common.app.Version;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Refreshes the TTL of many offers of the same owner with a single message. Compared to a {@link RefreshOfferMessage}
+ * per offer it saves the envelope overhead and the hash of data and sequence number, which the receiver computes
+ * from its stored payload.
+ * <p>
+ * Only sent to peers with the {@link Capability#BUNDLED_OFFER_REFRESH} capability. Other peers get a
+ * {@link RefreshOfferMessage} per offer.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Value
+public final class RefreshOffersMessage extends BroadcastMessage implements CapabilityRequiringPayload {
+    // Limits the work a single message can cause at the receiver
+    public static final int MAX_ENTRIES = 1000;
+
+    @Value
+    public static class Entry {
+        byte[] hashOfPayload;       // 32 bytes
+        int sequenceNumber;         // 4 bytes
+        byte[] signature;           // 46 bytes
+
+        protobuf.RefreshOfferEntry toProtoMessage() {
+            return protobuf.RefreshOfferEntry.newBuilder()
+                    .setHashOfPayload(ByteString.copyFrom(hashOfPayload))
+                    .setSequenceNumber(sequenceNumber)
+                    .setSignature(ByteString.copyFrom(signature))
+                    .build();
+        }
+
+        static Entry fromProto(protobuf.RefreshOfferEntry proto) {
+            return new Entry(proto.getHashOfPayload().toByteArray(),
+                    proto.getSequenceNumber(),
+                    proto.getSignature().toByteArray());
+        }
+    }
+
+    private final List<Entry> entries;
+
+    public RefreshOffersMessage(List<Entry> entries) {
+        this(entries, Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private RefreshOffersMessage(List<Entry> entries, String messageVersion) {
+        super(messageVersion);
+        this.entries = entries;
+    }
+
+    @Override
+    public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setRefreshOffersMessage(protobuf.RefreshOffersMessage.newBuilder()
+                        .addAllEntries(entries.stream()
+                                .map(Entry::toProtoMessage)
+                                .collect(Collectors.toList())))
+                .build();
+    }
+
+    public static NetworkEnvelope fromProto(protobuf.RefreshOffersMessage proto, String messageVersion) {
+        return new RefreshOffersMessage(proto.getEntriesList().stream()
+                .map(Entry::fromProto)
+                .collect(Collectors.toList()),
+                messageVersion);
+    }
+
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return new Capabilities(Capability.BUNDLED_OFFER_REFRESH);
+    }
+}
@@ -23,6 +23,7 @@ import haveno.common.util.CollectionUtils;
 import haveno.common.util.ExtraDataMapValidator;
 import haveno.network.p2p.PrefixedSealedAndSignedMessage;
 import haveno.network.p2p.storage.messages.AddOncePayload;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -66,6 +67,9 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
     @Nullable
     private Map<String, String> extraDataMap;
 
+    @Getter(AccessLevel.NONE)
+    private final transient PayloadHash payloadHash = new PayloadHash();
+
     public MailboxStoragePayload(PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage,
                                  @NotNull PublicKey senderPubKeyForAddOperation,
                                  PublicKey ownerPubKey,
@@ -125,6 +129,11 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public PayloadHash getPayloadHash() {
+        return payloadHash;
+    }
+
     @Override
     public long getTTL() {
         if (extraDataMap != null && extraDataMap.containsKey(EXTRA_MAP_KEY_TTL)) {
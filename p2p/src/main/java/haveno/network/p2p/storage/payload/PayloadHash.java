@@ -0,0 +1,76 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.payload;
+
+import haveno.common.app.DevEnv;
+import haveno.common.crypto.Hash;
+import haveno.common.proto.network.NetworkPayload;
+import haveno.common.util.Utilities;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Lazily computed SHA-256 hash of the serialized payload, which is the key of the payload in the P2PDataStorage.
+ * Payloads return it from {@link ProtectedStoragePayload#getPayloadHash()} and hold it in a transient field, so it is
+ * neither part of equals, hashCode and the serialized payload nor of the JSON representation. Payloads with mutable
+ * fields must invalidate it if a field changes.
+ * <p>
+ * In dev mode or if verification is enabled, the first access to the cached hash compares it with a fresh computation.
+ * That detects a payload which was changed without invalidating the hash after it got hashed, e.g. while it was built,
+ * without hashing it again on each access.
+ */
+@Slf4j
+public final class PayloadHash {
+    private static volatile boolean verify;
+
+    public static void setVerify(boolean verify) {
+        PayloadHash.verify = verify;
+    }
+
+    public static byte[] compute(NetworkPayload payload) {
+        return Hash.getSha256Hash(payload.toProtoMessage().toByteArray());
+    }
+
+    private volatile byte[] hash;
+    private volatile boolean verified;
+
+    public byte[] get(NetworkPayload payload) {
+        byte[] hash = this.hash;
+        if (hash == null) {
+            hash = compute(payload);
+            this.hash = hash;
+        } else if (!verified && (verify || DevEnv.isDevMode())) {
+            verified = true;
+            byte[] computed = compute(payload);
+            if (!Arrays.equals(hash, computed)) {
+                this.hash = computed;
+                DevEnv.logErrorAndThrowIfDevMode("Cached hash " + Utilities.bytesAsHexString(hash) + " of " +
+                        payload.getClass().getSimpleName() + " does not match its computed hash " +
+                        Utilities.bytesAsHexString(computed) + ". The payload was changed without invalidating the hash.");
+                return computed;
+            }
+        }
+        return hash;
+    }
+
+    public void invalidate() {
+        hash = null;
+        verified = false;
+    }
+}
@@ -22,6 +22,7 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 import haveno.common.crypto.CryptoException;
 import haveno.common.crypto.Sig;
+import haveno.common.crypto.SignatureVerificationCache;
 import haveno.common.proto.network.GetDataResponsePriority;
 import haveno.common.proto.network.NetworkPayload;
 import haveno.common.proto.network.NetworkProtoResolver;
@@ -40,6 +41,9 @@ import java.time.Clock;
 @EqualsAndHashCode
 @Slf4j
 public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload {
+    // Entries are validated again when received from other peers or at refresh and remove operations
+    private static final SignatureVerificationCache SIGNATURE_VERIFICATION_CACHE = new SignatureVerificationCache(20_000);
+
     private final ProtectedStoragePayload protectedStoragePayload;
     private final byte[] ownerPubKeyBytes;
     transient private final PublicKey ownerPubKey;
@@ -206,7 +210,8 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
             byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
                     new P2PDataStorage.DataAndSeqNrPair(this.protectedStoragePayload, this.sequenceNumber));
 
-            boolean result = Sig.verify(this.ownerPubKey, hashOfDataAndSeqNr, this.signature);
+            boolean result = SIGNATURE_VERIFICATION_CACHE.verify(this.ownerPubKeyBytes, this.ownerPubKey,
+                    hashOfDataAndSeqNr, this.signature);
 
             if (!result)
                 log.warn("ProtectedStorageEntry::isSignatureValid() failed.\n{}}", this);
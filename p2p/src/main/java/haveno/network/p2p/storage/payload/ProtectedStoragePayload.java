@@ -48,6 +48,15 @@ public interface ProtectedStoragePayload extends NetworkPayload {
     @Nullable
     Map<String, String> getExtraDataMap();
 
+    /**
+     * @return The {@link PayloadHash} caching the key of the payload in the P2PDataStorage, or null if the key is
+     * computed on each access.
+     */
+    @Nullable
+    default PayloadHash getPayloadHash() {
+        return null;
+    }
+
     static ProtectedStoragePayload fromProto(protobuf.StoragePayload storagePayload, NetworkProtoResolver networkProtoResolver) {
         return (ProtectedStoragePayload) networkProtoResolver.fromProto(storagePayload);
     }
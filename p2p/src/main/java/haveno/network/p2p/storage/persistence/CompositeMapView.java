@@ -0,0 +1,205 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.network.p2p.storage.persistence;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only view over several maps, which are looked up in the given order. A key contained in several maps is
+ * mapped to the value of the first of them. Nothing is copied: size and iteration are computed on demand and
+ * reflect the current content of the underlying maps.
+ * <p>
+ * If the maps are known to be disjoint the size is the sum of their sizes, otherwise entries shadowed by an earlier
+ * map are skipped at iteration and counted out at {@link #size()}, which then iterates the keys.
+ * <p>
+ * The view rejects all modifications, but the entries of its iteration are the entries of the underlying maps.
+ * Null values are not supported. Iteration is weakly consistent if the underlying maps are concurrent maps and
+ * never throws a ConcurrentModificationException in that case.
+ */
+public class CompositeMapView<K, V> extends AbstractMap<K, V> {
+    private final List<Map<K, V>> maps;
+    private final boolean disjoint;
+    private Set<Entry<K, V>> entrySet;
+
+    public static <K, V> CompositeMapView<K, V> of(List<? extends Map<K, V>> maps) {
+        return new CompositeMapView<>(maps, false);
+    }
+
+    /**
+     * Creates a view over maps which do not share any key, which lets the view skip the lookups for shadowed keys.
+     */
+    public static <K, V> CompositeMapView<K, V> ofDisjoint(List<? extends Map<K, V>> maps) {
+        return new CompositeMapView<>(maps, true);
+    }
+
+    private CompositeMapView(List<? extends Map<K, V>> maps, boolean disjoint) {
+        this.maps = ImmutableList.copyOf(maps);
+        this.disjoint = disjoint || this.maps.size() < 2;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public V get(Object key) {
+        for (Map<K, V> map : maps) {
+            V value = map.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        for (Map<K, V> map : maps) {
+            if (map.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        if (disjoint) {
+            for (Map<K, V> map : maps) {
+                size += map.size();
+            }
+        } else {
+            for (int i = 0; i < maps.size(); i++) {
+                for (K key : maps.get(i).keySet()) {
+                    if (!isShadowed(key, i)) {
+                        size++;
+                    }
+                }
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Map<K, V> map : maps) {
+            if (!map.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < maps.size(); i++) {
+            int index = i;
+            maps.get(i).forEach((key, value) -> {
+                if (!isShadowed(key, index)) {
+                    action.accept(key, value);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return CompositeMapView.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return CompositeMapView.this.isEmpty();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean isShadowed(Object key, int mapIndex) {
+        if (disjoint) {
+            return false;
+        }
+        for (int i = 0; i < mapIndex; i++) {
+            if (maps.get(i).containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private int mapIndex;
+        private Iterator<Entry<K, V>> current;
+        private Entry<K, V> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (current == null || !current.hasNext()) {
+                    if (mapIndex == maps.size()) {
+                        return false;
+                    }
+                    current = maps.get(mapIndex++).entrySet().iterator();
+                    continue;
+                }
+                Entry<K, V> entry = current.next();
+                if (!isShadowed(entry.getKey(), mapIndex - 1)) {
+                    next = entry;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
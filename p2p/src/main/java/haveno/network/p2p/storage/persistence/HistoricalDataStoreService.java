@@ -17,6 +17,7 @@
 
 package haveno.network.p2p.storage.persistence;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import haveno.common.app.DevEnv;
 import haveno.common.app.Version;
@@ -26,21 +27,31 @@ import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
  * For initial data requests we only use the live data as the users version is sent with the
  * request so the responding (seed)node can figure out if we miss any of the historical data.
+ * <p>
+ * The maps returned for all data or the data since a version are read-only {@link CompositeMapView}s over the live
+ * map and the historical maps, so requests do not copy the stores. The live map never contains a key of a historical
+ * map, as it gets pruned when the historical maps are read and new data is only added if no map contains its key.
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion;
+    private ImmutableList<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalMaps;
+    private boolean historicalMapsDisjoint;
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfAllData;
+    private final AtomicLong liveDataVersion = new AtomicLong();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -59,10 +70,20 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // We give back a map of our live map and all historical maps newer than the requested version.
     // If requestersVersion is null we return all historical data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
-        // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        // If we have a store with a newer version than the requesters version we will add those to our live data.
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps =
+                new ArrayList<>(getStoresSinceVersion(requestersVersion).values());
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = createViewWithLiveData(maps);
 
-        // If we have a store with a newer version than the requesters version we will add those as well.
+        log.info("We found {} entries since requesters version {}",
+                result.size(), requestersVersion);
+        return result;
+    }
+
+    // Returns the historical maps newer than the requested version by their version.
+    // If requestersVersion is null we return all historical maps.
+    public Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> getStoresSinceVersion(String requestersVersion) {
+        Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> result = new LinkedHashMap<>();
         storesByVersion.entrySet().stream()
                 .filter(entry -> {
                     // Old nodes not sending the version will get delivered all data
@@ -83,11 +104,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                             requestersVersion, storeVersion, details);
                     return newVersion;
                 })
-                .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
-
-        log.info("We found {} entries since requesters version {}",
-                result.size(), requestersVersion);
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
         return result;
     }
 
@@ -96,9 +113,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     }
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        return mapOfAllData;
+    }
+
+    /**
+     * Returns the version of the live data, which is incremented at each change of the live data. Data derived from
+     * the live data, like the keys we exclude in our data requests, can be cached as long as the version is the same.
+     */
+    public long getLiveDataVersion() {
+        return liveDataVersion.get();
     }
 
 
@@ -120,6 +143,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         }
 
         getMapOfLiveData().put(hash, payload);
+        liveDataVersion.incrementAndGet();
         requestPersistence();
     }
 
@@ -133,6 +157,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // So it will be always null. We still keep the return type as we override the method from MapStoreService which
         // follow the Map.putIfAbsent signature.
         getMapOfLiveData().put(hash, payload);
+        liveDataVersion.incrementAndGet();
         requestPersistence();
         return null;
     }
@@ -141,22 +166,23 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
         readStore(persisted -> {
+            liveDataVersion.incrementAndGet();
             log.debug("We have created the {} store for the live data and filled it with {} entries from the persisted data.",
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
                     storesByVersion,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
-                            // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
+                            // At last iteration we set the immutable maps
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
+                            this.historicalMaps = ImmutableList.copyOf(storesByVersion.values());
+                            this.historicalMapsDisjoint = areDisjoint(historicalMaps);
+                            this.mapOfAllData = createViewWithLiveData(historicalMaps);
                             completeHandler.run();
                         }
                     }));
@@ -170,31 +196,31 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
-        boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
+        makeFileFromResourceFile(fileName, postFix);
 
         // If resource file does not exist we do not create a new store as it would never get filled.
         persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
-                    log.debug("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
+                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap = persisted.getMap();
+                    storesByVersion.put(version, historicalMap);
+                    log.debug("We have read from {} {} historical items.", fileName, historicalMap.size());
+                    pruneStore(historicalMap, version);
                     completeHandler.run();
                 },
                 completeHandler::run);
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    private void pruneStore(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        mapOfLiveData.keySet().removeIf(historicalMap::containsKey);
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
+            liveDataVersion.incrementAndGet();
             log.debug("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
                             "The live map had {} entries before pruning and has {} entries afterwards.",
                     version, preLive, postLive);
@@ -204,7 +230,31 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         requestPersistence();
     }
 
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> createViewWithLiveData(
+            List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalMaps) {
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>(historicalMaps.size() + 1);
+        maps.add(getMapOfLiveData());
+        maps.addAll(historicalMaps);
+        return historicalMapsDisjoint ? CompositeMapView.ofDisjoint(maps) : CompositeMapView.of(maps);
+    }
+
+    // The historical stores of the releases are expected to not overlap. If they do, our views skip the duplicates.
+    private static boolean areDisjoint(List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps) {
+        for (int i = 0; i < maps.size() - 1; i++) {
+            for (P2PDataStorage.ByteArray key : maps.get(i).keySet()) {
+                for (int j = i + 1; j < maps.size(); j++) {
+                    if (maps.get(j).containsKey(key)) {
+                        log.warn("Historical data stores contain the same key. We skip duplicates in our views.");
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
-        return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
+        return getMapOfLiveData().containsKey(hash) ||
+                historicalMaps.stream().anyMatch(historicalMap -> historicalMap.containsKey(hash));
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.mailbox;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.KeyRing;
+import haveno.common.crypto.PubKeyRing;
+import haveno.common.crypto.SealedAndSigned;
+import haveno.common.persistence.PersistenceManager;
+import haveno.network.crypto.EncryptionService;
+import haveno.network.p2p.DecryptedMessageWithPubKey;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.PeerManager;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.mocks.ClockFake;
+import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MailboxMessageServiceTest {
+    private static final byte[] MY_SIGNATURE_PUB_KEY_BYTES = new byte[]{1, 2, 3};
+    private static final byte[] OTHER_SIGNATURE_PUB_KEY_BYTES = new byte[]{4, 5, 6};
+
+    private EncryptionService encryptionService;
+    private MailboxMessageService mailboxMessageService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        encryptionService = mock(EncryptionService.class);
+        KeyRing keyRing = mock(KeyRing.class);
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        when(keyRing.getPubKeyRing()).thenReturn(pubKeyRing);
+        when(pubKeyRing.getSignaturePubKeyBytes()).thenReturn(MY_SIGNATURE_PUB_KEY_BYTES);
+
+        mailboxMessageService = new MailboxMessageService(mock(NetworkNode.class),
+                mock(PeerManager.class),
+                mock(P2PDataStorage.class),
+                encryptionService,
+                mock(IgnoredMailboxService.class),
+                mock(PersistenceManager.class),
+                keyRing,
+                new ClockFake(),
+                false);
+    }
+
+    private List<ProtectedMailboxStorageEntry> createEntries(int numEntries, byte[] receiversPubKeyBytes) {
+        List<ProtectedMailboxStorageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            // Foreign entries are skipped before their payload is accessed
+            boolean isForeign = receiversPubKeyBytes == OTHER_SIGNATURE_PUB_KEY_BYTES;
+            ProtectedMailboxStorageEntry entry = isForeign ?
+                    mock(ProtectedMailboxStorageEntry.class) :
+                    mock(ProtectedMailboxStorageEntry.class, RETURNS_DEEP_STUBS);
+            when(entry.getReceiversPubKeyBytes()).thenReturn(receiversPubKeyBytes);
+            if (!isForeign) {
+                when(entry.getMailboxStoragePayload().getPrefixedSealedAndSignedMessage().getUid()).thenReturn("uid" + i);
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    @Test
+    public void getMailboxItems_foreignEntriesAreNotDecrypted() throws CryptoException {
+        List<ProtectedMailboxStorageEntry> entries = createEntries(50, OTHER_SIGNATURE_PUB_KEY_BYTES);
+
+        Set<MailboxItem> mailboxItems = mailboxMessageService.getMailboxItems(entries);
+
+        assertEquals(50, mailboxItems.size());
+        assertEquals(0, mailboxItems.stream().filter(MailboxItem::isMine).count());
+        verify(encryptionService, never()).decryptAndVerify(any());
+    }
+
+    @Test
+    public void getMailboxItems_ownAndLegacyEntriesAreDecryptedInParallel() throws CryptoException {
+        DecryptedMessageWithPubKey decryptedMessageWithPubKey = mock(DecryptedMessageWithPubKey.class);
+        when(decryptedMessageWithPubKey.getNetworkEnvelope()).thenReturn(mock(MailboxMessage.class));
+        when(encryptionService.decryptAndVerify(any(SealedAndSigned.class))).thenReturn(decryptedMessageWithPubKey);
+
+        List<ProtectedMailboxStorageEntry> entries = new ArrayList<>();
+        entries.addAll(createEntries(300, MY_SIGNATURE_PUB_KEY_BYTES));
+        // Entries without receiversPubKeyBytes keep the decryption path
+        entries.addAll(createEntries(200, new byte[0]));
+        entries.addAll(createEntries(500, OTHER_SIGNATURE_PUB_KEY_BYTES));
+
+        Set<MailboxItem> mailboxItems = mailboxMessageService.getMailboxItems(entries);
+
+        assertEquals(1000, mailboxItems.size());
+        assertEquals(500, mailboxItems.stream().filter(MailboxItem::isMine).count());
+        verify(encryptionService, times(500)).decryptAndVerify(any());
+    }
+
+    @Test
+    public void getMailboxItems_parallelDecryptionIsRejectedAfterShutDown() {
+        List<ProtectedMailboxStorageEntry> entries = createEntries(300, MY_SIGNATURE_PUB_KEY_BYTES);
+
+        mailboxMessageService.shutDown();
+
+        assertThrows(RejectedExecutionException.class, () -> mailboxMessageService.getMailboxItems(entries));
+    }
+}
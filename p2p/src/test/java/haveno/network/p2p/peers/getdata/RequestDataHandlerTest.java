@@ -0,0 +1,156 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.network.p2p.peers.getdata;
+
+import com.google.common.util.concurrent.SettableFuture;
+import haveno.common.app.Capability;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.network.Connection;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.PeerManager;
+import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
+import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import haveno.network.p2p.peers.getdata.messages.ReconciliationSketch;
+import haveno.network.p2p.storage.P2PDataStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RequestDataHandlerTest {
+    private final NodeAddress peersNodeAddress = new NodeAddress("peer.onion", 8000);
+    private final List<P2PDataStorage.ByteArray> keys = new ArrayList<>();
+    private NetworkNode networkNode;
+    private P2PDataStorage dataStorage;
+    private RequestDataHandler.Listener listener;
+    private Connection connection;
+    private RequestDataHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            byte[] key = new byte[20];
+            random.nextBytes(key);
+            keys.add(new P2PDataStorage.ByteArray(key));
+        }
+
+        networkNode = mock(NetworkNode.class);
+        when(networkNode.sendMessage(any(NodeAddress.class), any())).thenAnswer(invocation -> SettableFuture.create());
+
+        dataStorage = mock(P2PDataStorage.class);
+        when(dataStorage.getReconciliationSketchNumCells()).thenReturn(ReconciliationSketch.MIN_NUM_CELLS);
+        when(dataStorage.buildReconciliationSketch(anyInt(), anyLong())).thenAnswer(invocation ->
+                Optional.of(ReconciliationSketch.fromKeys(invocation.getArgument(0), invocation.getArgument(1), keys)));
+        when(dataStorage.buildPreliminaryGetDataRequest(anyInt(), any(ReconciliationSketch.class))).thenAnswer(invocation ->
+                new PreliminaryGetDataRequest(invocation.getArgument(0), new HashSet<>(), invocation.getArgument(1)));
+        when(dataStorage.buildPreliminaryGetDataRequest(anyInt())).thenAnswer(invocation ->
+                new PreliminaryGetDataRequest(invocation.getArgument(0), new HashSet<>()));
+
+        PeerManager peerManager = mock(PeerManager.class);
+        when(peerManager.peerHasCapability(peersNodeAddress, Capability.SET_RECONCILIATION)).thenReturn(true);
+
+        connection = mock(Connection.class);
+        when(connection.getPeersNodeAddressOptional()).thenReturn(Optional.of(peersNodeAddress));
+
+        listener = mock(RequestDataHandler.Listener.class);
+        handler = new RequestDataHandler(networkNode, dataStorage, peerManager, listener);
+    }
+
+    @Test
+    public void retry_usesNewNonceAndFoldsSketchBuiltOnce() {
+        handler.requestData(peersNodeAddress, true);
+        GetDataRequest firstRequest = getSentRequests().get(0);
+
+        handler.onMessage(newReconciliationFailedResponse(firstRequest), connection);
+        GetDataRequest retry = getSentRequests().get(1);
+
+        assertNotEquals(firstRequest.getNonce(), retry.getNonce());
+        ReconciliationSketch firstSketch = firstRequest.getReconciliationSketch();
+        ReconciliationSketch retrySketch = retry.getReconciliationSketch();
+        assertEquals(ReconciliationSketch.MIN_NUM_CELLS, firstSketch.getNumCells());
+        assertEquals(ReconciliationSketch.fromKeys(2 * ReconciliationSketch.MIN_NUM_CELLS, firstSketch.getSalt(), keys),
+                retrySketch);
+        // The sketch of the last attempt is built once and folded for each attempt
+        verify(dataStorage, times(1)).buildReconciliationSketch(anyInt(), anyLong());
+        verify(dataStorage).buildReconciliationSketch(eq(4 * ReconciliationSketch.MIN_NUM_CELLS), anyLong());
+    }
+
+    @Test
+    public void retry_ignoresLateResponseToPreviousRequest() {
+        handler.requestData(peersNodeAddress, true);
+        GetDataRequest firstRequest = getSentRequests().get(0);
+        handler.onMessage(newReconciliationFailedResponse(firstRequest), connection);
+        GetDataRequest retry = getSentRequests().get(1);
+
+        handler.onMessage(new GetDataResponse(new HashSet<>(), new HashSet<>(), firstRequest.getNonce(),
+                false, false), connection);
+        verify(listener, never()).onComplete(false);
+
+        GetDataResponse response = new GetDataResponse(new HashSet<>(), new HashSet<>(), retry.getNonce(),
+                false, false);
+        handler.onMessage(response, connection);
+        verify(dataStorage).processGetDataResponse(response, peersNodeAddress);
+        verify(listener).onComplete(false);
+    }
+
+    @Test
+    public void retry_fallsBackToExcludedKeysAfterMaxAttempts() {
+        handler.requestData(peersNodeAddress, true);
+        for (int attempt = 0; attempt < 3; attempt++) {
+            List<GetDataRequest> requests = getSentRequests();
+            handler.onMessage(newReconciliationFailedResponse(requests.get(requests.size() - 1)), connection);
+        }
+
+        List<GetDataRequest> requests = getSentRequests();
+        assertEquals(4, requests.size());
+        assertEquals(4 * ReconciliationSketch.MIN_NUM_CELLS, requests.get(2).getReconciliationSketch().getNumCells());
+        assertNull(requests.get(3).getReconciliationSketch());
+    }
+
+    private List<GetDataRequest> getSentRequests() {
+        ArgumentCaptor<GetDataRequest> captor = ArgumentCaptor.forClass(GetDataRequest.class);
+        verify(networkNode, atLeastOnce()).sendMessage(eq(peersNodeAddress), captor.capture());
+        return captor.getAllValues();
+    }
+
+    private GetDataResponse newReconciliationFailedResponse(GetDataRequest request) {
+        return new GetDataResponse(new HashSet<>(), new HashSet<>(), request.getNonce(), false, false, true);
+    }
+}
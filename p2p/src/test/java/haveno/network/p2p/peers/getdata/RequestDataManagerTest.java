@@ -0,0 +1,106 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.network.p2p.peers.getdata;
+
+import com.google.common.util.concurrent.SettableFuture;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.network.Connection;
+import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.peers.PeerManager;
+import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import haveno.network.p2p.seed.SeedNodeRepository;
+import haveno.network.p2p.storage.P2PDataStorage;
+import javafx.beans.property.SimpleObjectProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RequestDataManagerTest {
+    private final List<SettableFuture<Connection>> sentResponses = new ArrayList<>();
+    private P2PDataStorage dataStorage;
+    private Connection connection;
+    private RequestDataManager requestDataManager;
+
+    @BeforeEach
+    public void setUp() {
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.nodeAddressProperty()).thenReturn(new SimpleObjectProperty<>());
+        when(networkNode.sendMessage(any(Connection.class), any())).thenAnswer(invocation -> {
+            SettableFuture<Connection> future = SettableFuture.create();
+            sentResponses.add(future);
+            return future;
+        });
+
+        dataStorage = mock(P2PDataStorage.class);
+        when(dataStorage.buildGetDataResponse(any(), anyInt(), any(), any(), any())).thenAnswer(invocation ->
+                new GetDataResponse(new HashSet<>(), new HashSet<>(),
+                        ((PreliminaryGetDataRequest) invocation.getArgument(0)).getNonce(), false, false, true));
+
+        connection = mock(Connection.class);
+        when(connection.getUid()).thenReturn("uid");
+        when(connection.getPeersNodeAddressOptional()).thenReturn(Optional.of(new NodeAddress("peer.onion", 8000)));
+
+        SeedNodeRepository seedNodeRepository = mock(SeedNodeRepository.class);
+        when(seedNodeRepository.getSeedNodeAddresses()).thenReturn(new HashSet<>());
+        requestDataManager = new RequestDataManager(networkNode, seedNodeRepository, dataStorage,
+                mock(PeerManager.class));
+    }
+
+    // The requester retries with a new nonce after a failed reconciliation, which can arrive before the send of our
+    // response completed. The retry must be handled instead of waiting for the pending handler to time out.
+    @Test
+    public void onMessage_retryWithNewNonceSupersedesPendingRequest() {
+        PreliminaryGetDataRequest request = new PreliminaryGetDataRequest(1, new HashSet<>());
+        PreliminaryGetDataRequest retry = new PreliminaryGetDataRequest(2, new HashSet<>());
+
+        requestDataManager.onMessage(request, connection);
+        requestDataManager.onMessage(retry, connection);
+
+        verify(dataStorage).buildGetDataResponse(eq(request), anyInt(), any(), any(), any());
+        verify(dataStorage).buildGetDataResponse(eq(retry), anyInt(), any(), any(), any());
+
+        // Completing the superseded send does not remove the handler of the retry
+        sentResponses.get(0).set(connection);
+        requestDataManager.onMessage(retry, connection);
+        verify(dataStorage, times(2)).buildGetDataResponse(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void onMessage_duplicateRequestIsNotHandledTwice() {
+        PreliminaryGetDataRequest request = new PreliminaryGetDataRequest(1, new HashSet<>());
+
+        requestDataManager.onMessage(request, connection);
+        requestDataManager.onMessage(request, connection);
+
+        verify(dataStorage, times(1)).buildGetDataResponse(any(), anyInt(), any(), any(), any());
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata.messages;
+
+import com.google.protobuf.ByteString;
+import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class ReconciliationSketchTest {
+    private final Random random = new Random(42);
+
+    private P2PDataStorage.ByteArray randomKey() {
+        // PersistableNetworkPayload hashes have 20 bytes, ProtectedStoragePayload hashes 32 bytes
+        byte[] bytes = new byte[random.nextBoolean() ? 20 : 32];
+        random.nextBytes(bytes);
+        return new P2PDataStorage.ByteArray(bytes);
+    }
+
+    private List<P2PDataStorage.ByteArray> randomKeys(int numKeys) {
+        List<P2PDataStorage.ByteArray> keys = new ArrayList<>(numKeys);
+        for (int i = 0; i < numKeys; i++) {
+            keys.add(randomKey());
+        }
+        return keys;
+    }
+
+    @Test
+    public void decodeDifference_identicalSets() {
+        List<P2PDataStorage.ByteArray> keys = randomKeys(1000);
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 1, keys);
+        ReconciliationSketch other = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 1, keys);
+
+        Optional<ReconciliationSketch.Difference> difference = sketch.decodeDifference(other);
+
+        assertTrue(difference.isPresent());
+        assertTrue(difference.get().getOnlyInThis().isEmpty());
+        assertTrue(difference.get().getOnlyInOther().isEmpty());
+    }
+
+    @Test
+    public void decodeDifference_smallDifference() {
+        List<P2PDataStorage.ByteArray> shared = randomKeys(5000);
+        List<P2PDataStorage.ByteArray> onlyInFirst = randomKeys(100);
+        List<P2PDataStorage.ByteArray> onlyInSecond = randomKeys(200);
+        List<P2PDataStorage.ByteArray> first = new ArrayList<>(shared);
+        first.addAll(onlyInFirst);
+        List<P2PDataStorage.ByteArray> second = new ArrayList<>(shared);
+        second.addAll(onlyInSecond);
+
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 7, first);
+        ReconciliationSketch other = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 7, second);
+
+        Optional<ReconciliationSketch.Difference> difference = sketch.decodeDifference(other);
+
+        assertTrue(difference.isPresent());
+        assertEquals(new HashSet<>(onlyInFirst), difference.get().getOnlyInThis());
+        assertEquals(new HashSet<>(onlyInSecond), difference.get().getOnlyInOther());
+    }
+
+    @Test
+    public void decodeDifference_differenceTooLarge() {
+        List<P2PDataStorage.ByteArray> first = randomKeys(5000);
+        List<P2PDataStorage.ByteArray> second = randomKeys(5000);
+
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 1, first);
+        ReconciliationSketch other = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 1, second);
+
+        assertFalse(sketch.decodeDifference(other).isPresent());
+    }
+
+    @Test
+    public void isDifferenceTooLarge() {
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 1, randomKeys(100));
+
+        assertFalse(sketch.isDifferenceTooLarge(100 + ReconciliationSketch.MIN_NUM_CELLS / 2));
+        assertTrue(sketch.isDifferenceTooLarge(100 + ReconciliationSketch.MIN_NUM_CELLS));
+    }
+
+    @Test
+    public void getNumCellsForDifference() {
+        assertEquals(ReconciliationSketch.MIN_NUM_CELLS, ReconciliationSketch.getNumCellsForDifference(10));
+        assertEquals(0, ReconciliationSketch.getNumCellsForDifference(ReconciliationSketch.MAX_NUM_CELLS));
+        assertEquals(0, ReconciliationSketch.getNumCellsForDifference(6000) % 3);
+    }
+
+    @Test
+    public void fold_equalsSketchBuiltWithFewerCells() {
+        List<P2PDataStorage.ByteArray> keys = randomKeys(1000);
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(4 * ReconciliationSketch.MIN_NUM_CELLS, 5, keys);
+
+        assertSame(sketch, sketch.fold(4 * ReconciliationSketch.MIN_NUM_CELLS));
+        assertEquals(ReconciliationSketch.fromKeys(2 * ReconciliationSketch.MIN_NUM_CELLS, 5, keys),
+                sketch.fold(2 * ReconciliationSketch.MIN_NUM_CELLS));
+        assertEquals(ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 5, keys),
+                sketch.fold(ReconciliationSketch.MIN_NUM_CELLS));
+        assertThrows(IllegalArgumentException.class, () -> sketch.fold(3 * ReconciliationSketch.MIN_NUM_CELLS));
+    }
+
+    @Test
+    public void protoRoundTrip() {
+        ReconciliationSketch sketch = ReconciliationSketch.fromKeys(ReconciliationSketch.MIN_NUM_CELLS, 3, randomKeys(100));
+
+        assertEquals(sketch, ReconciliationSketch.fromProto(sketch.toProtoMessage()));
+    }
+
+    // Simulates the initial data request of a node with 500k payloads which is missing 1% of the seed's payloads and
+    // has 1% the seed does not have. Reports the request size compared to the excluded keys and the time to reconcile.
+    @Test
+    public void simulateInitialDataRequest() {
+        int numPayloads = 500_000;
+        int numDivergent = numPayloads / 100;
+        List<P2PDataStorage.ByteArray> shared = randomKeys(numPayloads - numDivergent);
+        List<P2PDataStorage.ByteArray> onlyAtRequester = randomKeys(numDivergent);
+        List<P2PDataStorage.ByteArray> onlyAtSeed = randomKeys(numDivergent);
+        List<P2PDataStorage.ByteArray> requesterKeys = new ArrayList<>(shared);
+        requesterKeys.addAll(onlyAtRequester);
+        List<P2PDataStorage.ByteArray> seedKeys = new ArrayList<>(shared);
+        seedKeys.addAll(onlyAtSeed);
+
+        // The requester sizes the sketches the same way as RequestDataHandler: the sketch of the last attempt is
+        // built once and folded for the earlier attempts
+        long ts = System.currentTimeMillis();
+        int firstNumCells = ReconciliationSketch.getNumCellsForDifference(numPayloads / 64);
+        int maxAttempt = 0;
+        while (maxAttempt < 2 && firstNumCells << (maxAttempt + 1) <= ReconciliationSketch.MAX_NUM_CELLS) {
+            maxAttempt++;
+        }
+        ReconciliationSketch largestSketch = ReconciliationSketch.fromKeys(firstNumCells << maxAttempt, 11, requesterKeys);
+        int numCells = 0;
+        Optional<ReconciliationSketch.Difference> difference = Optional.empty();
+        int requestBytes = 0;
+        int roundTrips = 0;
+        for (int attempt = 0; attempt <= maxAttempt && difference.isEmpty(); attempt++) {
+            numCells = firstNumCells << attempt;
+            ReconciliationSketch requesterSketch = largestSketch.fold(numCells);
+            protobuf.ReconciliationSketch proto = requesterSketch.toProtoMessage();
+            requestBytes += proto.getSerializedSize();
+            roundTrips++;
+
+            ReconciliationSketch receivedSketch = ReconciliationSketch.fromProto(proto);
+            ReconciliationSketch seedSketch = ReconciliationSketch.fromKeys(numCells, 11, seedKeys);
+            difference = seedSketch.decodeDifference(receivedSketch);
+        }
+        long reconciliationTime = System.currentTimeMillis() - ts;
+
+        protobuf.PreliminaryGetDataRequest.Builder excludedKeysRequest = protobuf.PreliminaryGetDataRequest.newBuilder();
+        requesterKeys.forEach(key -> excludedKeysRequest.addExcludedKeys(ByteString.copyFrom(key.bytes)));
+        int excludedKeysBytes = excludedKeysRequest.build().getSerializedSize();
+
+        log.info("Reconciled {} payloads with {} divergent keys per side using {} cells in {} round trip(s). " +
+                        "Request bytes: {} (excluded keys: {}). Reconciliation time: {} ms",
+                numPayloads, numDivergent, numCells, roundTrips, requestBytes, excludedKeysBytes, reconciliationTime);
+
+        assertTrue(difference.isPresent());
+        assertEquals(new HashSet<>(onlyAtSeed), difference.get().getOnlyInThis());
+        assertEquals(new HashSet<>(onlyAtRequester), difference.get().getOnlyInOther());
+        assertTrue(requestBytes * 10 < excludedKeysBytes);
+    }
+}
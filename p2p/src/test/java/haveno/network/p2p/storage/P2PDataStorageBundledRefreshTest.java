@@ -0,0 +1,203 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.network.p2p.storage;
+
+import haveno.common.app.Version;
+import haveno.common.crypto.CryptoException;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.NodeAddress;
+import haveno.network.p2p.TestUtils;
+import haveno.network.p2p.storage.messages.BroadcastMessage;
+import haveno.network.p2p.storage.messages.RefreshOfferMessage;
+import haveno.network.p2p.storage.messages.RefreshOffersMessage;
+import haveno.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of refreshing the TTL of many entries with a single RefreshOffersMessage.
+ */
+@Slf4j
+public class P2PDataStorageBundledRefreshTest {
+    private static final int NUM_OFFERS = 1000;
+
+    private TestState testState;
+    private KeyPair ownerKeys;
+
+    // All payloads share the owner key but have distinct hashes
+    private static class IndexedPayloadStub extends ExpirableProtectedStoragePayloadStub {
+        IndexedPayloadStub(KeyPair ownerKeys, int index) {
+            super(ownerKeys.getPublic());
+            when(messageMock.toByteArray()).thenReturn(ByteBuffer.allocate(4).putInt(index).array());
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws NoSuchAlgorithmException {
+        this.testState = new TestState();
+        this.ownerKeys = TestUtils.generateKeyPair();
+        Version.setBaseCryptoNetworkId(1);
+    }
+
+    private List<ProtectedStoragePayload> addPayloads(int numPayloads) throws CryptoException {
+        List<ProtectedStoragePayload> payloads = new ArrayList<>();
+        for (int i = 0; i < numPayloads; i++) {
+            ProtectedStoragePayload payload = new IndexedPayloadStub(ownerKeys, i);
+            ProtectedStorageEntry entry = testState.mockedStorage.getProtectedStorageEntry(payload, ownerKeys);
+            assertTrue(testState.mockedStorage.addProtectedStorageEntry(entry, TestState.getTestNodeAddress(), null));
+            payloads.add(payload);
+        }
+        reset(testState.mockBroadcaster);
+        return payloads;
+    }
+
+    private int getSequenceNumber(ProtectedStoragePayload payload) {
+        return testState.mockedStorage.getMap().get(P2PDataStorage.get32ByteHashAsByteArray(payload)).getSequenceNumber();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BroadcastMessage> captureLegacyMessages(RefreshOffersMessage expectedMessage) {
+        ArgumentCaptor<List<Supplier<BroadcastMessage>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(testState.mockBroadcaster).broadcastWithLegacyFallback(
+                eq(expectedMessage), nullable(NodeAddress.class), captor.capture());
+        return captor.getValue().stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList());
+    }
+
+    // TESTCASE: A single bundle refreshes all offers and is broadcast once instead of once per offer
+    @Test
+    public void refreshTTLs_allOffersWithOneBroadcast() throws CryptoException {
+        List<ProtectedStoragePayload> payloads = addPayloads(NUM_OFFERS);
+
+        RefreshOffersMessage message = testState.mockedStorage.getRefreshOffersMessage(payloads, ownerKeys);
+        assertEquals(message.getEntries(), testState.mockedStorage.refreshTTLs(message, TestState.getTestNodeAddress()));
+
+        payloads.forEach(payload -> assertEquals(2, getSequenceNumber(payload)));
+        verify(testState.mockBroadcaster, never()).broadcast(any(BroadcastMessage.class), nullable(NodeAddress.class));
+        List<BroadcastMessage> legacyMessages = captureLegacyMessages(message);
+        assertEquals(NUM_OFFERS, legacyMessages.size());
+
+        // Compare the bytes on the wire with those of one message per offer
+        long bundledSize = message.toProtoNetworkEnvelope().getSerializedSize();
+        long legacySize = legacyMessages.stream()
+                .mapToLong(legacyMessage -> ((NetworkEnvelope) legacyMessage).toProtoNetworkEnvelope().getSerializedSize())
+                .sum();
+        log.info("Refresh of {} offers: bundled {} bytes in 1 message, legacy {} bytes in {} messages",
+                NUM_OFFERS, bundledSize, legacySize, legacyMessages.size());
+        assertTrue(bundledSize < legacySize);
+    }
+
+    // TESTCASE: Legacy peers receive the same messages as created by getRefreshTTLMessage
+    @Test
+    public void refreshTTLs_legacyFallbackMatchesSingleRefresh() throws CryptoException {
+        List<ProtectedStoragePayload> payloads = addPayloads(3);
+
+        RefreshOffersMessage message = testState.mockedStorage.getRefreshOffersMessage(payloads, ownerKeys);
+        testState.mockedStorage.refreshTTLs(message, TestState.getTestNodeAddress());
+
+        List<BroadcastMessage> legacyMessages = captureLegacyMessages(message);
+        for (int i = 0; i < payloads.size(); i++) {
+            RefreshOffersMessage.Entry entry = message.getEntries().get(i);
+            RefreshOfferMessage legacyMessage = (RefreshOfferMessage) legacyMessages.get(i);
+            assertArrayEquals(entry.getHashOfPayload(), legacyMessage.getHashOfPayload());
+            assertEquals(entry.getSequenceNumber(), legacyMessage.getSequenceNumber());
+            assertArrayEquals(entry.getSignature(), legacyMessage.getSignature());
+            assertArrayEquals(P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(payloads.get(i), entry.getSequenceNumber())),
+                    legacyMessage.getHashOfDataAndSeqNr());
+        }
+    }
+
+    // TESTCASE: Invalid entries are skipped without affecting the valid ones
+    @Test
+    public void refreshTTLs_invalidEntriesAreSkipped() throws CryptoException {
+        List<ProtectedStoragePayload> payloads = addPayloads(4);
+        ProtectedStoragePayload unknownPayload = new IndexedPayloadStub(ownerKeys, 1000);
+
+        RefreshOffersMessage valid = testState.mockedStorage.getRefreshOffersMessage(payloads, ownerKeys);
+        RefreshOffersMessage.Entry unknown = testState.mockedStorage.getRefreshOffersMessage(List.of(unknownPayload), ownerKeys)
+                .getEntries().get(0);
+        RefreshOffersMessage.Entry staleSequenceNumber = new RefreshOffersMessage.Entry(valid.getEntries().get(1).getHashOfPayload(),
+                1, valid.getEntries().get(1).getSignature());
+        RefreshOffersMessage.Entry badSignature = new RefreshOffersMessage.Entry(valid.getEntries().get(2).getHashOfPayload(),
+                valid.getEntries().get(2).getSequenceNumber(), valid.getEntries().get(3).getSignature());
+        RefreshOffersMessage message = new RefreshOffersMessage(List.of(valid.getEntries().get(0),
+                unknown, staleSequenceNumber, badSignature, valid.getEntries().get(3)));
+
+        assertEquals(List.of(valid.getEntries().get(0), valid.getEntries().get(3)),
+                testState.mockedStorage.refreshTTLs(message, TestState.getTestNodeAddress()));
+
+        assertEquals(2, getSequenceNumber(payloads.get(0)));
+        assertEquals(1, getSequenceNumber(payloads.get(1)));
+        assertEquals(1, getSequenceNumber(payloads.get(2)));
+        assertEquals(2, getSequenceNumber(payloads.get(3)));
+        // Only the refreshed entries are relayed
+        RefreshOffersMessage relayed = new RefreshOffersMessage(List.of(valid.getEntries().get(0), valid.getEntries().get(3)));
+        assertEquals(2, captureLegacyMessages(relayed).size());
+    }
+
+    // TESTCASE: A message with too many entries is rejected
+    @Test
+    public void refreshTTLs_tooManyEntries() throws CryptoException {
+        List<ProtectedStoragePayload> payloads = addPayloads(1);
+        RefreshOffersMessage.Entry entry = testState.mockedStorage.getRefreshOffersMessage(payloads, ownerKeys).getEntries().get(0);
+        List<RefreshOffersMessage.Entry> entries = new ArrayList<>();
+        for (int i = 0; i <= RefreshOffersMessage.MAX_ENTRIES; i++) {
+            entries.add(entry);
+        }
+
+        assertTrue(testState.mockedStorage.refreshTTLs(new RefreshOffersMessage(entries), TestState.getTestNodeAddress()).isEmpty());
+        assertEquals(1, getSequenceNumber(payloads.get(0)));
+    }
+
+    @Test
+    public void protoRoundTrip() throws CryptoException {
+        List<ProtectedStoragePayload> payloads = addPayloads(2);
+        RefreshOffersMessage message = testState.mockedStorage.getRefreshOffersMessage(payloads, ownerKeys);
+
+        protobuf.NetworkEnvelope proto = message.toProtoNetworkEnvelope();
+        RefreshOffersMessage fromProto = (RefreshOffersMessage) RefreshOffersMessage.fromProto(proto.getRefreshOffersMessage(),
+                message.getMessageVersion());
+
+        assertEquals(message, fromProto);
+    }
+}
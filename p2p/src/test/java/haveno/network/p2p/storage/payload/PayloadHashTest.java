@@ -0,0 +1,157 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.payload;
+
+import com.google.protobuf.ByteString;
+import haveno.common.app.DevEnv;
+import haveno.common.crypto.Hash;
+import haveno.network.p2p.storage.P2PDataStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PayloadHashTest {
+
+    @AfterEach
+    public void tearDown() {
+        PayloadHash.setVerify(false);
+        DevEnv.setDevMode(false);
+    }
+
+    @Test
+    public void hashIsComputedOnce() {
+        MutablePayload payload = new MutablePayload("offer");
+
+        byte[] hash = P2PDataStorage.get32ByteHash(payload);
+
+        assertArrayEquals(Hash.getSha256Hash(payload.toProtoMessage().toByteArray()), hash);
+        int numSerializations = payload.numSerializations;
+        for (int i = 0; i < 10; i++) {
+            assertSame(hash, P2PDataStorage.get32ByteHash(payload));
+            assertEquals(hash.length, P2PDataStorage.get32ByteHashAsByteArray(payload).bytes.length);
+        }
+        assertEquals(numSerializations, payload.numSerializations);
+    }
+
+    @Test
+    public void invalidateRecomputesHash() {
+        MutablePayload payload = new MutablePayload("offer");
+        byte[] hash = P2PDataStorage.get32ByteHash(payload);
+
+        payload.setData("signed offer");
+
+        assertFalse(Arrays.equals(hash, P2PDataStorage.get32ByteHash(payload)));
+        assertArrayEquals(PayloadHash.compute(payload), P2PDataStorage.get32ByteHash(payload));
+    }
+
+    @Test
+    public void verificationDetectsChangeWithoutInvalidation() {
+        MutablePayload payload = new MutablePayload("offer");
+        P2PDataStorage.get32ByteHash(payload);
+        payload.data = "changed without invalidating";
+
+        // Without verification the cached hash is returned
+        assertArrayEquals(Hash.getSha256Hash(toProto("offer").toByteArray()), P2PDataStorage.get32ByteHash(payload));
+
+        // With verification the fresh hash is returned and the error is logged
+        PayloadHash.setVerify(true);
+        assertArrayEquals(PayloadHash.compute(payload), P2PDataStorage.get32ByteHash(payload));
+
+        // In dev mode it throws
+        MutablePayload other = new MutablePayload("offer");
+        P2PDataStorage.get32ByteHash(other);
+        other.data = "changed without invalidating";
+        DevEnv.setDevMode(true);
+        assertThrows(RuntimeException.class, () -> P2PDataStorage.get32ByteHash(other));
+    }
+
+    @Test
+    public void verificationIsDoneOncePerHash() {
+        PayloadHash.setVerify(true);
+        MutablePayload payload = new MutablePayload("offer");
+        P2PDataStorage.get32ByteHash(payload);
+        P2PDataStorage.get32ByteHash(payload);
+        int numSerializations = payload.numSerializations;
+
+        for (int i = 0; i < 10; i++) {
+            P2PDataStorage.get32ByteHash(payload);
+        }
+        assertEquals(numSerializations, payload.numSerializations);
+
+        // A new hash is verified again
+        payload.setData("signed offer");
+        P2PDataStorage.get32ByteHash(payload);
+        P2PDataStorage.get32ByteHash(payload);
+        assertEquals(numSerializations + 2, payload.numSerializations);
+    }
+
+    private static protobuf.StoragePayload toProto(String data) {
+        return protobuf.StoragePayload.newBuilder()
+                .setMailboxStoragePayload(protobuf.MailboxStoragePayload.newBuilder()
+                        .setOwnerPubKeyBytes(ByteString.copyFrom(data, StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    private static class MutablePayload implements ProtectedStoragePayload {
+        private final transient PayloadHash payloadHash = new PayloadHash();
+        private String data;
+        private int numSerializations;
+
+        private MutablePayload(String data) {
+            this.data = data;
+        }
+
+        private void setData(String data) {
+            this.data = data;
+            payloadHash.invalidate();
+        }
+
+        @Override
+        public PayloadHash getPayloadHash() {
+            return payloadHash;
+        }
+
+        @Override
+        public protobuf.StoragePayload toProtoMessage() {
+            numSerializations++;
+            return toProto(data);
+        }
+
+        @Override
+        public PublicKey getOwnerPubKey() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap() {
+            return null;
+        }
+    }
+}
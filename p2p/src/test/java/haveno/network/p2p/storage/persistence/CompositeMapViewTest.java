@@ -0,0 +1,171 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package haveno.network.p2p.storage.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompositeMapViewTest {
+
+    private static Map<String, Integer> createMap(String prefix, int from, int to) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            map.put(prefix + i, i);
+        }
+        return map;
+    }
+
+    @Test
+    public void disjointView_equalsMergedMap() {
+        Map<String, Integer> live = new ConcurrentHashMap<>(createMap("live", 0, 10));
+        Map<String, Integer> historical1 = createMap("a", 0, 100);
+        Map<String, Integer> historical2 = createMap("b", 0, 50);
+
+        Map<String, Integer> view = CompositeMapView.ofDisjoint(Arrays.asList(live, historical1, historical2));
+
+        Map<String, Integer> merged = new HashMap<>(live);
+        merged.putAll(historical1);
+        merged.putAll(historical2);
+        assertEquals(merged, view);
+        assertEquals(160, view.size());
+        assertEquals(merged.keySet(), new HashSet<>(view.keySet()));
+        assertTrue(view.containsKey("b49"));
+        assertEquals(7, view.get("a7"));
+        assertNull(view.get("c1"));
+        assertFalse(view.isEmpty());
+    }
+
+    @Test
+    public void overlappingView_firstMapWins() {
+        Map<String, Integer> first = createMap("a", 0, 10);
+        Map<String, Integer> second = createMap("a", 5, 20);
+        second.replaceAll((key, value) -> -value);
+
+        Map<String, Integer> view = CompositeMapView.of(Arrays.asList(first, second));
+
+        assertEquals(20, view.size());
+        assertEquals(5, view.get("a5"));
+        assertEquals(-15, view.get("a15"));
+        List<String> keys = new ArrayList<>(view.keySet());
+        assertEquals(20, keys.size());
+        assertEquals(20, new HashSet<>(keys).size());
+        Map<String, Integer> visited = new HashMap<>();
+        view.forEach(visited::put);
+        assertEquals(view, visited);
+    }
+
+    @Test
+    public void view_reflectsChangesOfUnderlyingMaps() {
+        Map<String, Integer> live = new ConcurrentHashMap<>();
+        Map<String, Integer> view = CompositeMapView.ofDisjoint(Arrays.asList(live, createMap("a", 0, 3)));
+        assertEquals(3, view.size());
+
+        live.put("live0", 0);
+
+        assertEquals(4, view.size());
+        assertEquals(0, view.get("live0"));
+        assertTrue(CompositeMapView.of(Arrays.asList(new HashMap<>(), new HashMap<>())).isEmpty());
+    }
+
+    @Test
+    public void view_isReadOnly() {
+        Map<String, Integer> live = new ConcurrentHashMap<>(createMap("live", 0, 3));
+        Map<String, Integer> view = CompositeMapView.ofDisjoint(Arrays.asList(live, createMap("a", 0, 3)));
+
+        assertThrows(UnsupportedOperationException.class, () -> view.put("live4", 4));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove("live0"));
+        assertThrows(UnsupportedOperationException.class, () -> view.keySet().removeIf(key -> true));
+        assertThrows(UnsupportedOperationException.class, view::clear);
+        assertEquals(3, live.size());
+    }
+
+    @Test
+    public void view_isConsistentUnderConcurrentAppends() throws Exception {
+        int numAppends = 50_000;
+        Map<String, Integer> live = new ConcurrentHashMap<>();
+        Map<String, Integer> historical1 = createMap("a", 0, 1_000);
+        Map<String, Integer> historical2 = createMap("b", 0, 1_000);
+        Map<String, Integer> disjointView = CompositeMapView.ofDisjoint(Arrays.asList(live, historical1, historical2));
+        Map<String, Integer> overlappingView = CompositeMapView.of(Arrays.asList(live, historical1, historical2));
+
+        CountDownLatch started = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            started.countDown();
+            for (int i = 0; i < numAppends; i++) {
+                live.put("live" + i, i);
+            }
+        });
+        writer.start();
+        started.await();
+
+        AtomicReference<String> failure = new AtomicReference<>();
+        int numIterations = 0;
+        while (writer.isAlive() || numIterations < 2) {
+            for (Map<String, Integer> view : Arrays.asList(disjointView, overlappingView)) {
+                int liveSizeBefore = live.size();
+                Set<String> keys = new HashSet<>();
+                int numLiveKeys = 0;
+                for (Map.Entry<String, Integer> entry : view.entrySet()) {
+                    if (!keys.add(entry.getKey())) {
+                        failure.compareAndSet(null, "Duplicate key " + entry.getKey());
+                    }
+                    if (entry.getKey().startsWith("live")) {
+                        numLiveKeys++;
+                    }
+                }
+                int liveSizeAfter = live.size();
+
+                // Entries present when the iteration started are always seen, entries appended meanwhile may be seen
+                if (numLiveKeys < liveSizeBefore || numLiveKeys > liveSizeAfter) {
+                    failure.compareAndSet(null, "Saw " + numLiveKeys + " live keys, live map had " +
+                            liveSizeBefore + " to " + liveSizeAfter);
+                }
+                if (keys.size() - numLiveKeys != 2_000) {
+                    failure.compareAndSet(null, "Missed historical keys");
+                }
+                int size = view.size();
+                if (size < liveSizeAfter + 2_000 || size > live.size() + 2_000) {
+                    failure.compareAndSet(null, "Size " + size + " is out of range");
+                }
+            }
+            numIterations++;
+        }
+        writer.join();
+
+        assertNull(failure.get());
+        assertEquals(numAppends + 2_000, disjointView.size());
+        assertEquals(numAppends + 2_000, overlappingView.size());
+    }
+}
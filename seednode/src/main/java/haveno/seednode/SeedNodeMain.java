@@ -27,6 +27,8 @@ import haveno.common.app.Capability;
 import haveno.common.config.BaseCurrencyNetwork;
 import haveno.common.config.Config;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.metrics.MetricsHttpServer;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.core.app.TorSetup;
 import haveno.core.app.misc.ExecutableForAppWithP2p;
 import haveno.core.app.misc.ModuleForAppWithP2p;
@@ -83,6 +85,7 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
     @Override
     protected void onApplicationLaunched() {
         super.onApplicationLaunched();
+        MetricsHttpServer.start(MetricsRegistry.getInstance(), config.metricsPort);
     }
 
 
@@ -190,6 +193,7 @@ public class SeedNodeMain extends ExecutableForAppWithP2p {
     @Override
     public void gracefulShutDown(ResultHandler resultHandler) {
         seedNode.shutDown();
+        MetricsHttpServer.shutDown();
         super.gracefulShutDown(resultHandler);
     }
 }
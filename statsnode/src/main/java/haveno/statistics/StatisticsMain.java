@@ -19,6 +19,9 @@ package haveno.statistics;
 
 import haveno.common.UserThread;
 import haveno.common.app.AppModule;
+import haveno.common.handlers.ResultHandler;
+import haveno.common.metrics.MetricsHttpServer;
+import haveno.common.metrics.MetricsRegistry;
 import haveno.core.app.misc.ExecutableForAppWithP2p;
 import haveno.core.app.misc.ModuleForAppWithP2p;
 import lombok.extern.slf4j.Slf4j;
@@ -65,6 +68,7 @@ public class StatisticsMain extends ExecutableForAppWithP2p {
     @Override
     protected void onApplicationLaunched() {
         super.onApplicationLaunched();
+        MetricsHttpServer.start(MetricsRegistry.getInstance(), config.metricsPort);
     }
 
 
@@ -88,4 +92,10 @@ public class StatisticsMain extends ExecutableForAppWithP2p {
     protected void startApplication() {
         statistics.startApplication();
     }
+
+    @Override
+    public void gracefulShutDown(ResultHandler resultHandler) {
+        MetricsHttpServer.shutDown();
+        super.gracefulShutDown(resultHandler);
+    }
 }